@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the S3A operations of the thread of a task, from the statistics that Hadoop keeps per thread for each file
+ * system scheme. The storage statistics of S3A cover the whole JVM, so they cannot tell the stages of the tasks that
+ * run in the same process apart. Sources publish the reads of their thread and sinks its writes, since a task can
+ * both read from an S3 source and write to an S3 sink.
+ */
+public final class S3AThreadStatistics {
+  private static final Logger LOG = LoggerFactory.getLogger(S3AThreadStatistics.class);
+  private static final String SCHEME = "s3a";
+
+  private final Thread thread;
+  private final long[] published;
+
+  private S3AThreadStatistics() {
+    this.thread = Thread.currentThread();
+    this.published = read();
+  }
+
+  /**
+   * @return the statistics of the S3A operations of the current thread from now on
+   */
+  public static S3AThreadStatistics start() {
+    return new S3AThreadStatistics();
+  }
+
+  /**
+   * Returns the reads since the start or the last call, as the read.bytes, read.ops and read.large.ops counters.
+   * Nothing is returned if it is not called by the thread that started the statistics.
+   */
+  public Map<String, Long> drainReads() {
+    return drain(new String[] {"read.bytes", "read.ops", "read.large.ops"}, 0);
+  }
+
+  /**
+   * Returns the writes since the start or the last call, as the write.bytes and write.ops counters.
+   * Nothing is returned if it is not called by the thread that started the statistics.
+   */
+  public Map<String, Long> drainWrites() {
+    return drain(new String[] {"write.bytes", "write.ops"}, 3);
+  }
+
+  /**
+   * Returns the changes of the given statistics, the ones at the given index of {@link #read()} on.
+   */
+  private Map<String, Long> drain(String[] names, int index) {
+    if (Thread.currentThread() != thread) {
+      return Collections.emptyMap();
+    }
+    long[] current = read();
+    Map<String, Long> counters = new TreeMap<>();
+    for (int i = 0; i < names.length; i++) {
+      long delta = current[index + i] - published[index + i];
+      published[index + i] = current[index + i];
+      if (delta > 0) {
+        counters.put(names[i], delta);
+      }
+    }
+    return counters;
+  }
+
+  /**
+   * Returns the bytes read, read operations, large read operations, bytes written and write operations of the
+   * current thread, summed over the S3A file system classes.
+   */
+  private static long[] read() {
+    long[] values = new long[5];
+    try {
+      for (FileSystem.Statistics statistics : FileSystem.getAllStatistics()) {
+        if (!SCHEME.equals(statistics.getScheme())) {
+          continue;
+        }
+        FileSystem.Statistics.StatisticsData data = statistics.getThreadStatistics();
+        values[0] += data.getBytesRead();
+        values[1] += data.getReadOps();
+        values[2] += data.getLargeReadOps();
+        values[3] += data.getBytesWritten();
+        values[4] += data.getWriteOps();
+      }
+    } catch (LinkageError e) {
+      // thread statistics are not available before Hadoop 2.6
+      LOG.trace("Unable to read the file system statistics of the thread.", e);
+    }
+    return values;
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.auth.InstanceProfileCredentialsProvider;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A per-JVM registry of {@link AmazonS3} clients keyed by the effective connection settings.
+ * Building a client creates a new HTTP connection pool and credential provider, so clients are shared between
+ * calls that use the same credentials and region, whichever stage or call they are made for: each request is recorded
+ * to the {@link S3Metrics} it was tagged with. Clients that have not been used for a while are evicted, and the number
+ * of clients kept is bounded.
+ *
+ * Evicted clients are not shut down, since other threads may still be using them, like lazy listings or background
+ * workers. They are built without the idle connection reaper of the SDK, which would keep them reachable forever, so
+ * they are garbage collected once the last thread that uses them drops them, and their connection pool is closed
+ * then. Callers should ask the registry for a client for every operation instead of holding on to it.
+ */
+public final class S3ClientRegistry {
+  private static final Logger LOG = LoggerFactory.getLogger(S3ClientRegistry.class);
+  private static final int DEFAULT_MAX_CLIENTS = 32;
+  private static final S3MetricsRequestHandler METRICS_HANDLER = new S3MetricsRequestHandler();
+  private static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 10;
+  private static final S3ClientRegistry INSTANCE =
+    new S3ClientRegistry(DEFAULT_MAX_CLIENTS, DEFAULT_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+
+  private final Cache<ClientKey, AmazonS3> clients;
+
+  @VisibleForTesting
+  S3ClientRegistry(int maxClients, long idleTimeout, TimeUnit unit) {
+    this.clients = CacheBuilder.newBuilder()
+      .maximumSize(maxClients)
+      .expireAfterAccess(idleTimeout, unit)
+      .recordStats()
+      .removalListener(new RemovalListener<ClientKey, AmazonS3>() {
+        @Override
+        public void onRemoval(RemovalNotification<ClientKey, AmazonS3> notification) {
+          LOG.debug("Evicted S3 client for region {}, cause {}.",
+                    notification.getKey() == null ? null : notification.getKey().region, notification.getCause());
+        }
+      })
+      .build();
+  }
+
+  /**
+   * @return the registry shared by all plugins in this JVM
+   */
+  public static S3ClientRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a client for the given connection, creating it if there is no cached client for the same settings.
+   *
+   * @param config the connection to get the client for
+   * @return the S3 client
+   * @throws IllegalArgumentException if the connection uses access credentials but they are not provided
+   */
+  public AmazonS3 getClient(S3ConnectorConfig config) {
+    return getClient(config, config.getRegion());
+  }
+
+  /**
+   * Returns a client for the given connection that talks to the given region instead of the configured one.
+   *
+   * @param config the connection to get the client for
+   * @param region the region of the client, null to let the SDK resolve it
+   * @return the S3 client
+   */
+  public AmazonS3 getClient(final S3ConnectorConfig config, @Nullable final String region) {
+    if (config.isAccessCredentials() && (config.getAccessID() == null || config.getAccessKey() == null)) {
+      throw new IllegalArgumentException("Access ID and Access Key are not provided");
+    }
+    final ClientKey key = new ClientKey(config, region);
+    try {
+      return clients.get(key, new Callable<AmazonS3>() {
+        @Override
+        public AmazonS3 call() {
+          return createClient(key);
+        }
+      });
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to create the S3 client.", e.getCause());
+    }
+  }
+
+  /**
+   * @return hit, miss and eviction statistics of the registry
+   */
+  public CacheStats getStats() {
+    return clients.stats();
+  }
+
+  /**
+   * @return the number of clients currently open
+   */
+  public long size() {
+    return clients.size();
+  }
+
+  /**
+   * Removes all the clients from the registry, without shutting them down.
+   */
+  public void invalidateAll() {
+    clients.invalidateAll();
+  }
+
+  private static AmazonS3 createClient(ClientKey key) {
+    // without the reaper, which holds on to the connection pools of all the clients until they are shut down
+    AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+      .withClientConfiguration(new ClientConfiguration().withReaper(false))
+      .withRequestHandlers(METRICS_HANDLER);
+    if (key.region != null) {
+      builder.setRegion(key.region);
+    }
+
+    if (!key.accessCredentials) {
+      // use IAM provider to access, this can only work on AWS environment
+      return builder.withCredentials(InstanceProfileCredentialsProvider.getInstance()).build();
+    }
+
+    AWSCredentials creds;
+    if (key.sessionToken == null) {
+      creds = new BasicAWSCredentials(key.accessID, key.accessKey);
+    } else {
+      creds = new BasicSessionCredentials(key.accessID, key.accessKey, key.sessionToken);
+    }
+    return builder.withCredentials(new AWSStaticCredentialsProvider(creds)).build();
+  }
+
+  /**
+   * The settings that make two clients interchangeable.
+   */
+  private static final class ClientKey {
+    private final boolean accessCredentials;
+    private final String accessID;
+    private final String accessKey;
+    private final String sessionToken;
+    private final String region;
+
+    private ClientKey(S3ConnectorConfig config, @Nullable String region) {
+      this.accessCredentials = config.isAccessCredentials();
+      // credentials are ignored for IAM so that all IAM connections share the same client
+      this.accessID = accessCredentials ? config.getAccessID() : null;
+      this.accessKey = accessCredentials ? config.getAccessKey() : null;
+      this.sessionToken = accessCredentials ? config.getSessionToken() : null;
+      this.region = region;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ClientKey that = (ClientKey) o;
+      return accessCredentials == that.accessCredentials &&
+        Objects.equals(accessID, that.accessID) &&
+        Objects.equals(accessKey, that.accessKey) &&
+        Objects.equals(sessionToken, that.sessionToken) &&
+        Objects.equals(region, that.region);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(accessCredentials, accessID, accessKey, sessionToken, region);
+    }
+  }
+}
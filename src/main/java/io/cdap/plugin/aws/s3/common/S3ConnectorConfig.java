@@ -17,6 +17,7 @@
 
 package io.cdap.plugin.aws.s3.common;
 
+import com.amazonaws.SdkClientException;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
@@ -32,6 +33,7 @@ import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.plugin.PluginConfig;
 import io.cdap.cdap.etl.api.FailureCollector;
 
+import java.io.IOException;
 import javax.annotation.Nullable;
 
 /**
@@ -39,11 +41,14 @@ import javax.annotation.Nullable;
  */
 public class S3ConnectorConfig extends PluginConfig {
   public static final String ACCESS_CREDENTIALS = "Access Credentials";
+  public static final String IAM = "IAM";
   public static final String NAME_ACCESS_ID = "accessID";
   public static final String NAME_ACCESS_KEY = "accessKey";
   public static final String NAME_SESSION_TOKEN = "sessionToken";
   public static final String NAME_AUTH_METHOD = "authenticationMethod";
   public static final String NAME_REGION = "region";
+  public static final String NAME_SUMMARIZE_DIRECTORIES = "summarizeDirectories";
+  public static final String NAME_INVENTORY_MANIFEST = "inventoryManifest";
 
   @Macro
   @Nullable
@@ -70,6 +75,21 @@ public class S3ConnectorConfig extends PluginConfig {
   @Description("Region to be used by the S3 Client.")
   private String region;
 
+  @Nullable
+  @Description("Whether to show the total size, number of objects and latest modification time of directories when " +
+    "browsing. Directories are listed in parallel, up to 100000 objects per directory and for at most 10 seconds, " +
+    "after which the summary is partial. Defaults to false.")
+  private Boolean summarizeDirectories;
+
+  @Macro
+  @Nullable
+  @Description("Location of the manifest.json file of an S3 Inventory report, for example " +
+    "s3a://inventory-bucket/prefix/source-bucket/config-id/2026-01-01T01-00Z/manifest.json. When set, sources " +
+    "that use the connection plan their reads of the bucket described by the inventory from the inventory instead " +
+    "of listing the bucket, and the bucket is browsed from the inventory. Only CSV inventories are supported, ORC " +
+    "and Parquet inventories are rejected.")
+  private String inventoryManifest;
+
   public S3ConnectorConfig() {
     authenticationMethod = ACCESS_CREDENTIALS;
   }
@@ -112,6 +132,15 @@ public class S3ConnectorConfig extends PluginConfig {
     return region;
   }
 
+  public boolean shouldSummarizeDirectories() {
+    return summarizeDirectories != null && summarizeDirectories;
+  }
+
+  @Nullable
+  public String getInventoryManifest() {
+    return Strings.isNullOrEmpty(inventoryManifest) ? null : inventoryManifest;
+  }
+
   public boolean isAccessCredentials() {
     return ACCESS_CREDENTIALS.equalsIgnoreCase(authenticationMethod);
   }
@@ -141,6 +170,26 @@ public class S3ConnectorConfig extends PluginConfig {
     }
   }
 
+  /**
+   * Checks that the inventory manifest, if there is one, can be read and describes a CSV inventory. Inventories in
+   * the ORC or Parquet format are rejected.
+   */
+  public void validateInventory(FailureCollector collector) {
+    if (containsMacro(NAME_INVENTORY_MANIFEST) || getInventoryManifest() == null || containsMacro(NAME_AUTH_METHOD)
+      || containsMacro(NAME_ACCESS_ID) || containsMacro(NAME_ACCESS_KEY) || containsMacro(NAME_SESSION_TOKEN)) {
+      return;
+    }
+    try {
+      S3Inventory.load(getInventoryManifest(), S3Inventory.createOpener(this));
+    } catch (IllegalArgumentException e) {
+      collector.addFailure(e.getMessage(), null).withConfigProperty(NAME_INVENTORY_MANIFEST);
+    } catch (IOException | SdkClientException e) {
+      collector.addFailure(String.format("Failed to read the S3 Inventory manifest '%s': %s", getInventoryManifest(),
+                                         e.getMessage()), "Check the location of the manifest and the credentials.")
+        .withConfigProperty(NAME_INVENTORY_MANIFEST);
+    }
+  }
+
   private void validateCredentials(FailureCollector collector) {
     AWSSecurityTokenService stsClient = getSTSClient(Regions.DEFAULT_REGION.getName());
     try {
@@ -28,10 +28,73 @@ public class S3Constants {
   public static final String S3A_TEMP_CREDENTIAL_PROVIDERS = "org.apache.hadoop.fs.s3a.TemporaryAWSCredentialsProvider";
   public static final String S3A_SIMPLE_CREDENTIAL_PROVIDERS = "org.apache.hadoop.fs.s3a.SimpleAWSCredentialsProvider";
   public static final String S3A_ENCRYPTION = "fs.s3a.server-side-encryption-algorithm";
+  public static final String S3A_ENDPOINT = "fs.s3a.endpoint";
+  public static final String S3A_BUCKET_PREFIX = "fs.s3a.bucket.";
   public static final String S3N_ACCESS_KEY = "fs.s3n.awsAccessKeyId";
   public static final String S3N_SECRET_KEY = "fs.s3n.awsSecretAccessKey";
   public static final String S3N_ENCRYPTION = "fs.s3n.server-side-encryption-algorithm";
 
   // option to continue using s3n if an s3n path is provided
   public static final String USE_S3N = "keep.s3n.scheme";
+
+  // system properties to tune the connector browse cache
+  public static final String BROWSE_CACHE_TTL_SECONDS = "s3.connector.browse.cache.ttl.seconds";
+  public static final String BROWSE_CACHE_MAX_ENTRIES = "s3.connector.browse.cache.max.entries";
+  // number of bytes read with a single ranged GET to sample text objects from the connector, 0 disables it
+  public static final String SAMPLE_READ_BYTES = "s3.connector.sample.read.bytes";
+
+  // file system properties of the source to plan reads from an S3 Inventory instead of listing the bucket
+  public static final String PLANNING_INPUT_MANIFEST = "s3.planning.input.manifest";
+  public static final String PLANNING_INVENTORY_MANIFEST = "s3.planning.inventory.manifest";
+  public static final String PLANNING_PATH_REGEX = "s3.planning.path.regex";
+  public static final String PLANNING_DELEGATE_IMPL = "s3.planning.delegate.impl";
+  // the watermark of an incremental source and the run that plans with it, only the objects past the watermark are
+  // listed
+  public static final String PLANNING_WATERMARK = "s3.planning.watermark";
+  public static final String PLANNING_WATERMARK_RUN = "s3.planning.watermark.run";
+  // only the objects last modified before this time, in milliseconds, are planned by an incremental source
+  public static final String PLANNING_WATERMARK_BEFORE = "s3.planning.watermark.before";
+  // runtime argument, seconds before the start of the run that the objects must have been last modified to be read
+  public static final String PLANNING_WATERMARK_GRACE_SECONDS = "s3.planning.watermark.grace.seconds";
+  // filter on the key=value directories of the objects, the partitions that do not match are not listed
+  public static final String PLANNING_PARTITION_FILTER = "s3.planning.partition.filter";
+  // number of concurrent LIST calls to plan recursive reads with, also a runtime argument, 0 disables it
+  public static final String PLANNING_LIST_THREADS = "s3.planning.list.threads";
+  // the stage of the run that the planning file system plans and reads for, which scopes the S3 metrics it records its
+  // requests to and the S3A file systems it delegates to
+  public static final String PLANNING_RUN = "s3.planning.run";
+  // the number of executor slots to size the splits for, and their smallest size, when the split size is adaptive,
+  // also runtime arguments
+  public static final String PLANNING_SPLIT_SLOTS = "s3.planning.split.slots";
+  public static final String PLANNING_SPLIT_MIN_SIZE = "s3.planning.split.min.size";
+  // set by the input format in the configuration it plans the splits with, and in the one it reads a split with, for
+  // the file systems created with it to find the planning of the splits and the split being read
+  public static final String PLANNING_SPLITS_ID = "s3.planning.splits.id";
+  public static final String READ_SPLIT_ID = "s3.read.split.id";
+  // number of small objects fetched ahead while reading combined splits, and the size of the largest ones
+  public static final String READ_PREFETCH_OBJECTS = "s3.read.prefetch.objects";
+  public static final String READ_PREFETCH_MAX_OBJECT_SIZE = "s3.read.prefetch.max.object.size";
+  // the input format of the format of the source, which plans and reads the splits the objects are tracked for
+  public static final String READ_INPUT_FORMAT = "s3.read.input.format";
+  // number of blocks read ahead of the reader of an object, 0 disables it, the size of the blocks and whether their
+  // buffers are allocated outside of the heap
+  public static final String READ_PREFETCH_BLOCKS = "s3.read.prefetch.blocks";
+  public static final String READ_PREFETCH_BLOCK_SIZE = "s3.read.prefetch.block.size";
+  public static final String READ_PREFETCH_DIRECT_BUFFERS = "s3.read.prefetch.direct.buffers";
+  // the S3 Select query the objects are read with, the format of the objects, the header to add before the results
+  // and the size of the largest objects read with it, which are the ones read by a single split
+  public static final String READ_SELECT_FORMAT = "s3.read.select.format";
+  public static final String READ_SELECT_EXPRESSION = "s3.read.select.expression";
+  public static final String READ_SELECT_HEADER = "s3.read.select.header";
+  public static final String READ_SELECT_MAX_OBJECT_SIZE = "s3.read.select.max.object.size";
+  // whether to read the column chunks of each row group of Parquet objects with a single vectored read
+  public static final String READ_VECTORED = "s3.read.vectored";
+  public static final String READ_VECTORED_MAX_GAP = "s3.read.vectored.max.gap";
+  public static final String READ_VECTORED_MAX_MERGED_SIZE = "s3.read.vectored.max.merged.size";
+  // whether to cache the footers of Parquet objects in the JVM, by the ETag of the object
+  public static final String READ_FOOTER_CACHE = "s3.read.footer.cache";
+  // whether to count the bytes of the objects that readers skip, like the column chunks Parquet readers do not need
+  public static final String READ_COUNT_SKIPPED_BYTES = "s3.read.count.skipped.bytes";
+  // the Avro schema of the columns the Parquet reader reads, the other column chunks are not read
+  public static final String PARQUET_AVRO_PROJECTION = "parquet.avro.projection";
 }
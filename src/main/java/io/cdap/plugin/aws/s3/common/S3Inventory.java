@@ -0,0 +1,431 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
+
+/**
+ * An S3 Inventory report, used to find objects without listing the bucket.
+ * The report is described by a manifest.json file, which lists the inventory files that contain the objects.
+ *
+ * The manifest can be in S3, with a s3a:// or s3n:// location, or be a local copy of the inventory destination.
+ * Local copies must keep the layout of the destination, with the inventory files in the data directory next to the
+ * directory that contains the manifest.
+ *
+ * Only CSV inventories can be read, inventories in the ORC or Parquet format are rejected when they are loaded.
+ */
+public final class S3Inventory {
+  private static final Gson GSON = new Gson();
+  private static final String CSV_FORMAT = "CSV";
+  private static final String ARN_PREFIX = "arn:aws:s3:::";
+  private static final String DATA_DIR = "data";
+
+  private final String manifestLocation;
+  private final Manifest manifest;
+  private final List<String> columns;
+  private final Opener opener;
+
+  private S3Inventory(String manifestLocation, Manifest manifest, Opener opener) {
+    this.manifestLocation = manifestLocation;
+    this.manifest = manifest;
+    this.opener = opener;
+    List<String> columns = new ArrayList<>();
+    for (String column : manifest.fileSchema.split(",")) {
+      columns.add(column.trim());
+    }
+    this.columns = Collections.unmodifiableList(columns);
+  }
+
+  /**
+   * Reads the manifest of an inventory.
+   *
+   * @param manifestLocation the location of the manifest.json file
+   * @param opener opens the manifest and inventory files
+   * @return the inventory
+   * @throws IOException if the manifest could not be read
+   * @throws IllegalArgumentException if the manifest is invalid or the inventory is not in the CSV format
+   */
+  public static S3Inventory load(String manifestLocation, Opener opener) throws IOException {
+    Manifest manifest;
+    try (Reader reader = new InputStreamReader(opener.open(manifestLocation), StandardCharsets.UTF_8)) {
+      manifest = GSON.fromJson(reader, Manifest.class);
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException(String.format("Invalid S3 Inventory manifest '%s'.", manifestLocation), e);
+    }
+    if (manifest == null || manifest.sourceBucket == null || manifest.fileSchema == null || manifest.files == null) {
+      throw new IllegalArgumentException(
+        String.format("Invalid S3 Inventory manifest '%s', the source bucket, file schema and files must be set.",
+                      manifestLocation));
+    }
+    if (!CSV_FORMAT.equalsIgnoreCase(manifest.fileFormat)) {
+      throw new IllegalArgumentException(
+        String.format("S3 Inventory '%s' is in the %s format, only CSV inventories are supported. Configure the "
+                        + "inventory with the CSV output format.", manifestLocation, manifest.fileFormat));
+    }
+    return new S3Inventory(manifestLocation, manifest, opener);
+  }
+
+  /**
+   * Returns an opener that reads s3a:// and s3n:// locations with the S3 client of the given connection, and other
+   * locations from the local file system.
+   *
+   * @param config the connection to read S3 with
+   * @return the opener
+   */
+  public static Opener createOpener(S3ConnectorConfig config) {
+    return createOpener(config, S3Metrics.getInstance());
+  }
+
+  /**
+   * Returns an opener that reads s3a:// and s3n:// locations with the S3 client of the given connection, and other
+   * locations from the local file system.
+   *
+   * @param config the connection to read S3 with
+   * @param metrics the metrics to record the S3 requests to
+   * @return the opener
+   */
+  public static Opener createOpener(S3ConnectorConfig config, S3Metrics metrics) {
+    return location -> {
+      if (location.startsWith(S3Path.SCHEME) || location.startsWith(S3Path.OLD_SCHEME)) {
+        S3Path path = S3Path.from(location);
+        return S3RegionResolver.getInstance().getClient(config, path.getBucket())
+          .getObject(metrics.tag(new GetObjectRequest(path.getBucket(), path.getName()))).getObjectContent();
+      }
+      return new FileInputStream(location.startsWith("file:") ? new File(URI.create(location)) : new File(location));
+    };
+  }
+
+  /**
+   * @return the bucket the inventory describes
+   */
+  public String getSourceBucket() {
+    return manifest.sourceBucket;
+  }
+
+  /**
+   * @return the columns of the inventory files
+   */
+  public List<String> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Lists the current, non deleted objects of the inventory whose key starts with the given prefix.
+   * The inventory files are read one after the other, as the listing is iterated.
+   *
+   * @param prefix the prefix of the keys to list
+   * @param pathPattern if not null, only the objects whose s3a:// path contains a match of the pattern are listed
+   * @return the objects, in the order of the inventory files. The listing must be closed if it is not exhausted.
+   */
+  public Listing list(String prefix, @Nullable Pattern pathPattern) {
+    return new Listing(prefix, pathPattern);
+  }
+
+  /**
+   * Lists the inventory the way a delimited LIST call would, grouping the keys under the prefix into common
+   * prefixes. The whole inventory is read, but only the first entries are kept in memory.
+   *
+   * @param prefix the prefix of the keys to list, either empty or ending with the delimiter
+   * @param delimiter the delimiter used to group keys into common prefixes
+   * @param startAfter if not null, only the entries after this key or common prefix are returned
+   * @param maxEntries the maximum number of entries to return
+   * @return the first entries in lexicographic order, common prefixes and objects mixed like in a LIST result
+   * @throws IOException if the inventory could not be read
+   */
+  public List<S3ListingIterator.Entry> browse(String prefix, String delimiter, @Nullable String startAfter,
+                                              int maxEntries) throws IOException {
+    TreeMap<String, S3ListingIterator.Entry> entries = new TreeMap<>();
+    try (Listing listing = list(prefix, null)) {
+      while (listing.hasNext()) {
+        S3ObjectSummary summary = listing.next();
+        int idx = summary.getKey().indexOf(delimiter, prefix.length());
+        String name = idx < 0 ? summary.getKey() : summary.getKey().substring(0, idx + delimiter.length());
+        if (name.equals(prefix) || (startAfter != null && name.compareTo(startAfter) <= 0)
+          || entries.containsKey(name)
+          || (!entries.isEmpty() && entries.size() >= maxEntries && name.compareTo(entries.lastKey()) > 0)) {
+          continue;
+        }
+        entries.put(name, new S3ListingIterator.Entry(summary.getBucketName(), idx < 0 ? null : name,
+                                                      idx < 0 ? summary : null));
+        if (entries.size() > maxEntries) {
+          entries.pollLastEntry();
+        }
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return new ArrayList<>(entries.values());
+  }
+
+  /**
+   * Returns the location of an inventory file of the manifest.
+   */
+  String resolve(String key) {
+    if (manifestLocation.startsWith(S3Path.SCHEME) || manifestLocation.startsWith(S3Path.OLD_SCHEME)) {
+      String destination = manifest.destinationBucket == null ? S3Path.from(manifestLocation).getBucket() :
+        manifest.destinationBucket.startsWith(ARN_PREFIX) ?
+          manifest.destinationBucket.substring(ARN_PREFIX.length()) : manifest.destinationBucket;
+      return S3Path.SCHEME + destination + "/" + key;
+    }
+    // <config>/<date>/manifest.json -> <config>/data/<file>
+    String dateDir = manifestLocation.substring(0, Math.max(0, manifestLocation.lastIndexOf('/')));
+    String configDir = dateDir.substring(0, Math.max(0, dateDir.lastIndexOf('/')));
+    return configDir + "/" + DATA_DIR + "/" + key.substring(key.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Parses a line of a CSV inventory file. Values are enclosed in double quotes, with double quotes in values
+   * escaped by another double quote.
+   */
+  static List<String> parseLine(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          value.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        values.add(value.toString());
+        value.setLength(0);
+      } else {
+        value.append(c);
+      }
+    }
+    values.add(value.toString());
+    return values;
+  }
+
+  /**
+   * Decodes a key of a CSV inventory file. Inventories percent-encode the keys, but do not encode spaces as '+',
+   * so a '+' in a key is a '+' and only the %XX escapes are decoded, as UTF-8 bytes.
+   */
+  static String decodeKey(String encoded) {
+    if (encoded.indexOf('%') < 0) {
+      return encoded;
+    }
+    byte[] bytes = encoded.getBytes(StandardCharsets.UTF_8);
+    byte[] decoded = new byte[bytes.length];
+    int length = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      int high = i + 2 < bytes.length && bytes[i] == '%' ? Character.digit(bytes[i + 1], 16) : -1;
+      int low = high < 0 ? -1 : Character.digit(bytes[i + 2], 16);
+      if (low < 0) {
+        decoded[length++] = bytes[i];
+      } else {
+        decoded[length++] = (byte) ((high << 4) + low);
+        i += 2;
+      }
+    }
+    return new String(decoded, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Opens the manifest and inventory files.
+   */
+  public interface Opener {
+
+    /**
+     * @param location the location of the file, either a s3a:// path or a local path
+     * @return the content of the file
+     * @throws IOException if the file could not be opened
+     */
+    InputStream open(String location) throws IOException;
+  }
+
+  /**
+   * A lazy listing of the objects of an inventory.
+   */
+  public final class Listing implements Iterator<S3ObjectSummary>, Closeable {
+    private final String prefix;
+    private final Pattern pathPattern;
+    private final int bucketIdx;
+    private final int keyIdx;
+    private final int sizeIdx;
+    private final int lastModifiedIdx;
+    private final int etagIdx;
+    private final int isLatestIdx;
+    private final int isDeleteMarkerIdx;
+    private final Iterator<Manifest.File> files;
+    private BufferedReader reader;
+    private S3ObjectSummary next;
+
+    private Listing(String prefix, @Nullable Pattern pathPattern) {
+      this.prefix = prefix;
+      this.pathPattern = pathPattern;
+      this.bucketIdx = columns.indexOf("Bucket");
+      this.keyIdx = columns.indexOf("Key");
+      this.sizeIdx = columns.indexOf("Size");
+      this.lastModifiedIdx = columns.indexOf("LastModifiedDate");
+      this.etagIdx = columns.indexOf("ETag");
+      this.isLatestIdx = columns.indexOf("IsLatest");
+      this.isDeleteMarkerIdx = columns.indexOf("IsDeleteMarker");
+      if (keyIdx < 0) {
+        throw new IllegalArgumentException(
+          String.format("S3 Inventory '%s' does not have a Key column.", manifestLocation));
+      }
+      this.files = manifest.files.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (next == null) {
+          if (reader == null) {
+            if (!files.hasNext()) {
+              return false;
+            }
+            reader = open(files.next().key);
+          }
+          String line = reader.readLine();
+          if (line == null) {
+            reader.close();
+            reader = null;
+          } else if (!line.isEmpty()) {
+            next = parse(line);
+          }
+        }
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public S3ObjectSummary next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      S3ObjectSummary summary = next;
+      next = null;
+      return summary;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (reader != null) {
+        reader.close();
+        reader = null;
+      }
+    }
+
+    private BufferedReader open(String key) throws IOException {
+      InputStream is = opener.open(resolve(key));
+      try {
+        if (key.endsWith(".gz")) {
+          is = new GZIPInputStream(is);
+        }
+        return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        is.close();
+        throw e;
+      }
+    }
+
+    /**
+     * Returns the object of a line of an inventory file, or null if it is filtered out.
+     */
+    @Nullable
+    private S3ObjectSummary parse(String line) {
+      List<String> values = parseLine(line);
+      String key = decodeKey(get(values, keyIdx));
+      if (!key.startsWith(prefix) || "true".equalsIgnoreCase(get(values, isDeleteMarkerIdx))
+        || "false".equalsIgnoreCase(get(values, isLatestIdx))) {
+        return null;
+      }
+      String bucket = bucketIdx < 0 ? manifest.sourceBucket : get(values, bucketIdx);
+      if (pathPattern != null && !pathPattern.matcher(S3Path.SCHEME + bucket + "/" + key).find()) {
+        return null;
+      }
+      S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setBucketName(bucket);
+      summary.setKey(key);
+      String size = get(values, sizeIdx);
+      summary.setSize(size.isEmpty() ? 0L : Long.parseLong(size));
+      String lastModified = get(values, lastModifiedIdx);
+      if (!lastModified.isEmpty()) {
+        try {
+          summary.setLastModified(Date.from(Instant.parse(lastModified)));
+        } catch (DateTimeParseException e) {
+          // the modification time is informative only
+        }
+      }
+      String etag = get(values, etagIdx);
+      summary.setETag(etag.isEmpty() ? null : etag);
+      return summary;
+    }
+
+    private String get(List<String> values, int idx) {
+      return idx < 0 || idx >= values.size() ? "" : values.get(idx);
+    }
+  }
+
+  /**
+   * The manifest.json file of an inventory.
+   */
+  private static final class Manifest {
+    private String sourceBucket;
+    private String destinationBucket;
+    private String fileFormat;
+    private String fileSchema;
+    private List<File> files;
+
+    /**
+     * An inventory file.
+     */
+    private static final class File {
+      private String key;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+
+/**
+ * Lazily iterates over the result of a ListObjectsV2 call, following continuation tokens.
+ * A page is only requested from S3 once all entries of the previous page have been consumed, so callers that stop
+ * iterating early never pay for the pages they did not read, and only one page is held in memory at a time.
+ *
+ * Within a page, common prefixes are returned before object summaries.
+ */
+public class S3ListingIterator implements Iterator<S3ListingIterator.Entry> {
+  /**
+   * Maximum number of keys S3 returns in one page.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private final AmazonS3 s3;
+  private final ListObjectsV2Request request;
+  private ListObjectsV2Result page;
+  private int position;
+  private int pageCount;
+  private int pendingSkip;
+
+  /**
+   * Creates an iterator for the given request. The request is modified as pages are fetched.
+   *
+   * @param s3 the client to list with
+   * @param request the request of the first page
+   */
+  public S3ListingIterator(AmazonS3 s3, ListObjectsV2Request request) {
+    this(s3, request, null);
+  }
+
+  /**
+   * Creates an iterator that continues a listing from a position returned by {@link #getResumePosition()}.
+   * The request must have the same bucket, prefix and delimiter as the request of the original listing.
+   *
+   * @param s3 the client to list with
+   * @param request the request of the first page
+   * @param position the position to resume from, null to start from the beginning
+   */
+  public S3ListingIterator(AmazonS3 s3, ListObjectsV2Request request, @Nullable Position position) {
+    this.s3 = s3;
+    this.request = request;
+    if (position != null) {
+      request.setContinuationToken(position.getToken());
+      pendingSkip = position.getOffset();
+    }
+  }
+
+  /**
+   * Creates a request for the given bucket and prefix.
+   *
+   * @param bucket the bucket to list
+   * @param prefix the key prefix, null to list the whole bucket
+   * @param delimiter the delimiter used to group keys into common prefixes, null to list all keys under the prefix
+   * @param maxEntries the maximum number of entries the caller is going to read, used to size the pages
+   * @return the list request
+   */
+  public static ListObjectsV2Request createRequest(String bucket, @Nullable String prefix, @Nullable String delimiter,
+                                                   int maxEntries) {
+    ListObjectsV2Request request = new ListObjectsV2Request().withBucketName(bucket);
+    if (prefix != null && !prefix.isEmpty()) {
+      request.setPrefix(prefix);
+    }
+    if (delimiter != null) {
+      request.setDelimiter(delimiter);
+    }
+    request.setMaxKeys(Math.max(1, Math.min(maxEntries, MAX_PAGE_SIZE)));
+    return request;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (page == null || position >= pageSize(page)) {
+      if (page != null && !page.isTruncated()) {
+        return false;
+      }
+      if (page != null) {
+        request.setContinuationToken(page.getNextContinuationToken());
+      }
+      page = s3.listObjectsV2(request);
+      position = Math.min(pendingSkip, pageSize(page));
+      pendingSkip -= position;
+      pageCount++;
+    }
+    return true;
+  }
+
+  @Override
+  public Entry next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int index = position++;
+    int prefixes = page.getCommonPrefixes().size();
+    if (index < prefixes) {
+      return new Entry(page.getBucketName(), page.getCommonPrefixes().get(index), null);
+    }
+    return new Entry(page.getBucketName(), null, page.getObjectSummaries().get(index - prefixes));
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("Listing entries cannot be removed.");
+  }
+
+  /**
+   * @return the number of LIST calls issued so far
+   */
+  public int getPageCount() {
+    return pageCount;
+  }
+
+  /**
+   * Returns the position the listing would continue from, that is the page the next entry is on and its offset
+   * within that page. This never issues a LIST call.
+   *
+   * @return the position of the next entry, or null if it is already known that there are no more entries
+   */
+  @Nullable
+  public Position getResumePosition() {
+    if (page == null) {
+      return new Position(request.getContinuationToken(), pendingSkip);
+    }
+    if (position < pageSize(page)) {
+      return new Position(request.getContinuationToken(), position);
+    }
+    return page.isTruncated() ? new Position(page.getNextContinuationToken(), 0) : null;
+  }
+
+  private static int pageSize(ListObjectsV2Result result) {
+    return result.getCommonPrefixes().size() + result.getObjectSummaries().size();
+  }
+
+  /**
+   * A position in a listing, made of the continuation token of a page and an offset within that page.
+   */
+  public static final class Position {
+    private final String token;
+    private final int offset;
+
+    public Position(@Nullable String token, int offset) {
+      this.token = token;
+      this.offset = offset;
+    }
+
+    /**
+     * @return the continuation token of the page, null for the first page
+     */
+    @Nullable
+    public String getToken() {
+      return token;
+    }
+
+    public int getOffset() {
+      return offset;
+    }
+  }
+
+  /**
+   * An entry of the listing, which is either a common prefix or an object.
+   */
+  public static final class Entry {
+    private final String bucket;
+    private final String prefix;
+    private final S3ObjectSummary summary;
+
+    Entry(String bucket, @Nullable String prefix, @Nullable S3ObjectSummary summary) {
+      this.bucket = bucket;
+      this.prefix = prefix;
+      this.summary = summary;
+    }
+
+    public String getBucket() {
+      return bucket;
+    }
+
+    /**
+     * @return the common prefix, including the trailing delimiter, or null if this entry is an object
+     */
+    @Nullable
+    public String getPrefix() {
+      return prefix;
+    }
+
+    /**
+     * @return the object summary or null if this entry is a common prefix
+     */
+    @Nullable
+    public S3ObjectSummary getSummary() {
+      return summary;
+    }
+
+    public boolean isPrefix() {
+      return prefix != null;
+    }
+
+    /**
+     * @return the common prefix or the object key
+     */
+    public String getKey() {
+      return prefix != null ? prefix : summary.getKey();
+    }
+  }
+}
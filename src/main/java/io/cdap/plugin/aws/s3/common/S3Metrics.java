@@ -0,0 +1,509 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.HeadBucketRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListVersionsRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.cdap.etl.api.StageContext;
+import io.cdap.cdap.etl.api.StageMetrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+
+/**
+ * Records the S3 requests made with the SDK clients of the {@link S3ClientRegistry} for a stage of a run. SDK requests
+ * are counted per operation, with their latency, retries and throttled attempts. The plugins also count how their
+ * reads go, like how often prefetched data is used, with named counters.
+ *
+ * Each stage of a run has its own metrics, see {@link #forStage(StageContext)}, which are kept until the stage
+ * {@link #release(StageContext) releases} them when the run finishes. The clients are shared by all the stages, so a
+ * request is recorded to the metrics it was {@link #tag(AmazonWebServiceRequest) tagged} with, which keeps the
+ * requests of the S3 sources and sinks that run in the same process apart. The recorded values are
+ * {@link #drain() drained} by the stage when it publishes them, so that each request is published once, whichever
+ * task of the stage publishes it. Calls outside of stages, like the ones of connectors, {@link #create() create}
+ * their own metrics, and the requests that are not tagged are recorded in the {@link #getInstance() shared metrics}.
+ */
+public final class S3Metrics {
+  private static final S3Metrics INSTANCE = new S3Metrics();
+  private static final HandlerContextKey<S3Metrics> REQUEST_METRICS = new HandlerContextKey<>("S3Metrics");
+  // the metrics of the stages that run in this JVM, by scope, kept until the stage releases them
+  private static final ConcurrentMap<String, S3Metrics> STAGES = new ConcurrentHashMap<>();
+
+  private final Map<Operation, OperationMetrics> operations;
+  private final ConcurrentMap<String, AtomicLong> counters;
+
+  @VisibleForTesting
+  S3Metrics() {
+    this.operations = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      operations.put(operation, new OperationMetrics());
+    }
+    this.counters = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @return the metrics of the requests that are not made for a stage, shared by all plugins in this JVM
+   */
+  public static S3Metrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @return new metrics, for the requests of a single call that are not made for a stage, like a browse
+   */
+  public static S3Metrics create() {
+    return new S3Metrics();
+  }
+
+  /**
+   * Returns the scope of the metrics of a stage, which identifies the stage of a run.
+   *
+   * @param context the context of the stage
+   * @return the scope, to give to {@link #forScope(String)} where the context is not available
+   */
+  public static String getScope(StageContext context) {
+    return String.join(":", context.getNamespace(), context.getPipelineName(), context.getStageName(),
+                       String.valueOf(context.getLogicalStartTime()));
+  }
+
+  /**
+   * @param context the context of the stage
+   * @return the metrics of the requests made for the stage in this JVM
+   */
+  public static S3Metrics forStage(StageContext context) {
+    return forScope(getScope(context));
+  }
+
+  /**
+   * @param scope the scope of a stage, as returned by {@link #getScope(StageContext)}, or null if there is none
+   * @return the metrics of the requests made for the stage in this JVM, or the shared metrics if there is no scope
+   */
+  public static S3Metrics forScope(@Nullable String scope) {
+    if (scope == null || scope.isEmpty()) {
+      return INSTANCE;
+    }
+    return STAGES.computeIfAbsent(scope, s -> new S3Metrics());
+  }
+
+  /**
+   * Drops the metrics of a stage once its run finished. The processes that do not see the end of the run, like
+   * executors, keep the metrics of its stages until they exit.
+   *
+   * @param context the context of the stage
+   */
+  public static void release(StageContext context) {
+    release(getScope(context));
+  }
+
+  @VisibleForTesting
+  static void release(String scope) {
+    STAGES.remove(scope);
+  }
+
+  /**
+   * Makes the given request record to these metrics, whichever client it is made with.
+   *
+   * @param request the request to tag
+   * @return the request
+   */
+  public <T extends AmazonWebServiceRequest> T tag(T request) {
+    request.addHandlerContext(REQUEST_METRICS, this);
+    return request;
+  }
+
+  /**
+   * @return the metrics the given request was tagged with, or the shared metrics if it was not
+   */
+  static S3Metrics of(AmazonWebServiceRequest request) {
+    S3Metrics metrics = request.getHandlerContext(REQUEST_METRICS);
+    return metrics == null ? INSTANCE : metrics;
+  }
+
+  /**
+   * Records a request made with the SDK.
+   *
+   * @param operation the operation of the request
+   * @param latencyMillis the time from the first attempt to the response or the final error, in milliseconds
+   * @param bytes the number of bytes of the object sent or received
+   * @param attempts the number of attempts made, including the first one
+   * @param throttled the number of attempts that were throttled
+   * @param failed whether the request failed after all its attempts
+   */
+  public void record(Operation operation, long latencyMillis, long bytes, int attempts, int throttled,
+                     boolean failed) {
+    operations.get(operation).record(latencyMillis, bytes, attempts, throttled, failed);
+  }
+
+  /**
+   * Adds to a named counter.
+   *
+   * @param counter the name of the counter, published as s3.&lt;counter&gt;
+   * @param delta the value to add
+   */
+  public void count(String counter, long delta) {
+    counters.computeIfAbsent(counter, name -> new AtomicLong()).addAndGet(delta);
+  }
+
+  /**
+   * Returns what was recorded since the last call and resets it.
+   *
+   * @return the requests made since the last call
+   */
+  public Summary drain() {
+    return drain(Collections.emptyMap());
+  }
+
+  /**
+   * Returns what was recorded since the last call and resets it, with the given S3A counters.
+   *
+   * @param s3a the S3A counters of the stage, see {@link S3AThreadStatistics}
+   * @return the requests made since the last call
+   */
+  public synchronized Summary drain(Map<String, Long> s3a) {
+    Map<Operation, OperationSummary> summaries = new EnumMap<>(Operation.class);
+    for (Map.Entry<Operation, OperationMetrics> entry : operations.entrySet()) {
+      OperationSummary summary = entry.getValue().drain();
+      if (summary.requests > 0) {
+        summaries.put(entry.getKey(), summary);
+      }
+    }
+    Map<String, Long> counterValues = new TreeMap<>();
+    for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+      long value = entry.getValue().getAndSet(0L);
+      if (value != 0) {
+        counterValues.put(entry.getKey(), value);
+      }
+    }
+    return new Summary(summaries, new TreeMap<>(s3a), counterValues);
+  }
+
+  /**
+   * Publishes what was recorded since the last call to the given stage metrics and resets it.
+   *
+   * @param metrics the metrics of the stage to publish to
+   * @return the published requests
+   */
+  public Summary publish(StageMetrics metrics) {
+    return publish(metrics, Collections.emptyMap());
+  }
+
+  /**
+   * Publishes what was recorded since the last call to the given stage metrics and resets it, with the given S3A
+   * counters.
+   *
+   * @param metrics the metrics of the stage to publish to
+   * @param s3a the S3A counters of the stage, see {@link S3AThreadStatistics}
+   * @return the published requests
+   */
+  public Summary publish(StageMetrics metrics, Map<String, Long> s3a) {
+    Summary summary = drain(s3a);
+    summary.publish(metrics);
+    return summary;
+  }
+
+  /**
+   * Kinds of S3 requests.
+   */
+  public enum Operation {
+    LIST,
+    HEAD,
+    GET,
+    PUT,
+    MULTIPART,
+    OTHER;
+
+    /**
+     * @return the operation of the given SDK request
+     */
+    public static Operation of(AmazonWebServiceRequest request) {
+      if (request instanceof ListObjectsV2Request || request instanceof ListObjectsRequest
+        || request instanceof ListVersionsRequest) {
+        return LIST;
+      }
+      if (request instanceof GetObjectMetadataRequest || request instanceof HeadBucketRequest) {
+        return HEAD;
+      }
+      if (request instanceof GetObjectRequest) {
+        return GET;
+      }
+      if (request instanceof PutObjectRequest) {
+        return PUT;
+      }
+      if (request instanceof InitiateMultipartUploadRequest || request instanceof UploadPartRequest
+        || request instanceof CompleteMultipartUploadRequest || request instanceof AbortMultipartUploadRequest) {
+        return MULTIPART;
+      }
+      return OTHER;
+    }
+
+    private String getMetricName() {
+      return name().toLowerCase();
+    }
+  }
+
+  /**
+   * The requests made during some time, as published to the stage metrics.
+   */
+  public static final class Summary {
+    private final Map<Operation, OperationSummary> operations;
+    private final Map<String, Long> s3a;
+    private final Map<String, Long> counters;
+
+    private Summary(Map<Operation, OperationSummary> operations, Map<String, Long> s3a, Map<String, Long> counters) {
+      this.operations = Collections.unmodifiableMap(operations);
+      this.s3a = Collections.unmodifiableMap(s3a);
+      this.counters = Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * @return the SDK requests, by operation. Operations without requests are left out.
+     */
+    public Map<Operation, OperationSummary> getOperations() {
+      return operations;
+    }
+
+    /**
+     * @return the S3A counters, by metric name. Counters that did not change are left out.
+     */
+    public Map<String, Long> getS3A() {
+      return s3a;
+    }
+
+    /**
+     * @return the named counters, by name. Counters that did not change are left out.
+     */
+    public Map<String, Long> getCounters() {
+      return counters;
+    }
+
+    public boolean isEmpty() {
+      return operations.isEmpty() && s3a.isEmpty() && counters.isEmpty();
+    }
+
+    /**
+     * Publishes the summary as stage metrics. SDK requests are published as s3.&lt;operation&gt;.* metrics, S3A
+     * counters as s3a.* metrics and named counters as s3.* metrics. The latency is published as a distribution, the
+     * s3.&lt;operation&gt;.latency.le.&lt;millis&gt; counters of the requests that took at most that long, and the
+     * s3.&lt;operation&gt;.latency.millis counter of the total time, so that the metrics of all the tasks add up.
+     *
+     * @param metrics the metrics of the stage
+     */
+    public void publish(StageMetrics metrics) {
+      for (Map.Entry<Operation, OperationSummary> entry : operations.entrySet()) {
+        String prefix = "s3." + entry.getKey().getMetricName() + ".";
+        OperationSummary summary = entry.getValue();
+        metrics.countLong(prefix + "requests", summary.requests);
+        metrics.countLong(prefix + "failures", summary.failures);
+        metrics.countLong(prefix + "retries", summary.retries);
+        metrics.countLong(prefix + "throttled", summary.throttled);
+        metrics.countLong(prefix + "bytes", summary.bytes);
+        metrics.countLong(prefix + "latency.millis", summary.latencyMillis);
+        long requests = 0;
+        for (int i = 0; i < OperationMetrics.BOUNDS.length; i++) {
+          requests += summary.latencyCounts[i];
+          if (requests > 0) {
+            metrics.countLong(prefix + "latency.le." + OperationMetrics.BOUNDS[i], requests);
+          }
+        }
+      }
+      for (Map.Entry<String, Long> entry : s3a.entrySet()) {
+        metrics.countLong("s3a." + entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<String, Long> entry : counters.entrySet()) {
+        metrics.countLong("s3." + entry.getKey(), entry.getValue());
+      }
+    }
+
+    @Override
+    public String toString() {
+      if (isEmpty()) {
+        return "no requests";
+      }
+      StringBuilder builder = new StringBuilder();
+      for (Map.Entry<Operation, OperationSummary> entry : operations.entrySet()) {
+        builder.append(builder.length() == 0 ? "" : "; ").append(entry.getKey()).append(": ").append(entry.getValue());
+      }
+      if (!s3a.isEmpty()) {
+        builder.append(builder.length() == 0 ? "" : "; ").append("S3A: ").append(s3a);
+      }
+      if (!counters.isEmpty()) {
+        builder.append(builder.length() == 0 ? "" : "; ").append("reads: ").append(counters);
+      }
+      return builder.toString();
+    }
+  }
+
+  /**
+   * The requests of an operation.
+   */
+  public static final class OperationSummary {
+    private final long requests;
+    private final long failures;
+    private final long retries;
+    private final long throttled;
+    private final long bytes;
+    private final long latencyMillis;
+    private final long[] latencyCounts;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+
+    private OperationSummary(long requests, long failures, long retries, long throttled, long bytes,
+                             long latencyMillis, long[] latencyCounts, long p50, long p95, long p99) {
+      this.requests = requests;
+      this.failures = failures;
+      this.retries = retries;
+      this.throttled = throttled;
+      this.bytes = bytes;
+      this.latencyMillis = latencyMillis;
+      this.latencyCounts = latencyCounts;
+      this.p50 = p50;
+      this.p95 = p95;
+      this.p99 = p99;
+    }
+
+    public long getRequests() {
+      return requests;
+    }
+
+    public long getFailures() {
+      return failures;
+    }
+
+    public long getRetries() {
+      return retries;
+    }
+
+    public long getThrottled() {
+      return throttled;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * @return the median latency in milliseconds, as the upper bound of its histogram bucket
+     */
+    public long getP50() {
+      return p50;
+    }
+
+    /**
+     * @return the 95th percentile of the latency in milliseconds, as the upper bound of its histogram bucket
+     */
+    public long getP95() {
+      return p95;
+    }
+
+    /**
+     * @return the 99th percentile of the latency in milliseconds, as the upper bound of its histogram bucket
+     */
+    public long getP99() {
+      return p99;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d requests, %d failures, %d retries, %d throttled, %d bytes, latency p50 %d ms, " +
+                             "p95 %d ms, p99 %d ms", requests, failures, retries, throttled, bytes, p50, p95, p99);
+    }
+  }
+
+  /**
+   * Counters and latency histogram of an operation.
+   */
+  private static final class OperationMetrics {
+    // upper bounds of the latency buckets in milliseconds, the last bucket holds everything above
+    private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000};
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+    private void record(long latencyMillis, long bytes, int attempts, int throttled, boolean failed) {
+      requests.incrementAndGet();
+      if (failed) {
+        failures.incrementAndGet();
+      }
+      this.retries.addAndGet(Math.max(0, attempts - 1));
+      this.throttled.addAndGet(throttled);
+      this.bytes.addAndGet(Math.max(0, bytes));
+      int bucket = 0;
+      while (bucket < BOUNDS.length && latencyMillis > BOUNDS[bucket]) {
+        bucket++;
+      }
+      buckets.incrementAndGet(bucket);
+      totalLatency.addAndGet(Math.max(0, latencyMillis));
+      long max = maxLatency.get();
+      while (latencyMillis > max && !maxLatency.compareAndSet(max, latencyMillis)) {
+        max = maxLatency.get();
+      }
+    }
+
+    private OperationSummary drain() {
+      long[] counts = new long[buckets.length()];
+      long total = 0;
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = buckets.getAndSet(i, 0L);
+        total += counts[i];
+      }
+      long max = maxLatency.getAndSet(0L);
+      return new OperationSummary(requests.getAndSet(0L), failures.getAndSet(0L), retries.getAndSet(0L),
+                                  throttled.getAndSet(0L), bytes.getAndSet(0L), totalLatency.getAndSet(0L), counts,
+                                  percentile(counts, total, 0.5, max),
+                                  percentile(counts, total, 0.95, max), percentile(counts, total, 0.99, max));
+    }
+
+    private static long percentile(long[] counts, long total, double percentile, long max) {
+      long rank = (long) Math.ceil(total * percentile);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return i < BOUNDS.length ? Math.min(BOUNDS[i], max) : max;
+        }
+      }
+      return 0L;
+    }
+  }
+}
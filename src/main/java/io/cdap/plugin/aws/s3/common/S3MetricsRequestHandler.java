@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.s3.Headers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Records the requests of the SDK clients in the {@link S3Metrics} they were tagged with. A request is recorded once,
+ * when it completes, with the number of attempts it took.
+ */
+final class S3MetricsRequestHandler extends RequestHandler2 {
+  private static final int SERVICE_UNAVAILABLE = 503;
+  private static final HandlerContextKey<Long> START_NANOS = new HandlerContextKey<>("S3MetricsStartNanos");
+  private static final HandlerContextKey<AtomicInteger> ATTEMPTS = new HandlerContextKey<>("S3MetricsAttempts");
+  private static final HandlerContextKey<AtomicInteger> THROTTLED = new HandlerContextKey<>("S3MetricsThrottled");
+
+  @Override
+  public void beforeRequest(Request<?> request) {
+    request.addHandlerContext(START_NANOS, System.nanoTime());
+    request.addHandlerContext(ATTEMPTS, new AtomicInteger());
+    request.addHandlerContext(THROTTLED, new AtomicInteger());
+  }
+
+  @Override
+  public void beforeAttempt(HandlerBeforeAttemptContext context) {
+    AtomicInteger attempts = context.getRequest().getHandlerContext(ATTEMPTS);
+    if (attempts != null) {
+      attempts.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void afterAttempt(HandlerAfterAttemptContext context) {
+    AtomicInteger throttled = context.getRequest().getHandlerContext(THROTTLED);
+    if (throttled != null && isThrottled(context.getException())) {
+      throttled.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void afterResponse(Request<?> request, Response<?> response) {
+    S3Metrics.Operation operation = S3Metrics.Operation.of(request.getOriginalRequest());
+    long bytes;
+    if (operation == S3Metrics.Operation.GET) {
+      List<String> lengths = response.getHttpResponse() == null ? null
+        : response.getHttpResponse().getHeaderValues(Headers.CONTENT_LENGTH);
+      bytes = getContentLength(lengths == null || lengths.isEmpty() ? null : lengths.get(0));
+    } else {
+      bytes = getContentLength(request.getHeaders().get(Headers.CONTENT_LENGTH));
+    }
+    record(request, operation, bytes, false);
+  }
+
+  @Override
+  public void afterError(Request<?> request, Response<?> response, Exception e) {
+    record(request, S3Metrics.Operation.of(request.getOriginalRequest()), 0L, true);
+  }
+
+  private void record(Request<?> request, S3Metrics.Operation operation, long bytes, boolean failed) {
+    Long start = request.getHandlerContext(START_NANOS);
+    AtomicInteger attempts = request.getHandlerContext(ATTEMPTS);
+    AtomicInteger throttled = request.getHandlerContext(THROTTLED);
+    if (start == null) {
+      return;
+    }
+    S3Metrics.of(request.getOriginalRequest())
+      .record(operation, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), bytes,
+              attempts == null ? 1 : attempts.get(), throttled == null ? 0 : throttled.get(), failed);
+  }
+
+  private static boolean isThrottled(@Nullable Exception e) {
+    if (!(e instanceof AmazonServiceException)) {
+      return false;
+    }
+    AmazonServiceException serviceException = (AmazonServiceException) e;
+    // S3 throttles with 503 SlowDown
+    return serviceException.getStatusCode() == SERVICE_UNAVAILABLE
+      || RetryUtils.isThrottlingException(serviceException);
+  }
+
+  private static long getContentLength(@Nullable String length) {
+    if (length == null) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(length.trim());
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+}
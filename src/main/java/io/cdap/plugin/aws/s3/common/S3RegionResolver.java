@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.regions.Region;
+import com.amazonaws.regions.RegionUtils;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.HeadBucketRequest;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Resolves and caches the region of buckets, so that clients can talk to the regional endpoint of a bucket
+ * directly instead of being redirected on every call. Bucket names are globally unique and buckets cannot move
+ * to another region, so a resolved region is kept for the life of the JVM. Failed lookups are cached for a short
+ * time, so that the buckets whose region cannot be resolved, for lack of permissions for example, are not looked up
+ * again by every call.
+ */
+public final class S3RegionResolver {
+  private static final Logger LOG = LoggerFactory.getLogger(S3RegionResolver.class);
+  // the region that can answer region lookups for buckets of all regions of the standard partition
+  private static final String LOOKUP_REGION = "us-east-1";
+  private static final long FAILURE_TTL_SECONDS = 60;
+  private static final long MAX_FAILURES = 1000;
+  private static final S3RegionResolver INSTANCE = new S3RegionResolver(FAILURE_TTL_SECONDS, TimeUnit.SECONDS);
+
+  private final ConcurrentMap<String, String> regions;
+  // the buckets whose region could not be resolved recently
+  private final Cache<String, Boolean> failures;
+
+  @VisibleForTesting
+  S3RegionResolver(long failureTtl, TimeUnit unit) {
+    this.regions = new ConcurrentHashMap<>();
+    this.failures = CacheBuilder.newBuilder()
+      .expireAfterWrite(failureTtl, unit)
+      .maximumSize(MAX_FAILURES)
+      .build();
+  }
+
+  /**
+   * @return the resolver shared by all plugins in this JVM
+   */
+  public static S3RegionResolver getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a client that talks to the region of the given bucket. If the region cannot be resolved, the client of
+   * the connection region is returned.
+   *
+   * @param config the connection to get the client for
+   * @param bucket the bucket that will be accessed with the client
+   * @return the S3 client
+   */
+  public AmazonS3 getClient(S3ConnectorConfig config, String bucket) {
+    String region = getRegion(config, bucket);
+    return S3ClientRegistry.getInstance().getClient(config, region == null ? config.getRegion() : region);
+  }
+
+  /**
+   * Returns the region of the given bucket, looking it up with the credentials of the connection if it is not
+   * cached.
+   *
+   * @param config the connection to look the region up with
+   * @param bucket the bucket name
+   * @return the region of the bucket, or null if it could not be resolved
+   */
+  @Nullable
+  public String getRegion(S3ConnectorConfig config, String bucket) {
+    String region = regions.get(bucket);
+    if (region != null || failures.getIfPresent(bucket) != null) {
+      return region;
+    }
+    String lookupRegion = config.getRegion() == null ? LOOKUP_REGION : config.getRegion();
+    return getRegion(S3ClientRegistry.getInstance().getClient(config, lookupRegion), bucket);
+  }
+
+  /**
+   * Returns the S3A endpoint of the region of the given bucket.
+   *
+   * @param config the connection to look the region up with
+   * @param bucket the bucket name
+   * @return the endpoint host name, or null if the region of the bucket could not be resolved
+   */
+  @Nullable
+  public String getEndpoint(S3ConnectorConfig config, String bucket) {
+    String region = getRegion(config, bucket);
+    Region awsRegion = region == null ? null : RegionUtils.getRegion(region);
+    return awsRegion == null ? null : awsRegion.getServiceEndpoint(AmazonS3.ENDPOINT_PREFIX);
+  }
+
+  /**
+   * Returns whether the given file system properties already set the S3A endpoint of the bucket of the given path.
+   *
+   * @param properties the file system properties
+   * @param path the s3a path that will be accessed
+   */
+  public static boolean hasEndpoint(Map<String, String> properties, String path) {
+    return properties.containsKey(S3Constants.S3A_ENDPOINT) || properties.containsKey(getEndpointProperty(path));
+  }
+
+  /**
+   * Returns the file system property that points S3A to the regional endpoint of the bucket of the given path.
+   *
+   * @param config the connection to look the region up with
+   * @param path the s3a path that will be accessed
+   * @return the property, or no property if the region of the bucket could not be resolved
+   */
+  public Map<String, String> getBucketEndpoint(S3ConnectorConfig config, String path) {
+    String bucket = S3Path.from(path).getBucket();
+    try {
+      String endpoint = getEndpoint(config, bucket);
+      if (endpoint != null) {
+        return Collections.singletonMap(getEndpointProperty(path), endpoint);
+      }
+    } catch (RuntimeException e) {
+      // S3A can still reach the bucket through the default endpoint
+      LOG.debug("Failed to resolve the endpoint of bucket {}.", bucket, e);
+    }
+    return Collections.emptyMap();
+  }
+
+  private static String getEndpointProperty(String path) {
+    return S3Constants.S3A_BUCKET_PREFIX + S3Path.from(path).getBucket() + ".endpoint";
+  }
+
+  @VisibleForTesting
+  @Nullable
+  String getRegion(AmazonS3 lookupClient, String bucket) {
+    String region = regions.get(bucket);
+    if (region != null || failures.getIfPresent(bucket) != null) {
+      return region;
+    }
+    region = lookup(lookupClient, bucket);
+    if (region != null) {
+      regions.putIfAbsent(bucket, region);
+      LOG.debug("Bucket {} is in region {}.", bucket, region);
+    } else {
+      failures.put(bucket, true);
+    }
+    return region;
+  }
+
+  @Nullable
+  private static String lookup(AmazonS3 s3, String bucket) {
+    try {
+      return s3.headBucket(new HeadBucketRequest(bucket)).getBucketRegion();
+    } catch (AmazonServiceException e) {
+      // redirects and most errors still tell the region of the bucket
+      Map<String, String> headers = e.getHttpHeaders();
+      String region = headers == null ? null : headers.get(Headers.S3_BUCKET_REGION);
+      if (region != null) {
+        return region;
+      }
+    } catch (SdkClientException e) {
+      LOG.debug("Failed to get the region of bucket {} with a HEAD request.", bucket, e);
+    }
+
+    try {
+      String location = s3.getBucketLocation(bucket);
+      // buckets in us-east-1 have no location constraint
+      return location == null || location.isEmpty() ? LOOKUP_REGION :
+        com.amazonaws.services.s3.model.Region.fromValue(location).toAWSRegion().getName();
+    } catch (SdkClientException | IllegalArgumentException e) {
+      LOG.debug("Failed to get the location of bucket {}.", bucket, e);
+      return null;
+    }
+  }
+}
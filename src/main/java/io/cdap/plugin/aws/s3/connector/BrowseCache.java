@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.etl.api.connector.BrowseDetail;
+import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Path;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process cache of browse results, keyed by the connection, the browsed path and the limit. The credentials of
+ * the connection are only kept as a hash. Entries expire after a fixed time and the least recently used entries are
+ * evicted once the cache is full.
+ *
+ * The time to live is the only bound on how stale a result can be. Pipelines that write to S3 run in other processes,
+ * which cannot reach this cache, and S3 has no cheap way to tell whether a prefix changed, so browsing a prefix right
+ * after a pipeline wrote to it can show the listing from before the write for up to the time to live.
+ *
+ * The time to live and the size can be set through the {@link S3Constants#BROWSE_CACHE_TTL_SECONDS} and
+ * {@link S3Constants#BROWSE_CACHE_MAX_ENTRIES} system properties. A time to live of 0 disables the cache.
+ */
+final class BrowseCache {
+  private static final long DEFAULT_TTL_SECONDS = 60;
+  private static final long DEFAULT_MAX_ENTRIES = 1000;
+  private static final BrowseCache INSTANCE =
+    new BrowseCache(Long.getLong(S3Constants.BROWSE_CACHE_TTL_SECONDS, DEFAULT_TTL_SECONDS), TimeUnit.SECONDS,
+                    Long.getLong(S3Constants.BROWSE_CACHE_MAX_ENTRIES, DEFAULT_MAX_ENTRIES));
+
+  private final boolean enabled;
+  private final Cache<Key, BrowseDetail> cache;
+
+  BrowseCache(long ttl, TimeUnit unit, long maxEntries) {
+    this(ttl, unit, maxEntries, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  BrowseCache(long ttl, TimeUnit unit, long maxEntries, Ticker ticker) {
+    this.enabled = ttl > 0 && maxEntries > 0;
+    this.cache = CacheBuilder.newBuilder()
+      .ticker(ticker)
+      .expireAfterWrite(Math.max(ttl, 1), unit)
+      .maximumSize(Math.max(maxEntries, 0))
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * @return the cache shared by all connectors in this JVM
+   */
+  static BrowseCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the cached result of browsing the given path, calling the loader if it is not cached.
+   *
+   * @param config the connection used to browse
+   * @param path the browsed path, either root or a path that can be parsed by {@link S3Path#from(String)}
+   * @param limit the maximum number of entities
+   * @param loader the function that browses S3
+   * @return the browse result
+   * @throws IOException if the loader failed
+   */
+  BrowseDetail get(S3ConnectorConfig config, String path, int limit,
+                   Callable<BrowseDetail> loader) throws IOException {
+    if (!enabled) {
+      try {
+        return loader.call();
+      } catch (Exception e) {
+        throw toIOException(e);
+      }
+    }
+    try {
+      return cache.get(new Key(config, path, limit), loader);
+    } catch (ExecutionException e) {
+      throw toIOException(e.getCause());
+    }
+  }
+
+  /**
+   * Returns the given failure of the loader as an IOException, or rethrows it if it is unchecked.
+   */
+  private static IOException toIOException(Throwable t) {
+    if (t instanceof IOException) {
+      return (IOException) t;
+    }
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return new IOException(t);
+  }
+
+  /**
+   * @return hit, miss and eviction statistics of the cache since it was created
+   */
+  CacheStats getStats() {
+    return cache.stats();
+  }
+
+  /**
+   * @return the number of cached results
+   */
+  long size() {
+    return cache.size();
+  }
+
+  /**
+   * Key of a browse result.
+   */
+  private static final class Key {
+    private final boolean accessCredentials;
+    private final String credentials;
+    private final String region;
+    private final boolean summarizeDirectories;
+    private final String inventoryManifest;
+    private final String path;
+    private final int limit;
+
+    private Key(S3ConnectorConfig config, String path, int limit) {
+      this.accessCredentials = config.isAccessCredentials();
+      this.credentials = accessCredentials ?
+        hash(config.getAccessID(), config.getAccessKey(), config.getSessionToken()) : null;
+      this.region = config.getRegion();
+      this.summarizeDirectories = config.shouldSummarizeDirectories();
+      this.inventoryManifest = config.getInventoryManifest();
+      this.path = path;
+      this.limit = limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return accessCredentials == that.accessCredentials &&
+        summarizeDirectories == that.summarizeDirectories &&
+        limit == that.limit &&
+        Objects.equals(credentials, that.credentials) &&
+        Objects.equals(region, that.region) &&
+        Objects.equals(inventoryManifest, that.inventoryManifest) &&
+        Objects.equals(path, that.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(accessCredentials, credentials, region, summarizeDirectories, inventoryManifest, path,
+                          limit);
+    }
+
+    private static String hash(String... values) {
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (String value : values) {
+        hasher.putString(String.valueOf(value), StandardCharsets.UTF_8).putByte((byte) 0);
+      }
+      return hasher.hash().toString();
+    }
+  }
+}
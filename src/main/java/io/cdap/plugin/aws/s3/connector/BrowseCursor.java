@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import io.cdap.plugin.aws.s3.common.S3ListingIterator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * An opaque cursor that points to the next page of a browse result.
+ * Browse requests do not have a field for a cursor, so the cursor is carried in the browse path, after the
+ * {@link #SEPARATOR}. The cursor records the path it belongs to, so a key that happens to contain the separator is
+ * never mistaken for a cursor.
+ */
+final class BrowseCursor {
+  static final String SEPARATOR = "?cursor=";
+  private static final Gson GSON = new Gson();
+
+  private final String path;
+  private final String token;
+  private final int offset;
+
+  BrowseCursor(String path, S3ListingIterator.Position position) {
+    this(path, position.getToken(), position.getOffset());
+  }
+
+  private BrowseCursor(String path, @Nullable String token, int offset) {
+    this.path = path;
+    this.token = token;
+    this.offset = offset;
+  }
+
+  /**
+   * @return the path the cursor belongs to, without the cursor
+   */
+  String getPath() {
+    return path;
+  }
+
+  S3ListingIterator.Position getPosition() {
+    return new S3ListingIterator.Position(token, offset);
+  }
+
+  /**
+   * @return the browse path that returns the page this cursor points to
+   */
+  String toBrowsePath() {
+    String encoded = Base64.getUrlEncoder().withoutPadding()
+      .encodeToString(GSON.toJson(this).getBytes(StandardCharsets.UTF_8));
+    return path + SEPARATOR + encoded;
+  }
+
+  /**
+   * Parses the cursor from the given browse path.
+   *
+   * @param browsePath the path of the browse request
+   * @return the cursor or null if the path does not contain a valid cursor
+   */
+  @Nullable
+  static BrowseCursor fromBrowsePath(String browsePath) {
+    int idx = browsePath.lastIndexOf(SEPARATOR);
+    if (idx < 0) {
+      return null;
+    }
+    String path = browsePath.substring(0, idx);
+    try {
+      byte[] decoded = Base64.getUrlDecoder().decode(browsePath.substring(idx + SEPARATOR.length()));
+      BrowseCursor cursor = GSON.fromJson(new String(decoded, StandardCharsets.UTF_8), BrowseCursor.class);
+      if (cursor == null || !Objects.equals(path, cursor.path) || cursor.offset < 0) {
+        return null;
+      }
+      return cursor;
+    } catch (IllegalArgumentException | JsonParseException e) {
+      // not a cursor, the separator is part of the object key
+      return null;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.plugin.aws.s3.common.S3ListingIterator;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Computes the total size, object count and latest modification time of directories (common prefixes).
+ * The prefixes are listed concurrently on a bounded, JVM wide executor. Each prefix stops being listed once it
+ * reached a maximum number of objects or the time budget of the whole call is used up, in which case its summary
+ * is partial.
+ */
+final class DirectorySummarizer {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectorySummarizer.class);
+  private static final int THREADS = 16;
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+    THREADS, new ThreadFactoryBuilder().setNameFormat("s3-directory-summary-%d").setDaemon(true).build());
+
+  private final AmazonS3 s3;
+  private final S3Metrics metrics;
+  private final long maxObjectsPerPrefix;
+  private final long timeBudgetMillis;
+
+  DirectorySummarizer(AmazonS3 s3, S3Metrics metrics, long maxObjectsPerPrefix, long timeBudgetMillis) {
+    this.s3 = s3;
+    this.metrics = metrics;
+    this.maxObjectsPerPrefix = maxObjectsPerPrefix;
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  /**
+   * Summarizes the given prefixes of a bucket.
+   *
+   * @param bucket the bucket the prefixes are in
+   * @param prefixes the prefixes to summarize
+   * @return the summary of each prefix, in the order of the given prefixes
+   */
+  Map<String, Summary> summarize(String bucket, Collection<String> prefixes) {
+    long deadline = System.currentTimeMillis() + timeBudgetMillis;
+    Map<String, Summary> summaries = new LinkedHashMap<>();
+    List<Future<?>> futures = new ArrayList<>();
+    for (String prefix : prefixes) {
+      Summary summary = new Summary();
+      summaries.put(prefix, summary);
+      futures.add(EXECUTOR.submit(() -> summarize(bucket, prefix, summary, deadline)));
+    }
+
+    for (Future<?> future : futures) {
+      try {
+        future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        future.cancel(true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        futures.forEach(f -> f.cancel(true));
+        break;
+      } catch (ExecutionException e) {
+        // a failure to summarize a directory should not fail browsing
+        LOG.debug("Failed to summarize a directory in bucket {}.", bucket, e.getCause());
+      }
+    }
+    return summaries;
+  }
+
+  private void summarize(String bucket, String prefix, Summary summary, long deadline) {
+    S3ListingIterator listing = new S3ListingIterator(
+      s3, metrics.tag(S3ListingIterator.createRequest(bucket, prefix, null, S3ListingIterator.MAX_PAGE_SIZE)));
+    while (listing.hasNext()) {
+      S3ObjectSummary object = listing.next().getSummary();
+      summary.add(object.getSize(), object.getLastModified() == null ? 0L : object.getLastModified().getTime());
+      if (summary.getObjectCount() >= maxObjectsPerPrefix || System.currentTimeMillis() >= deadline
+        || Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+    summary.complete = true;
+  }
+
+  /**
+   * Aggregated information about the objects under a prefix. The values are lower bounds if the summary is not
+   * complete.
+   */
+  static final class Summary {
+    private volatile long size;
+    private volatile long objectCount;
+    private volatile long lastModified;
+    private volatile boolean complete;
+
+    private void add(long objectSize, long objectLastModified) {
+      // only written by the thread listing the prefix
+      size += objectSize;
+      objectCount++;
+      lastModified = Math.max(lastModified, objectLastModified);
+    }
+
+    long getSize() {
+      return size;
+    }
+
+    long getObjectCount() {
+      return objectCount;
+    }
+
+    long getLastModified() {
+      return lastModified;
+    }
+
+    boolean isComplete() {
+      return complete;
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import io.cdap.plugin.format.connector.FileTypeDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+/**
+ * Detects the format of objects from their first bytes, for objects whose name does not tell their format.
+ * Only the first {@link #HEADER_LENGTH} bytes of each object are fetched, with a ranged GET that is read to its end,
+ * so that its connection goes back to the pool. The objects are read concurrently on a bounded, JVM wide executor and
+ * the results are cached by ETag, so an object is read at most once as long as its content does not change.
+ */
+final class FileContentDetector {
+  private static final Logger LOG = LoggerFactory.getLogger(FileContentDetector.class);
+  static final int HEADER_LENGTH = 64;
+  private static final int THREADS = 16;
+  private static final long MAX_CACHE_ENTRIES = 10000;
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+    THREADS, new ThreadFactoryBuilder().setNameFormat("s3-content-detector-%d").setDaemon(true).build());
+  private static final Cache<CacheKey, Format> CACHE = CacheBuilder.newBuilder()
+    .maximumSize(MAX_CACHE_ENTRIES)
+    .expireAfterAccess(1, TimeUnit.HOURS)
+    .build();
+
+  private final AmazonS3 s3;
+  private final S3Metrics metrics;
+  private final long timeBudgetMillis;
+
+  FileContentDetector(AmazonS3 s3, S3Metrics metrics, long timeBudgetMillis) {
+    this.s3 = s3;
+    this.metrics = metrics;
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  /**
+   * Detects the format of the given objects. Objects that are empty, that cannot be read or that are not read
+   * within the time budget are left out of the result.
+   *
+   * @param objects the objects to detect the format of
+   * @return the detected format of each object, keyed by object key
+   */
+  Map<String, Format> detect(Collection<S3ObjectSummary> objects) {
+    long deadline = System.currentTimeMillis() + timeBudgetMillis;
+    Map<String, Format> formats = new HashMap<>();
+    Map<S3ObjectSummary, Future<Format>> futures = new HashMap<>();
+    for (S3ObjectSummary object : objects) {
+      if (object.getSize() <= 0) {
+        continue;
+      }
+      CacheKey key = new CacheKey(object);
+      Format cached = key.etag == null ? null : CACHE.getIfPresent(key);
+      if (cached != null) {
+        formats.put(object.getKey(), cached);
+        continue;
+      }
+      futures.put(object, EXECUTOR.submit(() -> {
+        Format format = detect(object);
+        if (key.etag != null) {
+          CACHE.put(key, format);
+        }
+        return format;
+      }));
+    }
+
+    for (Map.Entry<S3ObjectSummary, Future<Format>> entry : futures.entrySet()) {
+      Future<Format> future = entry.getValue();
+      try {
+        formats.put(entry.getKey().getKey(),
+                    future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+      } catch (TimeoutException e) {
+        future.cancel(true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        futures.values().forEach(f -> f.cancel(true));
+        break;
+      } catch (ExecutionException e) {
+        // a failure to read an object should not fail browsing, the format is then detected from the name
+        LOG.debug("Failed to detect the format of object {} in bucket {}.", entry.getKey().getKey(),
+                  entry.getKey().getBucketName(), e.getCause());
+      }
+    }
+    return formats;
+  }
+
+  private Format detect(S3ObjectSummary object) throws IOException {
+    GetObjectRequest request = new GetObjectRequest(object.getBucketName(), object.getKey())
+      .withRange(0, HEADER_LENGTH - 1);
+    try (S3Object s3Object = s3.getObject(metrics.tag(request));
+         S3ObjectInputStream is = s3Object.getObjectContent()) {
+      byte[] header = new byte[HEADER_LENGTH];
+      int length = 0;
+      int read;
+      while (length < header.length && (read = is.read(header, length, header.length - length)) >= 0) {
+        length += read;
+      }
+      // the range ends with the header, closing the stream before its end would abort the connection with a warning
+      if (length == header.length && is.read() >= 0) {
+        is.abort();
+      }
+      return Format.fromHeader(header, length, length >= object.getSize());
+    }
+  }
+
+  @VisibleForTesting
+  static void clearCache() {
+    CACHE.invalidateAll();
+  }
+
+  /**
+   * Formats that can be recognized from the first bytes of an object.
+   */
+  enum Format {
+    PARQUET("parquet"),
+    AVRO("avro"),
+    ORC("orc"),
+    GZIP("gz"),
+    JSON("json"),
+    TEXT("txt"),
+    UNKNOWN(null);
+
+    private final String extension;
+
+    Format(@Nullable String extension) {
+      this.extension = extension;
+    }
+
+    /**
+     * @return the file type of objects of this format, as given by {@link FileTypeDetector}, or null if unknown
+     */
+    @Nullable
+    String getFileType() {
+      return extension == null ? null : FileTypeDetector.detectFileType("file." + extension);
+    }
+
+    /**
+     * @return the name of the format plugin that reads objects of this format, or null if unknown
+     */
+    @Nullable
+    String getSampleFormat() {
+      String fileType = getFileType();
+      return fileType == null ? null : FileTypeDetector.detectFileFormat(fileType).name().toLowerCase();
+    }
+
+    /**
+     * Detects the format from the first bytes of an object. Text must be valid UTF-8 without control characters, and
+     * have a line break unless the header is the whole object, since many binary formats start with printable bytes.
+     *
+     * @param header the first bytes of the object
+     * @param length the number of bytes in the header
+     * @param complete whether the header is the whole object
+     */
+    @VisibleForTesting
+    static Format fromHeader(byte[] header, int length, boolean complete) {
+      if (startsWith(header, length, 'P', 'A', 'R', '1')) {
+        return PARQUET;
+      }
+      if (startsWith(header, length, 'O', 'b', 'j', 1)) {
+        return AVRO;
+      }
+      if (startsWith(header, length, 'O', 'R', 'C')) {
+        return ORC;
+      }
+      if (startsWith(header, length, 0x1f, 0x8b)) {
+        return GZIP;
+      }
+      String text = isText(header, length) ? decode(header, length, complete) : null;
+      if (text == null) {
+        return UNKNOWN;
+      }
+      if (text.trim().startsWith("{") || text.trim().startsWith("[")) {
+        return JSON;
+      }
+      return complete || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0 ? TEXT : UNKNOWN;
+    }
+
+    /**
+     * Decodes the header as UTF-8, or returns null if it is not valid UTF-8. A character cut by the end of the header
+     * is valid when the header is not the whole object.
+     */
+    @Nullable
+    private static String decode(byte[] header, int length, boolean complete) {
+      CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+      CharBuffer chars = CharBuffer.allocate(length);
+      if (decoder.decode(ByteBuffer.wrap(header, 0, length), chars, complete).isError()) {
+        return null;
+      }
+      chars.flip();
+      return chars.toString();
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... magic) {
+      if (length < magic.length) {
+        return false;
+      }
+      for (int i = 0; i < magic.length; i++) {
+        if ((header[i] & 0xff) != magic[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean isText(byte[] header, int length) {
+      if (length == 0) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        int b = header[i] & 0xff;
+        // control characters other than tab, line feed, form feed and carriage return only appear in binary data
+        if (b < 0x20 && b != '\t' && b != '\n' && b != '\f' && b != '\r' || b == 0x7f) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Key of a detected format. The ETag changes whenever the content of the object changes.
+   */
+  private static final class CacheKey {
+    private final String bucket;
+    private final String key;
+    private final String etag;
+
+    private CacheKey(S3ObjectSummary object) {
+      this.bucket = object.getBucketName();
+      this.key = object.getKey();
+      this.etag = object.getETag();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return Objects.equals(bucket, that.bucket) && Objects.equals(key, that.key) && Objects.equals(etag, that.etag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bucket, key, etag);
+    }
+  }
+}
@@ -17,21 +17,17 @@
 
 package io.cdap.plugin.aws.s3.connector;
 
-import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.auth.BasicSessionCredentials;
-import com.amazonaws.auth.InstanceProfileCredentialsProvider;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.Bucket;
-import com.amazonaws.services.s3.model.ListObjectsRequest;
-import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ListBucketsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.cache.CacheStats;
 import io.cdap.cdap.api.annotation.Category;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.batch.BatchSink;
 import io.cdap.cdap.etl.api.batch.BatchSource;
@@ -44,10 +40,16 @@ import io.cdap.cdap.etl.api.connector.ConnectorContext;
 import io.cdap.cdap.etl.api.connector.ConnectorSpec;
 import io.cdap.cdap.etl.api.connector.ConnectorSpecRequest;
 import io.cdap.cdap.etl.api.connector.PluginSpec;
+import io.cdap.cdap.etl.api.connector.SampleRequest;
 import io.cdap.cdap.etl.api.validation.ValidationException;
+import io.cdap.plugin.aws.s3.common.S3ClientRegistry;
 import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
 import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Inventory;
+import io.cdap.plugin.aws.s3.common.S3ListingIterator;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
 import io.cdap.plugin.aws.s3.common.S3Path;
+import io.cdap.plugin.aws.s3.common.S3RegionResolver;
 import io.cdap.plugin.aws.s3.sink.S3BatchSink;
 import io.cdap.plugin.aws.s3.source.S3BatchSource;
 import io.cdap.plugin.common.ConfigUtil;
@@ -56,14 +58,19 @@ import io.cdap.plugin.common.ReferenceNames;
 import io.cdap.plugin.format.connector.AbstractFileConnector;
 import io.cdap.plugin.format.connector.FileTypeDetector;
 import io.cdap.plugin.format.plugin.AbstractFileSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * S3 connector
@@ -73,14 +80,24 @@ import java.util.Map;
 @Category("Amazon Web Services")
 @Description("Connection to access data in Amazon S3.")
 public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
+  private static final Logger LOG = LoggerFactory.getLogger(S3Connector.class);
   public static final String NAME = "S3";
   private static final String DELIMITER = "/";
   static final String BUCKET_TYPE = "bucket";
   static final String DIRECTORY_TYPE = "directory";
   static final String FILE_TYPE = "file";
+  static final String NEXT_PAGE_NAME = "Next Page";
   static final String LAST_MODIFIED_KEY = "Last Modified";
   static final String SIZE_KEY = "Size";
   static final String FILE_TYPE_KEY = "File Type";
+  static final String OBJECT_COUNT_KEY = "Object Count";
+  static final String SUMMARY_KEY = "Summary";
+  private static final long MAX_SUMMARY_OBJECTS_PER_DIRECTORY = 100000;
+  private static final long SUMMARY_TIME_BUDGET_MILLIS = 10000;
+  // objects of a page whose content is read to detect their format, the others are detected from their name
+  private static final int MAX_DETECTED_OBJECTS = 20;
+  private static final long DETECTION_TIME_BUDGET_MILLIS = 5000;
+  private static final int DEFAULT_SAMPLE_READ_BYTES = 1024 * 1024;
 
 
   private final S3ConnectorConfig config;
@@ -100,6 +117,7 @@ public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
     if (!failureCollector.getValidationFailures().isEmpty()) {
       return;
     }
+    config.validateInventory(failureCollector);
 
     AmazonS3 s3 = getS3Client();
     s3.listBuckets();
@@ -107,12 +125,65 @@ public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
 
   @Override
   public BrowseDetail browse(ConnectorContext connectorContext, BrowseRequest request) throws IOException {
-    String path = request.getPath();
-    int limit = request.getLimit() == null || request.getLimit() <= 0 ? Integer.MAX_VALUE : request.getLimit();
+    final String path = request.getPath();
+    final int limit = request.getLimit() == null || request.getLimit() <= 0 ? Integer.MAX_VALUE : request.getLimit();
+    long start = System.nanoTime();
+    S3Metrics metrics = S3Metrics.create();
+    BrowseCache cache = BrowseCache.getInstance();
+    try {
+      return cache.get(config, path, limit, () -> browseUncached(path, limit, metrics));
+    } finally {
+      logRequests("Browsed", path, start, metrics);
+      if (LOG.isDebugEnabled()) {
+        CacheStats stats = cache.getStats();
+        LOG.debug("Browse cache: {} results, {} hits, {} misses, {} evictions.", cache.size(), stats.hitCount(),
+                  stats.missCount(), stats.evictionCount());
+      }
+    }
+  }
+
+  private BrowseDetail browseUncached(String path, int limit, S3Metrics metrics) throws IOException {
     if (isRoot(path)) {
-      return browseBuckets(limit);
+      return browseBuckets(limit, metrics);
+    }
+    BrowseCursor cursor = BrowseCursor.fromBrowsePath(path);
+    if (cursor != null) {
+      return browseObjects(cursor.getPath(), limit, cursor.getPosition(), metrics);
+    }
+    return browseObjects(path, limit, null, metrics);
+  }
+
+  /**
+   * Samples text objects with a single ranged GET. Other formats, and requests that need features of the input
+   * format such as decompression, are sampled through the Hadoop file system.
+   */
+  @Override
+  public List<StructuredRecord> sample(ConnectorContext context, SampleRequest request) throws IOException {
+    long start = System.nanoTime();
+    S3Metrics metrics = S3Metrics.create();
+    try {
+      int readBytes = Integer.getInteger(S3Constants.SAMPLE_READ_BYTES, DEFAULT_SAMPLE_READ_BYTES);
+      if (readBytes > 0) {
+        List<StructuredRecord> records = new TextSampler(config, metrics, readBytes).sample(request);
+        if (records != null) {
+          return records;
+        }
+      }
+      return super.sample(context, request);
+    } finally {
+      logRequests("Sampled", request.getPath(), start, metrics);
+    }
+  }
+
+  /**
+   * Logs the time taken by a call and the S3 requests it made. Connectors have no stage metrics to publish the
+   * requests to.
+   */
+  private static void logRequests(String action, String path, long startNanos, S3Metrics metrics) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("{} '{}' in {} ms, S3 requests: {}", action, path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), metrics.drain());
     }
-    return browseObjects(S3Path.from(request.getPath()), limit);
   }
 
   @Override
@@ -165,9 +236,9 @@ public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
     builder.addRelatedPlugin(new PluginSpec(S3BatchSink.NAME, BatchSink.PLUGIN_TYPE, sinkProperties));
   }
 
-  private BrowseDetail browseBuckets(int limit) {
+  private BrowseDetail browseBuckets(int limit, S3Metrics metrics) {
     AmazonS3 s3 = getS3Client();
-    List<Bucket> buckets = s3.listBuckets();
+    List<Bucket> buckets = s3.listBuckets(metrics.tag(new ListBucketsRequest()));
     BrowseDetail.Builder builder = BrowseDetail.builder().setTotalCount(buckets.size());
     for (int i = 0; i < Math.min(buckets.size(), limit); i++) {
       String name = buckets.get(i).getName();
@@ -176,58 +247,116 @@ public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
     return builder.build();
   }
 
-  private BrowseDetail browseObjects(S3Path path, int limit) {
-    AmazonS3 s3 = getS3Client();
-    ListObjectsRequest listObjectsRequest = getListObjectsRequest(path);
-    List<BrowseEntity> entities = new ArrayList<>();
+  /**
+   * Browses the objects under the given path. If there are more than limit objects, an additional entity named
+   * {@link #NEXT_PAGE_NAME} is returned. It is a {@link #DIRECTORY_TYPE} entity, so that it can be browsed like any
+   * folder, and it is counted in the total count like the other entities. Browsing its path returns the next page
+   * with a single LIST call, starting from where this page ended.
+   */
+  private BrowseDetail browseObjects(String browsePath, int limit,
+                                     @Nullable S3ListingIterator.Position position,
+                                     S3Metrics metrics) throws IOException {
+    S3Path path = S3Path.from(browsePath);
+    AmazonS3 s3 = S3RegionResolver.getInstance().getClient(config, path.getBucket());
     BrowseDetail.Builder builder = BrowseDetail.builder();
+    ListObjectsV2Request request = metrics.tag(getListObjectsRequest(path, limit));
+    S3Inventory inventory = getInventory(path.getBucket(), metrics);
 
-    ObjectListing result;
-    int count = 0;
-    do {
-      result = s3.listObjects(listObjectsRequest);
-      // common prefixes are directories
-      for (String dir : result.getCommonPrefixes()) {
-        if (dir.equalsIgnoreCase("/")) {
-          continue;
-        }
-        if (count >= limit) {
-          break;
+    List<S3ListingIterator.Entry> entries = new ArrayList<>();
+    S3ListingIterator.Position next;
+    if (inventory != null) {
+      List<S3ListingIterator.Entry> children = inventory.browse(
+        request.getPrefix() == null ? "" : request.getPrefix(), DELIMITER,
+        position == null ? null : position.getToken(), limit == Integer.MAX_VALUE ? limit : limit + 1);
+      entries.addAll(children.subList(0, Math.min(limit, children.size())));
+      // the inventory is continued from the last entry of the page
+      next = children.size() > limit ? new S3ListingIterator.Position(entries.get(entries.size() - 1).getKey(), 0) :
+        null;
+    } else {
+      S3ListingIterator listing = new S3ListingIterator(s3, request, position);
+      while (entries.size() < limit && listing.hasNext()) {
+        S3ListingIterator.Entry entry = listing.next();
+        // skip the "/" common prefix of keys that start with the delimiter
+        if (!entry.isPrefix() || !entry.getPrefix().equalsIgnoreCase("/")) {
+          entries.add(entry);
         }
-        entities.add(BrowseEntity.builder(new File(dir).getName(), String.format("%s/%s", result.getBucketName(), dir),
-                                          DIRECTORY_TYPE).canBrowse(true).canSample(true).build());
-        count++;
       }
-      for (S3ObjectSummary summary : result.getObjectSummaries()) {
-        if (count >= limit) {
-          break;
-        }
+      next = entries.size() >= limit ? listing.getResumePosition() : null;
+    }
+
+    List<String> dirs = new ArrayList<>();
+    List<S3ObjectSummary> undetected = new ArrayList<>();
+    for (S3ListingIterator.Entry entry : entries) {
+      if (entry.isPrefix()) {
+        dirs.add(entry.getPrefix());
+      } else if (undetected.size() < MAX_DETECTED_OBJECTS && !isDetectedFromName(entry.getKey())) {
+        undetected.add(entry.getSummary());
+      }
+    }
 
-        BrowseEntity build = generateFromSummary(summary);
-        entities.add(build);
-        count++;
+    Map<String, DirectorySummarizer.Summary> summaries = config.shouldSummarizeDirectories() && !dirs.isEmpty() ?
+      new DirectorySummarizer(s3, metrics, MAX_SUMMARY_OBJECTS_PER_DIRECTORY, SUMMARY_TIME_BUDGET_MILLIS)
+        .summarize(path.getBucket(), dirs) : Collections.emptyMap();
+    Map<String, FileContentDetector.Format> formats = undetected.isEmpty() ? Collections.emptyMap() :
+      new FileContentDetector(s3, metrics, DETECTION_TIME_BUDGET_MILLIS).detect(undetected);
+    for (S3ListingIterator.Entry entry : entries) {
+      if (entry.isPrefix()) {
+        builder.addEntity(generateFromPrefix(entry.getBucket(), entry.getPrefix(), summaries.get(entry.getPrefix())));
+      } else {
+        builder.addEntity(generateFromSummary(entry.getSummary(), formats.get(entry.getKey())));
       }
-      listObjectsRequest.setMarker(result.getMarker());
-    } while (count < limit && result.isTruncated());
+    }
+    int count = entries.size();
+
+    if (next != null) {
+      builder.addEntity(BrowseEntity.builder(NEXT_PAGE_NAME, new BrowseCursor(browsePath, next).toBrowsePath(),
+                                             DIRECTORY_TYPE).canBrowse(true).canSample(false).build());
+      count++;
+    }
 
     // if the result is empty, this path may already be a file so just try to list it without "/" in prefix
-    if (count == 0 && entities.isEmpty()) {
-      ListObjectsRequest fileRequest = new ListObjectsRequest();
-      fileRequest.setBucketName(path.getBucket());
-      fileRequest.setPrefix(path.getName());
-      ObjectListing listing = s3.listObjects(fileRequest);
-      List<S3ObjectSummary> objectSummaries = listing.getObjectSummaries();
-      if (objectSummaries.isEmpty()) {
+    if (count == 0 && position == null) {
+      Iterator<S3ListingIterator.Entry> fileListing = new S3ListingIterator(
+        s3, metrics.tag(S3ListingIterator.createRequest(path.getBucket(), path.getName(), null, 1)));
+      if (!fileListing.hasNext()) {
         return builder.build();
       }
-      return builder.setTotalCount(1).addEntity(generateFromSummary(objectSummaries.get(0)))
+      S3ObjectSummary file = fileListing.next().getSummary();
+      FileContentDetector.Format format = isDetectedFromName(file.getKey()) ? null :
+        new FileContentDetector(s3, metrics, DETECTION_TIME_BUDGET_MILLIS).detect(Collections.singletonList(file))
+          .get(file.getKey());
+      return builder.setTotalCount(1).addEntity(generateFromSummary(file, format))
         .setSampleProperties(getSampleProperties()).build();
     }
-    return builder.setTotalCount(count).setEntities(entities)
-      .setSampleProperties(getSampleProperties()).build();
+    return builder.setTotalCount(count).setSampleProperties(getSampleProperties()).build();
+  }
+
+  private BrowseEntity generateFromPrefix(String bucket, String dir, @Nullable DirectorySummarizer.Summary summary) {
+    BrowseEntity.Builder entity = BrowseEntity.builder(new File(dir).getName(), String.format("%s/%s", bucket, dir),
+                                                       DIRECTORY_TYPE).canBrowse(true).canSample(true);
+    if (summary != null) {
+      Map<String, BrowseEntityPropertyValue> properties = new HashMap<>();
+      properties.put(SIZE_KEY, BrowseEntityPropertyValue.builder(
+        String.valueOf(summary.getSize()), BrowseEntityPropertyValue.PropertyType.SIZE_BYTES).build());
+      properties.put(OBJECT_COUNT_KEY, BrowseEntityPropertyValue.builder(
+        String.valueOf(summary.getObjectCount()), BrowseEntityPropertyValue.PropertyType.NUMBER).build());
+      if (summary.getLastModified() > 0) {
+        properties.put(LAST_MODIFIED_KEY, BrowseEntityPropertyValue.builder(
+          String.valueOf(summary.getLastModified()), BrowseEntityPropertyValue.PropertyType.TIMESTAMP_MILLIS).build());
+      }
+      properties.put(SUMMARY_KEY, BrowseEntityPropertyValue.builder(
+        summary.isComplete() ? "complete" : "partial", BrowseEntityPropertyValue.PropertyType.STRING).build());
+      entity.setProperties(properties);
+    }
+    return entity.build();
   }
 
-  private BrowseEntity generateFromSummary(S3ObjectSummary summary) {
+  /**
+   * Generates the entity of an object. The file type is detected from the given format if the content of the object
+   * was inspected, and from the object name otherwise. The detected format is also set as the default format to
+   * sample the object with, which keeps its real path.
+   */
+  private BrowseEntity generateFromSummary(S3ObjectSummary summary, @Nullable FileContentDetector.Format format) {
     String name = summary.getKey();
     // on aws the file name can be empty, it this way the key here will ends with "/"
     BrowseEntity.Builder entity = BrowseEntity.builder(name.endsWith(DELIMITER) ? "" : new File(name).getName(),
@@ -238,15 +367,32 @@ public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
       String.valueOf(summary.getSize()), BrowseEntityPropertyValue.PropertyType.SIZE_BYTES).build());
     properties.put(LAST_MODIFIED_KEY, BrowseEntityPropertyValue.builder(
       String.valueOf(summary.getLastModified()), BrowseEntityPropertyValue.PropertyType.TIMESTAMP_MILLIS).build());
-    String fileType = FileTypeDetector.detectFileType(name);
+    String fileType = format == null ? null : format.getFileType();
+    String sampleFormat = fileType == null ? null : format.getSampleFormat();
+    if (fileType == null) {
+      fileType = FileTypeDetector.detectFileType(name);
+    }
     properties.put(FILE_TYPE_KEY, BrowseEntityPropertyValue.builder(
       fileType, BrowseEntityPropertyValue.PropertyType.STRING).build());
     entity.canSample(FileTypeDetector.isSampleable(fileType));
     entity.setProperties(properties);
     addBrowseSampleDefaultValues(entity, name);
+    if (sampleFormat != null) {
+      // the defaults above are detected from the name, which does not tell the format of this object
+      entity.addProperty(AbstractFileSourceConfig.NAME_FORMAT, BrowseEntityPropertyValue.builder(
+        sampleFormat, BrowseEntityPropertyValue.PropertyType.SAMPLE_DEFAULT).build());
+    }
     return entity.build();
   }
 
+  /**
+   * Returns whether the format of an object can be detected from its name. Directory markers are considered
+   * detected, since they have no content.
+   */
+  private static boolean isDetectedFromName(String key) {
+    return key.endsWith(DELIMITER) || FileTypeDetector.isSampleable(FileTypeDetector.detectFileType(key));
+  }
+
   /**
    * Return the list request, the request is like following:
    * 1. Bucket has to be set,
@@ -260,41 +406,29 @@ public class S3Connector extends AbstractFileConnector<S3ConnectorConfig> {
    *
    * if browsing bucket/test, prefix has to be set as "test/" and delimiter has to be "/", this will make sure
    * "dir" is returned as a common key. S3 has no method to list just the current dirctory.
+   * 4. The page size is capped by the limit so that no more keys than needed are fetched.
    */
-  private ListObjectsRequest getListObjectsRequest(S3Path path) {
-    ListObjectsRequest listObjectsRequest = new ListObjectsRequest();
-    listObjectsRequest.setBucketName(path.getBucket());
+  private ListObjectsV2Request getListObjectsRequest(S3Path path, int limit) {
     String name = path.getName();
     String prefix = name.isEmpty() ? null : name.endsWith(DELIMITER) ? name : name + DELIMITER;
-    if (prefix != null) {
-      listObjectsRequest.setPrefix(prefix);
-    }
-    listObjectsRequest.setDelimiter(DELIMITER);
-    return listObjectsRequest;
+    return S3ListingIterator.createRequest(path.getBucket(), prefix, DELIMITER, limit);
   }
 
-  private AmazonS3 getS3Client() {
-    AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard();
-    if (config.getRegion() != null) {
-      builder.setRegion(config.getRegion());
-    }
-
-    if (!config.isAccessCredentials()) {
-      // use IAM provider to access, this can only work on AWS environment
-      return builder.withCredentials(InstanceProfileCredentialsProvider.getInstance()).build();
-    }
-
-    if (config.getAccessID() == null || config.getAccessKey() == null) {
-      throw new IllegalArgumentException("Access ID and Access Key are not provided");
+  /**
+   * Returns the inventory of the connection if it describes the given bucket.
+   */
+  @Nullable
+  private S3Inventory getInventory(String bucket, S3Metrics metrics) throws IOException {
+    String manifest = config.getInventoryManifest();
+    if (manifest == null) {
+      return null;
     }
+    S3Inventory inventory = S3Inventory.load(manifest, S3Inventory.createOpener(config, metrics));
+    return bucket.equals(inventory.getSourceBucket()) ? inventory : null;
+  }
 
-    AWSCredentials creds;
-    if (config.getSessionToken() == null) {
-      creds = new BasicAWSCredentials(config.getAccessID(), config.getAccessKey());
-    } else {
-      creds = new BasicSessionCredentials(config.getAccessID(), config.getAccessKey(), config.getSessionToken());
-    }
-    return builder.withCredentials(new AWSStaticCredentialsProvider(creds)).build();
+  private AmazonS3 getS3Client() {
+    return S3ClientRegistry.getInstance().getClient(config);
   }
 
   private boolean isRoot(String path) {
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.connector.SampleRequest;
+import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import io.cdap.plugin.aws.s3.common.S3Path;
+import io.cdap.plugin.aws.s3.common.S3RegionResolver;
+import io.cdap.plugin.format.connector.AbstractFileConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Samples objects in the text format with a single ranged GET, without going through the Hadoop file system and
+ * input format. Only the first bytes of the object are read and split into lines, the same way the text format does.
+ * Requests that this sampler cannot answer the same way as the input format are left to the caller.
+ */
+final class TextSampler {
+  private static final Logger LOG = LoggerFactory.getLogger(TextSampler.class);
+  static final Schema SCHEMA = Schema.recordOf("textfile",
+                                               Schema.Field.of("offset", Schema.of(Schema.Type.LONG)),
+                                               Schema.Field.of("body", Schema.of(Schema.Type.STRING)));
+  private static final String TEXT_FORMAT = "text";
+  private static final String FORMAT = "format";
+  private static final String SKIP_HEADER = "skipHeader";
+  private static final String FILE_ENCODING = "fileEncoding";
+  // properties that do not change how the text format reads an object
+  private static final Set<String> SUPPORTED_PROPERTIES =
+    ImmutableSet.of(FORMAT, SKIP_HEADER, FILE_ENCODING, "delimiter", AbstractFileConnector.PLUGIN_NAME_PROPERTY_KEY);
+  private static final Set<String> COMPRESSED_EXTENSIONS =
+    ImmutableSet.of(".gz", ".bz2", ".deflate", ".snappy", ".lz4", ".zst", ".zip");
+
+  private final S3ConnectorConfig config;
+  private final S3Metrics metrics;
+  private final int maxBytes;
+
+  TextSampler(S3ConnectorConfig config, S3Metrics metrics, int maxBytes) {
+    this.config = config;
+    this.metrics = metrics;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Samples the object of the request.
+   *
+   * @param request the sample request
+   * @return the sampled records, or null if the request cannot be answered by this sampler, in which case it has
+   *   to be answered by reading the object through the input format
+   * @throws IOException if the object could not be read
+   */
+  @Nullable
+  List<StructuredRecord> sample(SampleRequest request) throws IOException {
+    if (!isSupported(request)) {
+      return null;
+    }
+    S3Path path = S3Path.from(request.getPath());
+    byte[] buffer;
+    int length;
+    boolean truncated;
+    GetObjectRequest getRequest = new GetObjectRequest(path.getBucket(), path.getName()).withRange(0, maxBytes - 1);
+    AmazonS3 s3 = S3RegionResolver.getInstance().getClient(config, path.getBucket());
+    try (S3Object object = s3.getObject(metrics.tag(getRequest));
+         S3ObjectInputStream is = object.getObjectContent()) {
+      buffer = new byte[maxBytes];
+      length = 0;
+      int read;
+      while (length < buffer.length && (read = is.read(buffer, length, buffer.length - length)) >= 0) {
+        length += read;
+      }
+      truncated = object.getObjectMetadata().getInstanceLength() > length;
+      if (truncated) {
+        // the rest of the object is not needed, do not drain it from the connection
+        is.abort();
+      }
+    } catch (AmazonServiceException e) {
+      // the path is a directory or a prefix, or ranged reads are not allowed
+      LOG.debug("Unable to read object {} with a ranged read, reading it through the input format.",
+                request.getPath(), e);
+      return null;
+    }
+
+    if (FileContentDetector.Format.fromHeader(buffer, length, !truncated) == FileContentDetector.Format.GZIP) {
+      return null;
+    }
+    boolean skipHeader = Boolean.parseBoolean(request.getProperties().get(SKIP_HEADER));
+    List<StructuredRecord> records = parse(buffer, length, truncated, skipHeader, request.getLimit());
+    // lines longer than the buffer can only be read by the input format
+    return records.isEmpty() && truncated ? null : records;
+  }
+
+  private static boolean isSupported(SampleRequest request) {
+    Map<String, String> properties = request.getProperties();
+    if (!TEXT_FORMAT.equals(properties.get(FORMAT))) {
+      return false;
+    }
+    for (Map.Entry<String, String> property : properties.entrySet()) {
+      if (!SUPPORTED_PROPERTIES.contains(property.getKey()) && property.getValue() != null
+        && !property.getValue().isEmpty()) {
+        return false;
+      }
+    }
+    String encoding = properties.get(FILE_ENCODING);
+    if (encoding != null && !encoding.isEmpty() && !StandardCharsets.UTF_8.name().equalsIgnoreCase(encoding)) {
+      return false;
+    }
+    String path = request.getPath();
+    if (path == null || path.isEmpty() || path.endsWith("/") || S3Path.from(path).getName().isEmpty()) {
+      return false;
+    }
+    String lowerPath = path.toLowerCase();
+    return COMPRESSED_EXTENSIONS.stream().noneMatch(lowerPath::endsWith);
+  }
+
+  /**
+   * Splits the buffer into lines, terminated by '\n', '\r' or "\r\n" like the Hadoop line reader does.
+   * The last line is dropped if the buffer does not contain the whole object, since it may be incomplete.
+   */
+  static List<StructuredRecord> parse(byte[] buffer, int length, boolean truncated, boolean skipHeader, int limit) {
+    List<StructuredRecord> records = new ArrayList<>();
+    boolean header = skipHeader;
+    int start = 0;
+    while (start < length && records.size() < limit) {
+      int end = start;
+      while (end < length && buffer[end] != '\n' && buffer[end] != '\r') {
+        end++;
+      }
+      if (end == length && truncated) {
+        break;
+      }
+      int next = end + 1;
+      if (end + 1 < length && buffer[end] == '\r' && buffer[end + 1] == '\n') {
+        next++;
+      }
+      if (header) {
+        header = false;
+      } else {
+        records.add(StructuredRecord.builder(SCHEMA)
+                      .set("offset", (long) start)
+                      .set("body", new String(buffer, start, end - start, StandardCharsets.UTF_8))
+                      .build());
+      }
+      start = next;
+    }
+    return records;
+  }
+}
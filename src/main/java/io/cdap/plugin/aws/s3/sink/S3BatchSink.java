@@ -28,12 +28,17 @@ import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.StageContext;
+import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.api.batch.BatchSink;
 import io.cdap.cdap.etl.api.batch.BatchSinkContext;
 import io.cdap.cdap.etl.api.connector.Connector;
+import io.cdap.plugin.aws.s3.common.S3AThreadStatistics;
 import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
 import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
 import io.cdap.plugin.aws.s3.common.S3Path;
+import io.cdap.plugin.aws.s3.common.S3RegionResolver;
 import io.cdap.plugin.aws.s3.connector.S3Connector;
 import io.cdap.plugin.common.Asset;
 import io.cdap.plugin.common.ConfigUtil;
@@ -41,6 +46,8 @@ import io.cdap.plugin.common.LineageRecorder;
 import io.cdap.plugin.common.ReferenceNames;
 import io.cdap.plugin.format.plugin.AbstractFileSink;
 import io.cdap.plugin.format.plugin.AbstractFileSinkConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
@@ -57,12 +64,19 @@ import javax.annotation.Nullable;
 @Description("Batch sink to use Amazon S3 as a sink.")
 @Metadata(properties = {@MetadataProperty(key = Connector.PLUGIN_TYPE, value = S3Connector.NAME)})
 public class S3BatchSink extends AbstractFileSink<S3BatchSink.S3BatchSinkConfig> {
+  private static final Logger LOG = LoggerFactory.getLogger(S3BatchSink.class);
   public static final String NAME = "S3";
   private static final String ENCRYPTION_VALUE = "AES256";
   private static final String ACCESS_CREDENTIALS = "Access Credentials";
 
   private final S3BatchSinkConfig config;
   private Asset asset;
+  // the endpoint of the bucket, resolved once per run since the file system properties are built several times
+  private Map<String, String> bucketEndpoint;
+  private StageMetrics metrics;
+  // the requests made for the stage in this process, kept while the stage runs, and the S3A operations of the task
+  private S3Metrics stageMetrics;
+  private S3AThreadStatistics s3aStatistics;
 
   public S3BatchSink(S3BatchSinkConfig config) {
     super(config);
@@ -71,6 +85,7 @@ public class S3BatchSink extends AbstractFileSink<S3BatchSink.S3BatchSinkConfig>
 
   @Override
   public void prepareRun(BatchSinkContext context) throws Exception {
+    bucketEndpoint = null;
     // create asset for lineage
     String referenceName = Strings.isNullOrEmpty(config.getReferenceName())
       ? ReferenceNames.normalizeFqn(config.getPath())
@@ -82,6 +97,30 @@ public class S3BatchSink extends AbstractFileSink<S3BatchSink.S3BatchSinkConfig>
     super.prepareRun(context);
   }
 
+  @Override
+  public void onRunFinish(boolean succeeded, BatchSinkContext context) {
+    super.onRunFinish(succeeded, context);
+    LOG.info("S3 requests of stage {} outside of tasks: {}", context.getStageName(),
+             S3Metrics.forStage(context).publish(context.getMetrics()));
+    S3Metrics.release(context);
+  }
+
+  @Override
+  public void initialize(BatchRuntimeContext context) throws Exception {
+    super.initialize(context);
+    metrics = context.getMetrics();
+    stageMetrics = S3Metrics.forStage(context);
+    s3aStatistics = S3AThreadStatistics.start();
+  }
+
+  @Override
+  public void destroy() {
+    if (metrics != null) {
+      LOG.debug("S3 requests of the task: {}", stageMetrics.publish(metrics, s3aStatistics.drainWrites()));
+    }
+    super.destroy();
+  }
+
   @Override
   protected LineageRecorder getLineageRecorder(BatchSinkContext context) {
     return new LineageRecorder(context, asset);
@@ -108,6 +147,14 @@ public class S3BatchSink extends AbstractFileSink<S3BatchSink.S3BatchSinkConfig>
       }
     }
 
+    // go straight to the region of the bucket at runtime, instead of being redirected on every request
+    if (context != null && config.getPath(context).startsWith(S3Path.SCHEME)
+      && !S3RegionResolver.hasEndpoint(properties, config.getPath(context))) {
+      if (bucketEndpoint == null) {
+        bucketEndpoint = S3RegionResolver.getInstance().getBucketEndpoint(config.connection, config.getPath(context));
+      }
+      properties.putAll(bucketEndpoint);
+    }
     if (config.shouldEnableEncryption()) {
       if (config.path.startsWith("s3a://")) {
         properties.put(S3Constants.S3A_ENCRYPTION, ENCRYPTION_VALUE);
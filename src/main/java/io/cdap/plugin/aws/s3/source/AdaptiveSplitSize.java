@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import java.util.Arrays;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Plans the size of the splits of the input from the objects it lists, so that the splits keep the slots of the
+ * executors busy without making a task per small chunk of the input. The input is cut into about two splits per slot,
+ * so that the slots that finish first pick up the remaining splits, within the given bounds. When most objects are
+ * larger than that, the size is rounded so that they are cut into splits of the same size, instead of a few full
+ * splits and a small one.
+ */
+final class AdaptiveSplitSize {
+  // splits planned per executor slot
+  static final int SPLITS_PER_SLOT = 2;
+  // Spark properties, as runtime arguments, of the executors the pipeline runs with
+  private static final String EXECUTOR_INSTANCES = "system.spark.spark.executor.instances";
+  private static final String EXECUTOR_MAX_INSTANCES = "system.spark.spark.dynamicAllocation.maxExecutors";
+  private static final String EXECUTOR_CORES = "system.spark.spark.executor.cores";
+
+  private AdaptiveSplitSize() {
+    // utility class
+  }
+
+  /**
+   * Returns the size of the splits of the given objects.
+   *
+   * @param sizes the sizes of the objects
+   * @param slots the number of executor slots that read the splits
+   * @param minSize the smallest size of the splits
+   * @param maxSize the largest size of the splits, which wins over the smallest one
+   * @return the size of the splits
+   */
+  static long compute(long[] sizes, int slots, long minSize, long maxSize) {
+    if (sizes.length == 0) {
+      return maxSize;
+    }
+    long total = 0;
+    for (long size : sizes) {
+      total += size;
+    }
+    long splits = (long) Math.max(1, slots) * SPLITS_PER_SLOT;
+    long size = divideRoundingUp(total, splits);
+    long[] sorted = sizes.clone();
+    Arrays.sort(sorted);
+    long median = sorted[sorted.length / 2];
+    if (median > size) {
+      size = divideRoundingUp(median, divideRoundingUp(median, size));
+    }
+    return Math.min(maxSize, Math.max(minSize, size));
+  }
+
+  /**
+   * Returns the number of executor slots from the Spark properties of the run, or the given default if the run does
+   * not set the number of executors.
+   *
+   * @param arguments the runtime arguments of the run
+   * @param defaultSlots the number of slots when it is not known
+   * @return the number of slots
+   */
+  static int getSlots(Map<String, String> arguments, int defaultSlots) {
+    Integer executors = parse(arguments.get(EXECUTOR_INSTANCES));
+    if (executors == null) {
+      executors = parse(arguments.get(EXECUTOR_MAX_INSTANCES));
+    }
+    if (executors == null) {
+      return defaultSlots;
+    }
+    Integer cores = parse(arguments.get(EXECUTOR_CORES));
+    return executors * (cores == null ? 1 : cores);
+  }
+
+  @Nullable
+  private static Integer parse(@Nullable String value) {
+    try {
+      return value == null ? null : Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static long divideRoundingUp(long dividend, long divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+}
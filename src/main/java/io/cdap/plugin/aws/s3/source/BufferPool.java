@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of buffers of the same size, shared by all the streams of the JVM, so that reading an object does not
+ * allocate new buffers for every block. Only a bounded number of released buffers are kept.
+ */
+final class BufferPool {
+  // maximum bytes of released buffers kept by a pool
+  private static final long MAX_RETAINED_BYTES = 256L * 1024 * 1024;
+  private static final ConcurrentMap<String, BufferPool> POOLS = new ConcurrentHashMap<>();
+
+  private final int bufferSize;
+  private final boolean direct;
+  private final int maxRetained;
+  private final Queue<ByteBuffer> buffers;
+  private final AtomicInteger retained;
+
+  private BufferPool(int bufferSize, boolean direct) {
+    this.bufferSize = bufferSize;
+    this.direct = direct;
+    this.maxRetained = (int) Math.max(1, MAX_RETAINED_BYTES / bufferSize);
+    this.buffers = new ConcurrentLinkedQueue<>();
+    this.retained = new AtomicInteger();
+  }
+
+  /**
+   * @param bufferSize the size of the buffers
+   * @param direct whether the buffers are allocated outside of the heap
+   * @return the pool of the buffers of the given size and kind
+   */
+  static BufferPool get(int bufferSize, boolean direct) {
+    return POOLS.computeIfAbsent(bufferSize + (direct ? "|direct" : "|heap"),
+                                 key -> new BufferPool(bufferSize, direct));
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * @return a cleared buffer
+   */
+  ByteBuffer acquire() {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+    retained.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Gives back a buffer that is not used anymore.
+   */
+  void release(ByteBuffer buffer) {
+    if (buffer.capacity() != bufferSize || buffer.isDirect() != direct) {
+      return;
+    }
+    if (retained.incrementAndGet() > maxRetained) {
+      // let the garbage collector have it
+      retained.decrementAndGet();
+      return;
+    }
+    buffers.offer(buffer);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A stream of an object that serves the reads of a range of the object from a cached copy of it, like the footer
+ * of a Parquet object, see {@link ParquetFooter}, or the header of a text object, see {@link ObjectHeader}, and the
+ * other reads from the stream of the object. The stream of the object is only opened and seeked when it is read
+ * from, so a reader that only reads the cached range makes no request for the object.
+ */
+final class CachedRangeInputStream extends FSInputStream {
+  private final Opener opener;
+  private final long length;
+  private final long rangeOffset;
+  private final ByteBuffer range;
+  private FSDataInputStream in;
+  private long position;
+  private boolean closed;
+
+  /**
+   * @param opener opens the stream of the object
+   * @param length the length of the object
+   * @param rangeOffset the offset of the cached range in the object
+   * @param range the cached range, positioned at its start
+   */
+  CachedRangeInputStream(Opener opener, long length, long rangeOffset, ByteBuffer range) {
+    this.opener = opener;
+    this.length = length;
+    this.rangeOffset = rangeOffset;
+    this.range = range;
+  }
+
+  @Override
+  public synchronized void seek(long pos) throws IOException {
+    checkOpen();
+    if (pos < 0 || pos > length) {
+      throw new EOFException(String.format("Cannot seek to %d in an object of %d bytes.", pos, length));
+    }
+    position = pos;
+  }
+
+  @Override
+  public synchronized long getPos() {
+    return position;
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) {
+    return false;
+  }
+
+  @Override
+  public synchronized int read() throws IOException {
+    byte[] buffer = new byte[1];
+    int count = read(buffer, 0, 1);
+    return count < 0 ? -1 : buffer[0] & 0xff;
+  }
+
+  @Override
+  public synchronized int read(byte[] buffer, int offset, int len) throws IOException {
+    checkOpen();
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= length) {
+      return -1;
+    }
+    int count;
+    long rangeEnd = rangeOffset + range.limit();
+    if (position >= rangeOffset && position < rangeEnd) {
+      range.position((int) (position - rangeOffset));
+      count = Math.min(len, range.remaining());
+      range.get(buffer, offset, count);
+    } else {
+      if (in == null) {
+        in = opener.open();
+      }
+      if (in.getPos() != position) {
+        in.seek(position);
+      }
+      // stop at the cached range, which is served from the cache
+      long end = position < rangeOffset ? rangeOffset : length;
+      count = in.read(buffer, offset, (int) Math.min(len, end - position));
+      if (count < 0) {
+        throw new EOFException(String.format("Unexpected end of the object at %d of %d bytes.", position, length));
+      }
+    }
+    position += count;
+    return count;
+  }
+
+  @Override
+  public synchronized int available() throws IOException {
+    checkOpen();
+    if (position >= rangeOffset && position < rangeOffset + range.limit()) {
+      return (int) (rangeOffset + range.limit() - position);
+    }
+    return in == null ? 0 : in.available();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream is closed.");
+    }
+  }
+
+  /**
+   * Opens the stream of the object.
+   */
+  interface Opener {
+    FSDataInputStream open() throws IOException;
+  }
+}
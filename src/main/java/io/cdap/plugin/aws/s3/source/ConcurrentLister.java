@@ -0,0 +1,373 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.plugin.aws.s3.common.S3ListingIterator;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import io.cdap.plugin.aws.s3.common.S3Path;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Lists all the objects under a prefix with concurrent LIST calls. A single listing of a prefix is sequential, each
+ * page carrying the continuation token of the next one, so the prefix is first split into sub prefixes with delimited
+ * listings, level by level, until there are enough of them to keep all the threads busy. The sub prefixes are then
+ * listed flat, without delimiter, in parallel.
+ *
+ * With a partition filter, the prefix is split for as long as there are partition directories, and the partitions
+ * that do not match the filter are never listed. With a path regex anchored at the start of the path, only the
+ * literal prefixes the regex starts with are listed, see {@link RegexPrefixes}.
+ *
+ * Globs are expanded the same way, with delimited listings of all the directories of a level at once.
+ *
+ * The LIST calls of all the listers of the JVM run on a shared pool of threads, each lister running at most its
+ * number of threads of them at once.
+ */
+final class ConcurrentLister {
+  private static final String DELIMITER = "/";
+  // number of sub prefixes per thread to aim for, so that threads that list small prefixes can pick up more work
+  private static final int PREFIXES_PER_THREAD = 4;
+  private static final int MAX_FAN_OUT_DEPTH = 4;
+  private static final int MAX_THREADS = 64;
+  private static final ExecutorService EXECUTOR = createExecutor();
+
+  private final AmazonS3 s3;
+  private final S3Metrics metrics;
+  private final int threads;
+  private final Pattern pathPattern;
+  private final S3PartitionFilter partitionFilter;
+  private final Predicate<String> directoryFilter;
+
+  /**
+   * @param s3 the client to list with
+   * @param metrics the metrics of the stage to record the LIST calls to
+   * @param threads the maximum number of concurrent LIST calls
+   * @param pathPattern if not null, only the objects whose s3a:// path contains a match of the pattern are listed
+   * @param partitionFilter if not null, only the objects whose partitions match the filter are listed
+   * @param directoryFilter if not null, the directories under the listed prefix, prefixes that end with the
+   *   delimiter, that the filter rejects are not listed
+   */
+  ConcurrentLister(AmazonS3 s3, S3Metrics metrics, int threads, @Nullable Pattern pathPattern,
+                   @Nullable S3PartitionFilter partitionFilter, @Nullable Predicate<String> directoryFilter) {
+    this.s3 = s3;
+    this.metrics = metrics;
+    this.threads = threads;
+    this.pathPattern = pathPattern;
+    this.partitionFilter = partitionFilter;
+    this.directoryFilter = directoryFilter;
+  }
+
+  private static ExecutorService createExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+      MAX_THREADS, MAX_THREADS, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+      new ThreadFactoryBuilder().setNameFormat("s3-planning-lister-%d").setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Lists the objects under the given prefix. Directory markers, keys that end with the delimiter, are left out.
+   *
+   * @param bucket the bucket to list
+   * @param prefix the prefix to list, either empty or ending with the delimiter
+   * @param mapper maps the listed objects to the returned elements, called concurrently
+   * @param <T> the type of the returned elements
+   * @return the mapped objects, in the order of their keys
+   * @throws IOException if a listing failed
+   */
+  <T> List<T> list(String bucket, String prefix, Function<S3ObjectSummary, T> mapper) throws IOException {
+    Predicate<String> accepted = getAccepted(prefix);
+    List<Listing<T>> listings = new ArrayList<>();
+    List<String> prefixes = new ArrayList<>();
+    for (String subPrefix : RegexPrefixes.narrow(pathPattern, bucket, prefix)) {
+      if (accepted.test(subPrefix)) {
+        prefixes.add(subPrefix);
+      }
+    }
+    // the first level is always split, to find the partitions under the prefix
+    boolean partitioned = partitionFilter != null;
+    for (int depth = 0; !prefixes.isEmpty() && (partitioned || depth < MAX_FAN_OUT_DEPTH
+      && prefixes.size() < threads * PREFIXES_PER_THREAD); depth++) {
+      List<Callable<Listing<T>>> tasks = new ArrayList<>();
+      for (String subPrefix : prefixes) {
+        tasks.add(() -> list(bucket, subPrefix, DELIMITER, mapper, accepted));
+      }
+      List<String> next = new ArrayList<>();
+      partitioned = false;
+      for (Listing<T> listing : runAll(tasks)) {
+        listings.add(listing);
+        for (String subPrefix : listing.prefixes) {
+          if (partitionFilter != null && S3PartitionFilter.isPartition(subPrefix)) {
+            partitioned = true;
+            if (!partitionFilter.mightMatch(subPrefix)) {
+              continue;
+            }
+          }
+          if (accepted.test(subPrefix)) {
+            next.add(subPrefix);
+          }
+        }
+      }
+      prefixes = next;
+    }
+
+    List<Callable<Listing<T>>> tasks = new ArrayList<>();
+    for (String subPrefix : prefixes) {
+      tasks.add(() -> list(bucket, subPrefix, null, mapper, accepted));
+    }
+    listings.addAll(runAll(tasks));
+
+    // every key is in exactly one listing, sort them so that the result does not depend on the thread timing
+    List<Map.Entry<String, T>> objects = new ArrayList<>();
+    for (Listing<T> listing : listings) {
+      objects.addAll(listing.objects);
+    }
+    return sort(objects);
+  }
+
+  /**
+   * Lists the objects and the directories directly under the given prefix, with a single delimited listing.
+   * Directory markers are left out.
+   *
+   * @param bucket the bucket to list
+   * @param prefix the prefix to list, either empty or ending with the delimiter
+   * @param mapper maps the listed objects to the returned elements
+   * @param dirMapper maps the listed directories, prefixes that end with the delimiter, to the returned elements
+   * @param <T> the type of the returned elements
+   * @return the mapped objects and directories, in the order of their keys
+   * @throws IOException if the listing failed
+   */
+  <T> List<T> listDirectory(String bucket, String prefix, Function<S3ObjectSummary, T> mapper,
+                            Function<String, T> dirMapper) throws IOException {
+    Callable<Listing<T>> task = () -> list(bucket, prefix, DELIMITER, mapper, key -> true);
+    Listing<T> listing = runAll(Collections.singletonList(task)).get(0);
+    List<Map.Entry<String, T>> entries = new ArrayList<>(listing.objects);
+    for (String subPrefix : listing.prefixes) {
+      entries.add(new AbstractMap.SimpleImmutableEntry<>(subPrefix, map(dirMapper, subPrefix)));
+    }
+    return sort(entries);
+  }
+
+  /**
+   * Returns whether the directories of a key or prefix under the given listed prefix are all accepted by the
+   * directory filter. The filter is called once per directory.
+   */
+  private Predicate<String> getAccepted(String prefix) {
+    if (directoryFilter == null) {
+      return key -> true;
+    }
+    Map<String, Boolean> directories = new ConcurrentHashMap<>();
+    return key -> {
+      for (int end = key.indexOf(DELIMITER, prefix.length()); end >= 0; end = key.indexOf(DELIMITER, end + 1)) {
+        if (!directories.computeIfAbsent(key.substring(0, end + 1), directoryFilter::test)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  /**
+   * Finds the objects and directories that match a glob, one segment of the glob at a time. The directories that
+   * match a segment are all listed concurrently, with the literal prefix of the next segment, so that the time to
+   * expand the glob depends on the number of segments rather than on the number of directories.
+   *
+   * @param bucket the bucket to list
+   * @param glob the glob of the keys
+   * @param mapper maps the matching objects to the returned elements, called concurrently
+   * @param dirMapper maps the matching directories, prefixes that end with the delimiter, to the returned elements
+   * @param <T> the type of the returned elements
+   * @return the mapped objects and directories, in the order of their keys
+   * @throws IOException if a listing failed
+   */
+  <T> List<T> glob(String bucket, S3Glob glob, Function<S3ObjectSummary, T> mapper,
+                   Function<String, T> dirMapper) throws IOException {
+    List<String> dirs = Collections.singletonList("");
+    List<S3Glob.Segment> segments = glob.getSegments();
+    List<Map.Entry<String, T>> matches = new ArrayList<>();
+    for (int i = 0; i < segments.size() && !dirs.isEmpty(); i++) {
+      S3Glob.Segment segment = segments.get(i);
+      boolean last = i == segments.size() - 1;
+      if (segment.isLiteral() && !last) {
+        // whether the directory exists is known when listing the next segments
+        List<String> next = new ArrayList<>();
+        for (String dir : dirs) {
+          next.add(dir + segment.getPrefix() + DELIMITER);
+        }
+        dirs = next;
+        continue;
+      }
+      List<Callable<Listing<T>>> tasks = new ArrayList<>();
+      for (String dir : dirs) {
+        tasks.add(() -> list(bucket, dir + segment.getPrefix(), DELIMITER, last ? mapper : null, key -> true));
+      }
+      List<String> next = new ArrayList<>();
+      Iterator<String> parents = dirs.iterator();
+      for (Listing<T> listing : runAll(tasks)) {
+        int start = parents.next().length();
+        for (String subPrefix : listing.prefixes) {
+          if (!segment.matches(subPrefix.substring(start, subPrefix.length() - 1))) {
+            continue;
+          }
+          if (last) {
+            matches.add(new AbstractMap.SimpleImmutableEntry<>(subPrefix, map(dirMapper, subPrefix)));
+          } else {
+            next.add(subPrefix);
+          }
+        }
+        for (Map.Entry<String, T> object : listing.objects) {
+          String name = object.getKey().substring(start);
+          if (name.indexOf('/') < 0 && segment.matches(name)) {
+            matches.add(object);
+          }
+        }
+      }
+      dirs = next;
+    }
+    return sort(matches);
+  }
+
+  private static <T> T map(Function<String, T> mapper, String prefix) throws IOException {
+    try {
+      return mapper.apply(prefix);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static <T> List<T> sort(List<Map.Entry<String, T>> objects) {
+    objects.sort(Map.Entry.comparingByKey());
+    List<T> results = new ArrayList<>(objects.size());
+    for (Map.Entry<String, T> object : objects) {
+      results.add(object.getValue());
+    }
+    return results;
+  }
+
+  /**
+   * Lists a prefix, the objects are left out of the listing if there is no mapper. The objects in the directories
+   * that are not accepted are left out too.
+   */
+  private <T> Listing<T> list(String bucket, String prefix, @Nullable String delimiter,
+                              @Nullable Function<S3ObjectSummary, T> mapper, Predicate<String> accepted) {
+    Listing<T> listing = new Listing<>();
+    S3ListingIterator iterator = new S3ListingIterator(
+      s3, metrics.tag(S3ListingIterator.createRequest(bucket, prefix, delimiter, S3ListingIterator.MAX_PAGE_SIZE)));
+    while (iterator.hasNext()) {
+      S3ListingIterator.Entry entry = iterator.next();
+      if (entry.isPrefix()) {
+        listing.prefixes.add(entry.getPrefix());
+        continue;
+      }
+      S3ObjectSummary summary = entry.getSummary();
+      if (mapper == null || summary.getKey().endsWith(DELIMITER)
+        || pathPattern != null && !pathPattern.matcher(S3Path.SCHEME + bucket + "/" + summary.getKey()).find()
+        || partitionFilter != null && !partitionFilter.matches(summary.getKey())
+        || delimiter == null && !accepted.test(summary.getKey())) {
+        continue;
+      }
+      listing.objects.add(new AbstractMap.SimpleImmutableEntry<>(summary.getKey(), mapper.apply(summary)));
+    }
+    return listing;
+  }
+
+  /**
+   * Runs the given tasks on the shared threads, at most the number of threads of the lister at once.
+   *
+   * @return the results of the tasks, in the order of the tasks
+   */
+  private <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+    CompletionService<T> completion = new ExecutorCompletionService<>(EXECUTOR);
+    Map<Future<T>, Integer> futures = new HashMap<>();
+    List<T> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+    try {
+      int submitted = 0;
+      for (; submitted < Math.min(threads, tasks.size()); submitted++) {
+        futures.put(completion.submit(tasks.get(submitted)), submitted);
+      }
+      for (int done = 0; done < tasks.size(); done++) {
+        Future<T> future = completion.take();
+        results.set(futures.get(future), future.get());
+        if (submitted < tasks.size()) {
+          futures.put(completion.submit(tasks.get(submitted)), submitted);
+          submitted++;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while listing objects.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      if (cause instanceof SdkClientException) {
+        throw new IOException("Failed to list objects: " + cause.getMessage(), cause);
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      for (Future<T> future : futures.keySet()) {
+        future.cancel(true);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * The objects and sub prefixes found under a prefix.
+   */
+  private static final class Listing<T> {
+    private final List<Map.Entry<String, T>> objects;
+    private final List<String> prefixes;
+
+    private Listing() {
+      this.objects = new ArrayList<>();
+      this.prefixes = new ArrayList<>();
+    }
+  }
+}
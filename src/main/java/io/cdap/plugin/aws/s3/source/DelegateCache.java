@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The S3A file systems that the planning file systems of a run delegate to, so that their connection pools and
+ * threads are shared by all the instances created for the same bucket and S3A configuration during the run. The
+ * delegates are kept until the source releases the run when it finishes, which closes them. The processes that do
+ * not see the end of the run, like executors, keep them until they exit. The configuration, which includes the
+ * credentials, is only kept as a digest.
+ */
+final class DelegateCache {
+  private static final Logger LOG = LoggerFactory.getLogger(DelegateCache.class);
+  private static final String S3A_PREFIX = "fs.s3a.";
+  private static final String S3A_IMPL = "fs.s3a.impl";
+  private static final String DEFAULT_DELEGATE = "org.apache.hadoop.fs.s3a.S3AFileSystem";
+  private static final DelegateCache INSTANCE = new DelegateCache();
+
+  // the delegates of each run, by digest of their configuration
+  private final ConcurrentMap<String, ConcurrentMap<String, Delegate>> runs;
+
+  DelegateCache() {
+    this.runs = new ConcurrentHashMap<>();
+  }
+
+  static DelegateCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the delegate of the run for the given bucket and S3A configuration, which is closed when the run is
+   * released.
+   *
+   * @param run the run, as set in {@link S3Constants#PLANNING_RUN}
+   * @param name the URI of the bucket
+   * @param conf the configuration of the planning file system
+   */
+  Delegate get(String run, URI name, Configuration conf) throws IOException {
+    String implementation = conf.get(S3Constants.PLANNING_DELEGATE_IMPL, DEFAULT_DELEGATE);
+    String key = getKey(name, conf, implementation);
+    try {
+      return runs.computeIfAbsent(run, r -> new ConcurrentHashMap<>()).computeIfAbsent(key, k -> {
+        try {
+          return create(name, conf);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Closes the delegates of the given run.
+   *
+   * @param run the run, as set in {@link S3Constants#PLANNING_RUN}
+   */
+  void release(String run) {
+    Map<String, Delegate> delegates = runs.remove(run);
+    if (delegates == null) {
+      return;
+    }
+    for (Delegate delegate : delegates.values()) {
+      try {
+        delegate.close();
+      } catch (IOException e) {
+        LOG.debug("Failed to close file system {}.", delegate.getFileSystem().getUri(), e);
+      }
+    }
+  }
+
+  /**
+   * Creates a delegate that is not shared, which must be closed by the caller.
+   *
+   * @param name the URI of the bucket
+   * @param conf the configuration of the planning file system
+   */
+  static Delegate create(URI name, Configuration conf) throws IOException {
+    String implementation = conf.get(S3Constants.PLANNING_DELEGATE_IMPL, DEFAULT_DELEGATE);
+    Configuration delegateConf = new Configuration(conf);
+    delegateConf.set(S3A_IMPL, implementation);
+    delegateConf.unset(S3A_IMPL + ".disable.cache");
+    FileSystem fs;
+    try {
+      fs = (FileSystem) ReflectionUtils.newInstance(delegateConf.getClassByName(implementation), delegateConf);
+    } catch (ClassNotFoundException e) {
+      throw new IOException(String.format("File system implementation '%s' not found.", implementation), e);
+    }
+    fs.initialize(name, delegateConf);
+    return new Delegate(fs, new S3AClients(conf));
+  }
+
+  private static String getKey(URI name, Configuration conf, String implementation) {
+    SortedMap<String, String> s3aProperties = new TreeMap<>();
+    for (Map.Entry<String, String> entry : conf) {
+      if (entry.getKey().startsWith(S3A_PREFIX) && !entry.getKey().startsWith(S3A_IMPL)) {
+        s3aProperties.put(entry.getKey(), entry.getValue());
+      }
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(implementation, StandardCharsets.UTF_8).putChar('\0');
+    hasher.putString(name.getScheme() + "://" + name.getAuthority(), StandardCharsets.UTF_8).putChar('\0');
+    for (Map.Entry<String, String> entry : s3aProperties.entrySet()) {
+      hasher.putString(entry.getKey(), StandardCharsets.UTF_8).putChar('\0');
+      hasher.putString(entry.getValue(), StandardCharsets.UTF_8).putChar('\0');
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * An S3A file system, with the clients that stand in for it where they can, see {@link S3AClients}. Both only
+   * depend on the S3A configuration.
+   */
+  static final class Delegate implements Closeable {
+    private final FileSystem fs;
+    private final S3AClients clients;
+
+    private Delegate(FileSystem fs, S3AClients clients) {
+      this.fs = fs;
+      this.clients = clients;
+    }
+
+    FileSystem getFileSystem() {
+      return fs;
+    }
+
+    S3AClients getClients() {
+      return clients;
+    }
+
+    @Override
+    public void close() throws IOException {
+      fs.close();
+    }
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A recursive descent parser of filter expressions: comparisons of names with literals, combined with AND, OR, NOT
+ * and parentheses, like {@code dt >= '2026-10-01' AND region IN ('eu', 'us')}. The comparison operators are =, !=,
+ * <>, <, <=, >, >=, IN and NOT IN, and literals are quoted strings or numbers.
+ *
+ * @param <T> the type of the nodes the expression is parsed into
+ */
+final class FilterParser<T> {
+  private static final String OPERATOR_CHARS = "=!<>";
+
+  private final String expression;
+  private final String description;
+  private final Builder<T> builder;
+  private final List<Token> tokens;
+  private int position;
+
+  private FilterParser(String expression, String description, Builder<T> builder) {
+    this.expression = expression;
+    this.description = description;
+    this.builder = builder;
+    this.tokens = tokenize(expression);
+  }
+
+  /**
+   * Parses a filter expression.
+   *
+   * @param expression the expression
+   * @param description what the expression is, for the error messages
+   * @param builder the builder of the nodes of the expression
+   * @return the root node of the expression
+   * @throws IllegalArgumentException if the expression is invalid
+   */
+  static <T> T parse(String expression, String description, Builder<T> builder) {
+    FilterParser<T> parser = new FilterParser<>(expression, description, builder);
+    T root = parser.parseOr();
+    if (parser.peek() != null) {
+      throw parser.error("Unexpected '" + parser.peek().text + "'");
+    }
+    return root;
+  }
+
+  /**
+   * Builds the nodes of an expression.
+   *
+   * @param <T> the type of the nodes
+   */
+  interface Builder<T> {
+    T and(T left, T right);
+
+    T or(T left, T right);
+
+    T not(T node);
+
+    /**
+     * @throws IllegalArgumentException if the comparison is not supported
+     */
+    T compare(String name, String operator, String literal);
+
+    /**
+     * @throws IllegalArgumentException if the comparison is not supported
+     */
+    T in(String name, List<String> literals);
+  }
+
+  private T parseOr() {
+    T node = parseAnd();
+    while (peek() != null && peek().is("OR")) {
+      position++;
+      node = builder.or(node, parseAnd());
+    }
+    return node;
+  }
+
+  private T parseAnd() {
+    T node = parseNot();
+    while (peek() != null && peek().is("AND")) {
+      position++;
+      node = builder.and(node, parseNot());
+    }
+    return node;
+  }
+
+  private T parseNot() {
+    if (peek() != null && peek().is("NOT")) {
+      position++;
+      return builder.not(parseNot());
+    }
+    if (peek() != null && peek().is("(")) {
+      position++;
+      T node = parseOr();
+      expect(")");
+      return node;
+    }
+    return parseComparison();
+  }
+
+  private T parseComparison() {
+    Token name = next("a name");
+    if (name.quoted) {
+      throw error("Expected a name instead of '" + name.text + "'");
+    }
+    Token operator = next("an operator");
+    boolean negated = operator.is("NOT");
+    if (negated) {
+      operator = next("IN");
+    }
+    try {
+      if (operator.is("IN")) {
+        expect("(");
+        List<String> literals = new ArrayList<>();
+        do {
+          literals.add(nextLiteral());
+        } while (accept(","));
+        expect(")");
+        T node = builder.in(name.text, literals);
+        return negated ? builder.not(node) : node;
+      }
+      if (negated || operator.quoted || !isOperator(operator.text)) {
+        throw error("Expected an operator instead of '" + operator.text + "'");
+      }
+      return builder.compare(name.text, operator.text, nextLiteral());
+    } catch (InvalidExpressionException e) {
+      throw e;
+    } catch (IllegalArgumentException e) {
+      throw error(e.getMessage());
+    }
+  }
+
+  private static boolean isOperator(String text) {
+    switch (text) {
+      case "=":
+      case "!=":
+      case "<>":
+      case "<":
+      case "<=":
+      case ">":
+      case ">=":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private String nextLiteral() {
+    Token literal = next("a value");
+    if (!literal.quoted && S3PartitionFilter.toNumber(literal.text) == null) {
+      throw error("Expected a quoted string or a number instead of '" + literal.text + "'");
+    }
+    return literal.text;
+  }
+
+  @Nullable
+  private Token peek() {
+    return position < tokens.size() ? tokens.get(position) : null;
+  }
+
+  private Token next(String expected) {
+    Token token = peek();
+    if (token == null) {
+      throw error("Expected " + expected + " at the end");
+    }
+    position++;
+    return token;
+  }
+
+  private boolean accept(String text) {
+    if (peek() != null && peek().is(text)) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(String text) {
+    if (!accept(text)) {
+      throw error("Expected '" + text + "'");
+    }
+  }
+
+  private InvalidExpressionException error(String message) {
+    return new InvalidExpressionException(String.format("Invalid %s '%s'. %s.", description, expression, message));
+  }
+
+  private List<Token> tokenize(String expression) {
+    List<Token> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < expression.length()) {
+      char c = expression.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '\'') {
+        StringBuilder literal = new StringBuilder();
+        i++;
+        while (true) {
+          if (i >= expression.length()) {
+            throw error("Unterminated string");
+          }
+          char next = expression.charAt(i++);
+          if (next == '\'') {
+            // quotes are escaped by doubling them
+            if (i < expression.length() && expression.charAt(i) == '\'') {
+              literal.append('\'');
+              i++;
+              continue;
+            }
+            break;
+          }
+          literal.append(next);
+        }
+        tokens.add(new Token(literal.toString(), true));
+      } else if (c == '(' || c == ')' || c == ',') {
+        tokens.add(new Token(String.valueOf(c), false));
+        i++;
+      } else if (OPERATOR_CHARS.indexOf(c) >= 0) {
+        int start = i;
+        while (i < expression.length() && OPERATOR_CHARS.indexOf(expression.charAt(i)) >= 0) {
+          i++;
+        }
+        tokens.add(new Token(expression.substring(start, i), false));
+      } else {
+        int start = i;
+        while (i < expression.length() && !Character.isWhitespace(expression.charAt(i))
+          && "'(),".indexOf(expression.charAt(i)) < 0 && OPERATOR_CHARS.indexOf(expression.charAt(i)) < 0) {
+          i++;
+        }
+        tokens.add(new Token(expression.substring(start, i), false));
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * A token of the expression.
+   */
+  private static final class Token {
+    private final String text;
+    // whether the token is a quoted string
+    private final boolean quoted;
+
+    private Token(String text, boolean quoted) {
+      this.text = text;
+      this.quoted = quoted;
+    }
+
+    private boolean is(String keyword) {
+      return !quoted && text.equalsIgnoreCase(keyword);
+    }
+  }
+
+  /**
+   * An expression that cannot be parsed, with the expression in its message.
+   */
+  private static final class InvalidExpressionException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private InvalidExpressionException(String message) {
+      super(message);
+    }
+  }
+}
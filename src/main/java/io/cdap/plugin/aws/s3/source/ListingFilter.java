@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * Filters the objects listed by the planning file system. The objects that do not match the partition filter are
+ * left out, and so are the objects that are not past the watermark when reading incrementally. The others are
+ * recorded in the planning of the splits, and the planned watermark of the run is only moved past the ones that the
+ * planned splits read, see {@link #advancePlanned}, since the input format of the format filters the listed objects
+ * further. The objects last modified after the run started, less a grace period, are left for the next runs: their
+ * modification time is the start of their upload, which can finish after the listing.
+ */
+final class ListingFilter {
+  // watermarks past the objects planned by the runs in progress, by the id of the run
+  private static final ConcurrentMap<String, S3Watermark> PLANNED_WATERMARKS = new ConcurrentHashMap<>();
+
+  private final S3PartitionFilter partitionFilter;
+  private final S3Watermark watermark;
+  private final long watermarkBefore;
+  private final SplitPlanning planning;
+
+  /**
+   * @param partitionFilter if not null, the filter the partitions of the objects must match
+   * @param watermark if not null, the watermark the objects must be past
+   * @param watermarkBefore the time the objects must have been last modified before, when there is a watermark
+   * @param planning if not null, the planning of the splits that records the objects past the watermark
+   */
+  ListingFilter(@Nullable S3PartitionFilter partitionFilter, @Nullable S3Watermark watermark, long watermarkBefore,
+                @Nullable SplitPlanning planning) {
+    this.partitionFilter = partitionFilter;
+    this.watermark = watermark;
+    this.watermarkBefore = watermarkBefore;
+    this.planning = planning;
+  }
+
+  /**
+   * Returns the filter of the given file system configuration, or null if it does not filter the objects.
+   */
+  @Nullable
+  static ListingFilter fromConf(Configuration conf) {
+    String filter = conf.get(S3Constants.PLANNING_PARTITION_FILTER);
+    S3PartitionFilter partitionFilter = filter == null || filter.isEmpty() ? null : S3PartitionFilter.parse(filter);
+    String watermark = conf.get(S3Constants.PLANNING_WATERMARK);
+    if (watermark == null) {
+      return partitionFilter == null ? null : new ListingFilter(partitionFilter, null, Long.MAX_VALUE, null);
+    }
+    // only recorded while planning the splits, the executors never plan
+    return new ListingFilter(partitionFilter, S3Watermark.fromJson(watermark),
+                             conf.getLong(S3Constants.PLANNING_WATERMARK_BEFORE, Long.MAX_VALUE),
+                             SplitPlanning.fromConf(conf));
+  }
+
+  /**
+   * Starts tracking the objects planned by a run that reads incrementally.
+   *
+   * @param run the id of the run, as set in {@link S3Constants#PLANNING_WATERMARK_RUN}
+   * @param watermark the watermark of the objects read by the previous runs
+   */
+  static void startPlanning(String run, S3Watermark watermark) {
+    PLANNED_WATERMARKS.put(run, watermark.copy());
+  }
+
+  /**
+   * Stops tracking the objects planned by a run that reads incrementally.
+   *
+   * @param run the id of the run
+   * @return the watermark past all the objects planned by the run, or null if the run was not tracked
+   */
+  @Nullable
+  static S3Watermark finishPlanning(String run) {
+    return PLANNED_WATERMARKS.remove(run);
+  }
+
+  /**
+   * Moves the planned watermark of the run that the given configuration plans for past the given objects, which are
+   * the ones that its splits read. Only the objects that the filters of the planning listed past the watermark move
+   * it.
+   *
+   * @param conf the configuration the splits were planned with
+   * @param planning the planning of the splits
+   * @param objects the objects read by the splits
+   */
+  static void advancePlanned(Configuration conf, SplitPlanning planning, Collection<Path> objects) {
+    String run = conf.get(S3Constants.PLANNING_WATERMARK_RUN);
+    S3Watermark planned = run == null ? null : PLANNED_WATERMARKS.get(run);
+    if (planned == null) {
+      return;
+    }
+    for (Path path : objects) {
+      Long modificationTime = planning.getNewObject(path);
+      if (modificationTime != null) {
+        planned.advance(modificationTime, path.toUri().getPath().replaceFirst("^/", ""));
+      }
+    }
+  }
+
+  @Nullable
+  S3PartitionFilter getPartitionFilter() {
+    return partitionFilter;
+  }
+
+  /**
+   * Returns whether the object of the given status is read, and records it in the planning if it is past the
+   * watermark. Directories are always accepted.
+   */
+  boolean accept(FileStatus status) {
+    if (status.isDirectory()) {
+      return true;
+    }
+    String key = status.getPath().toUri().getPath().replaceFirst("^/", "");
+    if (partitionFilter != null && !partitionFilter.matches(key)) {
+      return false;
+    }
+    if (watermark == null) {
+      return true;
+    }
+    if (status.getModificationTime() >= watermarkBefore || !watermark.isNew(status.getModificationTime(), key)) {
+      return false;
+    }
+    if (planning != null) {
+      planning.addNewObject(status.getPath(), status.getModificationTime());
+    }
+    return true;
+  }
+
+  /**
+   * Returns the statuses that the filter accepts, see {@link #accept}, as they are iterated.
+   */
+  RemoteIterator<LocatedFileStatus> filter(RemoteIterator<LocatedFileStatus> statuses) {
+    return new RemoteIterator<LocatedFileStatus>() {
+      private LocatedFileStatus next;
+
+      @Override
+      public boolean hasNext() throws IOException {
+        while (next == null && statuses.hasNext()) {
+          LocatedFileStatus status = statuses.next();
+          if (accept(status)) {
+            next = status;
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public LocatedFileStatus next() throws IOException {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        LocatedFileStatus status = next;
+        next = null;
+        return status;
+      }
+    };
+  }
+}
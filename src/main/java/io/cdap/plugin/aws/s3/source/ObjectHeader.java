@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first line of text objects, which is copied to every split of an object when its header is copied. The header
+ * is read with a single ranged GET of the start of the object, and cached in the JVM by bucket, key and ETag, so that
+ * the splits of an object that are read by the same process do not each read it again, as long as the object does
+ * not change. The cache is bounded by the total size of the headers.
+ */
+final class ObjectHeader {
+  // bytes read from the start of the object to get the header, the rest of longer headers is read as usual
+  private static final int MAX_HEADER_SIZE = 64 * 1024;
+  private static final long MAX_CACHE_BYTES = 16L * 1024 * 1024;
+  private static final Cache<CacheKey, ByteBuffer> CACHE = CacheBuilder.newBuilder()
+    .maximumWeight(MAX_CACHE_BYTES)
+    .<CacheKey, ByteBuffer>weigher((key, header) -> header.limit())
+    .expireAfterAccess(1, TimeUnit.HOURS)
+    .build();
+
+  private ObjectHeader() {
+    // utility class
+  }
+
+  /**
+   * Returns the header of an object, from the cache if it was read already.
+   *
+   * @param reader the reader of the object, the header is not cached if it does not read a known version of it
+   * @param length the length of the object
+   * @return the first line of the object, with its line separator, or its first bytes if the line is longer
+   */
+  static ByteBuffer get(VectoredReader reader, long length) throws IOException {
+    String etag = reader.getETag();
+    CacheKey key = etag == null ? null : new CacheKey(reader.getBucket(), reader.getKey(), etag);
+    ByteBuffer header = key == null ? null : CACHE.getIfPresent(key);
+    if (header != null) {
+      reader.getMetrics().count("header.cache.hits", 1);
+      return header.duplicate();
+    }
+    reader.getMetrics().count("header.cache.misses", 1);
+    header = read(reader, length);
+    if (key != null) {
+      CACHE.put(key, header);
+    }
+    return header.duplicate();
+  }
+
+  private static ByteBuffer read(VectoredReader reader, long length) throws IOException {
+    VectoredReader.Range range = new VectoredReader.Range(0, Math.min(length, MAX_HEADER_SIZE));
+    ByteBuffer start;
+    try {
+      start = reader.read(Collections.singletonList(range)).get(0).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(String.format("Interrupted while reading object %s of bucket %s.",
+                                                     reader.getKey(), reader.getBucket()));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SdkClientException) {
+        throw new IOException(String.format("Failed to read object %s of bucket %s: %s", reader.getKey(),
+                                            reader.getBucket(), cause.getMessage()), cause);
+      }
+      throw new IOException(cause);
+    }
+    for (int i = 0; i < start.limit(); i++) {
+      if (start.get(i) == '\n') {
+        // do not keep the rest of the data in memory
+        byte[] header = new byte[i + 1];
+        start.get(header);
+        return ByteBuffer.wrap(header).asReadOnlyBuffer();
+      }
+    }
+    return start;
+  }
+
+  @VisibleForTesting
+  static void clearCache() {
+    CACHE.invalidateAll();
+  }
+
+  /**
+   * The version of an object, by its ETag.
+   */
+  private static final class CacheKey {
+    private final String bucket;
+    private final String key;
+    private final String etag;
+
+    private CacheKey(String bucket, String key, String etag) {
+      this.bucket = bucket;
+      this.key = key;
+      this.etag = etag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return bucket.equals(that.bucket) && key.equals(that.key) && etag.equals(that.etag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bucket, key, etag);
+    }
+  }
+}
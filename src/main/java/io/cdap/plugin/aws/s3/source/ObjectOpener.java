@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Opens the objects read by the planning file system. Small objects are opened from the data fetched ahead by the
+ * prefetcher of the split being read, when they were, see {@link ObjectPrefetcher}. Other objects are read ahead of
+ * the reader if it is enabled, see {@link PrefetchingInputStream}. When there is an S3 Select query, the objects of
+ * the input that are read by a single split are read with it instead, see {@link SelectInputStream}, and Parquet
+ * objects of the input are read a row group at a time if it is enabled, see {@link RowGroupInputStream}. The footers
+ * of Parquet objects of the input are read from a cache shared by the file systems of the JVM if it is enabled, and so
+ * are the headers of the objects of the input when the header is copied to every split, for the splits that do not
+ * read the object from its start. Everything else is opened with S3A.
+ */
+final class ObjectOpener {
+  private static final int DEFAULT_PREFETCH_BLOCK_SIZE = 8 * 1024 * 1024;
+  // a gap costs less to transfer than another request as long as it is smaller than what S3 sends in its latency
+  private static final long DEFAULT_VECTORED_MAX_GAP = 256 * 1024;
+  private static final int DEFAULT_VECTORED_MAX_MERGED_SIZE = 16 * 1024 * 1024;
+  private static final String WILDCARDS = "*?[{\\";
+
+  private final FileSystem fs;
+  private final Configuration conf;
+  private final Function<String, AmazonS3> clients;
+  private final S3Metrics metrics;
+  private final int prefetchBlocks;
+  private final S3SelectQuery selectQuery;
+  private final boolean vectored;
+  private final boolean footerCache;
+
+  /**
+   * @param fs the S3A file system to open the objects with when they are not read directly
+   * @param conf the configuration of the planning file system
+   * @param clients the clients to read the objects of each bucket with, which return null for the buckets that are
+   *   only read with S3A
+   * @param metrics the metrics to record the reads to
+   */
+  ObjectOpener(FileSystem fs, Configuration conf, Function<String, AmazonS3> clients, S3Metrics metrics) {
+    this.fs = fs;
+    this.conf = conf;
+    this.clients = clients;
+    this.metrics = metrics;
+    this.prefetchBlocks = conf.getInt(S3Constants.READ_PREFETCH_BLOCKS, 0);
+    this.selectQuery = S3SelectQuery.fromConf(conf);
+    this.vectored = conf.getBoolean(S3Constants.READ_VECTORED, false);
+    this.footerCache = conf.getBoolean(S3Constants.READ_FOOTER_CACHE, false);
+  }
+
+  /**
+   * Opens an object. The length and ETag of the objects that the planning listed from S3 come with the split being
+   * read, see {@link ObjectSplit}, and are read with a HEAD request otherwise. The bytes of the objects of the input
+   * that are not read are counted if it is enabled, when the split being read carries the length of the object.
+   */
+  FSDataInputStream open(Path path, int bufferSize) throws IOException {
+    ObjectSplit split = ObjectSplit.fromConf(conf);
+    FSDataInputStream stream = openObject(path, bufferSize, split);
+    ObjectVersion planned = split == null ? null : split.getVersion(path);
+    if (!conf.getBoolean(S3Constants.READ_COUNT_SKIPPED_BYTES, false)
+      || getInputPrefix(path.toUri().getAuthority()) == null || planned == null) {
+      return stream;
+    }
+    // the row groups and column chunks that the Parquet reader skips
+    return new FSDataInputStream(new SkippedBytesInputStream(stream, planned.getLength(), "parquet.bytes.skipped",
+                                                             metrics));
+  }
+
+  private FSDataInputStream openObject(Path path, int bufferSize, @Nullable ObjectSplit split) throws IOException {
+    String bucket = path.toUri().getAuthority();
+    String key = path.toUri().getPath().substring(1);
+    // the objects read with S3 Select are not read whole
+    ObjectPrefetcher prefetcher = selectQuery == null ? ObjectPrefetcher.fromConf(conf) : null;
+    FSDataInputStream stream = prefetcher == null ? null : prefetcher.open(path);
+    if (stream != null) {
+      return stream;
+    }
+    boolean select = selectQuery != null && isUncompressedInput(path);
+    boolean readRowGroups = vectored && isUncompressedInput(path);
+    boolean cacheFooter = footerCache && isUncompressedInput(path);
+    // the split that reads the object from its start reads its header anyway, the others only read the header
+    boolean cacheHeader = conf.getBoolean(PathTrackingInputFormat.COPY_HEADER, false) && isUncompressedInput(path)
+      && split != null && !split.readsStart(path);
+    AmazonS3 client = prefetchBlocks <= 0 && !select && !readRowGroups && !cacheFooter && !cacheHeader ? null
+      : clients.apply(bucket);
+    if (client == null) {
+      return fs.open(path, bufferSize);
+    }
+    // the version of the objects that were listed from S3 is carried from the planning in the split
+    ObjectVersion planned = split == null ? null : split.getVersion(path);
+    ObjectVersion version = planned == null ? getVersion(client, path, metrics) : planned;
+    long length = version.getLength();
+    // larger objects are read by several splits, which do not start at the start of the results
+    long maxSelectSize = Math.min(fs.getDefaultBlockSize(path),
+                                  conf.getLong(S3Constants.READ_SELECT_MAX_OBJECT_SIZE, Long.MAX_VALUE));
+    if (select && length <= maxSelectSize) {
+      return new FSDataInputStream(new SelectInputStream(client, selectQuery.toRequest(bucket, key),
+                                                         selectQuery.getHeader(), length, metrics));
+    }
+    VectoredReader reader = new VectoredReader(
+      client, bucket, key, version.getETag(),
+      conf.getLong(S3Constants.READ_VECTORED_MAX_GAP, DEFAULT_VECTORED_MAX_GAP),
+      conf.getInt(S3Constants.READ_VECTORED_MAX_MERGED_SIZE, DEFAULT_VECTORED_MAX_MERGED_SIZE), metrics);
+    if (readRowGroups) {
+      return new FSDataInputStream(new RowGroupInputStream(reader, length, getProjectedColumns()));
+    }
+    CachedRangeInputStream.Opener opener = () -> {
+      if (prefetchBlocks <= 0) {
+        return fs.open(path, bufferSize);
+      }
+      BufferPool pool = BufferPool.get(conf.getInt(S3Constants.READ_PREFETCH_BLOCK_SIZE, DEFAULT_PREFETCH_BLOCK_SIZE),
+                                       conf.getBoolean(S3Constants.READ_PREFETCH_DIRECT_BUFFERS, false));
+      return new FSDataInputStream(new PrefetchingInputStream(client, bucket, key, version.getETag(), length,
+                                                              prefetchBlocks, pool, metrics));
+    };
+    if (cacheFooter) {
+      ParquetFooter footer = ParquetFooter.get(reader, length);
+      if (footer.isParquet()) {
+        return new FSDataInputStream(new CachedRangeInputStream(opener, length, footer.getOffset(),
+                                                                footer.getTail()));
+      }
+    }
+    // the splits that do not read the start of the object read its header to copy it
+    if (cacheHeader && length > 0) {
+      return new FSDataInputStream(new CachedRangeInputStream(opener, length, 0, ObjectHeader.get(reader, length)));
+    }
+    return opener.open();
+  }
+
+  /**
+   * Returns the current version of an object, with a HEAD request.
+   */
+  private static ObjectVersion getVersion(AmazonS3 client, Path path, S3Metrics metrics) throws IOException {
+    String bucket = path.toUri().getAuthority();
+    String key = path.toUri().getPath().substring(1);
+    ObjectMetadata metadata;
+    try {
+      metadata = client.getObjectMetadata(metrics.tag(new GetObjectMetadataRequest(bucket, key)));
+    } catch (AmazonS3Exception e) {
+      if (e.getStatusCode() == 404) {
+        throw new FileNotFoundException("No such object: " + path);
+      }
+      throw new IOException(String.format("Failed to open %s: %s", path, e.getMessage()), e);
+    } catch (SdkClientException e) {
+      throw new IOException(String.format("Failed to open %s: %s", path, e.getMessage()), e);
+    }
+    return new ObjectVersion(metadata.getContentLength(), metadata.getLastModified() == null ? 0L
+      : metadata.getLastModified().getTime(), metadata.getETag());
+  }
+
+  /**
+   * @return whether the object is one of the input, and is not compressed, since the results of S3 Select are not
+   *   and the row groups of compressed Parquet objects cannot be found
+   */
+  private boolean isUncompressedInput(Path path) {
+    String prefix = getInputPrefix(path.toUri().getAuthority());
+    return prefix != null && path.toUri().getPath().replaceFirst("^/", "").startsWith(prefix)
+      && new CompressionCodecFactory(conf).getCodec(path) == null;
+  }
+
+  /**
+   * Returns the top level columns of the Parquet projection, or null if all the columns are read.
+   */
+  @Nullable
+  private Set<String> getProjectedColumns() throws IOException {
+    String projection = conf.get(S3Constants.PARQUET_AVRO_PROJECTION);
+    if (projection == null || projection.isEmpty()) {
+      return null;
+    }
+    Set<String> columns = new HashSet<>();
+    for (Schema.Field field : Schema.parseJson(projection).getFields()) {
+      columns.add(field.getName());
+    }
+    return columns;
+  }
+
+
+  /**
+   * Returns the literal prefix of the input path, which all the objects of the input start with, or null if the input
+   * is not a single path in the given bucket.
+   */
+  @Nullable
+  private String getInputPrefix(@Nullable String bucket) {
+    String input = conf.get(FileInputFormat.INPUT_DIR);
+    if (bucket == null || input == null || input.contains(",")
+      || !bucket.equals(new Path(input).toUri().getAuthority())) {
+      return null;
+    }
+    String prefix = new Path(input).toUri().getPath().replaceFirst("^/", "");
+    for (int i = 0; i < prefix.length(); i++) {
+      if (WILDCARDS.indexOf(prefix.charAt(i)) >= 0) {
+        return prefix.substring(0, i);
+      }
+    }
+    return prefix;
+  }
+}
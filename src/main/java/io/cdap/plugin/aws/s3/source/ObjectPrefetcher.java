@@ -0,0 +1,301 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Fetches the small objects of a combined split ahead of its reader. The reader of a combined split reads its objects
+ * one after the other, in the order of the split, so while one object is being read, the objects that follow it in
+ * the split are the ones that are read next. Each of them is fetched whole, with a single GET, and kept in memory until
+ * it is opened. Nothing past the last object of the split is fetched.
+ *
+ * At most the given number of objects are fetched ahead, so the memory used is bounded by that number times the
+ * maximum size of the prefetched objects. Objects that are opened without having been prefetched are read from S3A as
+ * usual.
+ *
+ * The prefetcher of a split is registered for the configuration the split is read with, see {@link #register}, and
+ * released when the reader of the split is closed.
+ */
+final class ObjectPrefetcher implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(ObjectPrefetcher.class);
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("s3-object-prefetcher-%d").setDaemon(true).build());
+  // the prefetchers of the splits being read, by the id set in the configuration they are read with
+  private static final Map<String, ObjectPrefetcher> PREFETCHERS = new ConcurrentHashMap<>();
+
+  private final Function<String, AmazonS3> clients;
+  private final CombineFileSplit split;
+  private final int depth;
+  private final long maxObjectSize;
+  private final S3Metrics metrics;
+  // the fetches of the objects of the split, by index in the split
+  private final Map<Integer, Future<byte[]>> fetches;
+  // the index of the object that follows the last opened one
+  private int next;
+  // the id of the split the prefetcher is registered for
+  private String id;
+
+  /**
+   * @param clients returns the client to fetch the objects of a bucket with, or null if they are not fetched ahead
+   * @param split the split whose objects are fetched ahead
+   * @param depth the number of objects to fetch ahead
+   * @param maxObjectSize the size of the largest objects to fetch ahead
+   * @param metrics the metrics of the stage to count the reads in
+   */
+  ObjectPrefetcher(Function<String, AmazonS3> clients, CombineFileSplit split, int depth, long maxObjectSize,
+                   S3Metrics metrics) {
+    this.clients = clients;
+    this.split = split;
+    this.depth = depth;
+    this.maxObjectSize = maxObjectSize;
+    this.metrics = metrics;
+    this.fetches = new HashMap<>();
+  }
+
+  /**
+   * Makes the given prefetcher the one of the objects opened with the configuration of the given split, and starts
+   * fetching the first objects of its split.
+   *
+   * @param id the id of the split, as set in {@link S3Constants#READ_SPLIT_ID}
+   * @param prefetcher the prefetcher of the split
+   */
+  static void register(String id, ObjectPrefetcher prefetcher) {
+    synchronized (prefetcher) {
+      prefetcher.id = id;
+      PREFETCHERS.put(id, prefetcher);
+      prefetcher.prefetch();
+    }
+  }
+
+  /**
+   * Returns the prefetcher of the split that the given configuration reads, or null if there is none.
+   */
+  @Nullable
+  static ObjectPrefetcher fromConf(Configuration conf) {
+    String id = conf.get(S3Constants.READ_SPLIT_ID);
+    return id == null ? null : PREFETCHERS.get(id);
+  }
+
+  /**
+   * Opens an object from the data fetched ahead when it was, and starts fetching the objects that follow it in the
+   * split.
+   *
+   * @param path the path of the object
+   * @return the content of the object, or null if it was not fetched ahead
+   * @throws IOException if the thread was interrupted while waiting for the object
+   */
+  @Nullable
+  synchronized FSDataInputStream open(Path path) throws IOException {
+    int index = indexOf(path);
+    if (index < 0) {
+      return null;
+    }
+    Future<byte[]> fetch = fetches.remove(index);
+    // the objects skipped by the reader are not read anymore
+    next = index + 1;
+    cancel(next);
+    prefetch();
+
+    byte[] content = null;
+    if (fetch != null) {
+      try {
+        content = fetch.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while fetching object " + path);
+      } catch (ExecutionException e) {
+        // read it again from S3A, which will fail the same way if the problem was not transient
+        LOG.debug("Failed to prefetch object {}.", path, e.getCause());
+      }
+    }
+    if (content == null) {
+      metrics.count("prefetch.object.misses", 1);
+      return null;
+    }
+    metrics.count("prefetch.object.hits", 1);
+    return new FSDataInputStream(new ContentInputStream(content));
+  }
+
+  /**
+   * Cancels the fetches still running and unregisters the prefetcher.
+   */
+  @Override
+  public synchronized void close() {
+    cancel(split.getNumPaths());
+    if (id != null) {
+      PREFETCHERS.remove(id, this);
+    }
+  }
+
+  /**
+   * Returns the index of the given object among the objects of the split that were not opened yet, or -1 if it is
+   * not one of them.
+   */
+  private int indexOf(Path path) {
+    for (int i = next; i < split.getNumPaths(); i++) {
+      if (split.getPath(i).toUri().equals(path.toUri())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Fetches the small objects among the objects of the split that follow the last opened one. The objects that do not
+   * start in the split are not fetched, since other splits read their start.
+   */
+  private void prefetch() {
+    for (int i = next; i < Math.min(next + depth, split.getNumPaths()); i++) {
+      if (split.getOffset(i) > 0 || split.getLength(i) == 0 || split.getLength(i) > maxObjectSize
+        || fetches.containsKey(i)) {
+        continue;
+      }
+      String bucket = split.getPath(i).toUri().getAuthority();
+      AmazonS3 s3 = bucket == null ? null : clients.apply(bucket);
+      if (s3 != null) {
+        String key = split.getPath(i).toUri().getPath().substring(1);
+        fetches.put(i, EXECUTOR.submit(() -> fetch(s3, bucket, key)));
+      }
+    }
+  }
+
+  /**
+   * Fetches an object whole, or returns null if it turns out to be larger than the objects that are fetched ahead.
+   */
+  @Nullable
+  private byte[] fetch(AmazonS3 s3, String bucket, String key) throws IOException {
+    try (S3Object object = s3.getObject(metrics.tag(new GetObjectRequest(bucket, key).withRange(0, maxObjectSize)))) {
+      byte[] content = ByteStreams.toByteArray(object.getObjectContent());
+      return content.length > maxObjectSize ? null : content;
+    }
+  }
+
+  /**
+   * Cancels the fetches of the objects before the given index of the split.
+   */
+  private void cancel(int index) {
+    Iterator<Map.Entry<Integer, Future<byte[]>>> iterator = fetches.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Integer, Future<byte[]>> entry = iterator.next();
+      if (entry.getKey() < index) {
+        entry.getValue().cancel(true);
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * A seekable stream of the content of an object.
+   */
+  private static final class ContentInputStream extends FSInputStream {
+    private final byte[] content;
+    private int position;
+
+    private ContentInputStream(byte[] content) {
+      this.content = content;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      if (pos < 0 || pos > content.length) {
+        throw new EOFException("Cannot seek to " + pos + ", the object has " + content.length + " bytes.");
+      }
+      position = (int) pos;
+    }
+
+    @Override
+    public long getPos() {
+      return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+      return false;
+    }
+
+    @Override
+    public int read() {
+      return position < content.length ? content[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (position >= content.length) {
+        return -1;
+      }
+      int count = Math.min(length, content.length - position);
+      System.arraycopy(content, position, buffer, offset, count);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public int read(long pos, byte[] buffer, int offset, int length) {
+      if (pos >= content.length) {
+        return -1;
+      }
+      int count = Math.min(length, content.length - (int) pos);
+      System.arraycopy(content, (int) pos, buffer, offset, count);
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      long count = Math.max(0, Math.min(n, content.length - position));
+      position += (int) count;
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return content.length - position;
+    }
+  }
+}
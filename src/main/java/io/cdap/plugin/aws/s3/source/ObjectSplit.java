@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * A combined split of the input, with the versions its objects had when the split was planned, see
+ * {@link SplitPlanning}, so that the reader of the split knows the length and the ETag of the objects it opens
+ * without a HEAD request per object, and which of the objects it reads from their start. The split being read is
+ * registered for the configuration it is read with, see {@link #register}, until its reader is closed.
+ */
+public class ObjectSplit extends InputSplit implements Writable {
+  // the splits being read, by the id set in the configuration they are read with
+  private static final Map<String, ObjectSplit> SPLITS = new ConcurrentHashMap<>();
+
+  private CombineFileSplit split;
+  // the versions of the objects of the split, by index in the split, null when it was not listed from S3
+  private ObjectVersion[] versions;
+
+  public ObjectSplit() {
+    // for deserialization
+  }
+
+  ObjectSplit(CombineFileSplit split, SplitPlanning planning) {
+    this.split = split;
+    this.versions = new ObjectVersion[split.getNumPaths()];
+    for (int i = 0; i < this.versions.length; i++) {
+      this.versions[i] = planning.getVersion(split.getPath(i));
+    }
+  }
+
+  /**
+   * Makes the given split the one of the objects opened with the configuration that has the given id.
+   *
+   * @param id the id of the split, as set in {@link S3Constants#READ_SPLIT_ID}
+   * @param split the split being read
+   */
+  static void register(String id, ObjectSplit split) {
+    SPLITS.put(id, split);
+  }
+
+  static void release(String id) {
+    SPLITS.remove(id);
+  }
+
+  /**
+   * Returns the split that the given configuration reads, or null if there is none.
+   */
+  @Nullable
+  static ObjectSplit fromConf(Configuration conf) {
+    String id = conf.get(S3Constants.READ_SPLIT_ID);
+    return id == null ? null : SPLITS.get(id);
+  }
+
+  /**
+   * Returns the combined split, as planned by the input format of the format.
+   */
+  CombineFileSplit getSplit() {
+    return split;
+  }
+
+  /**
+   * Returns the version of the given object when the split was planned, or null if the object is not in the split,
+   * or was not listed from S3.
+   */
+  @Nullable
+  ObjectVersion getVersion(Path path) {
+    for (int i = 0; i < versions.length; i++) {
+      if (split.getPath(i).equals(path)) {
+        return versions[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether the split reads the given object from its start.
+   */
+  boolean readsStart(Path path) {
+    for (int i = 0; i < split.getNumPaths(); i++) {
+      if (split.getPath(i).equals(path) && split.getOffset(i) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public long getLength() throws IOException, InterruptedException {
+    return split.getLength();
+  }
+
+  @Override
+  public String[] getLocations() throws IOException, InterruptedException {
+    return split.getLocations();
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    split.write(out);
+    for (ObjectVersion version : versions) {
+      out.writeBoolean(version != null);
+      if (version != null) {
+        out.writeLong(version.getLength());
+        out.writeLong(version.getModificationTime());
+        out.writeUTF(version.getETag());
+      }
+    }
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    split = new CombineFileSplit();
+    split.readFields(in);
+    versions = new ObjectVersion[split.getNumPaths()];
+    for (int i = 0; i < versions.length; i++) {
+      if (in.readBoolean()) {
+        versions[i] = new ObjectVersion(in.readLong(), in.readLong(), in.readUTF());
+      }
+    }
+  }
+}
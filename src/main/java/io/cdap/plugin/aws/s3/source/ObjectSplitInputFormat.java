@@ -0,0 +1,306 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.cdap.api.data.batch.Input;
+import io.cdap.cdap.api.data.batch.InputFormatProvider;
+import io.cdap.cdap.etl.api.batch.BatchSourceContext;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the input of the source with the input format of its format, and tells the planning file system which
+ * combined split is being read. The combined splits carry the versions of their objects from the planning, see
+ * {@link ObjectSplit}, and their small objects can be fetched ahead of their reader, see {@link ObjectPrefetcher}.
+ * The planning and the split being read are found by the planning file systems from the configuration they are
+ * created with, which carries their id: the splits are planned, and each split is read, with a copy of the
+ * configuration of the job that has it. The split and its prefetcher are released when its reader is closed. When
+ * the split size is adaptive, the splits are planned a first time to size them, see {@link AdaptiveSplitSize}. When
+ * the source reads incrementally, the watermark of the run is moved past the objects of the planned splits, see
+ * {@link ListingFilter}.
+ *
+ * @param <K> the type of the keys of the input format of the format
+ * @param <V> the type of the values of the input format of the format
+ */
+public class ObjectSplitInputFormat<K, V> extends InputFormat<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(ObjectSplitInputFormat.class);
+  private static final long DEFAULT_MAX_OBJECT_SIZE = 8 * 1024 * 1024;
+  private static final Method SET_INPUT = getSetInput();
+
+  /**
+   * Returns a context that delegates to the given one, except that the input set by the format of the source is read
+   * with this input format. The format sets its input itself, in the preparation of the run of the source, and the
+   * context has no other way to change the input format it reads with. Only {@link BatchSourceContext#setInput} is
+   * intercepted, every other method is called on the given context as it is.
+   *
+   * @param context the context of the preparation of the run of the source
+   */
+  static BatchSourceContext wrap(BatchSourceContext context) {
+    return (BatchSourceContext) Proxy.newProxyInstance(
+      ObjectSplitInputFormat.class.getClassLoader(), new Class<?>[] {BatchSourceContext.class},
+      (proxy, method, args) -> {
+        if (SET_INPUT.equals(method)) {
+          args = new Object[] {wrap((Input) args[0])};
+        }
+        try {
+          return method.invoke(context, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      });
+  }
+
+  private static Method getSetInput() {
+    try {
+      return BatchSourceContext.class.getMethod("setInput", Input.class);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("The context of the source cannot set its input.", e);
+    }
+  }
+
+  /**
+   * Returns an input that reads the given input with this input format, or the given input if it is not read with an
+   * input format.
+   */
+  private static Input wrap(Input input) {
+    if (!(input instanceof Input.InputFormatProviderInput)) {
+      return input;
+    }
+    InputFormatProvider provider = ((Input.InputFormatProviderInput) input).getInputFormatProvider();
+    Map<String, String> conf = new HashMap<>(provider.getInputFormatConfiguration());
+    conf.put(S3Constants.READ_INPUT_FORMAT, provider.getInputFormatClassName());
+    return Input.of(input.getName(), new InputFormatProvider() {
+      @Override
+      public String getInputFormatClassName() {
+        return ObjectSplitInputFormat.class.getName();
+      }
+
+      @Override
+      public Map<String, String> getInputFormatConfiguration() {
+        return conf;
+      }
+    }).alias(input.getAlias());
+  }
+
+  /**
+   * Plans the splits with the input format of the format, recording the versions of the objects the planning file
+   * systems list, and carries them in the combined splits. When the split size is adaptive, the splits are planned
+   * again with the size computed from the objects of the splits planned first, from the listings that the planning
+   * file systems keep, and are returned largest first, so that the longest tasks start first.
+   */
+  @Override
+  public List<InputSplit> getSplits(JobContext context) throws IOException, InterruptedException {
+    Configuration conf = new Configuration(context.getConfiguration());
+    boolean adaptive = conf.get(S3Constants.PLANNING_SPLIT_SLOTS) != null;
+    SplitPlanning planning = SplitPlanning.start(conf, adaptive);
+    List<InputSplit> splits;
+    try {
+      JobContext planningContext = new JobContextImpl(conf, context.getJobID());
+      InputFormat<K, V> delegate = getDelegate(conf);
+      splits = delegate.getSplits(planningContext);
+      if (adaptive) {
+        splits = delegate.getSplits(withSplitSize(planningContext, splits));
+      }
+      // the objects that the input format left out are read by a later run, if they are still there
+      ListingFilter.advancePlanned(conf, planning, getObjectSizes(splits).keySet());
+    } finally {
+      planning.finish();
+    }
+    List<InputSplit> objectSplits = new ArrayList<>(splits.size());
+    for (InputSplit split : splits) {
+      // subclasses of combined splits are read as they are, since they are serialized with their own class
+      objectSplits.add(split.getClass() == CombineFileSplit.class
+                         ? new ObjectSplit((CombineFileSplit) split, planning) : split);
+    }
+    if (adaptive) {
+      Map<InputSplit, Long> lengths = new IdentityHashMap<>();
+      for (InputSplit split : objectSplits) {
+        lengths.put(split, split.getLength());
+      }
+      objectSplits.sort(Comparator.comparing(lengths::get, Comparator.reverseOrder()));
+    }
+    return objectSplits;
+  }
+
+  /**
+   * Returns a context with the configuration of the given one, except for the maximum split size, which is computed
+   * from the sizes of the objects of the given splits and the executor slots of the run.
+   */
+  private static JobContext withSplitSize(JobContext context,
+                                          List<InputSplit> splits) throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    long[] sizes = getObjectSizes(splits).values().stream().mapToLong(Long::longValue).toArray();
+    int slots = conf.getInt(S3Constants.PLANNING_SPLIT_SLOTS, 1);
+    long splitSize = AdaptiveSplitSize.compute(sizes, slots, conf.getLong(S3Constants.PLANNING_SPLIT_MIN_SIZE, 0L),
+                                               conf.getLong(FileInputFormat.SPLIT_MAXSIZE, Long.MAX_VALUE));
+    LOG.info("Reading the {} objects of the input in splits of {} bytes, for {} executor slots.", sizes.length,
+             splitSize, slots);
+    Configuration planned = new Configuration(conf);
+    planned.setLong(FileInputFormat.SPLIT_MAXSIZE, splitSize);
+    return new JobContextImpl(planned, context.getJobID());
+  }
+
+  /**
+   * Returns the objects that the given splits read, with their sizes, as the sum of the parts of them that each split
+   * reads, in the order of the splits.
+   */
+  private static Map<Path, Long> getObjectSizes(List<InputSplit> splits) throws IOException, InterruptedException {
+    Map<Path, Long> sizes = new LinkedHashMap<>();
+    for (InputSplit split : splits) {
+      if (split instanceof CombineFileSplit) {
+        CombineFileSplit combined = (CombineFileSplit) split;
+        for (int i = 0; i < combined.getNumPaths(); i++) {
+          sizes.merge(combined.getPath(i), combined.getLength(i), Long::sum);
+        }
+      } else if (split instanceof FileSplit) {
+        sizes.merge(((FileSplit) split).getPath(), split.getLength(), Long::sum);
+      }
+    }
+    return sizes;
+  }
+
+  @Override
+  public RecordReader<K, V> createRecordReader(InputSplit split,
+                                               TaskAttemptContext context) throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    if (!(split instanceof ObjectSplit)) {
+      return getDelegate(conf).createRecordReader(split, context);
+    }
+    ObjectSplit objectSplit = (ObjectSplit) split;
+    // the file systems that the reader creates find the split, and its prefetcher, from their configuration
+    String id = UUID.randomUUID().toString();
+    Configuration readConf = new Configuration(conf);
+    readConf.set(S3Constants.READ_SPLIT_ID, id);
+    TaskAttemptContext readContext = new TaskAttemptContextImpl(readConf, context.getTaskAttemptID());
+    ObjectSplit.register(id, objectSplit);
+    ObjectPrefetcher prefetcher = null;
+    try {
+      int depth = conf.getInt(S3Constants.READ_PREFETCH_OBJECTS, 0);
+      if (depth > 0) {
+        S3Metrics metrics = S3Metrics.forScope(conf.get(S3Constants.PLANNING_RUN));
+        S3AClients clients = new S3AClients(conf);
+        prefetcher = new ObjectPrefetcher(
+          bucket -> clients.canUse(bucket) ? clients.get(bucket) : null, objectSplit.getSplit(), depth,
+          conf.getLong(S3Constants.READ_PREFETCH_MAX_OBJECT_SIZE, DEFAULT_MAX_OBJECT_SIZE), metrics);
+        ObjectPrefetcher.register(id, prefetcher);
+      }
+      return new ObjectSplitRecordReader<>(getDelegate(conf).createRecordReader(objectSplit.getSplit(), readContext),
+                                           id, readContext, prefetcher);
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      ObjectSplit.release(id);
+      if (prefetcher != null) {
+        prefetcher.close();
+      }
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private InputFormat<K, V> getDelegate(Configuration conf) {
+    Class<?> delegate = conf.getClass(S3Constants.READ_INPUT_FORMAT, null, InputFormat.class);
+    if (delegate == null) {
+      throw new IllegalStateException("The input format to read the objects with is not set.");
+    }
+    return (InputFormat<K, V>) ReflectionUtils.newInstance(delegate, conf);
+  }
+
+  /**
+   * Reads the combined split with the reader of the input format of the format, with the configuration that carries
+   * the id of the split, and releases the split and its prefetcher when it is closed.
+   */
+  private static final class ObjectSplitRecordReader<K, V> extends RecordReader<K, V> {
+    private final RecordReader<K, V> delegate;
+    private final String id;
+    private final TaskAttemptContext context;
+    private final ObjectPrefetcher prefetcher;
+
+    private ObjectSplitRecordReader(RecordReader<K, V> delegate, String id, TaskAttemptContext context,
+                                    @Nullable ObjectPrefetcher prefetcher) {
+      this.delegate = delegate;
+      this.id = id;
+      this.context = context;
+      this.prefetcher = prefetcher;
+    }
+
+    @Override
+    public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+      delegate.initialize(split instanceof ObjectSplit ? ((ObjectSplit) split).getSplit() : split, this.context);
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException, InterruptedException {
+      return delegate.nextKeyValue();
+    }
+
+    @Override
+    public K getCurrentKey() throws IOException, InterruptedException {
+      return delegate.getCurrentKey();
+    }
+
+    @Override
+    public V getCurrentValue() throws IOException, InterruptedException {
+      return delegate.getCurrentValue();
+    }
+
+    @Override
+    public float getProgress() throws IOException, InterruptedException {
+      return delegate.getProgress();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        delegate.close();
+      } finally {
+        ObjectSplit.release(id);
+        if (prefetcher != null) {
+          prefetcher.close();
+        }
+      }
+    }
+  }
+}
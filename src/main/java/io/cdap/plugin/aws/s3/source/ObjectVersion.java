@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+/**
+ * The version of an object when it was listed, see {@link SplitPlanning}.
+ */
+final class ObjectVersion {
+  private final long length;
+  private final long modificationTime;
+  private final String etag;
+
+  ObjectVersion(long length, long modificationTime, String etag) {
+    this.length = length;
+    this.modificationTime = modificationTime;
+    this.etag = etag;
+  }
+
+  long getLength() {
+    return length;
+  }
+
+  long getModificationTime() {
+    return modificationTime;
+  }
+
+  String getETag() {
+    return etag;
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A filter on the rows of Parquet objects, translated to a Parquet filter predicate. Parquet skips the row groups
+ * whose statistics, or whose dictionaries, show that none of their rows match, without reading their column chunks,
+ * and filters the rows of the other row groups.
+ *
+ * The filter has the syntax of the partition filter, see {@link S3PartitionFilter}, and compares the top level
+ * fields of the schema with literals of their type. Dates and timestamps are compared with ISO-8601 strings, like
+ * {@code '2026-10-17'} and {@code '2026-10-17T00:00:00Z'}.
+ */
+final class ParquetFilter {
+
+  private ParquetFilter() {
+    // utility class
+  }
+
+  /**
+   * Parses a filter into a Parquet filter predicate.
+   *
+   * @param expression the filter expression
+   * @param schema the schema of the records read from the objects
+   * @return the predicate
+   * @throws IllegalArgumentException if the expression is invalid, or compares fields that cannot be filtered on
+   */
+  static FilterPredicate parse(String expression, Schema schema) {
+    return FilterParser.parse(expression, "Parquet filter", new FilterParser.Builder<FilterPredicate>() {
+      @Override
+      public FilterPredicate and(FilterPredicate left, FilterPredicate right) {
+        return FilterApi.and(left, right);
+      }
+
+      @Override
+      public FilterPredicate or(FilterPredicate left, FilterPredicate right) {
+        return FilterApi.or(left, right);
+      }
+
+      @Override
+      public FilterPredicate not(FilterPredicate node) {
+        return FilterApi.not(node);
+      }
+
+      @Override
+      public FilterPredicate compare(String name, String operator, String literal) {
+        return ParquetFilter.compare(schema, name, operator, literal);
+      }
+
+      @Override
+      public FilterPredicate in(String name, List<String> literals) {
+        FilterPredicate predicate = null;
+        for (String literal : literals) {
+          FilterPredicate equal = ParquetFilter.compare(schema, name, "=", literal);
+          predicate = predicate == null ? equal : FilterApi.or(predicate, equal);
+        }
+        return predicate;
+      }
+    });
+  }
+
+  private static FilterPredicate compare(Schema schema, String name, String operator, String literal) {
+    Schema.Field field = schema.getField(name);
+    if (field == null) {
+      throw new IllegalArgumentException(String.format("Field '%s' is not in the schema", name));
+    }
+    Schema fieldSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+    Schema.LogicalType logicalType = fieldSchema.getLogicalType();
+    if (logicalType == Schema.LogicalType.DATE) {
+      return compare(FilterApi.intColumn(name), operator, parse(name, literal, "date",
+                                                                value -> (int) LocalDate.parse(value).toEpochDay()));
+    }
+    if (logicalType == Schema.LogicalType.TIMESTAMP_MILLIS || logicalType == Schema.LogicalType.TIMESTAMP_MICROS) {
+      TimeUnit unit = logicalType == Schema.LogicalType.TIMESTAMP_MILLIS ? TimeUnit.MILLISECONDS
+        : TimeUnit.MICROSECONDS;
+      return compare(FilterApi.longColumn(name), operator, parse(name, literal, "timestamp", value -> {
+        Instant instant = Instant.parse(value);
+        return unit.convert(instant.getEpochSecond(), TimeUnit.SECONDS)
+          + unit.convert(instant.getNano(), TimeUnit.NANOSECONDS);
+      }));
+    }
+    if (logicalType != null) {
+      throw new IllegalArgumentException(String.format("Cannot filter on field '%s' of type %s", name,
+                                                       logicalType.name().toLowerCase()));
+    }
+    switch (fieldSchema.getType()) {
+      case INT:
+        return compare(FilterApi.intColumn(name), operator, parse(name, literal, "int", Integer::valueOf));
+      case LONG:
+        return compare(FilterApi.longColumn(name), operator, parse(name, literal, "long", Long::valueOf));
+      case FLOAT:
+        return compare(FilterApi.floatColumn(name), operator, parse(name, literal, "float", Float::valueOf));
+      case DOUBLE:
+        return compare(FilterApi.doubleColumn(name), operator, parse(name, literal, "double", Double::valueOf));
+      case STRING:
+      case ENUM:
+        return compare(FilterApi.binaryColumn(name), operator, Binary.fromString(literal));
+      case BOOLEAN:
+        if (!literal.equalsIgnoreCase("true") && !literal.equalsIgnoreCase("false")) {
+          throw new IllegalArgumentException(String.format("Value '%s' of field '%s' is not a boolean", literal, name));
+        }
+        Operators.BooleanColumn column = FilterApi.booleanColumn(name);
+        Boolean value = Boolean.valueOf(literal);
+        switch (operator) {
+          case "=":
+            return FilterApi.eq(column, value);
+          case "!=":
+          case "<>":
+            return FilterApi.notEq(column, value);
+          default:
+            throw new IllegalArgumentException(String.format("Boolean field '%s' cannot be compared with '%s'", name,
+                                                             operator));
+        }
+      default:
+        throw new IllegalArgumentException(String.format("Cannot filter on field '%s' of type %s", name,
+                                                         fieldSchema.getType().name().toLowerCase()));
+    }
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+  FilterPredicate compare(C column, String operator, T value) {
+    switch (operator) {
+      case "=":
+        return FilterApi.eq(column, value);
+      case "!=":
+      case "<>":
+        return FilterApi.notEq(column, value);
+      case "<":
+        return FilterApi.lt(column, value);
+      case "<=":
+        return FilterApi.ltEq(column, value);
+      case ">":
+        return FilterApi.gt(column, value);
+      default:
+        return FilterApi.gtEq(column, value);
+    }
+  }
+
+  private static <T> T parse(String name, String literal, String type, Function<String, T> parser) {
+    try {
+      return parser.apply(literal);
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw new IllegalArgumentException(String.format("Value '%s' of field '%s' is not a valid %s", literal, name,
+                                                       type));
+    }
+  }
+}
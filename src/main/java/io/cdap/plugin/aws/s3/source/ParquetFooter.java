@@ -0,0 +1,287 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * The tail of an object, with the footer of the object and the layout of its row groups if it is a Parquet object.
+ * The tail is read with a single GET of the last bytes of the object, and a second one if the footer is larger.
+ *
+ * The tails of Parquet objects are cached in the JVM by bucket, key and ETag, so that the planning of the splits and
+ * the readers of the splits of an object, which all read its footer, fetch it once as long as the object does not
+ * change. The cache is bounded by the total size of the tails.
+ */
+final class ParquetFooter {
+  private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+  // bytes read from the end of the object to get the footer in a single GET, most footers are smaller
+  private static final int TAIL_SIZE = 64 * 1024;
+  private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+  private static final Cache<CacheKey, ParquetFooter> CACHE = CacheBuilder.newBuilder()
+    .maximumWeight(MAX_CACHE_BYTES)
+    .<CacheKey, ParquetFooter>weigher((key, footer) -> footer.tail.capacity())
+    .expireAfterAccess(1, TimeUnit.HOURS)
+    .build();
+
+  private final long offset;
+  private final ByteBuffer tail;
+  private final boolean parquet;
+  private final List<List<Chunk>> rowGroups;
+
+  private ParquetFooter(long offset, ByteBuffer tail, boolean parquet, List<List<Chunk>> rowGroups) {
+    this.offset = offset;
+    this.tail = tail;
+    this.parquet = parquet;
+    this.rowGroups = rowGroups;
+  }
+
+  /**
+   * Returns the tail of an object, from the cache if it was read already.
+   *
+   * @param reader the reader of the object, the tail is not cached if it does not read a known version of it
+   * @param length the length of the object
+   * @return the tail of the object
+   */
+  static ParquetFooter get(VectoredReader reader, long length) throws IOException {
+    String etag = reader.getETag();
+    CacheKey key = etag == null ? null : new CacheKey(reader.getBucket(), reader.getKey(), etag);
+    ParquetFooter footer = key == null ? null : CACHE.getIfPresent(key);
+    if (footer != null) {
+      reader.getMetrics().count("footer.cache.hits", 1);
+      return footer;
+    }
+    reader.getMetrics().count("footer.cache.misses", 1);
+    footer = read(reader, length);
+    if (key != null && footer.isParquet()) {
+      CACHE.put(key, footer);
+    }
+    return footer;
+  }
+
+  private static ParquetFooter read(VectoredReader reader, long length) throws IOException {
+    long offset = Math.max(0, length - TAIL_SIZE);
+    ByteBuffer tail = read(reader, offset, length);
+    if (length < 2 * MAGIC.length + 4 || !endsWithMagic(tail)) {
+      return new ParquetFooter(offset, tail, false, Collections.emptyList());
+    }
+    long footerLength = tail.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(tail.limit() - MAGIC.length - 4)
+      & 0xffffffffL;
+    long footerOffset = length - MAGIC.length - 4 - footerLength;
+    if (footerOffset < MAGIC.length) {
+      throw new IOException(String.format("Object %s of bucket %s has an invalid Parquet footer.", reader.getKey(),
+                                          reader.getBucket()));
+    }
+    if (footerOffset < offset) {
+      offset = footerOffset;
+      tail = read(reader, offset, length);
+    }
+    byte[] footer = new byte[(int) footerLength];
+    ByteBuffer data = tail.duplicate();
+    data.position((int) (footerOffset - offset));
+    data.get(footer);
+    FileMetaData metadata = Util.readFileMetaData(new ByteArrayInputStream(footer));
+    List<List<Chunk>> rowGroups = new ArrayList<>();
+    for (RowGroup rowGroup : metadata.getRow_groups()) {
+      List<Chunk> chunks = new ArrayList<>();
+      for (ColumnChunk chunk : rowGroup.getColumns()) {
+        ColumnMetaData column = chunk.getMeta_data();
+        if (column == null) {
+          continue;
+        }
+        long start = column.getData_page_offset();
+        if (column.isSetDictionary_page_offset() && column.getDictionary_page_offset() > 0) {
+          start = Math.min(start, column.getDictionary_page_offset());
+        }
+        chunks.add(new Chunk(column.getPath_in_schema().get(0),
+                             new VectoredReader.Range(start, column.getTotal_compressed_size())));
+      }
+      if (!chunks.isEmpty()) {
+        rowGroups.add(chunks);
+      }
+    }
+    return new ParquetFooter(offset, tail, true, rowGroups);
+  }
+
+  /**
+   * @return whether the object is a Parquet object
+   */
+  boolean isParquet() {
+    return parquet;
+  }
+
+  /**
+   * @return the offset of the tail in the object
+   */
+  long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return the bytes of the object from the offset of the tail to its end, positioned at the start
+   */
+  ByteBuffer getTail() {
+    return tail.duplicate();
+  }
+
+  /**
+   * Returns the range of each row group of the object, from the start of its first column chunk to the end of its
+   * last one, in the order of the row groups. Splits can be planned from them.
+   */
+  List<VectoredReader.Range> getRowGroups() {
+    List<VectoredReader.Range> ranges = new ArrayList<>();
+    for (List<Chunk> chunks : rowGroups) {
+      long start = Long.MAX_VALUE;
+      long end = 0;
+      for (Chunk chunk : chunks) {
+        start = Math.min(start, chunk.range.getOffset());
+        end = Math.max(end, chunk.range.getEnd());
+      }
+      ranges.add(new VectoredReader.Range(start, end - start));
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns the ranges of the column chunks of each row group, by the offset of the row group.
+   *
+   * @param columns the top level columns to return the chunks of, or null for all of them
+   */
+  NavigableMap<Long, List<VectoredReader.Range>> getColumnChunks(@Nullable Set<String> columns) {
+    NavigableMap<Long, List<VectoredReader.Range>> chunksByRowGroup = new TreeMap<>();
+    List<VectoredReader.Range> rowGroupRanges = getRowGroups();
+    for (int i = 0; i < rowGroups.size(); i++) {
+      List<VectoredReader.Range> ranges = new ArrayList<>();
+      for (Chunk chunk : rowGroups.get(i)) {
+        if (columns == null || columns.contains(chunk.column)) {
+          ranges.add(chunk.range);
+        }
+      }
+      if (!ranges.isEmpty()) {
+        chunksByRowGroup.put(rowGroupRanges.get(i).getOffset(), ranges);
+      }
+    }
+    return chunksByRowGroup;
+  }
+
+  private static ByteBuffer read(VectoredReader reader, long start, long end) throws IOException {
+    CompletableFuture<ByteBuffer> fetch =
+      reader.read(Collections.singletonList(new VectoredReader.Range(start, end - start))).get(0);
+    try {
+      return fetch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(String.format("Interrupted while reading object %s of bucket %s.",
+                                                     reader.getKey(), reader.getBucket()));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SdkClientException) {
+        throw new IOException(String.format("Failed to read object %s of bucket %s: %s", reader.getKey(),
+                                            reader.getBucket(), cause.getMessage()), cause);
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static boolean endsWithMagic(ByteBuffer data) {
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (data.get(data.limit() - MAGIC.length + i) != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @VisibleForTesting
+  static void clearCache() {
+    CACHE.invalidateAll();
+  }
+
+  /**
+   * A column chunk of a row group.
+   */
+  private static final class Chunk {
+    private final String column;
+    private final VectoredReader.Range range;
+
+    private Chunk(String column, VectoredReader.Range range) {
+      this.column = column;
+      this.range = range;
+    }
+  }
+
+  /**
+   * The version of an object, by its ETag.
+   */
+  private static final class CacheKey {
+    private final String bucket;
+    private final String key;
+    private final String etag;
+
+    private CacheKey(String bucket, String key, String etag) {
+      this.bucket = bucket;
+      this.key = key;
+      this.etag = etag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return bucket.equals(that.bucket) && key.equals(that.key) && etag.equals(that.etag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bucket, key, etag);
+    }
+  }
+}
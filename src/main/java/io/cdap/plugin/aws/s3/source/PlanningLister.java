@@ -0,0 +1,448 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Inventory;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Lists the objects for the planning file system. Directories are listed from the configured input manifest, or from
+ * the S3 Inventory of their bucket, without listing the bucket at all. Recursive inputs are otherwise listed with
+ * concurrent LIST calls, and so are the globs of the input path. The file statuses are built from the listings,
+ * without a HEAD request per object, and the versions of the objects are recorded for the planning of the splits, see
+ * {@link SplitPlanning}. When the planning lists the input twice, the second listing is the one kept from the first.
+ * Only the objects that the filter of the listings accepts are listed, see {@link ListingFilter}. Everything else is
+ * listed with S3A.
+ */
+final class PlanningLister {
+  private final FileSystem fs;
+  private final Configuration conf;
+  private final Function<String, AmazonS3> clients;
+  private final S3Metrics metrics;
+  private final ListingFilter filter;
+  private final S3PartitionFilter partitionFilter;
+  private final SplitPlanning planning;
+  private final Pattern pathPattern;
+  private final int listThreads;
+  private S3Inventory inventory;
+  private S3InputManifest inputManifest;
+
+  /**
+   * @param fs the S3A file system to list the objects with when they are not listed directly
+   * @param conf the configuration of the planning file system
+   * @param clients the clients to list the objects of each bucket with, which return null for the buckets that are
+   *   only listed with S3A
+   * @param metrics the metrics of the stage to record the requests of the clients to
+   * @param filter if not null, the filter of the listed objects
+   * @param planning if not null, the planning of the splits the objects are listed for
+   */
+  PlanningLister(FileSystem fs, Configuration conf, Function<String, AmazonS3> clients, S3Metrics metrics,
+                 @Nullable ListingFilter filter, @Nullable SplitPlanning planning) {
+    this.fs = fs;
+    this.conf = conf;
+    this.clients = clients;
+    this.metrics = metrics;
+    this.filter = filter;
+    this.partitionFilter = filter == null ? null : filter.getPartitionFilter();
+    this.planning = planning;
+    String regex = conf.get(S3Constants.PLANNING_PATH_REGEX);
+    this.pathPattern = regex == null || regex.isEmpty() ? null : Pattern.compile(regex);
+    this.listThreads = conf.getInt(S3Constants.PLANNING_LIST_THREADS, 0);
+  }
+
+  FileStatus[] listStatus(Path path) throws IOException {
+    if (filter == null && !isInInputManifest(path) && !isInInventory(path)) {
+      return fs.listStatus(path);
+    }
+    List<FileStatus> statuses = new ArrayList<>();
+    RemoteIterator<LocatedFileStatus> iterator = listLocatedStatus(path);
+    while (iterator.hasNext()) {
+      statuses.add(iterator.next());
+    }
+    return statuses.toArray(new FileStatus[0]);
+  }
+
+  /**
+   * Returns the status of objects and directories of the input manifest from the manifest, when it has the size of
+   * the object.
+   */
+  FileStatus getFileStatus(Path path) throws IOException {
+    if (isInInputManifest(path)) {
+      String bucket = path.toUri().getAuthority();
+      String prefix = getPrefix(path);
+      S3ObjectSummary object = prefix.isEmpty() ? null :
+        getInputManifest().get(bucket, prefix.substring(0, prefix.length() - 1));
+      if (object != null && object.getSize() >= 0) {
+        return new FileStatus(object.getSize(), false, 1, fs.getDefaultBlockSize(path), 0L, path);
+      }
+      if (object == null && getInputManifest().isDirectory(bucket, prefix)) {
+        return new FileStatus(0L, true, 1, 0L, 0L, path);
+      }
+    }
+    return fs.getFileStatus(path);
+  }
+
+  /**
+   * Lists a directory from the input manifest or the inventory, if there is one for its bucket, or with concurrent
+   * LIST calls if the input is read recursively. When the input is read recursively, the files of all the sub
+   * directories are returned right away, so that they do not have to be listed one directory at a time. The second
+   * listing of a directory while planning splits is the first one, when the planning keeps them.
+   */
+  RemoteIterator<LocatedFileStatus> listLocatedStatus(Path path) throws IOException {
+    List<LocatedFileStatus> kept = planning == null ? null : planning.takeListing(path);
+    if (kept != null) {
+      return toRemoteIterator(kept.iterator());
+    }
+    RemoteIterator<LocatedFileStatus> statuses = filter(list(path));
+    if (planning == null || !planning.keepsListings()) {
+      return statuses;
+    }
+    List<LocatedFileStatus> listing = new ArrayList<>();
+    while (statuses.hasNext()) {
+      listing.add(statuses.next());
+    }
+    planning.putListing(path, listing);
+    return toRemoteIterator(listing.iterator());
+  }
+
+  private RemoteIterator<LocatedFileStatus> filter(RemoteIterator<LocatedFileStatus> statuses) {
+    return filter == null ? statuses : filter.filter(statuses);
+  }
+
+  private RemoteIterator<LocatedFileStatus> list(Path path) throws IOException {
+    boolean recursive = conf.getBoolean(FileInputFormat.INPUT_DIR_RECURSIVE, false);
+    if (isInInputManifest(path)) {
+      String prefix = getPrefix(path);
+      List<S3ObjectSummary> objects = getInputManifest().list(path.toUri().getAuthority(), prefix, pathPattern);
+      return new ObjectIterator(path, objects.iterator(), null, prefix.length(), recursive);
+    }
+    if (isInInventory(path)) {
+      String prefix = getPrefix(path);
+      S3Inventory.Listing listing = getInventory().list(prefix, pathPattern);
+      return new ObjectIterator(path, listing, listing, prefix.length(), recursive);
+    }
+    // the versions of the objects are only known when they are listed from S3
+    AmazonS3 client = listThreads > 0 || partitionFilter != null || planning != null
+      ? clients.apply(path.toUri().getAuthority()) : null;
+    if (recursive && client != null) {
+      return listConcurrently(client, path);
+    }
+    if (planning != null && client != null) {
+      return listDirectory(client, path);
+    }
+    return fs.listLocatedStatus(path);
+  }
+
+  /**
+   * Expands globs with concurrent LIST calls, one level of the glob at a time, when the input is not read from a
+   * manifest or an inventory. The file statuses are built from the listing, without a HEAD request per file. The
+   * second expansion of a glob while planning splits is the first one, when the planning keeps them.
+   *
+   * @param path the glob
+   * @param filter the filter of the matches
+   * @param globber the expansion of the globs that are not expanded with LIST calls
+   * @return the matches, or null if the path is not a glob and there is no such file
+   */
+  @Nullable
+  FileStatus[] globStatus(Path path, PathFilter filter, Globber globber) throws IOException {
+    FileStatus[] matches = planning == null ? null : planning.takeGlob(path);
+    if (matches == null) {
+      matches = glob(path, globber);
+      if (planning != null) {
+        planning.putGlob(path, matches);
+      }
+    }
+    if (matches == null) {
+      return null;
+    }
+    List<FileStatus> statuses = new ArrayList<>();
+    for (FileStatus status : matches) {
+      if (filter.accept(status.getPath())) {
+        statuses.add(status);
+      }
+    }
+    return statuses.toArray(new FileStatus[0]);
+  }
+
+  @Nullable
+  private FileStatus[] glob(Path path, Globber globber) throws IOException {
+    String bucket = path.toUri().getAuthority();
+    String key = path.toUri().getPath();
+    S3Glob glob = S3Glob.hasWildcard(key) ? S3Glob.parse(key) : null;
+    if (glob == null || listThreads <= 0 && planning == null || bucket == null || S3Glob.hasWildcard(bucket)
+      || isInInputManifest(path) || isInInventory(path)) {
+      return globber.glob(path);
+    }
+    AmazonS3 client = clients.apply(bucket);
+    if (client == null) {
+      return globber.glob(path);
+    }
+    ConcurrentLister lister = new ConcurrentLister(client, metrics, Math.max(1, listThreads), pathPattern,
+                                                   partitionFilter, null);
+    List<LocatedFileStatus> matches = lister.glob(bucket, glob, toStatus(path), toDirectoryStatus(path));
+    List<FileStatus> statuses = new ArrayList<>();
+    RemoteIterator<LocatedFileStatus> iterator = filter(toRemoteIterator(matches.iterator()));
+    while (iterator.hasNext()) {
+      statuses.add(iterator.next());
+    }
+    return statuses.toArray(new FileStatus[0]);
+  }
+
+  /**
+   * Lists all the files under the given directory with concurrent LIST calls. The directories under it that the input
+   * path filter rejects are left out, with everything under them, as the input format would when listing them one by
+   * one.
+   */
+  private RemoteIterator<LocatedFileStatus> listConcurrently(AmazonS3 client, Path path) throws IOException {
+    String bucket = path.toUri().getAuthority();
+    String prefix = getPrefix(path);
+    PathFilter inputFilter = getInputFilter();
+    ConcurrentLister lister = new ConcurrentLister(
+      client, metrics, Math.max(1, listThreads), pathPattern, partitionFilter,
+      dir -> inputFilter.accept(toPath(path, dir.substring(0, dir.length() - 1))));
+    return toRemoteIterator(lister.list(bucket, prefix, toStatus(path)).iterator());
+  }
+
+  /**
+   * Lists the files and the directories directly under the given directory, with a single delimited listing.
+   */
+  private RemoteIterator<LocatedFileStatus> listDirectory(AmazonS3 client, Path path) throws IOException {
+    String bucket = path.toUri().getAuthority();
+    ConcurrentLister lister = new ConcurrentLister(client, metrics, 1, pathPattern, partitionFilter, null);
+    return toRemoteIterator(lister.listDirectory(bucket, getPrefix(path), toStatus(path), toDirectoryStatus(path))
+                              .iterator());
+  }
+
+  /**
+   * Returns the filter that the input format applies to the files and directories it lists: the hidden files, whose
+   * name starts with '_' or '.', are left out, and so are the ones the configured filter rejects.
+   */
+  private PathFilter getInputFilter() {
+    Class<? extends PathFilter> filterClass = conf.getClass(FileInputFormat.PATHFILTER_CLASS, null, PathFilter.class);
+    PathFilter filter = filterClass == null ? null : ReflectionUtils.newInstance(filterClass, conf);
+    return path -> !path.getName().startsWith("_") && !path.getName().startsWith(".")
+      && (filter == null || filter.accept(path));
+  }
+
+  private static RemoteIterator<LocatedFileStatus> toRemoteIterator(Iterator<LocatedFileStatus> statuses) {
+    return new RemoteIterator<LocatedFileStatus>() {
+      @Override
+      public boolean hasNext() {
+        return statuses.hasNext();
+      }
+
+      @Override
+      public LocatedFileStatus next() {
+        return statuses.next();
+      }
+    };
+  }
+
+  private static String getPrefix(Path dir) {
+    String path = dir.toUri().getPath();
+    String prefix = path.startsWith("/") ? path.substring(1) : path;
+    return prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+  }
+
+  /**
+   * Returns the path of an object in the bucket of the given directory. Keys can contain characters, like ':', that
+   * cannot be in a relative path.
+   */
+  private static Path toPath(Path dir, String key) {
+    return new Path(dir.toUri().getScheme(), dir.toUri().getAuthority(), "/" + key);
+  }
+
+  private boolean isInInputManifest(Path path) {
+    return conf.get(S3Constants.PLANNING_INPUT_MANIFEST) != null && path.toUri().getAuthority() != null;
+  }
+
+  private synchronized S3InputManifest getInputManifest() throws IOException {
+    if (inputManifest == null) {
+      String location = conf.get(S3Constants.PLANNING_INPUT_MANIFEST);
+      try (Reader reader = new InputStreamReader(open(location, conf), StandardCharsets.UTF_8)) {
+        inputManifest = S3InputManifest.parse(location, reader);
+      }
+    }
+    return inputManifest;
+  }
+
+  private boolean isInInventory(Path path) throws IOException {
+    if (conf.get(S3Constants.PLANNING_INVENTORY_MANIFEST) == null) {
+      return false;
+    }
+    URI uri = path.toUri();
+    return uri.getAuthority() != null && uri.getAuthority().equals(getInventory().getSourceBucket());
+  }
+
+  private synchronized S3Inventory getInventory() throws IOException {
+    if (inventory == null) {
+      inventory = S3Inventory.load(conf.get(S3Constants.PLANNING_INVENTORY_MANIFEST), location -> open(location, conf));
+    }
+    return inventory;
+  }
+
+  private static InputStream open(String location, Configuration conf) throws IOException {
+    Path file = new Path(location.startsWith("/") ? "file://" + location : location);
+    return file.getFileSystem(conf).open(file);
+  }
+
+  /**
+   * Returns the mapper of the objects listed in the bucket of the given path to their file statuses.
+   */
+  private Function<S3ObjectSummary, LocatedFileStatus> toStatus(Path path) {
+    return summary -> {
+      try {
+        return toStatus(summary, toPath(path, summary.getKey()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  /**
+   * Returns the mapper of the directories listed in the bucket of the given path, prefixes that end with the
+   * delimiter, to their file statuses.
+   */
+  private static Function<String, LocatedFileStatus> toDirectoryStatus(Path path) {
+    return prefix -> {
+      Path dir = toPath(path, prefix.substring(0, prefix.length() - 1));
+      try {
+        return new LocatedFileStatus(new FileStatus(0L, true, 1, 0L, 0L, dir), null);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  private LocatedFileStatus toStatus(S3ObjectSummary summary, Path path) throws IOException {
+    long modificationTime = summary.getLastModified() == null ? 0L : summary.getLastModified().getTime();
+    // the size is negative when an input manifest does not have it
+    long size = summary.getSize() < 0 ? fs.getFileStatus(path).getLen() : summary.getSize();
+    FileStatus status = new FileStatus(size, false, 1, fs.getDefaultBlockSize(path), modificationTime, path);
+    if (planning != null && summary.getETag() != null) {
+      planning.addVersion(path, new ObjectVersion(size, modificationTime, summary.getETag()));
+    }
+    return new LocatedFileStatus(status, fs.getFileBlockLocations(status, 0, status.getLen()));
+  }
+
+  /**
+   * Turns the objects of an input manifest or inventory listing into file statuses. When not listing recursively,
+   * the objects of sub directories are returned as a single directory status per sub directory.
+   */
+  private final class ObjectIterator implements RemoteIterator<LocatedFileStatus> {
+    private final Path dir;
+    private final Iterator<S3ObjectSummary> objects;
+    private final Closeable closeable;
+    private final int prefixLength;
+    private final boolean recursive;
+    private final Set<String> subDirs;
+    private LocatedFileStatus next;
+
+    private ObjectIterator(Path dir, Iterator<S3ObjectSummary> objects, @Nullable Closeable closeable,
+                           int prefixLength, boolean recursive) {
+      this.dir = dir;
+      this.objects = objects;
+      this.closeable = closeable;
+      this.prefixLength = prefixLength;
+      this.recursive = recursive;
+      this.subDirs = new HashSet<>();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+      try {
+        while (next == null && objects.hasNext()) {
+          S3ObjectSummary summary = objects.next();
+          String name = summary.getKey().substring(prefixLength);
+          int idx = name.indexOf('/');
+          if (name.isEmpty() || recursive && name.endsWith("/")) {
+            // directory markers
+            continue;
+          }
+          if (recursive || idx < 0) {
+            next = toStatus(summary, toPath(dir, summary.getKey()));
+          } else if (subDirs.add(name.substring(0, idx))) {
+            Path subDir = toPath(dir, summary.getKey().substring(0, prefixLength + idx));
+            next = new LocatedFileStatus(new FileStatus(0L, true, 1, 0L, 0L, subDir), null);
+          }
+        }
+      } catch (UncheckedIOException e) {
+        close();
+        throw e.getCause();
+      }
+      if (next == null) {
+        close();
+      }
+      return next != null;
+    }
+
+    @Override
+    public LocatedFileStatus next() throws IOException {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      LocatedFileStatus status = next;
+      next = null;
+      return status;
+    }
+
+    private void close() throws IOException {
+      if (closeable != null) {
+        closeable.close();
+      }
+    }
+  }
+
+  /**
+   * Expands the globs that are not expanded with LIST calls.
+   */
+  interface Globber {
+    @Nullable
+    FileStatus[] glob(Path path) throws IOException;
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A stream of an object that reads ahead of the reader, so that parsing and network reads overlap. The object is read
+ * in blocks, each with a ranged GET, and the given number of blocks after the one being read are always being
+ * fetched. The blocks are read into buffers of a shared pool, so the memory used by a stream is bounded by the number
+ * of blocks times the block size.
+ *
+ * All the blocks are fetched with the ETag of the object when it was opened, so that a stream never mixes the data
+ * of two versions of the object.
+ */
+final class PrefetchingInputStream extends FSInputStream {
+  private static final int TRANSFER_SIZE = 64 * 1024;
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("s3-block-prefetcher-%d").setDaemon(true).build());
+
+  private final AmazonS3 s3;
+  private final String bucket;
+  private final String key;
+  private final String etag;
+  private final long length;
+  private final int blocks;
+  private final BufferPool pool;
+  private final int blockSize;
+  private final S3Metrics metrics;
+  // the blocks being fetched, by index
+  private final NavigableMap<Long, Future<ByteBuffer>> window;
+  private long position;
+  // the block being read, positioned at the position of the stream
+  private ByteBuffer current;
+  private long currentBlock;
+  private boolean closed;
+
+  /**
+   * @param s3 the client to read with
+   * @param bucket the bucket of the object
+   * @param key the key of the object
+   * @param etag the ETag of the object, or null to read whatever version is there
+   * @param length the length of the object
+   * @param blocks the number of blocks to keep fetching, including the one being read
+   * @param pool the pool of the buffers of the blocks, the buffer size being the block size
+   * @param metrics the metrics of the stage to count the reads in
+   */
+  PrefetchingInputStream(AmazonS3 s3, String bucket, String key, @Nullable String etag, long length, int blocks,
+                         BufferPool pool, S3Metrics metrics) {
+    this.s3 = s3;
+    this.bucket = bucket;
+    this.key = key;
+    this.etag = etag;
+    this.length = length;
+    this.blocks = Math.max(1, blocks);
+    this.pool = pool;
+    this.blockSize = pool.getBufferSize();
+    this.metrics = metrics;
+    this.window = new TreeMap<>();
+    this.currentBlock = -1;
+  }
+
+  @Override
+  public synchronized void seek(long pos) throws IOException {
+    checkOpen();
+    if (pos < 0 || pos > length) {
+      throw new EOFException(String.format("Cannot seek to %d in object %s of %d bytes.", pos, key, length));
+    }
+    position = pos;
+    if (current != null && pos / blockSize == currentBlock) {
+      current.position((int) (pos - currentBlock * blockSize));
+    } else {
+      releaseCurrent();
+    }
+  }
+
+  @Override
+  public synchronized long getPos() {
+    return position;
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) {
+    return false;
+  }
+
+  @Override
+  public synchronized int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    position++;
+    return current.get() & 0xff;
+  }
+
+  @Override
+  public synchronized int read(byte[] buffer, int offset, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(len, current.remaining());
+    current.get(buffer, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public synchronized long skip(long n) throws IOException {
+    long count = Math.max(0, Math.min(n, length - position));
+    seek(position + count);
+    return count;
+  }
+
+  @Override
+  public synchronized int available() throws IOException {
+    checkOpen();
+    return current == null ? 0 : current.remaining();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    releaseCurrent();
+    cancel(Long.MAX_VALUE);
+  }
+
+  /**
+   * Makes the current block the one of the position of the stream.
+   *
+   * @return whether there is data to read, false at the end of the object
+   */
+  private boolean fill() throws IOException {
+    checkOpen();
+    if (current != null && current.hasRemaining()) {
+      return true;
+    }
+    if (position >= length) {
+      return false;
+    }
+    releaseCurrent();
+    long block = position / blockSize;
+    // the blocks before the one to read will not be read, and none of them will if the reader jumped ahead
+    cancel(window.containsKey(block) ? block : Long.MAX_VALUE);
+    for (long next = block; next < block + blocks && next * blockSize < length; next++) {
+      if (!window.containsKey(next)) {
+        long start = next * blockSize;
+        window.put(next, EXECUTOR.submit(() -> fetch(start)));
+      }
+    }
+    Future<ByteBuffer> fetch = window.remove(block);
+    if (fetch.isDone()) {
+      metrics.count("prefetch.block.hits", 1);
+      current = get(fetch);
+    } else {
+      // the reader has to wait for the network
+      long start = System.nanoTime();
+      current = get(fetch);
+      metrics.count("prefetch.block.stalls", 1);
+      metrics.count("prefetch.block.stall.millis",
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    currentBlock = block;
+    current.position((int) (position - block * blockSize));
+    return current.hasRemaining();
+  }
+
+  private ByteBuffer fetch(long start) throws IOException {
+    long end = Math.min(length, start + blockSize);
+    GetObjectRequest request = new GetObjectRequest(bucket, key).withRange(start, end - 1);
+    if (etag != null) {
+      request.setMatchingETagConstraints(Collections.singletonList(etag));
+    }
+    ByteBuffer buffer = pool.acquire();
+    try (S3Object object = s3.getObject(metrics.tag(request))) {
+      if (object == null) {
+        throw new IOException(String.format("Object %s of bucket %s changed while being read.", key, bucket));
+      }
+      int size = (int) (end - start);
+      InputStream content = object.getObjectContent();
+      if (buffer.hasArray()) {
+        ByteStreams.readFully(content, buffer.array(), buffer.arrayOffset(), size);
+      } else {
+        byte[] transfer = new byte[Math.min(TRANSFER_SIZE, size)];
+        int read = 0;
+        while (read < size) {
+          int count = Math.min(transfer.length, size - read);
+          ByteStreams.readFully(content, transfer, 0, count);
+          buffer.put(transfer, 0, count);
+          read += count;
+        }
+      }
+      buffer.position(0);
+      buffer.limit(size);
+      return buffer;
+    } catch (IOException | RuntimeException e) {
+      pool.release(buffer);
+      throw e;
+    }
+  }
+
+  private ByteBuffer get(Future<ByteBuffer> fetch) throws IOException {
+    try {
+      return fetch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(String.format("Interrupted while reading object %s of bucket %s.", key,
+                                                     bucket));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SdkClientException) {
+        throw new IOException(String.format("Failed to read object %s of bucket %s: %s", key, bucket,
+                                            cause.getMessage()), cause);
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Cancels the fetches of the blocks before the given one, giving back the buffers of the completed ones.
+   */
+  private void cancel(long block) {
+    Iterator<Map.Entry<Long, Future<ByteBuffer>>> iterator = window.headMap(block, false).entrySet().iterator();
+    while (iterator.hasNext()) {
+      Future<ByteBuffer> fetch = iterator.next().getValue();
+      iterator.remove();
+      if (!fetch.cancel(true) && fetch.isDone()) {
+        try {
+          pool.release(fetch.get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          // the block was not needed anyway
+        }
+      }
+    }
+  }
+
+  private void releaseCurrent() {
+    if (current != null) {
+      pool.release(current);
+      current = null;
+      currentBlock = -1;
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException(String.format("Stream of object %s of bucket %s is closed.", key, bucket));
+    }
+  }
+}
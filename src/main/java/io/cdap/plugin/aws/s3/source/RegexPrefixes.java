@@ -0,0 +1,267 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Derives the literal prefixes that all the paths matched by a path regex start with, so that only these prefixes
+ * have to be listed. Character classes and alternations of literals are expanded into alternative prefixes, as long
+ * as there are not too many of them.
+ *
+ * Only regexes that are anchored at the start of the path, with '^' or by starting with the scheme, are narrowed,
+ * since other regexes can match anywhere in the path.
+ */
+final class RegexPrefixes {
+  static final int MAX_PREFIXES = 64;
+  private static final String QUANTIFIERS = "?*+{";
+
+  private RegexPrefixes() {
+    // utility class
+  }
+
+  /**
+   * Narrows the prefix to list to the prefixes that objects matched by the regex can have.
+   *
+   * @param pathPattern the regex of the paths to read, matched against s3a:// paths
+   * @param bucket the bucket to list
+   * @param prefix the prefix to list
+   * @return the prefixes to list instead, which may be empty if no object under the prefix can match
+   */
+  static List<String> narrow(@Nullable Pattern pathPattern, String bucket, String prefix) {
+    List<String> literals = pathPattern == null ? null : extract(pathPattern);
+    if (literals == null) {
+      return Collections.singletonList(prefix);
+    }
+    String root = S3Path.SCHEME + bucket + "/";
+    TreeSet<String> prefixes = new TreeSet<>();
+    for (String literal : literals) {
+      if (!literal.startsWith(root)) {
+        if (root.startsWith(literal)) {
+          // the literal does not even cover the bucket
+          return Collections.singletonList(prefix);
+        }
+        continue;
+      }
+      String keyPrefix = literal.substring(root.length());
+      if (keyPrefix.startsWith(prefix)) {
+        prefixes.add(keyPrefix);
+      } else if (prefix.startsWith(keyPrefix)) {
+        prefixes.add(prefix);
+      }
+    }
+    // drop the prefixes that are covered by a shorter one
+    List<String> result = new ArrayList<>();
+    for (String keyPrefix : prefixes) {
+      if (result.isEmpty() || !keyPrefix.startsWith(result.get(result.size() - 1))) {
+        result.add(keyPrefix);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the literal prefixes of the strings matched by the regex.
+   *
+   * @return the prefixes, or null if nothing is known about the start of the matched strings
+   */
+  @Nullable
+  static List<String> extract(Pattern pattern) {
+    if ((pattern.flags() & (Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.LITERAL | Pattern.COMMENTS)) != 0) {
+      return null;
+    }
+    String regex = pattern.pattern();
+    int i = 0;
+    if (regex.startsWith("^")) {
+      i++;
+    } else if (!regex.startsWith(S3Path.SCHEME) && !regex.startsWith("s3a:\\/\\/")) {
+      return null;
+    }
+    if (hasTopLevelAlternation(regex)) {
+      return null;
+    }
+    List<String> prefixes = Collections.singletonList("");
+    while (i < regex.length()) {
+      int end = atomEnd(regex, i);
+      List<String> alternatives = end < 0 ? null : expand(regex.substring(i, end));
+      if (alternatives == null || alternatives.size() * prefixes.size() > MAX_PREFIXES) {
+        break;
+      }
+      char next = end < regex.length() ? regex.charAt(end) : 0;
+      boolean quantified = QUANTIFIERS.indexOf(next) >= 0 && next != 0;
+      if (quantified && next != '+' && !(next == '{' && !regex.startsWith("{0", end))) {
+        // the atom may not be there at all
+        break;
+      }
+      List<String> extended = new ArrayList<>();
+      for (String prefix : prefixes) {
+        for (String alternative : alternatives) {
+          extended.add(prefix + alternative);
+        }
+      }
+      prefixes = extended;
+      if (quantified) {
+        // the atom is there at least once, what comes after it is not known
+        break;
+      }
+      i = end;
+    }
+    return prefixes.size() == 1 && prefixes.get(0).isEmpty() ? null : prefixes;
+  }
+
+  /**
+   * Returns the index after the atom that starts at the given index, or -1 if the atom is not supported.
+   */
+  private static int atomEnd(String regex, int start) {
+    char c = regex.charAt(start);
+    if (c == '\\') {
+      return start + 2 <= regex.length() ? start + 2 : -1;
+    }
+    if (c == '[') {
+      int end = regex.indexOf(']', start + 2);
+      return end < 0 ? -1 : end + 1;
+    }
+    if (c == '(') {
+      int end = regex.indexOf(')', start + 1);
+      return end < 0 ? -1 : end + 1;
+    }
+    return "^$.|)]{}?*+".indexOf(c) >= 0 ? -1 : start + 1;
+  }
+
+  /**
+   * Returns the strings an atom matches, or null if there are too many or they are not known.
+   */
+  @Nullable
+  private static List<String> expand(String atom) {
+    char c = atom.charAt(0);
+    if (c == '\\') {
+      char escaped = atom.charAt(1);
+      if (escaped == 'd') {
+        return range('0', '9');
+      }
+      // other escapes of letters and digits are classes, references or anchors
+      return Character.isLetterOrDigit(escaped) ? null : Collections.singletonList(String.valueOf(escaped));
+    }
+    if (c == '[') {
+      return expandClass(atom.substring(1, atom.length() - 1));
+    }
+    if (c == '(') {
+      return expandGroup(atom.substring(1, atom.length() - 1));
+    }
+    return Collections.singletonList(atom);
+  }
+
+  @Nullable
+  private static List<String> expandClass(String body) {
+    if (body.startsWith("^") || body.contains("[") || body.contains("&&")) {
+      return null;
+    }
+    TreeSet<String> chars = new TreeSet<>();
+    int i = 0;
+    while (i < body.length()) {
+      char c = body.charAt(i);
+      if (c == '\\') {
+        if (i + 1 >= body.length() || Character.isLetterOrDigit(body.charAt(i + 1))) {
+          return null;
+        }
+        chars.add(String.valueOf(body.charAt(i + 1)));
+        i += 2;
+      } else if (i + 2 < body.length() && body.charAt(i + 1) == '-') {
+        List<String> range = range(c, body.charAt(i + 2));
+        if (range == null) {
+          return null;
+        }
+        chars.addAll(range);
+        i += 3;
+      } else {
+        chars.add(String.valueOf(c));
+        i++;
+      }
+      if (chars.size() > MAX_PREFIXES) {
+        return null;
+      }
+    }
+    return chars.isEmpty() ? null : new ArrayList<>(chars);
+  }
+
+  @Nullable
+  private static List<String> expandGroup(String body) {
+    if (body.startsWith("?:")) {
+      body = body.substring(2);
+    } else if (body.startsWith("?")) {
+      return null;
+    }
+    List<String> alternatives = new ArrayList<>();
+    for (String alternative : body.split("\\|", -1)) {
+      StringBuilder literal = new StringBuilder();
+      for (int i = 0; i < alternative.length(); i++) {
+        char c = alternative.charAt(i);
+        if (c == '\\' && i + 1 < alternative.length() && !Character.isLetterOrDigit(alternative.charAt(i + 1))) {
+          literal.append(alternative.charAt(++i));
+        } else if ("\\^$.[]{}?*+(".indexOf(c) >= 0) {
+          return null;
+        } else {
+          literal.append(c);
+        }
+      }
+      alternatives.add(literal.toString());
+    }
+    return alternatives;
+  }
+
+  @Nullable
+  private static List<String> range(char from, char to) {
+    if (to < from || to - from >= MAX_PREFIXES) {
+      return null;
+    }
+    List<String> chars = new ArrayList<>();
+    for (char c = from; c <= to; c++) {
+      chars.add(String.valueOf(c));
+    }
+    return chars;
+  }
+
+  private static boolean hasTopLevelAlternation(String regex) {
+    int depth = 0;
+    boolean inClass = false;
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (inClass) {
+        inClass = c != ']';
+      } else if (c == '[') {
+        inClass = true;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == '|' && depth == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import org.apache.hadoop.fs.FSInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
+
+/**
+ * A stream of a Parquet object that reads the column chunks of a row group with a single vectored read, see
+ * {@link VectoredReader}, instead of one GET per seek of the Parquet reader. The footer of the object is read first,
+ * see {@link ParquetFooter}, and when the reader moves into a row group, the chunks of the columns it reads
+ * are all fetched in parallel, with nearby chunks merged. Row groups that the reader skips are never fetched.
+ *
+ * The chunks are dropped once they have been read, since the Parquet reader reads each chunk once. Data outside of
+ * the chunks, or read again, is read with ranged GETs, and so is the whole object if it is not a Parquet object.
+ */
+final class RowGroupInputStream extends FSInputStream {
+  private static final Logger LOG = LoggerFactory.getLogger(RowGroupInputStream.class);
+  // smallest GET made outside of the chunks, to not make a request per byte
+  private static final int MIN_READ_SIZE = 1024 * 1024;
+
+  private final VectoredReader reader;
+  private final long length;
+  private final Set<String> columns;
+  // the data read from the object and not read by the reader yet, by offset
+  private final NavigableMap<Long, ByteBuffer> loaded;
+  // the ranges of the chunks of each row group to read, by the offset of the row group
+  private NavigableMap<Long, List<VectoredReader.Range>> rowGroups;
+  // the offset of the row group whose chunks were read last
+  private long currentRowGroup;
+  private long tailOffset;
+  private ByteBuffer tail;
+  private long position;
+  private boolean closed;
+
+  /**
+   * @param reader the reader of the object
+   * @param length the length of the object
+   * @param columns the top level columns read by the reader, or null if it reads all of them
+   */
+  RowGroupInputStream(VectoredReader reader, long length, @Nullable Set<String> columns) {
+    this.reader = reader;
+    this.length = length;
+    this.columns = columns;
+    this.loaded = new TreeMap<>();
+    this.currentRowGroup = -1;
+  }
+
+  @Override
+  public synchronized void seek(long pos) throws IOException {
+    checkOpen();
+    if (pos < 0 || pos > length) {
+      throw new EOFException(String.format("Cannot seek to %d in object %s of %d bytes.", pos, reader.getKey(),
+                                           length));
+    }
+    position = pos;
+  }
+
+  @Override
+  public synchronized long getPos() {
+    return position;
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) {
+    return false;
+  }
+
+  @Override
+  public synchronized int read() throws IOException {
+    byte[] buffer = new byte[1];
+    int count = read(buffer, 0, 1);
+    return count < 0 ? -1 : buffer[0] & 0xff;
+  }
+
+  @Override
+  public synchronized int read(byte[] buffer, int offset, int len) throws IOException {
+    checkOpen();
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= length) {
+      return -1;
+    }
+    ByteBuffer data = find(position);
+    if (data == null) {
+      load(position, len);
+      data = find(position);
+    }
+    int count = Math.min(len, data.remaining());
+    data.get(buffer, offset, count);
+    position += count;
+    if (!data.hasRemaining() && data != tail) {
+      // chunks are read once, do not keep them around
+      loaded.remove(loaded.floorKey(position - 1));
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized long skip(long n) throws IOException {
+    long count = Math.max(0, Math.min(n, length - position));
+    seek(position + count);
+    return count;
+  }
+
+  @Override
+  public synchronized int available() throws IOException {
+    checkOpen();
+    ByteBuffer data = find(position);
+    return data == null ? 0 : data.remaining();
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    loaded.clear();
+    tail = null;
+  }
+
+  /**
+   * Returns the loaded data at the given position, positioned there, or null if it is not loaded.
+   */
+  @Nullable
+  private ByteBuffer find(long pos) {
+    if (tail != null && pos >= tailOffset) {
+      tail.position((int) (pos - tailOffset));
+      return tail;
+    }
+    Map.Entry<Long, ByteBuffer> entry = loaded.floorEntry(pos);
+    if (entry == null || pos >= entry.getKey() + entry.getValue().limit()) {
+      return null;
+    }
+    ByteBuffer data = entry.getValue();
+    data.position((int) (pos - entry.getKey()));
+    return data;
+  }
+
+  /**
+   * Loads the data at the given position: the footer, the chunks of the row group of the position, or the given
+   * number of bytes.
+   */
+  private void load(long pos, int len) throws IOException {
+    if (rowGroups == null) {
+      ParquetFooter footer = ParquetFooter.get(reader, length);
+      if (!footer.isParquet()) {
+        LOG.debug("Object {} of bucket {} is not a Parquet object, reading it with ranged GETs.", reader.getKey(),
+                  reader.getBucket());
+      }
+      tailOffset = footer.getOffset();
+      tail = footer.getTail();
+      rowGroups = footer.getColumnChunks(columns);
+      if (find(pos) != null) {
+        return;
+      }
+    }
+    Map.Entry<Long, List<VectoredReader.Range>> rowGroup = rowGroups.floorEntry(pos);
+    if (rowGroup != null && rowGroup.getKey() != currentRowGroup
+      && rowGroup.getValue().stream().anyMatch(range -> contains(range, pos))) {
+      // the reader moved to another row group
+      loaded.clear();
+      currentRowGroup = rowGroup.getKey();
+      List<VectoredReader.Range> ranges = rowGroup.getValue();
+      List<CompletableFuture<ByteBuffer>> chunks = reader.read(ranges);
+      for (int i = 0; i < ranges.size(); i++) {
+        loaded.put(ranges.get(i).getOffset(), get(chunks.get(i)));
+      }
+      if (find(pos) != null) {
+        return;
+      }
+    }
+    long end = Math.min(length, pos + Math.max(len, MIN_READ_SIZE));
+    Map.Entry<Long, ByteBuffer> next = loaded.higherEntry(pos);
+    if (next != null) {
+      end = Math.min(end, next.getKey());
+    }
+    end = Math.min(end, tail == null ? length : tailOffset);
+    VectoredReader.Range range = new VectoredReader.Range(pos, end - pos);
+    loaded.put(pos, get(reader.read(Collections.singletonList(range)).get(0)));
+  }
+
+  private static boolean contains(VectoredReader.Range range, long pos) {
+    return pos >= range.getOffset() && pos < range.getEnd();
+  }
+
+  private ByteBuffer get(CompletableFuture<ByteBuffer> fetch) throws IOException {
+    try {
+      return fetch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(String.format("Interrupted while reading object %s of bucket %s.",
+                                                     reader.getKey(), reader.getBucket()));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SdkClientException) {
+        throw new IOException(String.format("Failed to read object %s of bucket %s: %s", reader.getKey(),
+                                            reader.getBucket(), cause.getMessage()), cause);
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException(String.format("Stream of object %s of bucket %s is closed.", reader.getKey(),
+                                          reader.getBucket()));
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3RegionResolver;
+import org.apache.hadoop.conf.Configuration;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * Gives the planning file system the clients it lists and reads with directly, instead of through S3A. The clients
+ * are built from the access key given to S3A, or from IAM, and talk to the region of the bucket. They can only stand
+ * in for S3A when no other S3A setting changes how S3A reaches the bucket or authenticates to it, so the file system
+ * goes through S3A for the buckets that {@link #canUse(String)} rejects.
+ */
+final class S3AClients {
+  private static final Set<String> CREDENTIAL_PROVIDERS = ImmutableSet.of(
+    S3Constants.S3A_SIMPLE_CREDENTIAL_PROVIDERS, S3Constants.S3A_TEMP_CREDENTIAL_PROVIDERS);
+  private static final String SSE_C = "SSE-C";
+  private static final String PATH_STYLE_ACCESS = "fs.s3a.path.style.access";
+  private static final String SSL_ENABLED = "fs.s3a.connection.ssl.enabled";
+  private static final String ASSUMED_ROLE_ARN = "fs.s3a.assumed.role.arn";
+  private static final String PROXY_HOST = "fs.s3a.proxy.host";
+  private static final String SIGNING_ALGORITHM = "fs.s3a.signing-algorithm";
+  private static final String ENDPOINT = "endpoint";
+
+  private final Configuration conf;
+  private final S3ConnectorConfig connection;
+  private final ConcurrentMap<String, Boolean> usable;
+
+  /**
+   * @param conf the configuration of the file system
+   */
+  S3AClients(Configuration conf) {
+    this.conf = conf;
+    String accessKey = conf.get(S3Constants.S3A_ACCESS_KEY);
+    this.connection = accessKey == null ?
+      new S3ConnectorConfig(null, null, null, S3ConnectorConfig.IAM, null) :
+      new S3ConnectorConfig(accessKey, conf.get(S3Constants.S3A_SECRET_KEY), conf.get(S3Constants.S3A_SESSION_TOKEN),
+                            S3ConnectorConfig.ACCESS_CREDENTIALS, null);
+    this.usable = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns whether the client of the given bucket reaches and authenticates to it the way S3A does.
+   *
+   * @param bucket the bucket name, or null if the path has none
+   */
+  boolean canUse(@Nullable String bucket) {
+    return bucket != null && usable.computeIfAbsent(bucket, this::isHonored);
+  }
+
+  /**
+   * Returns a client with the credentials given to S3A, which talks to the region of the given bucket. The requests
+   * made with it must be tagged with the metrics of the stage.
+   */
+  AmazonS3 get(String bucket) {
+    return S3RegionResolver.getInstance().getClient(connection, bucket);
+  }
+
+  /**
+   * Returns whether the S3A settings of the bucket are all ones the client honors: the credentials, the encryption of
+   * the objects other than with customer keys, and the endpoint of the region of the bucket, which the source sets.
+   */
+  private boolean isHonored(String bucket) {
+    for (String provider : conf.getTrimmedStrings(S3Constants.S3A_CREDENTIAL_PROVIDERS)) {
+      if (!CREDENTIAL_PROVIDERS.contains(provider)) {
+        return false;
+      }
+    }
+    if (conf.get(S3Constants.S3A_ENDPOINT) != null || SSE_C.equals(conf.getTrimmed(S3Constants.S3A_ENCRYPTION))
+      || conf.getBoolean(PATH_STYLE_ACCESS, false) || !conf.getBoolean(SSL_ENABLED, true)
+      || !isEmpty(conf.get(ASSUMED_ROLE_ARN)) || !isEmpty(conf.get(PROXY_HOST))
+      || !isEmpty(conf.get(SIGNING_ALGORITHM))) {
+      return false;
+    }
+    // S3A applies the per bucket settings over the others
+    String bucketPrefix = S3Constants.S3A_BUCKET_PREFIX + bucket + ".";
+    for (Map.Entry<String, String> property : conf) {
+      if (!property.getKey().startsWith(bucketPrefix)) {
+        continue;
+      }
+      if (!property.getKey().equals(bucketPrefix + ENDPOINT)
+        || !property.getValue().equals(S3RegionResolver.getInstance().getEndpoint(connection, bucket))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEmpty(@Nullable String value) {
+    return value == null || value.trim().isEmpty();
+  }
+}
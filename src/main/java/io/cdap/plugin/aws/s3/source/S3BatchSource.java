@@ -25,14 +25,28 @@ import io.cdap.cdap.api.annotation.Metadata;
 import io.cdap.cdap.api.annotation.MetadataProperty;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.dataset.lib.KeyValue;
+import io.cdap.cdap.api.plugin.PluginProperties;
+import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.FailureCollector;
+import io.cdap.cdap.etl.api.PipelineConfigurer;
+import io.cdap.cdap.etl.api.StageConfigurer;
 import io.cdap.cdap.etl.api.StageContext;
+import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.cdap.etl.api.batch.BatchSourceContext;
 import io.cdap.cdap.etl.api.connector.Connector;
+import io.cdap.cdap.etl.api.validation.FormatContext;
+import io.cdap.cdap.etl.api.validation.ValidatingInputFormat;
+import io.cdap.plugin.aws.s3.common.S3AThreadStatistics;
 import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
 import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
 import io.cdap.plugin.aws.s3.common.S3Path;
+import io.cdap.plugin.aws.s3.common.S3RegionResolver;
 import io.cdap.plugin.aws.s3.connector.S3Connector;
 import io.cdap.plugin.common.Asset;
 import io.cdap.plugin.common.ConfigUtil;
@@ -41,14 +55,21 @@ import io.cdap.plugin.common.ReferenceNames;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
 import io.cdap.plugin.format.plugin.AbstractFileSource;
 import io.cdap.plugin.format.plugin.AbstractFileSourceConfig;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.parquet.hadoop.ParquetInputFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
 /**
@@ -59,8 +80,33 @@ import javax.annotation.Nullable;
 @Description("Batch source to use Amazon S3 as a source.")
 @Metadata(properties = {@MetadataProperty(key = Connector.PLUGIN_TYPE, value = S3Connector.NAME)})
 public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfig> {
+  private static final Logger LOG = LoggerFactory.getLogger(S3BatchSource.class);
+  // number of concurrent LIST calls to plan recursive reads with, unless set with a runtime argument
+  private static final int DEFAULT_LIST_THREADS = 0;
+  // executor slots and smallest size of adaptive splits, unless set with runtime arguments
+  private static final int DEFAULT_SPLIT_SLOTS = 16;
+  private static final long DEFAULT_SPLIT_MIN_SIZE = 32 * 1024 * 1024;
+  // S3 dates objects with the start of their upload, so the uploads still running when a run lists the objects are
+  // left for the next runs, unless set with a runtime argument
+  private static final long DEFAULT_WATERMARK_GRACE_SECONDS = 300;
+  private static final String PARQUET_FORMAT = "parquet";
+  private static final String WATERMARK_COMMIT_FAILURES = "s3.watermark.commit.failures";
   public static final String NAME = "S3";
   private Asset asset;
+  // the endpoint of the bucket, resolved once per run since the file system properties are built several times
+  private Map<String, String> bucketEndpoint;
+  private StageMetrics metrics;
+  // the requests made for the stage in this process, kept while the stage runs, and the S3A operations of the task
+  private S3Metrics stageMetrics;
+  private S3AThreadStatistics s3aStatistics;
+  private String watermarkLocation;
+  // the id of the run the objects past the watermark are planned for, unique even among concurrent runs of the stage
+  private String watermarkRun;
+  private Configuration watermarkConf;
+  private S3Watermark watermark;
+  private long watermarkBefore;
+  private Schema recordSchema;
+  private Schema partitionedSchema;
 
   @SuppressWarnings("unused")
   private final S3BatchConfig config;
@@ -70,8 +116,27 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
     this.config = config;
   }
 
+  @Override
+  public void configurePipeline(PipelineConfigurer pipelineConfigurer) {
+    String schemaKey = getSchemaCacheKey();
+    // the schema is inferred by the source when it is cached or has partition fields
+    if (schemaKey != null
+      || config.getSchema() == null && shouldInferSchema() && !config.getPartitionFields().isEmpty()) {
+      configureInferredSchema(pipelineConfigurer, schemaKey);
+      return;
+    }
+    super.configurePipeline(pipelineConfigurer);
+    Schema schema = config.getSchema();
+    if (schema != null && !config.getPartitionFields().isEmpty()) {
+      pipelineConfigurer.getStageConfigurer().setOutputSchema(
+        S3PartitionFilter.addPartitionFields(schema, config.getPartitionFields()));
+    }
+  }
+
   @Override
   public void prepareRun(BatchSourceContext context) throws Exception {
+    bucketEndpoint = null;
+    stageMetrics = S3Metrics.forStage(context);
     // create asset for lineage
     String referenceName = Strings.isNullOrEmpty(config.getReferenceName())
       ? ReferenceNames.normalizeFqn(config.getPath())
@@ -79,8 +144,88 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
     asset = Asset.builder(referenceName)
       .setFqn(config.getPath().replace(S3Path.SCHEME, "s3://")).build();
 
+    // only plan the objects past the watermark of the previous runs
+    if (config.getWatermarkLocation() != null) {
+      watermarkLocation = String.format("%s/%s/%s/%s.json", config.getWatermarkLocation().replaceAll("/+$", ""),
+                                        context.getNamespace(), context.getPipelineName(), context.getStageName());
+      watermarkConf = new Configuration();
+      for (Map.Entry<String, String> property : getFileSystemProperties(context).entrySet()) {
+        watermarkConf.set(property.getKey(), property.getValue());
+      }
+      watermark = S3Watermark.read(watermarkLocation, watermarkConf);
+      String grace = context.getArguments().get(S3Constants.PLANNING_WATERMARK_GRACE_SECONDS);
+      watermarkBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(
+        Strings.isNullOrEmpty(grace) ? DEFAULT_WATERMARK_GRACE_SECONDS : Long.parseLong(grace));
+      watermarkRun = UUID.randomUUID().toString();
+      ListingFilter.startPlanning(watermarkRun, watermark);
+      LOG.debug("Reading the objects of stage {} modified since {} and before {}.", context.getStageName(),
+                watermark.getLastModified(), watermarkBefore);
+    }
+
     // super is called down here to avoid instantiating the lineage recorder with a null asset
-    super.prepareRun(context);
+    if ((config.getPrefetchObjects() > 0 && !config.shouldUseSelect() || config.shouldCopyHeader()
+      || config.shouldAdaptSplitSize() || watermarkLocation != null)
+      && config.getPath(context).startsWith(S3Path.SCHEME)) {
+      // the reader of the splits fetches their small objects ahead, and knows which objects it reads from the start,
+      // the splits are sized from the objects to read, and the watermark is moved past the objects they read
+      super.prepareRun(ObjectSplitInputFormat.wrap(context));
+    } else {
+      super.prepareRun(context);
+    }
+  }
+
+  @Override
+  public void onRunFinish(boolean succeeded, BatchSourceContext context) {
+    super.onRunFinish(succeeded, context);
+    if (watermarkLocation != null) {
+      commitWatermark(succeeded, context);
+    }
+    DelegateCache.getInstance().release(S3Metrics.getScope(context));
+    // the requests made to plan the splits
+    LOG.info("S3 requests of stage {} outside of tasks: {}", context.getStageName(),
+             S3Metrics.forStage(context).publish(context.getMetrics()));
+    S3Metrics.release(context);
+  }
+
+  @Override
+  public void initialize(BatchRuntimeContext context) throws Exception {
+    super.initialize(context);
+    metrics = context.getMetrics();
+    stageMetrics = S3Metrics.forStage(context);
+    s3aStatistics = S3AThreadStatistics.start();
+  }
+
+  @Override
+  public void transform(KeyValue<NullWritable, StructuredRecord> input,
+                        Emitter<StructuredRecord> emitter) throws Exception {
+    List<String> partitionFields = config.getPartitionFields();
+    if (partitionFields.isEmpty()) {
+      super.transform(input, emitter);
+      return;
+    }
+    StructuredRecord record = input.getValue();
+    if (!record.getSchema().equals(recordSchema)) {
+      recordSchema = record.getSchema();
+      partitionedSchema = S3PartitionFilter.addPartitionFields(recordSchema, partitionFields);
+    }
+    StructuredRecord.Builder builder = StructuredRecord.builder(partitionedSchema);
+    for (Schema.Field field : recordSchema.getFields()) {
+      builder.set(field.getName(), record.get(field.getName()));
+    }
+    String path = record.get(config.getPathField());
+    Map<String, String> partitions = path == null ? Collections.emptyMap() : S3PartitionFilter.getPartitions(path);
+    for (String field : partitionFields) {
+      builder.set(field, partitions.get(field));
+    }
+    emitter.emit(builder.build());
+  }
+
+  @Override
+  public void destroy() {
+    if (metrics != null) {
+      LOG.debug("S3 requests of the task: {}", stageMetrics.publish(metrics, s3aStatistics.drainReads()));
+    }
+    super.destroy();
   }
 
   @Override
@@ -109,6 +254,17 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
         properties.put(S3Constants.S3N_SECRET_KEY, config.connection.getAccessKey());
       }
     }
+    // go straight to the region of the bucket at runtime, instead of being redirected on every request
+    if (context != null && config.getPath(context).startsWith(S3Path.SCHEME)
+      && !S3RegionResolver.hasEndpoint(properties, config.getPath(context))) {
+      if (bucketEndpoint == null) {
+        bucketEndpoint = S3RegionResolver.getInstance().getBucketEndpoint(config.connection, config.getPath(context));
+      }
+      properties.putAll(bucketEndpoint);
+    }
+    if (context != null && config.getPath(context).startsWith(S3Path.SCHEME)) {
+      configurePlanning(context, properties);
+    }
     if (config.shouldCopyHeader()) {
       properties.put(PathTrackingInputFormat.COPY_HEADER, "true");
     }
@@ -118,13 +274,274 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
     return properties;
   }
 
+  /**
+   * Moves the watermark past the objects read by the run, if it succeeded. The run has already succeeded when the
+   * watermark is written, so a failure to write it is logged and counted rather than failing the run.
+   */
+  private void commitWatermark(boolean succeeded, BatchSourceContext context) {
+    S3Watermark planned = ListingFilter.finishPlanning(watermarkRun);
+    if (!succeeded || planned == null || planned.equals(watermark)) {
+      return;
+    }
+    try {
+      planned.write(watermarkLocation, watermarkConf);
+    } catch (IOException | RuntimeException e) {
+      LOG.error("Failed to write the watermark '{}' of stage {}, the objects read by this run will be read again by "
+                  + "the next run.", watermarkLocation, context.getStageName(), e);
+      context.getMetrics().count(WATERMARK_COMMIT_FAILURES, 1);
+    }
+  }
+
+  /**
+   * Replaces S3A with the planning file system if a feature that needs it is enabled. The features are configured
+   * separately: how the objects are listed, which ones the watermark skips, how the splits are sized and how the
+   * objects are read.
+   */
+  private void configurePlanning(BatchSourceContext context, Map<String, String> properties) {
+    if (!PARQUET_FORMAT.equals(config.getFormatName()) && (properties.containsKey(S3Constants.READ_VECTORED)
+      || properties.containsKey(S3Constants.READ_FOOTER_CACHE))) {
+      properties.remove(S3Constants.READ_VECTORED);
+      properties.remove(S3Constants.READ_FOOTER_CACHE);
+      LOG.info("Objects in format {} are not read with vectored reads or with cached footers, only Parquet objects " +
+                 "are.", config.getFormatName());
+    }
+    int listThreads = getListThreads(context);
+    S3SelectQuery selectQuery = config.shouldUseSelect() ? createSelectQuery() : null;
+    boolean parquetPushdown = PARQUET_FORMAT.equals(config.getFormatName())
+      && (config.getParquetFilter() != null || config.shouldProjectParquet());
+    if (config.getInputManifest() == null && config.getInventoryManifest() == null && watermarkLocation == null
+      && config.getPartitionFilter() == null && listThreads == 0 && config.getPrefetchObjects() == 0
+      && !properties.containsKey(S3Constants.READ_PREFETCH_BLOCKS) && selectQuery == null && !parquetPushdown
+      && !properties.containsKey(S3Constants.READ_VECTORED) && !properties.containsKey(S3Constants.READ_FOOTER_CACHE)
+      && !config.shouldCopyHeader() && !config.shouldAdaptSplitSize()) {
+      return;
+    }
+    S3PlanningFileSystem.enable(properties);
+    properties.put(S3Constants.PLANNING_RUN, S3Metrics.getScope(context));
+    configureListing(properties, listThreads);
+    configureWatermark(properties);
+    long selectMaxSize = configureSplitSize(context, properties);
+    configureReads(properties, selectQuery, selectMaxSize, parquetPushdown);
+  }
+
+  /**
+   * Returns the number of concurrent LIST calls to list the objects with, or 0 if they are listed one directory at a
+   * time, which they are unless the input is read recursively or the path is a glob.
+   */
+  private int getListThreads(BatchSourceContext context) {
+    if (!config.shouldReadRecursively() && !S3Glob.hasWildcard(config.getPath(context))) {
+      return 0;
+    }
+    String threads = context.getArguments().get(S3Constants.PLANNING_LIST_THREADS);
+    return Math.max(0, Strings.isNullOrEmpty(threads) ? DEFAULT_LIST_THREADS : Integer.parseInt(threads));
+  }
+
+  /**
+   * Plans the reads from the input manifest or the inventory instead of listing the bucket, if there is one, lists
+   * the objects with concurrent LIST calls, and filters them by partition and by path while they are listed.
+   */
+  private void configureListing(Map<String, String> properties, int listThreads) {
+    if (config.getInputManifest() != null) {
+      properties.put(S3Constants.PLANNING_INPUT_MANIFEST, config.getInputManifest());
+    }
+    if (config.getInventoryManifest() != null) {
+      properties.put(S3Constants.PLANNING_INVENTORY_MANIFEST, config.getInventoryManifest());
+    }
+    if (listThreads > 0) {
+      properties.put(S3Constants.PLANNING_LIST_THREADS, String.valueOf(listThreads));
+    }
+    if (config.getPartitionFilter() != null) {
+      properties.put(S3Constants.PLANNING_PARTITION_FILTER, config.getPartitionFilter());
+    }
+    if (config.getFilePattern() != null) {
+      properties.put(S3Constants.PLANNING_PATH_REGEX, config.getFilePattern().pattern());
+    }
+  }
+
+  /**
+   * Skips the objects that the previous runs read, if the reads are incremental.
+   */
+  private void configureWatermark(Map<String, String> properties) {
+    if (watermark != null) {
+      properties.put(S3Constants.PLANNING_WATERMARK_RUN, watermarkRun);
+      properties.put(S3Constants.PLANNING_WATERMARK, watermark.toJson());
+      properties.put(S3Constants.PLANNING_WATERMARK_BEFORE, String.valueOf(watermarkBefore));
+    }
+  }
+
+  /**
+   * Sizes the splits from the objects to read and the executor slots of the run when the split size is adaptive, see
+   * {@link AdaptiveSplitSize}.
+   *
+   * @return the size of the largest objects that are sure to be read by a single split
+   */
+  private long configureSplitSize(BatchSourceContext context, Map<String, String> properties) {
+    if (!config.shouldAdaptSplitSize()) {
+      return config.getMaxSplitSize();
+    }
+    Map<String, String> arguments = context.getArguments().asMap();
+    String slots = arguments.get(S3Constants.PLANNING_SPLIT_SLOTS);
+    String minSize = arguments.get(S3Constants.PLANNING_SPLIT_MIN_SIZE);
+    properties.put(S3Constants.PLANNING_SPLIT_SLOTS, Strings.isNullOrEmpty(slots)
+      ? String.valueOf(AdaptiveSplitSize.getSlots(arguments, DEFAULT_SPLIT_SLOTS)) : slots);
+    properties.put(S3Constants.PLANNING_SPLIT_MIN_SIZE, Strings.isNullOrEmpty(minSize)
+      ? String.valueOf(DEFAULT_SPLIT_MIN_SIZE) : minSize);
+    // only the objects up to the smallest split size are sure to be read by a single split
+    return Math.min(config.getMaxSplitSize(), Long.parseLong(properties.get(S3Constants.PLANNING_SPLIT_MIN_SIZE)));
+  }
+
+  /**
+   * Reads the objects with S3 Select, pushes the Parquet filter and projection down to the Parquet reader, and fetches
+   * small objects ahead, if enabled. Reading ahead, vectored reads, footer caching and header caching are configured
+   * by their own properties, which the planning file system reads.
+   *
+   * @param selectMaxSize the size of the largest objects to read with S3 Select
+   */
+  private void configureReads(Map<String, String> properties, @Nullable S3SelectQuery selectQuery,
+                              long selectMaxSize, boolean parquetPushdown) {
+    if (parquetPushdown) {
+      configureParquet(properties);
+    }
+    if (selectQuery != null) {
+      selectQuery.addTo(properties);
+      properties.put(S3Constants.READ_SELECT_MAX_OBJECT_SIZE, String.valueOf(selectMaxSize));
+    }
+    // the objects read with S3 Select are not read whole
+    if (config.getPrefetchObjects() > 0 && selectQuery == null) {
+      properties.put(S3Constants.READ_PREFETCH_OBJECTS, String.valueOf(config.getPrefetchObjects()));
+    }
+  }
+
+  /**
+   * Pushes the Parquet filter and the projection of the schema down to the Parquet reader, which skips the row groups
+   * that the filter rules out and the column chunks of the other columns, and counts the bytes it skips.
+   */
+  private void configureParquet(Map<String, String> properties) {
+    Schema schema = config.getSchema();
+    if (config.getParquetFilter() != null) {
+      Configuration conf = new Configuration(false);
+      ParquetInputFormat.setFilterPredicate(conf, ParquetFilter.parse(config.getParquetFilter(), schema));
+      properties.put(ParquetInputFormat.FILTER_PREDICATE, conf.get(ParquetInputFormat.FILTER_PREDICATE));
+    }
+    if (config.shouldProjectParquet() && schema != null) {
+      List<Schema.Field> fields = new ArrayList<>();
+      for (Schema.Field field : schema.getFields()) {
+        if (!field.getName().equals(config.getPathField())) {
+          fields.add(field);
+        }
+      }
+      properties.put(S3Constants.PARQUET_AVRO_PROJECTION, Schema.recordOf(schema.getRecordName(), fields).toString());
+    }
+    properties.put(S3Constants.READ_COUNT_SKIPPED_BYTES, "true");
+  }
+
+  /**
+   * Creates the S3 Select query of the columns of the schema, other than the path field.
+   *
+   * @return the query, or null if the objects cannot be read with S3 Select
+   */
+  @Nullable
+  private S3SelectQuery createSelectQuery() {
+    List<String> columns = new ArrayList<>();
+    Schema schema = config.getSchema();
+    if (schema != null) {
+      for (Schema.Field field : schema.getFields()) {
+        if (!field.getName().equals(config.getPathField())) {
+          columns.add(field.getName());
+        }
+      }
+    }
+    S3SelectQuery query = S3SelectQuery.create(config.getFormatName(), columns, config.getSkipHeader(),
+                                               config.getSelectFilter());
+    if (query == null) {
+      LOG.info("Objects in format {} cannot be read with S3 Select, reading them as usual. Only CSV and JSON " +
+                 "objects can be, and CSV objects with a header require a schema.", config.getFormatName());
+    } else {
+      LOG.debug("Reading the objects with S3 Select query '{}'.", query);
+    }
+    return query;
+  }
+
   @Override
   protected void recordLineage(LineageRecorder lineageRecorder, List<String> outputFields) {
     lineageRecorder.recordRead("Read", "Read from S3.", outputFields);
   }
 
+  /**
+   * Returns the key of the schema to infer in the schema cache, or null if the schema is not inferred, or cannot be
+   * cached.
+   */
+  @Nullable
+  private String getSchemaCacheKey() {
+    if (!shouldInferSchema() || config.getSchema() != null || config.getConnection() == null
+      || config.containsMacro(ConfigUtil.NAME_CONNECTION) || config.containsMacro(S3ConnectorConfig.NAME_SESSION_TOKEN)
+      || (!config.path.startsWith(S3Path.SCHEME) && !config.path.startsWith(S3Path.OLD_SCHEME))) {
+      return null;
+    }
+    try {
+      return SchemaCache.getKey(S3RegionResolver.getInstance().getClient(config.connection,
+                                                                         S3Path.from(config.path).getBucket()),
+                                config.path, config.shouldReadRecursively(), config.getFilePattern(),
+                                config.getRawProperties().getProperties());
+    } catch (RuntimeException e) {
+      // the schema is inferred as usual, and reports the errors reading the objects
+      LOG.debug("Failed to list the objects of path {} to look up their schema in the cache.", config.path, e);
+      return null;
+    }
+  }
+
+  /**
+   * Configures the stage as the base class does, but infers the schema through the format plugin itself, so that the
+   * schema can be taken from the schema cache, and the partition fields added to it.
+   *
+   * @param schemaKey the key of the schema in the schema cache, or null if it cannot be cached
+   */
+  private void configureInferredSchema(PipelineConfigurer pipelineConfigurer, @Nullable String schemaKey) {
+    StageConfigurer stageConfigurer = pipelineConfigurer.getStageConfigurer();
+    FailureCollector collector = stageConfigurer.getFailureCollector();
+    config.validate(collector);
+    collector.getOrThrowException();
+
+    String format = config.getFormatName();
+    PluginProperties properties = PluginProperties.builder()
+      .addAll(config.getRawProperties().getProperties())
+      .add(S3BatchConfig.NAME_FILE_SYSTEM_PROPERTIES, S3BatchConfig.GSON.toJson(getFileSystemProperties(null)))
+      .build();
+    ValidatingInputFormat inputFormat = pipelineConfigurer.usePlugin(ValidatingInputFormat.PLUGIN_TYPE, format, format,
+                                                                     properties);
+    if (inputFormat == null) {
+      collector.addFailure(String.format("Could not find the '%s' input format plugin.", format), null)
+        .withConfigProperty(S3BatchConfig.NAME_FORMAT);
+      throw collector.getOrThrowException();
+    }
+    Schema schema = schemaKey == null ? null : SchemaCache.get(schemaKey);
+    if (schema == null) {
+      schema = inputFormat.getSchema(new FormatContext(collector, null));
+      collector.getOrThrowException();
+      if (schema != null && schemaKey != null) {
+        SchemaCache.put(schemaKey, schema);
+      }
+    }
+    if (schema != null && !config.getPartitionFields().isEmpty()) {
+      for (String field : config.getPartitionFields()) {
+        if (schema.getField(field) != null) {
+          collector.addFailure(String.format("Partition field '%s' is already a field of the objects.", field),
+                               "Remove the field from the partition fields.")
+            .withConfigProperty(S3BatchConfig.NAME_PARTITION_FIELDS);
+        }
+      }
+      collector.getOrThrowException();
+      schema = S3PartitionFilter.addPartitionFields(schema, config.getPartitionFields());
+    }
+    stageConfigurer.setOutputSchema(schema);
+  }
+
   @Override
   protected boolean shouldGetSchema() {
+    return shouldInferSchema();
+  }
+
+  private boolean shouldInferSchema() {
     return !config.containsMacro(S3BatchConfig.NAME_PATH) && !config.containsMacro(S3BatchConfig.NAME_FORMAT) &&
       !config.containsMacro(S3BatchConfig.NAME_DELIMITER) && !config.containsMacro(S3ConnectorConfig.NAME_ACCESS_ID)
       && !config.containsMacro(S3BatchConfig.NAME_FILE_SYSTEM_PROPERTIES) &&
@@ -141,6 +558,16 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
     public static final String NAME_PATH = "path";
     private static final String NAME_FILE_SYSTEM_PROPERTIES = "fileSystemProperties";
     private static final String NAME_DELIMITER = "delimiter";
+    private static final String NAME_INPUT_MANIFEST = "inputManifest";
+    private static final String NAME_WATERMARK_LOCATION = "watermarkLocation";
+    private static final String NAME_PARTITION_FILTER = "partitionFilter";
+    private static final String NAME_PARTITION_FIELDS = "partitionFields";
+    private static final String NAME_PREFETCH_OBJECTS = "prefetchObjects";
+    private static final String NAME_USE_SELECT = "useSelect";
+    private static final String NAME_SELECT_FILTER = "selectFilter";
+    private static final String NAME_PARQUET_FILTER = "parquetFilter";
+    private static final String NAME_PARQUET_PROJECTION = "parquetProjection";
+    private static final String NAME_ADAPTIVE_SPLIT_SIZE = "adaptiveSplitSize";
 
     private static final Gson GSON = new Gson();
     private static final Type MAP_STRING_STRING_TYPE = new TypeToken<Map<String, String>>() { }.getType();
@@ -174,6 +601,85 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
       "fail, if credentials are incorrect. The default value is false.")
     private Boolean verifyCredentials;
 
+    @Name(NAME_INPUT_MANIFEST)
+    @Macro
+    @Nullable
+    @Description("Location of a manifest of the objects to read, as a JSON array or text with one object per line. " +
+      "Each object is given by its key, optionally followed by its size and ETag. When set, the objects under the " +
+      "path are found in the manifest instead of listing the bucket.")
+    private String inputManifest;
+
+    @Name(NAME_WATERMARK_LOCATION)
+    @Macro
+    @Nullable
+    @Description("Location to keep the watermark of the objects that were read in, to only read the objects that " +
+      "were added or modified since the previous successful run. The watermark of the stage is kept under this " +
+      "location, by namespace and pipeline.")
+    private String watermarkLocation;
+
+    @Name(NAME_PARTITION_FILTER)
+    @Macro
+    @Nullable
+    @Description("Filter on the partitions of the objects, the key=value directories of their path, like " +
+      "\"dt >= '2026-10-01' AND region IN ('eu', 'us')\". The partitions that do not match the filter are not " +
+      "listed. Requires reading files recursively.")
+    private String partitionFilter;
+
+    @Name(NAME_PARTITION_FIELDS)
+    @Nullable
+    @Description("Comma separated names of partitions to add to the output records as string fields, with the " +
+      "values from the key=value directories of the path of the object the record was read from. Requires the " +
+      "path field, with the full path.")
+    private String partitionFields;
+
+    @Name(NAME_PREFETCH_OBJECTS)
+    @Macro
+    @Nullable
+    @Description("Number of small objects to fetch ahead while reading the objects of a split, to overlap their " +
+      "requests with the parsing of the object being read. Objects of up to 8 MB are fetched ahead, whole. " +
+      "Defaults to 0, which disables it.")
+    private Integer prefetchObjects;
+
+    @Name(NAME_USE_SELECT)
+    @Macro
+    @Nullable
+    @Description("Whether to read CSV and JSON objects with S3 Select, to only read the columns of the schema, and " +
+      "the rows that match the S3 Select filter. Objects in other formats, compressed objects and objects larger " +
+      "than a split are read as usual. The default value is false.")
+    private Boolean useSelect;
+
+    @Name(NAME_SELECT_FILTER)
+    @Macro
+    @Nullable
+    @Description("Condition on the rows to read with S3 Select, in the SQL of S3 Select, where the object is 's', " +
+      "like \"s.country = 'FR'\". Requires using S3 Select.")
+    private String selectFilter;
+
+    @Name(NAME_PARQUET_FILTER)
+    @Macro
+    @Nullable
+    @Description("Condition on the rows to read from Parquet objects, on the fields of the schema, like " +
+      "\"country = 'FR' AND amount > 100\". Row groups whose statistics or dictionaries show that none of their " +
+      "rows match are skipped without being read. Supports =, !=, <, <=, >, >=, IN, NOT IN, AND, OR and NOT. " +
+      "Requires the parquet format and a schema.")
+    private String parquetFilter;
+
+    @Name(NAME_PARQUET_PROJECTION)
+    @Macro
+    @Nullable
+    @Description("Whether to only read the columns of the schema from Parquet objects, skipping the column chunks " +
+      "of the other columns. The fields of the schema must match the columns of the objects, in type and " +
+      "nullability. The default value is false.")
+    private Boolean parquetProjection;
+
+    @Name(NAME_ADAPTIVE_SPLIT_SIZE)
+    @Macro
+    @Nullable
+    @Description("Whether to size the splits from the objects to read and the executor slots of the run, instead of " +
+      "using the maximum split size, which still bounds their size. The largest splits are read first. The default " +
+      "value is false.")
+    private Boolean adaptiveSplitSize;
+
     private S3BatchConfig(String path, @Nullable S3ConnectorConfig connection, String fileSystemProperties,
                           Boolean verifyCredentials) {
       super();
@@ -201,6 +707,7 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
           collector.addFailure("Connection credentials is not provided", "Please provide valid credentials");
         } else {
           connection.validate(collector, shouldVerifyCredentials());
+          connection.validateInventory(collector);
         }
       }
       if (!containsMacro("path") && (!path.startsWith("s3a://") && !path.startsWith("s3n://"))) {
@@ -210,6 +717,54 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
         collector.addFailure("Temporary credentials are only supported for s3a:// paths.", null)
             .withConfigProperty(NAME_PATH);
       }
+      if (!containsMacro(NAME_WATERMARK_LOCATION) && !containsMacro(NAME_INPUT_MANIFEST)
+        && getWatermarkLocation() != null && getInputManifest() != null) {
+        collector.addFailure("Incremental reads are not supported with an input manifest.",
+                             "Remove the watermark location or the input manifest.")
+          .withConfigProperty(NAME_WATERMARK_LOCATION);
+      }
+      if (!containsMacro(NAME_PARTITION_FILTER) && getPartitionFilter() != null) {
+        try {
+          S3PartitionFilter.parse(getPartitionFilter());
+        } catch (IllegalArgumentException e) {
+          collector.addFailure(e.getMessage(), null).withConfigProperty(NAME_PARTITION_FILTER);
+        }
+        if (!shouldReadRecursively()) {
+          collector.addFailure("The partition filter requires reading files recursively.",
+                               "Enable reading files recursively.").withConfigProperty(NAME_PARTITION_FILTER);
+        }
+      }
+      if (!getPartitionFields().isEmpty() && (getPathField() == null || useFilenameOnly())) {
+        collector.addFailure("Partition fields require the path field, with the full path.",
+                             "Set the path field and disable path filename only.")
+          .withConfigProperty(NAME_PARTITION_FIELDS);
+      }
+      if (!getPartitionFields().isEmpty() && !containsMacro(NAME_SCHEMA) && getSchema() != null) {
+        for (String field : getPartitionFields()) {
+          if (getSchema().getField(field) != null) {
+            collector.addFailure(String.format("Partition field '%s' is already in the schema.", field),
+                                 "Remove the field from the schema, its value is set from the path.")
+              .withConfigProperty(NAME_PARTITION_FIELDS);
+          }
+        }
+      }
+      if (!containsMacro(NAME_PREFETCH_OBJECTS) && getPrefetchObjects() < 0) {
+        collector.addFailure("The number of objects to prefetch must not be negative.", null)
+          .withConfigProperty(NAME_PREFETCH_OBJECTS);
+      }
+      if (!containsMacro(NAME_SELECT_FILTER) && !containsMacro(NAME_USE_SELECT) && getSelectFilter() != null
+        && !shouldUseSelect()) {
+        collector.addFailure("The S3 Select filter requires using S3 Select.", "Enable using S3 Select.")
+          .withConfigProperty(NAME_SELECT_FILTER);
+      }
+      if (!containsMacro(NAME_PARQUET_FILTER) && getParquetFilter() != null) {
+        validateParquetFilter(collector);
+      }
+      if (!containsMacro(NAME_PARQUET_PROJECTION) && !containsMacro(NAME_FORMAT) && shouldProjectParquet()
+        && !PARQUET_FORMAT.equals(getFormatName())) {
+        collector.addFailure("The Parquet projection requires the parquet format.", null)
+          .withConfigProperty(NAME_PARQUET_PROJECTION);
+      }
       if (!containsMacro(NAME_FILE_SYSTEM_PROPERTIES)) {
         try {
           getFilesystemProperties();
@@ -220,6 +775,27 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
       }
     }
 
+    private void validateParquetFilter(FailureCollector collector) {
+      if (!containsMacro(NAME_FORMAT) && !PARQUET_FORMAT.equals(getFormatName())) {
+        collector.addFailure("The Parquet filter requires the parquet format.", null)
+          .withConfigProperty(NAME_PARQUET_FILTER);
+        return;
+      }
+      if (containsMacro(NAME_SCHEMA)) {
+        return;
+      }
+      if (getSchema() == null) {
+        collector.addFailure("The Parquet filter requires a schema.", "Set the schema of the objects.")
+          .withConfigProperty(NAME_PARQUET_FILTER);
+        return;
+      }
+      try {
+        ParquetFilter.parse(getParquetFilter(), getSchema());
+      } catch (IllegalArgumentException e) {
+        collector.addFailure(e.getMessage(), null).withConfigProperty(NAME_PARQUET_FILTER);
+      }
+    }
+
     @Override
     public String getPath() {
       return path.startsWith(S3Path.OLD_SCHEME) ? S3Path.SCHEME + path.substring(S3Path.OLD_SCHEME.length()) : path;
@@ -246,6 +822,65 @@ public class S3BatchSource extends AbstractFileSource<S3BatchSource.S3BatchConfi
       return GSON.fromJson(fileSystemProperties, MAP_STRING_STRING_TYPE);
     }
 
+    @Nullable
+    public String getPartitionFilter() {
+      return Strings.isNullOrEmpty(partitionFilter) ? null : partitionFilter;
+    }
+
+    public List<String> getPartitionFields() {
+      if (Strings.isNullOrEmpty(partitionFields)) {
+        return Collections.emptyList();
+      }
+      List<String> fields = new ArrayList<>();
+      for (String field : partitionFields.split(",")) {
+        if (!field.trim().isEmpty()) {
+          fields.add(field.trim());
+        }
+      }
+      return fields;
+    }
+
+    public int getPrefetchObjects() {
+      return prefetchObjects == null ? 0 : prefetchObjects;
+    }
+
+    public boolean shouldUseSelect() {
+      return useSelect != null && useSelect;
+    }
+
+    @Nullable
+    public String getSelectFilter() {
+      return Strings.isNullOrEmpty(selectFilter) ? null : selectFilter;
+    }
+
+    @Nullable
+    public String getParquetFilter() {
+      return Strings.isNullOrEmpty(parquetFilter) ? null : parquetFilter;
+    }
+
+    public boolean shouldProjectParquet() {
+      return parquetProjection != null && parquetProjection;
+    }
+
+    public boolean shouldAdaptSplitSize() {
+      return adaptiveSplitSize != null && adaptiveSplitSize;
+    }
+
+    @Nullable
+    public String getWatermarkLocation() {
+      return Strings.isNullOrEmpty(watermarkLocation) ? null : watermarkLocation;
+    }
+
+    @Nullable
+    public String getInputManifest() {
+      return Strings.isNullOrEmpty(inputManifest) ? null : inputManifest;
+    }
+
+    @Nullable
+    public String getInventoryManifest() {
+      return connection == null ? null : connection.getInventoryManifest();
+    }
+
     public boolean shouldVerifyCredentials() {
       return verifyCredentials == null ? false : verifyCredentials;
     }
@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * A glob of object keys, with the syntax of Hadoop globs: '*' matches any characters but '/', '?' matches one
+ * character, '[abc]', '[a-z]' and '[^a]' or '[!a]' match one character of a set, '{a,b}' matches one of the
+ * alternatives, and '\' escapes the next character.
+ *
+ * The glob is split into the segments between the '/', which are matched level by level, each segment with the
+ * literal prefix it starts with, so that only the keys with that prefix have to be listed.
+ */
+final class S3Glob {
+  private static final String WILDCARDS = "*?[{";
+
+  private final List<Segment> segments;
+
+  private S3Glob(List<Segment> segments) {
+    this.segments = Collections.unmodifiableList(segments);
+  }
+
+  /**
+   * @return whether the path has wildcards
+   */
+  static boolean hasWildcard(String path) {
+    for (int i = 0; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (WILDCARDS.indexOf(c) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Parses a glob of keys.
+   *
+   * @param glob the glob, relative to the bucket
+   * @return the glob, or null if it is not supported, like when an alternative contains a '/'
+   */
+  @Nullable
+  static S3Glob parse(String glob) {
+    List<Segment> segments = new ArrayList<>();
+    int start = 0;
+    int depth = 0;
+    boolean inClass = false;
+    for (int i = 0; i <= glob.length(); i++) {
+      char c = i < glob.length() ? glob.charAt(i) : '/';
+      if (c == '\\') {
+        i++;
+      } else if (inClass && c != '/') {
+        inClass = c != ']';
+      } else if (c == '[') {
+        inClass = true;
+      } else if (c == '{') {
+        depth++;
+      } else if (c == '}') {
+        depth--;
+      } else if (c == '/') {
+        // sets do not span segments, an unterminated set is rejected when its segment is parsed
+        inClass = false;
+        if (depth != 0) {
+          return null;
+        }
+        if (i > start) {
+          Segment segment = Segment.parse(glob.substring(start, i));
+          if (segment == null) {
+            return null;
+          }
+          segments.add(segment);
+        }
+        start = i + 1;
+      }
+    }
+    return segments.isEmpty() ? null : new S3Glob(segments);
+  }
+
+  List<Segment> getSegments() {
+    return segments;
+  }
+
+  /**
+   * A segment of a glob, between two '/'.
+   */
+  static final class Segment {
+    private final String prefix;
+    // null when the segment has no wildcards
+    private final Pattern pattern;
+
+    private Segment(String prefix, @Nullable Pattern pattern) {
+      this.prefix = prefix;
+      this.pattern = pattern;
+    }
+
+    @Nullable
+    private static Segment parse(String glob) {
+      StringBuilder prefix = new StringBuilder();
+      StringBuilder regex = new StringBuilder();
+      boolean literal = true;
+      int alternatives = 0;
+      for (int i = 0; i < glob.length(); i++) {
+        char c = glob.charAt(i);
+        if (c == '\\') {
+          if (++i >= glob.length()) {
+            return null;
+          }
+          regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+          if (literal) {
+            prefix.append(glob.charAt(i));
+          }
+          continue;
+        }
+        if (WILDCARDS.indexOf(c) >= 0) {
+          literal = false;
+        }
+        switch (c) {
+          case '*':
+            regex.append("[^/]*");
+            break;
+          case '?':
+            regex.append("[^/]");
+            break;
+          case '[':
+            int end = glob.indexOf(']', i + 2);
+            if (end < 0) {
+              return null;
+            }
+            String set = glob.substring(i + 1, end);
+            if (set.startsWith("!")) {
+              set = "^" + set.substring(1);
+            }
+            regex.append('[').append(set.replace("[", "\\[").replace("&&", "\\&\\&")).append(']');
+            i = end;
+            break;
+          case '{':
+            alternatives++;
+            regex.append("(?:");
+            break;
+          case '}':
+            if (alternatives-- == 0) {
+              return null;
+            }
+            regex.append(')');
+            break;
+          case ',':
+            regex.append(alternatives > 0 ? "|" : ",");
+            break;
+          default:
+            regex.append(Pattern.quote(String.valueOf(c)));
+            if (literal) {
+              prefix.append(c);
+            }
+        }
+      }
+      return new Segment(prefix.toString(), literal ? null : Pattern.compile(regex.toString(), Pattern.DOTALL));
+    }
+
+    /**
+     * @return the literal prefix of the segment, which is the whole segment if it has no wildcards
+     */
+    String getPrefix() {
+      return prefix;
+    }
+
+    boolean isLiteral() {
+      return pattern == null;
+    }
+
+    /**
+     * @return whether a name, without '/', matches the segment
+     */
+    boolean matches(String name) {
+      return pattern == null ? prefix.equals(name) : pattern.matcher(name).matches();
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import io.cdap.plugin.aws.s3.common.S3Path;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * The objects to read, as written by the system that produced them, so that reads can be planned without listing
+ * the bucket. A manifest is either a JSON array or text with one object per line.
+ *
+ * The elements of a JSON manifest are either keys, or objects with a key and, optionally, the size and ETag of the
+ * object: {@code [{"key": "logs/a.csv", "size": 1024, "etag": "..."}, "logs/b.csv"]}.
+ *
+ * The lines of a text manifest are a key, optionally followed by the size and ETag of the object, separated by tabs.
+ * Empty lines and lines that start with '#' are ignored.
+ *
+ * Keys are either relative to the bucket being read, or full s3a:// or s3n:// paths.
+ */
+final class S3InputManifest {
+  private static final Gson GSON = new Gson();
+  private static final String COMMENT = "#";
+  private static final String SEPARATOR = "\t";
+  private static final long UNKNOWN_SIZE = -1L;
+
+  private final NavigableMap<String, Entry> objects;
+
+  private S3InputManifest(NavigableMap<String, Entry> objects) {
+    this.objects = objects;
+  }
+
+  /**
+   * Reads a manifest.
+   *
+   * @param location the location of the manifest, used in error messages
+   * @param reader reads the content of the manifest
+   * @return the manifest
+   * @throws IOException if the manifest could not be read
+   * @throws IllegalArgumentException if the manifest is invalid
+   */
+  static S3InputManifest parse(String location, Reader reader) throws IOException {
+    BufferedReader bufferedReader = new BufferedReader(reader);
+    NavigableMap<String, Entry> objects = new TreeMap<>();
+    if (isJson(bufferedReader)) {
+      parseJson(location, bufferedReader, objects);
+    } else {
+      parseText(location, bufferedReader, objects);
+    }
+    return new S3InputManifest(objects);
+  }
+
+  /**
+   * Lists the objects of the manifest under a prefix.
+   *
+   * @param bucket the bucket being read
+   * @param prefix the prefix to list
+   * @param pathPattern if not null, only the objects whose s3a:// path contains a match of the pattern are listed
+   * @return the objects, in the order of their keys, with a negative size if the size is not in the manifest
+   */
+  List<S3ObjectSummary> list(String bucket, String prefix, @Nullable Pattern pathPattern) {
+    List<S3ObjectSummary> summaries = new ArrayList<>();
+    for (Entry entry : objects.tailMap(prefix, true).values()) {
+      if (!entry.key.startsWith(prefix)) {
+        break;
+      }
+      if (entry.isIn(bucket)
+        && (pathPattern == null || pathPattern.matcher(S3Path.SCHEME + bucket + "/" + entry.key).find())) {
+        summaries.add(entry.toSummary(bucket));
+      }
+    }
+    return summaries;
+  }
+
+  /**
+   * @return the object with the given key, or null if it is not in the manifest
+   */
+  @Nullable
+  S3ObjectSummary get(String bucket, String key) {
+    Entry entry = objects.get(key);
+    return entry == null || !entry.isIn(bucket) ? null : entry.toSummary(bucket);
+  }
+
+  /**
+   * @return whether the manifest has objects under the given prefix, which ends with '/' unless it is empty
+   */
+  boolean isDirectory(String bucket, String prefix) {
+    for (Entry entry : objects.tailMap(prefix, true).values()) {
+      if (!entry.key.startsWith(prefix)) {
+        return false;
+      }
+      if (entry.isIn(bucket)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isJson(BufferedReader reader) throws IOException {
+    while (true) {
+      reader.mark(1);
+      int c = reader.read();
+      if (c < 0 || !Character.isWhitespace(c)) {
+        reader.reset();
+        return c == '[';
+      }
+    }
+  }
+
+  private static void parseJson(String location, Reader reader, Map<String, Entry> objects) {
+    JsonElement json;
+    try {
+      json = GSON.fromJson(reader, JsonElement.class);
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException(String.format("Invalid input manifest '%s'.", location), e);
+    }
+    if (json == null || !json.isJsonArray()) {
+      throw new IllegalArgumentException(String.format("Invalid input manifest '%s', it must be a JSON array.",
+                                                       location));
+    }
+    int index = 0;
+    for (JsonElement element : json.getAsJsonArray()) {
+      int elementIndex = ++index;
+      Supplier<String> where = () -> String.format("element %d of input manifest '%s'", elementIndex, location);
+      if (element.isJsonPrimitive()) {
+        addEntry(where, element.getAsString(), null, null, objects);
+        continue;
+      }
+      if (!element.isJsonObject() || !element.getAsJsonObject().has("key")) {
+        throw new IllegalArgumentException(String.format("Invalid %s, it must be a key or an object with a key.",
+                                                         where.get()));
+      }
+      JsonObject object = element.getAsJsonObject();
+      addEntry(where, object.get("key").getAsString(), getString(object, "size"), getString(object, "etag"), objects);
+    }
+  }
+
+  private static void parseText(String location, BufferedReader reader, Map<String, Entry> objects)
+    throws IOException {
+    int lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      int currentLine = ++lineNumber;
+      if (line.trim().isEmpty() || line.startsWith(COMMENT)) {
+        continue;
+      }
+      String[] fields = line.split(SEPARATOR, -1);
+      Supplier<String> where = () -> String.format("line %d of input manifest '%s'", currentLine, location);
+      addEntry(where, fields[0], fields.length > 1 ? fields[1] : null, fields.length > 2 ? fields[2] : null, objects);
+    }
+  }
+
+  @Nullable
+  private static String getString(JsonObject object, String name) {
+    JsonElement element = object.get(name);
+    return element == null || element.isJsonNull() ? null : element.getAsString();
+  }
+
+  private static void addEntry(Supplier<String> where, String key, @Nullable String size, @Nullable String etag,
+                               Map<String, Entry> objects) {
+    String bucket = null;
+    if (key.startsWith(S3Path.SCHEME) || key.startsWith(S3Path.OLD_SCHEME)) {
+      S3Path path = S3Path.from(key);
+      bucket = path.getBucket();
+      key = path.getName();
+    } else if (key.startsWith("/")) {
+      key = key.substring(1);
+    }
+    if (key.isEmpty() || key.endsWith("/")) {
+      throw new IllegalArgumentException(String.format("Invalid %s, '%s' is not the key of an object.",
+                                                       where.get(), key));
+    }
+    long length = UNKNOWN_SIZE;
+    if (size != null && !size.trim().isEmpty()) {
+      try {
+        length = Long.parseLong(size.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(String.format("Invalid %s, '%s' is not a valid size.", where.get(), size),
+                                           e);
+      }
+      if (length < 0) {
+        throw new IllegalArgumentException(String.format("Invalid %s, '%s' is not a valid size.", where.get(), size));
+      }
+    }
+    objects.put(key, new Entry(bucket, key, length, etag == null || etag.isEmpty() ? null : etag));
+  }
+
+  /**
+   * An object of the manifest.
+   */
+  private static final class Entry {
+    // null when the manifest gives the key without the bucket
+    private final String bucket;
+    private final String key;
+    private final long size;
+    private final String etag;
+
+    private Entry(@Nullable String bucket, String key, long size, @Nullable String etag) {
+      this.bucket = bucket;
+      this.key = key;
+      this.size = size;
+      this.etag = etag;
+    }
+
+    private boolean isIn(String bucket) {
+      return this.bucket == null || Objects.equals(this.bucket, bucket);
+    }
+
+    private S3ObjectSummary toSummary(String bucket) {
+      S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setBucketName(bucket);
+      summary.setKey(key);
+      summary.setSize(size);
+      summary.setETag(etag);
+      return summary;
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A filter on the Hive style partitions of object keys, the {@code name=value} directories of the keys, like in
+ * {@code table/dt=2026-10-17/region=eu/part-0.csv}.
+ *
+ * A filter is an expression of comparisons of partitions with literals, combined with AND, OR, NOT and parentheses:
+ * {@code dt >= '2026-10-01' AND region IN ('eu', 'us')}. The comparison operators are =, !=, <>, <, <=, >, >=,
+ * IN and NOT IN. Values are compared as numbers when both the partition value and the literal are numbers, and as
+ * strings otherwise.
+ *
+ * Directories are only pruned when the partitions they have are enough to know that none of their objects match,
+ * and objects only match if all the partitions the filter needs are in their key.
+ */
+final class S3PartitionFilter {
+  private static final char SEPARATOR = '/';
+
+  private final String expression;
+  private final Node root;
+
+  private S3PartitionFilter(String expression, Node root) {
+    this.expression = expression;
+    this.root = root;
+  }
+
+  /**
+   * Parses a filter.
+   *
+   * @param expression the filter expression
+   * @return the filter
+   * @throws IllegalArgumentException if the expression is invalid
+   */
+  static S3PartitionFilter parse(String expression) {
+    return new S3PartitionFilter(expression, FilterParser.parse(expression, "partition filter", NODE_BUILDER));
+  }
+
+  /**
+   * @param prefix a prefix that ends with '/'
+   * @return whether some of the objects under the prefix can match the filter
+   */
+  boolean mightMatch(String prefix) {
+    return !Boolean.FALSE.equals(root.evaluate(getPartitions(prefix)));
+  }
+
+  /**
+   * @param key the key or path of an object
+   * @return whether the object matches the filter
+   */
+  boolean matches(String key) {
+    return Boolean.TRUE.equals(root.evaluate(getPartitions(key)));
+  }
+
+  /**
+   * @return whether the last directory of the prefix, which ends with '/', is a partition
+   */
+  static boolean isPartition(String prefix) {
+    int start = prefix.lastIndexOf(SEPARATOR, prefix.length() - 2) + 1;
+    return prefix.indexOf('=', start) > 0;
+  }
+
+  /**
+   * Returns the partitions of a key, a path or a prefix. The partitions are the directories of the form
+   * {@code name=value}, the value is unescaped like Hive escapes it.
+   */
+  static Map<String, String> getPartitions(String key) {
+    Map<String, String> partitions = new HashMap<>();
+    int start = 0;
+    int end;
+    while ((end = key.indexOf(SEPARATOR, start)) >= 0) {
+      int idx = key.indexOf('=', start);
+      if (idx > start && idx < end) {
+        partitions.put(unescape(key.substring(start, idx)), unescape(key.substring(idx + 1, end)));
+      }
+      start = end + 1;
+    }
+    return partitions;
+  }
+
+  /**
+   * Adds the given partitions to a schema that does not have them, as nullable strings.
+   */
+  static Schema addPartitionFields(Schema schema, List<String> partitions) {
+    List<Schema.Field> fields = new ArrayList<>(schema.getFields());
+    for (String partition : partitions) {
+      fields.add(Schema.Field.of(partition, Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    }
+    return Schema.recordOf(schema.getRecordName(), fields);
+  }
+
+  private static String unescape(String value) {
+    if (value.indexOf('%') < 0) {
+      return value;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '%' && i + 2 < value.length() && isHex(value.charAt(i + 1)) && isHex(value.charAt(i + 2))) {
+        bytes.write(Integer.parseInt(value.substring(i + 1, i + 3), 16));
+        i += 2;
+      } else {
+        byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+        bytes.write(encoded, 0, encoded.length);
+      }
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static boolean isHex(char c) {
+    return Character.digit(c, 16) >= 0;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  /**
+   * A node of the expression, evaluated to null when the partitions it needs are not known.
+   */
+  private interface Node {
+    @Nullable
+    Boolean evaluate(Map<String, String> partitions);
+  }
+
+  private static final FilterParser.Builder<Node> NODE_BUILDER = new FilterParser.Builder<Node>() {
+    @Override
+    public Node and(Node left, Node right) {
+      return S3PartitionFilter.and(left, right);
+    }
+
+    @Override
+    public Node or(Node left, Node right) {
+      return S3PartitionFilter.or(left, right);
+    }
+
+    @Override
+    public Node not(Node node) {
+      return S3PartitionFilter.not(node);
+    }
+
+    @Override
+    public Node compare(String name, String operator, String literal) {
+      return S3PartitionFilter.compare(name, operator, literal);
+    }
+
+    @Override
+    public Node in(String name, List<String> literals) {
+      return S3PartitionFilter.in(name, literals);
+    }
+  };
+
+  private static Node and(Node left, Node right) {
+    return partitions -> {
+      Boolean l = left.evaluate(partitions);
+      if (Boolean.FALSE.equals(l)) {
+        return false;
+      }
+      Boolean r = right.evaluate(partitions);
+      if (Boolean.FALSE.equals(r)) {
+        return false;
+      }
+      return l == null || r == null ? null : true;
+    };
+  }
+
+  private static Node or(Node left, Node right) {
+    return partitions -> {
+      Boolean l = left.evaluate(partitions);
+      if (Boolean.TRUE.equals(l)) {
+        return true;
+      }
+      Boolean r = right.evaluate(partitions);
+      if (Boolean.TRUE.equals(r)) {
+        return true;
+      }
+      return l == null || r == null ? null : false;
+    };
+  }
+
+  private static Node not(Node node) {
+    return partitions -> {
+      Boolean value = node.evaluate(partitions);
+      return value == null ? null : !value;
+    };
+  }
+
+  private static Node compare(String name, String operator, String literal) {
+    return partitions -> {
+      String value = partitions.get(name);
+      if (value == null) {
+        return null;
+      }
+      int comparison = compare(value, literal);
+      switch (operator) {
+        case "=":
+          return comparison == 0;
+        case "!=":
+        case "<>":
+          return comparison != 0;
+        case "<":
+          return comparison < 0;
+        case "<=":
+          return comparison <= 0;
+        case ">":
+          return comparison > 0;
+        default:
+          return comparison >= 0;
+      }
+    };
+  }
+
+  private static Node in(String name, List<String> literals) {
+    return partitions -> {
+      String value = partitions.get(name);
+      if (value == null) {
+        return null;
+      }
+      for (String literal : literals) {
+        if (compare(value, literal) == 0) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  private static int compare(String value, String literal) {
+    BigDecimal number = toNumber(value);
+    BigDecimal literalNumber = number == null ? null : toNumber(literal);
+    return literalNumber == null ? value.compareTo(literal) : number.compareTo(literalNumber);
+  }
+
+  @Nullable
+  static BigDecimal toNumber(String value) {
+    if (value.isEmpty() || !(Character.isDigit(value.charAt(0)) || value.charAt(0) == '-')) {
+      return null;
+    }
+    try {
+      return new BigDecimal(value);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
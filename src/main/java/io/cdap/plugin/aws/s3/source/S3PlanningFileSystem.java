@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A file system that wraps S3A to plan reads faster, and to read faster. The objects are listed by a
+ * {@link PlanningLister}, which only lists the objects that its {@link ListingFilter} accepts, and are opened by an
+ * {@link ObjectOpener}. Everything else is delegated to S3A.
+ *
+ * The file system is configured as the implementation of the s3a scheme by the source, with the Hadoop file system
+ * cache disabled, since each configuration it is created with carries its own planning settings. Creating one is
+ * cheap: the S3A file systems it delegates to are shared by the instances of the run through {@link DelegateCache},
+ * and closed when the run finishes. An instance created outside of a run owns its S3A file system, and closes it.
+ */
+public class S3PlanningFileSystem extends FilterFileSystem {
+  private static final String S3A_IMPL = "fs.s3a.impl";
+  private static final String S3A_IMPL_DISABLE_CACHE = "fs.s3a.impl.disable.cache";
+
+  private final Function<String, AmazonS3> clients;
+  private DelegateCache.Delegate delegate;
+  private boolean ownsDelegate;
+  private Configuration conf;
+  private PlanningLister lister;
+  private ObjectOpener opener;
+
+  public S3PlanningFileSystem() {
+    this(null);
+  }
+
+  /**
+   * @param clients if not null, the clients to list and read the objects of each bucket with directly, which return
+   *   null for the buckets that are only read with S3A, instead of the clients of the S3A settings
+   */
+  S3PlanningFileSystem(@Nullable Function<String, AmazonS3> clients) {
+    this.clients = clients;
+  }
+
+  /**
+   * Adds the properties that make the given file system properties use this file system for the s3a scheme.
+   * The features of the file system are enabled with their own properties.
+   *
+   * @param properties the file system properties of the source
+   */
+  static void enable(Map<String, String> properties) {
+    String delegate = properties.get(S3A_IMPL);
+    if (delegate != null && !delegate.equals(S3PlanningFileSystem.class.getName())) {
+      properties.put(S3Constants.PLANNING_DELEGATE_IMPL, delegate);
+    }
+    properties.put(S3A_IMPL, S3PlanningFileSystem.class.getName());
+    properties.put(S3A_IMPL_DISABLE_CACHE, "true");
+  }
+
+  @Override
+  public void initialize(URI name, Configuration conf) throws IOException {
+    if (fs == null) {
+      String run = conf.get(S3Constants.PLANNING_RUN);
+      ownsDelegate = run == null;
+      delegate = ownsDelegate ? DelegateCache.create(name, conf) : DelegateCache.getInstance().get(run, name, conf);
+      fs = delegate.getFileSystem();
+    }
+    super.initialize(name, conf);
+    this.conf = conf;
+  }
+
+  @Override
+  public FSDataInputStream open(Path path, int bufferSize) throws IOException {
+    return getOpener().open(path, bufferSize);
+  }
+
+  @Override
+  public FileStatus[] listStatus(Path path) throws IOException {
+    return getLister().listStatus(path);
+  }
+
+  @Override
+  public FileStatus getFileStatus(Path path) throws IOException {
+    return getLister().getFileStatus(path);
+  }
+
+  @Override
+  public RemoteIterator<LocatedFileStatus> listLocatedStatus(Path path) throws IOException {
+    return getLister().listLocatedStatus(path);
+  }
+
+  @Override
+  public FileStatus[] globStatus(Path path) throws IOException {
+    return globStatus(path, file -> true);
+  }
+
+  @Override
+  public FileStatus[] globStatus(Path path, PathFilter filter) throws IOException {
+    return getLister().globStatus(path, filter, glob -> super.globStatus(glob, file -> true));
+  }
+
+  /**
+   * Closes the S3A file system if this instance owns it, the ones of a run are closed when the run finishes.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      processDeleteOnExit();
+    } finally {
+      if (ownsDelegate && delegate != null) {
+        delegate.close();
+      }
+      delegate = null;
+    }
+  }
+
+  private synchronized PlanningLister getLister() {
+    if (lister == null) {
+      lister = new PlanningLister(fs, conf, getClients(), getMetrics(), ListingFilter.fromConf(conf),
+                                  SplitPlanning.fromConf(conf));
+    }
+    return lister;
+  }
+
+  private synchronized ObjectOpener getOpener() {
+    if (opener == null) {
+      opener = new ObjectOpener(fs, conf, getClients(), getMetrics());
+    }
+    return opener;
+  }
+
+  private S3Metrics getMetrics() {
+    return S3Metrics.forScope(conf.get(S3Constants.PLANNING_RUN));
+  }
+
+  private Function<String, AmazonS3> getClients() {
+    if (clients != null) {
+      return clients;
+    }
+    S3AClients s3aClients = delegate.getClients();
+    return bucket -> s3aClients.canUse(bucket) ? s3aClients.get(bucket) : null;
+  }
+}
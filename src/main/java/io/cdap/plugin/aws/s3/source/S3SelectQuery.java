@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.CSVInput;
+import com.amazonaws.services.s3.model.CSVOutput;
+import com.amazonaws.services.s3.model.CompressionType;
+import com.amazonaws.services.s3.model.ExpressionType;
+import com.amazonaws.services.s3.model.FileHeaderInfo;
+import com.amazonaws.services.s3.model.InputSerialization;
+import com.amazonaws.services.s3.model.JSONInput;
+import com.amazonaws.services.s3.model.JSONOutput;
+import com.amazonaws.services.s3.model.JSONType;
+import com.amazonaws.services.s3.model.OutputSerialization;
+import com.amazonaws.services.s3.model.SelectObjectContentRequest;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A query of S3 Select that reads only the columns of the output schema, and only the rows that match a filter, of
+ * CSV and JSON Lines objects. The results are in the format of the objects, so that the format of the source parses
+ * them like it parses the objects.
+ *
+ * The columns of CSV objects with a header are selected by name, and a header of the selected columns is added to
+ * the results, since the source skips the first line. Without a header, the columns of the schema are the columns of
+ * the objects by position, so all of them are selected, and only rows are filtered.
+ */
+final class S3SelectQuery {
+  static final String CSV = "csv";
+  static final String JSON = "json";
+  private static final String RECORD_DELIMITER = "\n";
+
+  private final String format;
+  private final String expression;
+  private final String header;
+
+  private S3SelectQuery(String format, String expression, @Nullable String header) {
+    this.format = format;
+    this.expression = expression;
+    this.header = header;
+  }
+
+  /**
+   * Creates the query of the objects read by a source.
+   *
+   * @param formatName the name of the format of the source
+   * @param columns the names of the columns to read, in the order of the schema
+   * @param skipHeader whether the objects have a header, for CSV objects
+   * @param filter the condition of the rows to read, in the SQL of S3 Select, where the object is {@code s}
+   * @return the query, or null if the format is not supported by S3 Select, or the columns are not known
+   */
+  @Nullable
+  static S3SelectQuery create(String formatName, List<String> columns, boolean skipHeader, @Nullable String filter) {
+    String where = filter == null ? "" : " WHERE " + filter;
+    if (JSON.equals(formatName)) {
+      String projection = columns.isEmpty() ? "*" : project(columns);
+      return new S3SelectQuery(JSON, "SELECT " + projection + " FROM S3Object s" + where, null);
+    }
+    if (!CSV.equals(formatName)) {
+      return null;
+    }
+    if (!skipHeader) {
+      return new S3SelectQuery(CSV, "SELECT * FROM S3Object s" + where, null);
+    }
+    if (columns.isEmpty()) {
+      // the header of the results is not known
+      return null;
+    }
+    List<String> names = new ArrayList<>();
+    for (String column : columns) {
+      names.add(column.contains(",") || column.contains("\"") ? quote(column) : column);
+    }
+    return new S3SelectQuery(CSV, "SELECT " + project(columns) + " FROM S3Object s" + where,
+                             String.join(",", names));
+  }
+
+  /**
+   * Reads the query from the configuration of the file system.
+   *
+   * @return the query, or null if there is none
+   */
+  @Nullable
+  static S3SelectQuery fromConf(Configuration conf) {
+    String format = conf.get(S3Constants.READ_SELECT_FORMAT);
+    String expression = conf.get(S3Constants.READ_SELECT_EXPRESSION);
+    if (format == null || expression == null) {
+      return null;
+    }
+    return new S3SelectQuery(format, expression, conf.get(S3Constants.READ_SELECT_HEADER));
+  }
+
+  /**
+   * Adds the query to the properties of the file system.
+   */
+  void addTo(Map<String, String> properties) {
+    properties.put(S3Constants.READ_SELECT_FORMAT, format);
+    properties.put(S3Constants.READ_SELECT_EXPRESSION, expression);
+    if (header != null) {
+      properties.put(S3Constants.READ_SELECT_HEADER, header);
+    }
+  }
+
+  String getExpression() {
+    return expression;
+  }
+
+  /**
+   * @return the header line to add before the results, or null if there is none
+   */
+  @Nullable
+  String getHeader() {
+    return header == null ? null : header + RECORD_DELIMITER;
+  }
+
+  /**
+   * @return the request of the query of an object
+   */
+  SelectObjectContentRequest toRequest(String bucket, String key) {
+    InputSerialization input = new InputSerialization().withCompressionType(CompressionType.NONE);
+    OutputSerialization output = new OutputSerialization();
+    if (JSON.equals(format)) {
+      input.setJson(new JSONInput().withType(JSONType.LINES));
+      output.setJson(new JSONOutput().withRecordDelimiter(RECORD_DELIMITER));
+    } else {
+      input.setCsv(new CSVInput().withFileHeaderInfo(header == null ? FileHeaderInfo.NONE : FileHeaderInfo.USE));
+      output.setCsv(new CSVOutput().withRecordDelimiter(RECORD_DELIMITER));
+    }
+    return new SelectObjectContentRequest()
+      .withBucketName(bucket)
+      .withKey(key)
+      .withExpression(expression)
+      .withExpressionType(ExpressionType.SQL)
+      .withInputSerialization(input)
+      .withOutputSerialization(output);
+  }
+
+  private static String project(List<String> columns) {
+    List<String> projection = new ArrayList<>();
+    for (String column : columns) {
+      projection.add("s." + quote(column));
+    }
+    return String.join(", ", projection);
+  }
+
+  private static String quote(String name) {
+    return '"' + name.replace("\"", "\"\"") + '"';
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The objects an incremental source has already read: all the objects last modified before a time, and the given
+ * objects last modified at that time. S3 modification times are in seconds, so objects written after a run planned
+ * its reads can have the same modification time as the most recent object the run read.
+ */
+final class S3Watermark {
+  private static final Gson GSON = new Gson();
+
+  private long lastModified;
+  private Set<String> keys;
+
+  S3Watermark() {
+    this(0L, new HashSet<>());
+  }
+
+  private S3Watermark(long lastModified, Set<String> keys) {
+    this.lastModified = lastModified;
+    this.keys = keys;
+  }
+
+  /**
+   * Reads a watermark.
+   *
+   * @param location the location of the watermark
+   * @param conf the configuration of the file system of the location
+   * @return the watermark, or an empty watermark if there is none at the location
+   * @throws IOException if the watermark could not be read
+   * @throws IllegalArgumentException if the watermark is invalid
+   */
+  static S3Watermark read(String location, Configuration conf) throws IOException {
+    Path path = new Path(location);
+    FileSystem fs = path.getFileSystem(conf);
+    try (Reader reader = new InputStreamReader(fs.open(path), StandardCharsets.UTF_8)) {
+      return fromJson(reader, location);
+    } catch (FileNotFoundException e) {
+      return new S3Watermark();
+    }
+  }
+
+  static S3Watermark fromJson(String json) {
+    return fromJson(new StringReader(json), "configuration");
+  }
+
+  private static S3Watermark fromJson(Reader reader, String location) {
+    S3Watermark watermark;
+    try {
+      watermark = GSON.fromJson(reader, S3Watermark.class);
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException(String.format("Invalid watermark in '%s'.", location), e);
+    }
+    if (watermark == null) {
+      return new S3Watermark();
+    }
+    return new S3Watermark(watermark.lastModified, watermark.keys == null ? new HashSet<>() : watermark.keys);
+  }
+
+  /**
+   * Writes the watermark, replacing the previous one.
+   *
+   * @param location the location of the watermark
+   * @param conf the configuration of the file system of the location
+   * @throws IOException if the watermark could not be written
+   */
+  synchronized void write(String location, Configuration conf) throws IOException {
+    Path path = new Path(location);
+    FileSystem fs = path.getFileSystem(conf);
+    try (OutputStream os = fs.create(path, true)) {
+      os.write(toJson().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  synchronized String toJson() {
+    return GSON.toJson(this);
+  }
+
+  synchronized S3Watermark copy() {
+    return new S3Watermark(lastModified, new HashSet<>(keys));
+  }
+
+  /**
+   * @return whether an object with the given modification time and key was not read yet
+   */
+  synchronized boolean isNew(long modificationTime, String key) {
+    return modificationTime > lastModified || modificationTime == lastModified && !keys.contains(key);
+  }
+
+  /**
+   * Moves the watermark past an object that is read.
+   */
+  synchronized void advance(long modificationTime, String key) {
+    if (modificationTime > lastModified) {
+      lastModified = modificationTime;
+      keys = new HashSet<>();
+    }
+    if (modificationTime == lastModified) {
+      keys.add(key);
+    }
+  }
+
+  synchronized long getLastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    // compare copies, to never hold the locks of both watermarks
+    S3Watermark self = copy();
+    S3Watermark that = ((S3Watermark) o).copy();
+    return self.lastModified == that.lastModified && self.keys.equals(that.keys);
+  }
+
+  @Override
+  public synchronized int hashCode() {
+    return Objects.hash(lastModified, keys);
+  }
+}
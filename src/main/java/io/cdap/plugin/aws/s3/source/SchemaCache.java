@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.aws.s3.common.S3ListingIterator;
+import io.cdap.plugin.aws.s3.common.S3Path;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * A cache of the schemas inferred from the objects of sources, so that validating, previewing or deploying a pipeline
+ * again does not read the objects again. Schemas are cached by the properties of the source, like its path, format,
+ * delimiter and encoding, and by the ETag of the object the format infers the schema from, which is the first object
+ * of the input. Looking a schema up takes a LIST call or two, and the schema is inferred again as soon as that object
+ * is overwritten, or another object comes before it.
+ *
+ * The cache is bounded, and evicts the schemas that were used least recently.
+ */
+final class SchemaCache {
+  private static final int MAX_ENTRIES = 1000;
+  private static final Cache<String, Schema> CACHE = CacheBuilder.newBuilder()
+    .maximumSize(MAX_ENTRIES)
+    .build();
+
+  private SchemaCache() {
+    // utility class
+  }
+
+  /**
+   * Returns the key of the schema of the given input. The input is either an object, or the objects of a directory
+   * that are not hidden and that match the pattern, in the order of their keys.
+   *
+   * @param s3 the client of the bucket of the path
+   * @param path the path of the input
+   * @param recursive whether the directories are read recursively
+   * @param pattern if not null, only the objects whose path contains a match of the pattern are read
+   * @param properties the properties of the source
+   * @return the key, or null if the path is a glob or the input has no objects
+   */
+  @Nullable
+  static String getKey(AmazonS3 s3, String path, boolean recursive, @Nullable Pattern pattern,
+                       Map<String, String> properties) {
+    if (S3Glob.hasWildcard(path)) {
+      // the format samples the first match of the glob, which takes expanding it
+      return null;
+    }
+    S3ObjectSummary sample = getSample(s3, path, recursive, pattern);
+    if (sample == null) {
+      return null;
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    // the properties are hashed in a stable order, credentials included
+    for (Map.Entry<String, String> property : new TreeMap<>(properties).entrySet()) {
+      hasher.putString(property.getKey(), StandardCharsets.UTF_8).putByte((byte) 0);
+      hasher.putString(String.valueOf(property.getValue()), StandardCharsets.UTF_8).putByte((byte) 0);
+    }
+    hasher.putString(sample.getKey(), StandardCharsets.UTF_8).putByte((byte) 0);
+    hasher.putString(sample.getETag(), StandardCharsets.UTF_8);
+    return path + "|" + hasher.hash();
+  }
+
+  /**
+   * Returns the object the format infers the schema from: the object of the path, or the first object of the
+   * directory that the input format reads.
+   */
+  @Nullable
+  private static S3ObjectSummary getSample(AmazonS3 s3, String path, boolean recursive, @Nullable Pattern pattern) {
+    S3Path s3Path = S3Path.from(path);
+    String bucket = s3Path.getBucket();
+    String name = s3Path.getName();
+    // the pattern is matched against the paths of the objects
+    String bucketPath = path.substring(0, path.indexOf("://") + 3) + bucket + "/";
+    if (!name.isEmpty() && !name.endsWith("/")) {
+      // an object comes before any other key that starts with its key
+      List<S3ObjectSummary> first = s3.listObjectsV2(new ListObjectsV2Request()
+                                                       .withBucketName(bucket).withPrefix(name).withMaxKeys(1))
+        .getObjectSummaries();
+      if (!first.isEmpty() && first.get(0).getKey().equals(name)) {
+        return matches(bucketPath, name, pattern) ? first.get(0) : null;
+      }
+      name += "/";
+    }
+    S3ListingIterator objects = new S3ListingIterator(
+      s3, S3ListingIterator.createRequest(bucket, name, recursive ? null : "/", S3ListingIterator.MAX_PAGE_SIZE));
+    while (objects.hasNext()) {
+      S3ListingIterator.Entry entry = objects.next();
+      if (entry.getSummary() == null || entry.getKey().endsWith("/") || isHidden(entry.getKey(), name.length())) {
+        continue;
+      }
+      if (matches(bucketPath, entry.getKey(), pattern)) {
+        return entry.getSummary();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return whether the key has a file or directory below the given position whose name starts with '_' or '.'
+   */
+  private static boolean isHidden(String key, int from) {
+    for (String name : key.substring(from).split("/")) {
+      if (name.startsWith("_") || name.startsWith(".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(String bucketPath, String key, @Nullable Pattern pattern) {
+    return pattern == null || pattern.matcher(bucketPath + key).find();
+  }
+
+  @Nullable
+  static Schema get(String key) {
+    return CACHE.getIfPresent(key);
+  }
+
+  static void put(String key, Schema schema) {
+    CACHE.put(key, schema);
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    CACHE.invalidateAll();
+  }
+}
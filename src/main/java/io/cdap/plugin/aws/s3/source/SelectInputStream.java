@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.SelectObjectContentEvent;
+import com.amazonaws.services.s3.model.SelectObjectContentEventVisitor;
+import com.amazonaws.services.s3.model.SelectObjectContentRequest;
+import com.amazonaws.services.s3.model.SelectObjectContentResult;
+import com.amazonaws.services.s3.model.Stats;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
+/**
+ * A stream of the results of an S3 Select query of an object, which reads the object from the start, like the reader
+ * of a split that covers the whole object does. Positions are positions in the results, so the stream can only be
+ * seeked to where it already is.
+ *
+ * The results must not be longer than the object, since readers stop at the end of their split, which is the end of
+ * the object. A stream whose results are longer fails instead of losing records. A stream whose results end without
+ * the end event of S3 Select fails as well, since the results are incomplete.
+ */
+final class SelectInputStream extends FSInputStream {
+  private final AmazonS3 s3;
+  private final SelectObjectContentRequest request;
+  private final byte[] header;
+  private final long length;
+  private final S3Metrics metrics;
+  private InputStream records;
+  private SelectObjectContentResult result;
+  private long position;
+  private boolean ended;
+  private boolean eof;
+  private boolean closed;
+
+  /**
+   * @param s3 the client to query with
+   * @param request the query of the object
+   * @param header the line to return before the results, or null if there is none
+   * @param length the length of the object
+   * @param metrics the metrics of the stage to count the reads in
+   */
+  SelectInputStream(AmazonS3 s3, SelectObjectContentRequest request, @Nullable String header, long length,
+                    S3Metrics metrics) {
+    this.s3 = s3;
+    this.request = request;
+    this.header = header == null ? new byte[0] : header.getBytes(StandardCharsets.UTF_8);
+    this.length = length;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public synchronized void seek(long pos) throws IOException {
+    checkOpen();
+    if (pos != position) {
+      throw new IOException(String.format("Cannot seek to %d in the S3 Select results of object %s of bucket %s.",
+                                          pos, request.getKey(), request.getBucketName()));
+    }
+  }
+
+  @Override
+  public synchronized long getPos() {
+    return position;
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) {
+    return false;
+  }
+
+  @Override
+  public synchronized int read() throws IOException {
+    byte[] buffer = new byte[1];
+    int count = read(buffer, 0, 1);
+    return count < 0 ? -1 : buffer[0] & 0xff;
+  }
+
+  @Override
+  public synchronized int read(byte[] buffer, int offset, int len) throws IOException {
+    checkOpen();
+    if (len == 0) {
+      return 0;
+    }
+    if (position < header.length) {
+      int count = (int) Math.min(len, header.length - position);
+      System.arraycopy(header, (int) position, buffer, offset, count);
+      position += count;
+      return count;
+    }
+    if (eof) {
+      return -1;
+    }
+    int count;
+    try {
+      count = getRecords().read(buffer, offset, len);
+    } catch (SdkClientException e) {
+      throw new IOException(String.format("Failed to query object %s of bucket %s with S3 Select: %s",
+                                          request.getKey(), request.getBucketName(), e.getMessage()), e);
+    }
+    if (count < 0) {
+      eof = true;
+      if (!ended) {
+        throw new IOException(String.format("The S3 Select results of object %s of bucket %s are incomplete.",
+                                            request.getKey(), request.getBucketName()));
+      }
+      return -1;
+    }
+    position += count;
+    if (position > length) {
+      throw new IOException(String.format(
+        "The S3 Select results of object %s of bucket %s are longer than the object, which cannot be read with " +
+          "S3 Select.", request.getKey(), request.getBucketName()));
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized int available() throws IOException {
+    checkOpen();
+    return position < header.length ? (int) (header.length - position) : 0;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (result != null) {
+      if (!eof) {
+        // do not read the rest of the results to close the connection
+        result.getPayload().abort();
+      }
+      result.close();
+    }
+  }
+
+  /**
+   * Returns the records of the results, querying the object if it was not yet.
+   */
+  private InputStream getRecords() {
+    if (records == null) {
+      result = s3.selectObjectContent(metrics.tag(request));
+      records = result.getPayload().getRecordsInputStream(
+        new SelectObjectContentEventVisitor() {
+          @Override
+          public void visit(SelectObjectContentEvent.StatsEvent event) {
+            Stats stats = event.getDetails();
+            if (stats != null) {
+              count("select.bytes.scanned", stats.getBytesScanned());
+              count("select.bytes.returned", stats.getBytesReturned());
+            }
+          }
+
+          @Override
+          public void visit(SelectObjectContentEvent.EndEvent event) {
+            ended = true;
+          }
+        });
+    }
+    return records;
+  }
+
+  private void count(String counter, @Nullable Long delta) {
+    if (delta != null) {
+      metrics.count(counter, delta);
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException(String.format("Stream of object %s of bucket %s is closed.", request.getKey(),
+                                          request.getBucketName()));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.IOException;
+
+/**
+ * A stream that counts the bytes of an object that its reader skipped, like the column chunks and the row groups
+ * that a Parquet reader does not need. When the stream is closed, the bytes of the object that were not read are
+ * published as the given counter.
+ */
+final class SkippedBytesInputStream extends FSInputStream {
+  private final FSDataInputStream in;
+  private final long length;
+  private final String counter;
+  private final S3Metrics metrics;
+  private long read;
+  private boolean closed;
+
+  /**
+   * @param in the stream of the object
+   * @param length the length of the object
+   * @param counter the counter of the skipped bytes
+   * @param metrics the metrics of the stage to count the reads in
+   */
+  SkippedBytesInputStream(FSDataInputStream in, long length, String counter, S3Metrics metrics) {
+    this.in = in;
+    this.length = length;
+    this.counter = counter;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void seek(long pos) throws IOException {
+    in.seek(pos);
+  }
+
+  @Override
+  public long getPos() throws IOException {
+    return in.getPos();
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) throws IOException {
+    return in.seekToNewSource(targetPos);
+  }
+
+  @Override
+  public int read() throws IOException {
+    int value = in.read();
+    if (value >= 0) {
+      read++;
+    }
+    return value;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int len) throws IOException {
+    return count(in.read(buffer, offset, len));
+  }
+
+  @Override
+  public int read(long position, byte[] buffer, int offset, int len) throws IOException {
+    return count(in.read(position, buffer, offset, len));
+  }
+
+  @Override
+  public int available() throws IOException {
+    return in.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      // parts of the object, like the footer of Parquet objects, can be read more than once
+      metrics.count(counter, Math.max(0, length - read));
+    }
+    in.close();
+  }
+
+  private int count(int bytes) {
+    if (bytes > 0) {
+      read += bytes;
+    }
+    return bytes;
+  }
+}
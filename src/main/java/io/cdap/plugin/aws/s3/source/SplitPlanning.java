@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * The state of the planning of the splits of the input, shared by the planning file systems created with the
+ * configuration the splits are planned with, see {@link #start}. The file systems record the length, modification
+ * time and ETag of the objects they list from S3, and the versions of the objects of each split are carried to its
+ * reader in the split, see {@link ObjectSplit}, so that the reader does not request them again. When the splits are
+ * planned a first time to size them, the file systems also keep what they list, so that the second planning does not
+ * list the input again. Each listing is kept until it is listed again. When the source reads incrementally, the file
+ * systems also record the objects past the watermark that they list, for the input format to move the watermark of
+ * the run past the ones its splits read, see {@link ListingFilter}.
+ */
+final class SplitPlanning {
+  // the plannings in progress, by the id set in their configuration
+  private static final Map<String, SplitPlanning> PLANNINGS = new ConcurrentHashMap<>();
+
+  private final String id;
+  private final boolean keepListings;
+  private final Map<Path, ObjectVersion> versions = new ConcurrentHashMap<>();
+  // the modification times of the objects past the watermark
+  private final Map<Path, Long> newObjects = new ConcurrentHashMap<>();
+  private final Map<Path, FileStatus[]> globs = new ConcurrentHashMap<>();
+  private final Map<Path, List<LocatedFileStatus>> listings = new ConcurrentHashMap<>();
+
+  SplitPlanning(boolean keepListings) {
+    this.id = UUID.randomUUID().toString();
+    this.keepListings = keepListings;
+  }
+
+  /**
+   * Starts the planning of the splits, for the file systems created with the given configuration until
+   * {@link #finish} is called.
+   *
+   * @param conf the configuration the splits are planned with, which is modified to find the planning
+   * @param keepListings whether the input is listed twice, and the file systems keep what they list for the second
+   *   listing
+   * @return the state of the planning
+   */
+  static SplitPlanning start(Configuration conf, boolean keepListings) {
+    SplitPlanning planning = new SplitPlanning(keepListings);
+    PLANNINGS.put(planning.id, planning);
+    conf.set(S3Constants.PLANNING_SPLITS_ID, planning.id);
+    return planning;
+  }
+
+  void finish() {
+    PLANNINGS.remove(id);
+  }
+
+  /**
+   * Returns the planning in progress that the given configuration plans splits for, or null if it does not.
+   */
+  @Nullable
+  static SplitPlanning fromConf(Configuration conf) {
+    String id = conf.get(S3Constants.PLANNING_SPLITS_ID);
+    return id == null ? null : PLANNINGS.get(id);
+  }
+
+  void addVersion(Path path, ObjectVersion version) {
+    versions.put(path, version);
+  }
+
+  @Nullable
+  ObjectVersion getVersion(Path path) {
+    return versions.get(path);
+  }
+
+  void addNewObject(Path path, long modificationTime) {
+    newObjects.put(path, modificationTime);
+  }
+
+  /**
+   * Returns the modification time of the given object if it was listed past the watermark, or null otherwise.
+   */
+  @Nullable
+  Long getNewObject(Path path) {
+    return newObjects.get(path);
+  }
+
+  boolean keepsListings() {
+    return keepListings;
+  }
+
+  /**
+   * Keeps the matches of a glob, before the filter of the caller, if the listings are kept.
+   */
+  void putGlob(Path glob, @Nullable FileStatus[] matches) {
+    if (keepListings && matches != null) {
+      globs.put(glob, matches.clone());
+    }
+  }
+
+  /**
+   * Returns the kept matches of a glob, and forgets them, or null if they are not kept.
+   */
+  @Nullable
+  FileStatus[] takeGlob(Path glob) {
+    return globs.remove(glob);
+  }
+
+  /**
+   * Keeps the listing of a directory, if the listings are kept.
+   */
+  void putListing(Path dir, List<LocatedFileStatus> statuses) {
+    if (keepListings) {
+      listings.put(dir, statuses);
+    }
+  }
+
+  /**
+   * Returns the kept listing of a directory, and forgets it, or null if it is not kept.
+   */
+  @Nullable
+  List<LocatedFileStatus> takeListing(Path dir) {
+    return listings.remove(dir);
+  }
+}
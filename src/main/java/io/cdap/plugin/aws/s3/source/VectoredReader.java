@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.Nullable;
+
+/**
+ * Reads several byte ranges of an object at once, like the column chunks of a Parquet row group. Ranges that are
+ * close to each other are merged into a single ranged GET, as long as the gap between them is small enough and the
+ * merged range is not too large, since the latency of a request to S3 costs more than transferring a small gap. The
+ * merged ranges are fetched in parallel, and each range is returned as a slice of the buffer of its merged range,
+ * without copying it.
+ *
+ * All the ranges are fetched with the ETag of the object when it was opened, so that they are all from the same
+ * version of the object.
+ */
+final class VectoredReader {
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("s3-vectored-reader-%d").setDaemon(true).build());
+
+  private final AmazonS3 s3;
+  private final String bucket;
+  private final String key;
+  private final String etag;
+  private final long maxGap;
+  private final int maxMergedSize;
+  private final S3Metrics metrics;
+
+  /**
+   * @param s3 the client to read with
+   * @param bucket the bucket of the object
+   * @param key the key of the object
+   * @param etag the ETag of the object, or null to read whatever version is there
+   * @param maxGap the largest gap between two ranges that are merged, in bytes
+   * @param maxMergedSize the largest size of a merged range, in bytes. Larger ranges are read on their own
+   * @param metrics the metrics of the stage to count the reads in
+   */
+  VectoredReader(AmazonS3 s3, String bucket, String key, @Nullable String etag, long maxGap, int maxMergedSize,
+                 S3Metrics metrics) {
+    this.s3 = s3;
+    this.bucket = bucket;
+    this.key = key;
+    this.etag = etag;
+    this.maxGap = maxGap;
+    this.maxMergedSize = maxMergedSize;
+    this.metrics = metrics;
+  }
+
+  S3Metrics getMetrics() {
+    return metrics;
+  }
+
+  String getBucket() {
+    return bucket;
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  @Nullable
+  String getETag() {
+    return etag;
+  }
+
+  /**
+   * Starts reading the given ranges.
+   *
+   * @param ranges the ranges to read, in any order
+   * @return the data of each range, in the order of the ranges, as read-only slices positioned at their start
+   */
+  List<CompletableFuture<ByteBuffer>> read(List<Range> ranges) {
+    List<CompletableFuture<ByteBuffer>> results = new ArrayList<>(Collections.nCopies(ranges.size(), null));
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < ranges.size(); i++) {
+      order.add(i);
+    }
+    order.sort(Comparator.comparingLong(i -> ranges.get(i).getOffset()));
+    int first = 0;
+    while (first < order.size()) {
+      Range merged = ranges.get(order.get(first));
+      int last = first + 1;
+      while (last < order.size()) {
+        Range next = ranges.get(order.get(last));
+        long end = Math.max(merged.getEnd(), next.getEnd());
+        if (next.getOffset() - merged.getEnd() > maxGap || end - merged.getOffset() > maxMergedSize) {
+          break;
+        }
+        merged = new Range(merged.getOffset(), end - merged.getOffset());
+        last++;
+      }
+      CompletableFuture<ByteBuffer> fetch = fetch(merged);
+      for (int i = first; i < last; i++) {
+        Range range = ranges.get(order.get(i));
+        long start = merged.getOffset();
+        results.set(order.get(i), fetch.thenApply(buffer -> slice(buffer, (int) (range.getOffset() - start),
+                                                                  (int) range.getLength())));
+      }
+      first = last;
+    }
+    metrics.count("vectored.ranges", ranges.size());
+    return results;
+  }
+
+  private CompletableFuture<ByteBuffer> fetch(Range range) {
+    CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+    EXECUTOR.execute(() -> {
+      GetObjectRequest request = new GetObjectRequest(bucket, key).withRange(range.getOffset(), range.getEnd() - 1);
+      if (etag != null) {
+        request.setMatchingETagConstraints(Collections.singletonList(etag));
+      }
+      try (S3Object object = s3.getObject(metrics.tag(request))) {
+        if (object == null) {
+          throw new IOException(String.format("Object %s of bucket %s changed while being read.", key, bucket));
+        }
+        byte[] data = new byte[(int) range.getLength()];
+        ByteStreams.readFully(object.getObjectContent(), data);
+        metrics.count("vectored.requests", 1);
+        result.complete(ByteBuffer.wrap(data).asReadOnlyBuffer());
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer slice = buffer.duplicate();
+    slice.limit(offset + length);
+    slice.position(offset);
+    return slice.slice();
+  }
+
+  /**
+   * A range of bytes of an object.
+   */
+  static final class Range {
+    private final long offset;
+    private final long length;
+
+    Range(long offset, long length) {
+      this.offset = offset;
+      this.length = length;
+    }
+
+    long getOffset() {
+      return offset;
+    }
+
+    long getLength() {
+      return length;
+    }
+
+    long getEnd() {
+      return offset + length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Range that = (Range) o;
+      return offset == that.offset && length == that.length;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(offset, length);
+    }
+
+    @Override
+    public String toString() {
+      return "[" + offset + ", " + getEnd() + ")";
+    }
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.internal.SdkFilterInputStream;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.HeadBucketRequest;
+import com.amazonaws.services.s3.model.HeadBucketResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.SelectObjectContentEventStream;
+import com.amazonaws.services.s3.model.SelectObjectContentRequest;
+import com.amazonaws.services.s3.model.SelectObjectContentResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An S3 client that keeps the objects of a bucket in memory, and records the requests it serves. The bucket name of
+ * the requests is ignored, so all the buckets have the same objects, and the regions of the buckets are set by the
+ * tests.
+ *
+ * Objects are listed in the order of their keys, in pages of at most the requested size, and their ETag changes
+ * whenever they are replaced. GET requests serve ranges of the objects, and fail with a null object, like the SDK,
+ * when they require another ETag. S3 Select requests are answered with the content of the object as is, so tests
+ * store the event stream of the answer as the object.
+ */
+public class MemoryS3 extends AbstractAmazonS3 {
+  private final NavigableMap<String, Content> objects = new ConcurrentSkipListMap<>();
+  private final Map<String, String> regions = new ConcurrentHashMap<>();
+  private final Map<String, String> redirects = new ConcurrentHashMap<>();
+  private final Map<String, String> locations = new ConcurrentHashMap<>();
+  private final AtomicInteger versions = new AtomicInteger();
+  private final List<String> listed = new CopyOnWriteArrayList<>();
+  private final List<GetObjectRequest> gets = new CopyOnWriteArrayList<>();
+  private final List<String> heads = new CopyOnWriteArrayList<>();
+  private final List<SelectObjectContentRequest> selects = new CopyOnWriteArrayList<>();
+  private final AtomicInteger bucketRequests = new AtomicInteger();
+
+  /**
+   * Creates a client with a single object.
+   */
+  public static MemoryS3 withObject(String key, byte[] content) {
+    MemoryS3 s3 = new MemoryS3();
+    s3.put(key, content);
+    return s3;
+  }
+
+  /**
+   * Adds an object, or replaces the object with the same key, modified now.
+   */
+  public void put(String key, String content) {
+    put(key, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Adds an object, or replaces the object with the same key, modified now.
+   */
+  public void put(String key, byte[] content) {
+    put(key, content, System.currentTimeMillis());
+  }
+
+  /**
+   * Adds an object, or replaces the object with the same key.
+   */
+  public void put(String key, byte[] content, long lastModified) {
+    objects.put(key, new Content(content, lastModified, "etag-" + versions.incrementAndGet()));
+  }
+
+  public void delete(String key) {
+    objects.remove(key);
+  }
+
+  public byte[] getContent(String key) {
+    return getObject(key).bytes;
+  }
+
+  public String getETag(String key) {
+    return getObject(key).etag;
+  }
+
+  /**
+   * Sets the region HEAD Bucket requests answer with.
+   */
+  public void setRegion(String bucket, String region) {
+    regions.put(bucket, region);
+  }
+
+  /**
+   * Makes HEAD Bucket requests redirect to the given region, as for a bucket in another region than the client.
+   */
+  public void setRedirect(String bucket, String region) {
+    redirects.put(bucket, region);
+  }
+
+  /**
+   * Sets the location GET Bucket Location requests answer with. HEAD Bucket requests of buckets without a region fail
+   * with 403, and GET Bucket Location requests of buckets without a location with 404.
+   */
+  public void setLocation(String bucket, String location) {
+    locations.put(bucket, location);
+  }
+
+  /**
+   * @return the prefixes of the LIST requests, in the order they were served
+   */
+  public List<String> getListed() {
+    return Collections.unmodifiableList(listed);
+  }
+
+  /**
+   * @return the GET requests, in the order they were served
+   */
+  public List<GetObjectRequest> getGets() {
+    return Collections.unmodifiableList(gets);
+  }
+
+  /**
+   * @return the ranges of the GET requests of the given object, as "start-end", in the order they were served
+   */
+  public List<String> getRanges(String key) {
+    List<String> ranges = new ArrayList<>();
+    for (GetObjectRequest get : gets) {
+      if (get.getKey().equals(key) && get.getRange() != null) {
+        ranges.add(get.getRange()[0] + "-" + get.getRange()[1]);
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * @return the keys of the HEAD requests, in the order they were served
+   */
+  public List<String> getHeads() {
+    return Collections.unmodifiableList(heads);
+  }
+
+  /**
+   * @return the S3 Select requests, in the order they were served
+   */
+  public List<SelectObjectContentRequest> getSelects() {
+    return Collections.unmodifiableList(selects);
+  }
+
+  /**
+   * @return the number of HEAD Bucket and GET Bucket Location requests
+   */
+  public int getBucketRequests() {
+    return bucketRequests.get();
+  }
+
+  @Override
+  public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+    String prefix = request.getPrefix() == null ? "" : request.getPrefix();
+    listed.add(prefix);
+    // the token is the last key of the previous page, after every key of its last common prefix
+    String after = request.getContinuationToken() != null ? request.getContinuationToken()
+      : request.getStartAfter() != null && request.getStartAfter().compareTo(prefix) >= 0 ? request.getStartAfter()
+      : null;
+    int maxKeys = request.getMaxKeys() == null ? S3ListingIterator.MAX_PAGE_SIZE : request.getMaxKeys();
+    ListObjectsV2Result result = new ListObjectsV2Result();
+    result.setBucketName(request.getBucketName());
+    result.setPrefix(request.getPrefix());
+    String last = null;
+    int count = 0;
+    NavigableMap<String, Content> page = after == null ? objects.tailMap(prefix, true) : objects.tailMap(after, false);
+    for (Map.Entry<String, Content> object : page.entrySet()) {
+      String key = object.getKey();
+      if (!key.startsWith(prefix)) {
+        break;
+      }
+      int idx = request.getDelimiter() == null ? -1 : key.indexOf(request.getDelimiter(), prefix.length());
+      String commonPrefix = idx < 0 ? null : key.substring(0, idx + request.getDelimiter().length());
+      if (commonPrefix != null && (commonPrefix + Character.MAX_VALUE).equals(last)) {
+        continue;
+      }
+      if (count == maxKeys) {
+        result.setTruncated(true);
+        result.setNextContinuationToken(last);
+        break;
+      }
+      count++;
+      if (commonPrefix != null) {
+        result.getCommonPrefixes().add(commonPrefix);
+        last = commonPrefix + Character.MAX_VALUE;
+        continue;
+      }
+      S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setBucketName(request.getBucketName());
+      summary.setKey(key);
+      summary.setSize(object.getValue().bytes.length);
+      summary.setLastModified(new Date(object.getValue().lastModified));
+      summary.setETag(object.getValue().etag);
+      result.getObjectSummaries().add(summary);
+      last = key;
+    }
+    result.setKeyCount(count);
+    return result;
+  }
+
+  @Override
+  public ObjectMetadata getObjectMetadata(String bucketName, String key) {
+    return getObjectMetadata(new GetObjectMetadataRequest(bucketName, key));
+  }
+
+  @Override
+  public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest request) {
+    heads.add(request.getKey());
+    Content content = getObject(request.getKey());
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setContentLength(content.bytes.length);
+    metadata.setLastModified(new Date(content.lastModified));
+    metadata.setHeader(Headers.ETAG, content.etag);
+    return metadata;
+  }
+
+  @Override
+  public S3Object getObject(GetObjectRequest request) {
+    gets.add(request);
+    Content content = getObject(request.getKey());
+    if (!request.getMatchingETagConstraints().isEmpty()
+      && !request.getMatchingETagConstraints().contains(content.etag)) {
+      return null;
+    }
+    long[] range = request.getRange();
+    int start = range == null ? 0 : (int) Math.min(range[0], content.bytes.length);
+    int end = range == null ? content.bytes.length : (int) Math.min(range[1] + 1, content.bytes.length);
+    S3Object object = new S3Object();
+    object.setBucketName(request.getBucketName());
+    object.setKey(request.getKey());
+    object.getObjectMetadata().setContentLength(end - start);
+    object.getObjectMetadata().setHeader(Headers.ETAG, content.etag);
+    object.setObjectContent(new ByteArrayInputStream(content.bytes, start, end - start));
+    return object;
+  }
+
+  @Override
+  public SelectObjectContentResult selectObjectContent(SelectObjectContentRequest request) {
+    selects.add(request);
+    Content content = getObject(request.getKey());
+    SdkFilterInputStream stream = new SdkFilterInputStream(new ByteArrayInputStream(content.bytes)) { };
+    return new SelectObjectContentResult().withPayload(new SelectObjectContentEventStream(stream));
+  }
+
+  @Override
+  public HeadBucketResult headBucket(HeadBucketRequest request) {
+    bucketRequests.incrementAndGet();
+    String bucket = request.getBucketName();
+    if (redirects.containsKey(bucket)) {
+      AmazonS3Exception redirect = new AmazonS3Exception("Moved Permanently");
+      redirect.setStatusCode(301);
+      redirect.setHttpHeaders(Collections.singletonMap(Headers.S3_BUCKET_REGION, redirects.get(bucket)));
+      throw redirect;
+    }
+    if (!regions.containsKey(bucket)) {
+      throw error(403, "Forbidden");
+    }
+    return new HeadBucketResult().withBucketRegion(regions.get(bucket));
+  }
+
+  @Override
+  public String getBucketLocation(String bucketName) throws SdkClientException {
+    bucketRequests.incrementAndGet();
+    if (!locations.containsKey(bucketName)) {
+      throw error(404, "Not Found");
+    }
+    return locations.get(bucketName);
+  }
+
+  private Content getObject(String key) {
+    Content content = objects.get(key);
+    if (content == null) {
+      throw error(404, "Not Found");
+    }
+    return content;
+  }
+
+  private static AmazonS3Exception error(int statusCode, String message) {
+    AmazonS3Exception e = new AmazonS3Exception(message);
+    e.setStatusCode(statusCode);
+    return e;
+  }
+
+  private static final class Content {
+    private final byte[] bytes;
+    private final long lastModified;
+    private final String etag;
+
+    private Content(byte[] bytes, long lastModified, String etag) {
+      this.bytes = bytes;
+      this.lastModified = lastModified;
+      this.etag = etag;
+    }
+  }
+}
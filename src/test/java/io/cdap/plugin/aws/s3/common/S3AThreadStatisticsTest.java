@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.cdap.plugin.aws.s3.common;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link S3AThreadStatistics}.
+ */
+public class S3AThreadStatisticsTest {
+
+  @Test
+  public void testThreadStatistics() throws InterruptedException {
+    FileSystem.Statistics s3a = FileSystem.getStatistics("s3a", FileSystem.class);
+    S3AThreadStatistics statistics = S3AThreadStatistics.start();
+    s3a.incrementBytesRead(100);
+    s3a.incrementReadOps(2);
+    s3a.incrementBytesWritten(50);
+
+    // the operations of other threads are not counted
+    Thread other = new Thread(() -> s3a.incrementBytesRead(1000));
+    other.start();
+    other.join();
+
+    Map<String, Long> reads = statistics.drainReads();
+    Assert.assertEquals(Long.valueOf(100), reads.get("read.bytes"));
+    Assert.assertEquals(Long.valueOf(2), reads.get("read.ops"));
+    Assert.assertFalse(reads.containsKey("write.bytes"));
+    Assert.assertTrue(statistics.drainReads().isEmpty());
+    Assert.assertEquals(Collections.singletonMap("write.bytes", 50L), statistics.drainWrites());
+
+    // another thread cannot drain the statistics
+    AtomicReference<Map<String, Long>> drained = new AtomicReference<>();
+    other = new Thread(() -> drained.set(statistics.drainWrites()));
+    other.start();
+    other.join();
+    Assert.assertEquals(Collections.emptyMap(), drained.get());
+  }
+}
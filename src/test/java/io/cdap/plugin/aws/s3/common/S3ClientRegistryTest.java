@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link S3ClientRegistry}.
+ */
+public class S3ClientRegistryTest {
+
+  @Test
+  public void testClientsAreShared() {
+    S3ClientRegistry registry = new S3ClientRegistry(10, 10, TimeUnit.MINUTES);
+    AmazonS3 client = registry.getClient(
+      new S3ConnectorConfig("id", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"));
+    Assert.assertSame(client, registry.getClient(
+      new S3ConnectorConfig("id", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1")));
+    Assert.assertNotSame(client, registry.getClient(
+      new S3ConnectorConfig("id", "key", "token", S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1")));
+    Assert.assertNotSame(client, registry.getClient(
+      new S3ConnectorConfig("id", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-west-2")));
+
+    Assert.assertEquals(3, registry.size());
+    Assert.assertEquals(1, registry.getStats().hitCount());
+    Assert.assertEquals(3, registry.getStats().missCount());
+    registry.invalidateAll();
+  }
+
+  @Test
+  public void testRegistryIsBounded() {
+    S3ClientRegistry registry = new S3ClientRegistry(1, 10, TimeUnit.MINUTES);
+    registry.getClient(new S3ConnectorConfig("id1", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"));
+    registry.getClient(new S3ConnectorConfig("id2", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"));
+    Assert.assertEquals(1, registry.size());
+    Assert.assertEquals(1, registry.getStats().evictionCount());
+    registry.invalidateAll();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingCredentials() {
+    new S3ClientRegistry(1, 10, TimeUnit.MINUTES).getClient(
+      new S3ConnectorConfig(null, null, null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"));
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link S3Inventory}, with a local copy of an inventory.
+ */
+public class S3InventoryTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private String manifest;
+
+  @Before
+  public void setup() throws IOException {
+    // same layout as the inventory destination: <config>/<date>/manifest.json and <config>/data/<file>
+    File configDir = tmpFolder.newFolder("source-bucket", "config");
+    File dateDir = new File(configDir, "2026-01-01T01-00Z");
+    File dataDir = new File(configDir, "data");
+    Assert.assertTrue(dateDir.mkdirs() && dataDir.mkdirs());
+
+    writeGzip(new File(dataDir, "part-1.csv.gz"),
+              row("logs/2026/01/a.csv", "10", "2026-01-01T00:00:00.000Z", "e1", true, false) +
+                row("logs/2026/01/b.json", "20", "2026-01-01T00:00:00.000Z", "e2", true, false) +
+                row("logs/2026/01/old.csv", "30", "2025-01-01T00:00:00.000Z", "e3", false, false));
+    writeGzip(new File(dataDir, "part-2.csv.gz"),
+              row("logs/2026/02/c%20d.csv", "40", "2026-02-01T00:00:00.000Z", "e4", true, false) +
+                row("logs/2026/02/deleted.csv", "", "2026-02-01T00:00:00.000Z", "", true, true) +
+                row("logs/top.csv", "50", "2026-02-01T00:00:00.000Z", "e5", true, false) +
+                row("other/x.csv", "60", "2026-02-01T00:00:00.000Z", "e6", true, false));
+
+    File manifestFile = new File(dateDir, "manifest.json");
+    Files.write(manifestFile.toPath(), (
+      "{\"sourceBucket\": \"source-bucket\", \"destinationBucket\": \"arn:aws:s3:::inventory-bucket\", " +
+        "\"fileFormat\": \"CSV\", " +
+        "\"fileSchema\": \"Bucket, Key, Size, LastModifiedDate, ETag, IsLatest, IsDeleteMarker\", " +
+        "\"files\": [{\"key\": \"source-bucket/config/data/part-1.csv.gz\"}, " +
+        "{\"key\": \"source-bucket/config/data/part-2.csv.gz\"}]}").getBytes(StandardCharsets.UTF_8));
+    manifest = manifestFile.getAbsolutePath();
+  }
+
+  @Test
+  public void testList() throws IOException {
+    S3Inventory inventory = S3Inventory.load(manifest, S3Inventory.createOpener(new S3ConnectorConfig()));
+    Assert.assertEquals("source-bucket", inventory.getSourceBucket());
+
+    List<S3ObjectSummary> objects = list(inventory, "logs/", null);
+    // old versions and delete markers are not listed, keys are decoded
+    Assert.assertEquals(Arrays.asList("logs/2026/01/a.csv", "logs/2026/01/b.json", "logs/2026/02/c d.csv",
+                                      "logs/top.csv"),
+                        objects.stream().map(S3ObjectSummary::getKey).collect(Collectors.toList()));
+    Assert.assertEquals("source-bucket", objects.get(0).getBucketName());
+    Assert.assertEquals(10L, objects.get(0).getSize());
+    Assert.assertEquals("e1", objects.get(0).getETag());
+    Assert.assertEquals(1767225600000L, objects.get(0).getLastModified().getTime());
+
+    Assert.assertEquals(5, list(inventory, "", null).size());
+    Assert.assertEquals(Arrays.asList("logs/2026/01/a.csv", "logs/2026/02/c d.csv", "logs/top.csv"),
+                        list(inventory, "logs/", Pattern.compile("\\.csv$")).stream()
+                          .map(S3ObjectSummary::getKey).collect(Collectors.toList()));
+    Assert.assertEquals(1, list(inventory, "", Pattern.compile("^s3a://source-bucket/other/")).size());
+  }
+
+  @Test
+  public void testBrowse() throws IOException {
+    S3Inventory inventory = S3Inventory.load("file:" + manifest, S3Inventory.createOpener(new S3ConnectorConfig()));
+
+    List<S3ListingIterator.Entry> entries = inventory.browse("logs/", "/", null, 10);
+    Assert.assertEquals(2, entries.size());
+    Assert.assertEquals("logs/2026/", entries.get(0).getPrefix());
+    Assert.assertEquals("logs/top.csv", entries.get(1).getSummary().getKey());
+
+    entries = inventory.browse("", "/", null, 1);
+    Assert.assertEquals(1, entries.size());
+    Assert.assertEquals("logs/", entries.get(0).getPrefix());
+    entries = inventory.browse("", "/", "logs/", 1);
+    Assert.assertEquals(1, entries.size());
+    Assert.assertEquals("other/", entries.get(0).getPrefix());
+  }
+
+  @Test
+  public void testUnsupportedFormat() throws IOException {
+    Files.write(new File(manifest).toPath(),
+                "{\"sourceBucket\": \"b\", \"fileFormat\": \"Parquet\", \"fileSchema\": \"\", \"files\": []}"
+                  .getBytes(StandardCharsets.UTF_8));
+    try {
+      S3Inventory.load(manifest, S3Inventory.createOpener(new S3ConnectorConfig()));
+      Assert.fail("Parquet inventories are not supported.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("Parquet format, only CSV inventories"));
+    }
+  }
+
+  @Test
+  public void testDecodeKey() {
+    Assert.assertEquals("a+b c%.csv", S3Inventory.decodeKey("a+b%20c%25.csv"));
+    Assert.assertEquals("caf\u00e9/100%", S3Inventory.decodeKey("caf%C3%A9/100%"));
+    Assert.assertEquals("plain/key", S3Inventory.decodeKey("plain/key"));
+  }
+
+  @Test
+  public void testParseLine() {
+    Assert.assertEquals(Arrays.asList("a", "b,c", "d\"e", ""), S3Inventory.parseLine("\"a\",\"b,c\",\"d\"\"e\",\"\""));
+    Assert.assertEquals(Arrays.asList("a", "", "1"), S3Inventory.parseLine("a,,1"));
+  }
+
+  private static List<S3ObjectSummary> list(S3Inventory inventory, String prefix, Pattern pattern) throws IOException {
+    List<S3ObjectSummary> objects = new ArrayList<>();
+    try (S3Inventory.Listing listing = inventory.list(prefix, pattern)) {
+      listing.forEachRemaining(objects::add);
+    }
+    return objects;
+  }
+
+  private static String row(String key, String size, String lastModified, String etag, boolean latest,
+                            boolean deleteMarker) {
+    return String.format("\"source-bucket\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\"\n",
+                         key, size, lastModified, etag, latest, deleteMarker);
+  }
+
+  private static void writeGzip(File file, String content) throws IOException {
+    try (OutputStream os = new GZIPOutputStream(new FileOutputStream(file));
+         Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+      writer.write(content);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link S3ListingIterator}.
+ */
+public class S3ListingIteratorTest {
+
+  @Test
+  public void testPagesAreFetchedLazily() {
+    MemoryS3 s3 = directory(2500, 3);
+    S3ListingIterator iterator = new S3ListingIterator(s3, S3ListingIterator.createRequest("bucket", "dir/", "/",
+                                                                                            Integer.MAX_VALUE));
+    Assert.assertEquals(0, s3.getListed().size());
+
+    List<String> keys = new ArrayList<>();
+    while (keys.size() < 1000 && iterator.hasNext()) {
+      keys.add(iterator.next().getKey());
+    }
+    Assert.assertEquals(1, s3.getListed().size());
+    Assert.assertEquals("dir/file0000", keys.get(0));
+    Assert.assertEquals("dir/file0999", keys.get(999));
+
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getKey());
+    }
+    Assert.assertEquals(3, s3.getListed().size());
+    Assert.assertEquals(2503, keys.size());
+    // the common prefixes of a page come before its objects
+    Assert.assertEquals("dir/sub0/", keys.get(2000));
+    Assert.assertEquals("dir/file2000", keys.get(2003));
+    Assert.assertEquals("dir/file2499", keys.get(2502));
+  }
+
+  @Test
+  public void testResume() {
+    MemoryS3 s3 = directory(25, 0);
+    S3ListingIterator iterator = new S3ListingIterator(s3, S3ListingIterator.createRequest("bucket", "dir/", "/", 10));
+    for (int i = 0; i < 15; i++) {
+      iterator.next();
+    }
+    S3ListingIterator.Position position = iterator.getResumePosition();
+    Assert.assertEquals("dir/file0009", position.getToken());
+    Assert.assertEquals(5, position.getOffset());
+
+    int listed = s3.getListed().size();
+    iterator = new S3ListingIterator(s3, S3ListingIterator.createRequest("bucket", "dir/", "/", 10), position);
+    Assert.assertEquals("dir/file0015", iterator.next().getKey());
+    Assert.assertEquals(listed + 1, s3.getListed().size());
+    for (int i = 16; i < 20; i++) {
+      iterator.next();
+    }
+    // the page is consumed, the position points to the next page without listing it
+    Assert.assertEquals("dir/file0019", iterator.getResumePosition().getToken());
+    Assert.assertEquals(0, iterator.getResumePosition().getOffset());
+    Assert.assertEquals(listed + 1, s3.getListed().size());
+    for (int i = 20; i < 25; i++) {
+      iterator.next();
+    }
+    Assert.assertFalse(iterator.hasNext());
+    Assert.assertNull(iterator.getResumePosition());
+  }
+
+  @Test
+  public void testPageSizeFollowsLimit() {
+    Assert.assertEquals(10, S3ListingIterator.createRequest("bucket", null, "/", 10).getMaxKeys().intValue());
+    Assert.assertEquals(S3ListingIterator.MAX_PAGE_SIZE,
+                        S3ListingIterator.createRequest("bucket", null, "/", 5000).getMaxKeys().intValue());
+  }
+
+  /**
+   * Creates a directory with the given number of objects and of subdirectories, which hold an object each.
+   */
+  private static MemoryS3 directory(int objects, int subdirectories) {
+    MemoryS3 s3 = new MemoryS3();
+    for (int i = 0; i < objects; i++) {
+      s3.put(String.format("dir/file%04d", i), "");
+    }
+    for (int i = 0; i < subdirectories; i++) {
+      s3.put(String.format("dir/sub%d/file", i), "");
+    }
+    return s3;
+  }
+}
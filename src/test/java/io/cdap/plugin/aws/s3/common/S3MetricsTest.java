@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import io.cdap.cdap.etl.api.StageMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link S3Metrics} and {@link S3MetricsRequestHandler}.
+ */
+public class S3MetricsTest {
+
+  @Test
+  public void testOperation() {
+    Assert.assertEquals(S3Metrics.Operation.LIST, S3Metrics.Operation.of(new ListObjectsV2Request()));
+    Assert.assertEquals(S3Metrics.Operation.HEAD, S3Metrics.Operation.of(new GetObjectMetadataRequest("b", "k")));
+    Assert.assertEquals(S3Metrics.Operation.GET, S3Metrics.Operation.of(new GetObjectRequest("b", "k")));
+    Assert.assertEquals(S3Metrics.Operation.PUT, S3Metrics.Operation.of(new PutObjectRequest("b", "k", new File("f"))));
+    Assert.assertEquals(S3Metrics.Operation.MULTIPART, S3Metrics.Operation.of(new UploadPartRequest()));
+  }
+
+  @Test
+  public void testDrain() {
+    S3Metrics metrics = new S3Metrics();
+    for (int i = 1; i <= 100; i++) {
+      metrics.record(S3Metrics.Operation.GET, i, 10, i == 100 ? 3 : 1, i == 100 ? 2 : 0, false);
+    }
+    metrics.record(S3Metrics.Operation.LIST, 7000, 0, 1, 0, true);
+
+    S3Metrics.Summary summary = metrics.drain();
+    S3Metrics.OperationSummary get = summary.getOperations().get(S3Metrics.Operation.GET);
+    Assert.assertEquals(100, get.getRequests());
+    Assert.assertEquals(0, get.getFailures());
+    Assert.assertEquals(2, get.getRetries());
+    Assert.assertEquals(2, get.getThrottled());
+    Assert.assertEquals(1000, get.getBytes());
+    // percentiles are the upper bounds of the histogram buckets, capped at the highest latency
+    Assert.assertEquals(50, get.getP50());
+    Assert.assertEquals(100, get.getP95());
+    Assert.assertEquals(100, get.getP99());
+
+    S3Metrics.OperationSummary list = summary.getOperations().get(S3Metrics.Operation.LIST);
+    Assert.assertEquals(1, list.getFailures());
+    Assert.assertEquals(7000, list.getP99());
+    Assert.assertFalse(summary.getOperations().containsKey(S3Metrics.Operation.PUT));
+
+    Assert.assertTrue(metrics.drain().isEmpty());
+  }
+
+  @Test
+  public void testPublish() {
+    S3Metrics metrics = new S3Metrics();
+    metrics.record(S3Metrics.Operation.HEAD, 3, 0, 1, 0, false);
+    metrics.record(S3Metrics.Operation.HEAD, 40, 0, 1, 0, false);
+    Map<String, Long> values = new HashMap<>();
+    metrics.publish(recordingMetrics(values));
+    Assert.assertEquals(Long.valueOf(2), values.get("s3.head.requests"));
+    Assert.assertFalse(values.containsKey("s3.get.requests"));
+
+    // the latency distribution adds up across the tasks that publish it
+    metrics.record(S3Metrics.Operation.HEAD, 100, 0, 1, 0, false);
+    metrics.publish(recordingMetrics(values), Collections.singletonMap("read.bytes", 10L));
+    Assert.assertEquals(Long.valueOf(143), values.get("s3.head.latency.millis"));
+    Assert.assertFalse(values.containsKey("s3.head.latency.le.2"));
+    Assert.assertEquals(Long.valueOf(1), values.get("s3.head.latency.le.5"));
+    Assert.assertEquals(Long.valueOf(1), values.get("s3.head.latency.le.20"));
+    Assert.assertEquals(Long.valueOf(2), values.get("s3.head.latency.le.50"));
+    Assert.assertEquals(Long.valueOf(3), values.get("s3.head.latency.le.100"));
+    Assert.assertEquals(Long.valueOf(3), values.get("s3.head.latency.le.60000"));
+    Assert.assertEquals(Long.valueOf(10), values.get("s3a.read.bytes"));
+    Assert.assertFalse(values.keySet().stream().anyMatch(name -> name.contains(".p50")));
+  }
+
+  @Test
+  public void testStageScopes() {
+    S3Metrics source = S3Metrics.forScope("default:pipeline:source:1");
+    S3Metrics sink = S3Metrics.forScope("default:pipeline:sink:1");
+    Assert.assertSame(source, S3Metrics.forScope("default:pipeline:source:1"));
+    Assert.assertNotSame(source, sink);
+    Assert.assertNotSame(S3Metrics.getInstance(), source);
+    Assert.assertSame(S3Metrics.getInstance(), S3Metrics.forScope(null));
+
+    source.record(S3Metrics.Operation.GET, 5, 100, 1, 0, false);
+    sink.count("uploads", 1);
+    Assert.assertEquals(Collections.singleton(S3Metrics.Operation.GET), source.drain().getOperations().keySet());
+    S3Metrics.Summary sinkSummary = sink.drain();
+    Assert.assertTrue(sinkSummary.getOperations().isEmpty());
+    Assert.assertEquals(Collections.singletonMap("uploads", 1L), sinkSummary.getCounters());
+
+    // the metrics of a stage are kept until it releases them
+    S3Metrics.release("default:pipeline:source:1");
+    Assert.assertNotSame(source, S3Metrics.forScope("default:pipeline:source:1"));
+    Assert.assertSame(sink, S3Metrics.forScope("default:pipeline:sink:1"));
+    S3Metrics.release("default:pipeline:source:1");
+    S3Metrics.release("default:pipeline:sink:1");
+  }
+
+  @Test
+  public void testCounters() {
+    S3Metrics metrics = new S3Metrics();
+    metrics.count("prefetch.hits", 2);
+    metrics.count("prefetch.hits", 1);
+    Map<String, Long> values = new HashMap<>();
+    metrics.publish(recordingMetrics(values));
+    Assert.assertEquals(Long.valueOf(3), values.get("s3.prefetch.hits"));
+    Assert.assertTrue(metrics.drain().isEmpty());
+  }
+
+  @Test
+  public void testRequestHandler() {
+    S3Metrics metrics = new S3Metrics();
+    S3MetricsRequestHandler handler = new S3MetricsRequestHandler();
+    S3Metrics.getInstance().drain();
+
+    // a GET that is throttled once before succeeding
+    DefaultRequest<Void> request = new DefaultRequest<>(metrics.tag(new GetObjectRequest("b", "k")), "Amazon S3");
+    handler.beforeRequest(request);
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    AmazonS3Exception slowDown = new AmazonS3Exception("Please reduce your request rate.");
+    slowDown.setStatusCode(503);
+    slowDown.setErrorCode("SlowDown");
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withRequest(request).withException(slowDown).build());
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    HttpResponse httpResponse = new HttpResponse(request, null);
+    httpResponse.addHeader("Content-Length", "1234");
+    Response<Void> response = new Response<>(null, httpResponse);
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withRequest(request).withResponse(response).build());
+    handler.afterResponse(request, response);
+
+    // a PUT that fails
+    DefaultRequest<Void> put = new DefaultRequest<>(metrics.tag(new PutObjectRequest("b", "k", new File("f"))),
+                                                    "Amazon S3");
+    handler.beforeRequest(put);
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(put).build());
+    handler.afterError(put, null, new AmazonS3Exception("Access Denied"));
+
+    // a HEAD that is not tagged is recorded to the shared metrics
+    DefaultRequest<Void> head = new DefaultRequest<>(new GetObjectMetadataRequest("b", "k"), "Amazon S3");
+    handler.beforeRequest(head);
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(head).build());
+    handler.afterResponse(head, new Response<>(null, new HttpResponse(head, null)));
+    Assert.assertEquals(Collections.singleton(S3Metrics.Operation.HEAD),
+                        S3Metrics.getInstance().drain().getOperations().keySet());
+
+    S3Metrics.Summary summary = metrics.drain();
+    S3Metrics.OperationSummary get = summary.getOperations().get(S3Metrics.Operation.GET);
+    Assert.assertEquals(1, get.getRequests());
+    Assert.assertEquals(1, get.getRetries());
+    Assert.assertEquals(1, get.getThrottled());
+    Assert.assertEquals(1234, get.getBytes());
+    S3Metrics.OperationSummary putSummary = summary.getOperations().get(S3Metrics.Operation.PUT);
+    Assert.assertEquals(1, putSummary.getRequests());
+    Assert.assertEquals(1, putSummary.getFailures());
+    Assert.assertEquals(0, putSummary.getRetries());
+  }
+
+  /**
+   * Returns stage metrics that sum counters and keep the last value of gauges in the given map.
+   */
+  private static StageMetrics recordingMetrics(Map<String, Long> values) {
+    return (StageMetrics) Proxy.newProxyInstance(
+      StageMetrics.class.getClassLoader(), new Class<?>[] {StageMetrics.class}, (proxy, method, args) -> {
+        if (method.getName().startsWith("count")) {
+          values.merge((String) args[0], ((Number) args[1]).longValue(), Long::sum);
+        } else if (method.getName().equals("gauge")) {
+          values.put((String) args[0], (Long) args[1]);
+        }
+        return null;
+      });
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link S3RegionResolver}.
+ */
+public class S3RegionResolverTest {
+
+  @Test
+  public void testRegionIsCached() {
+    S3RegionResolver resolver = new S3RegionResolver(1, TimeUnit.MINUTES);
+    MemoryS3 s3 = buckets();
+    Assert.assertEquals("eu-west-1", resolver.getRegion(s3, "eu-bucket"));
+    Assert.assertEquals("eu-west-1", resolver.getRegion(s3, "eu-bucket"));
+    Assert.assertEquals(1, s3.getBucketRequests());
+  }
+
+  @Test
+  public void testRegionFromRedirect() {
+    S3RegionResolver resolver = new S3RegionResolver(1, TimeUnit.MINUTES);
+    MemoryS3 s3 = buckets();
+    Assert.assertEquals("ap-south-1", resolver.getRegion(s3, "moved-bucket"));
+    Assert.assertEquals(1, s3.getBucketRequests());
+  }
+
+  @Test
+  public void testRegionFromLocation() {
+    S3RegionResolver resolver = new S3RegionResolver(1, TimeUnit.MINUTES);
+    MemoryS3 s3 = buckets();
+    // the location of buckets in us-east-1 is reported as "US"
+    Assert.assertEquals("us-east-1", resolver.getRegion(s3, "legacy-bucket"));
+    Assert.assertEquals("eu-west-1", resolver.getRegion(s3, "eu-legacy-bucket"));
+    Assert.assertEquals(4, s3.getBucketRequests());
+  }
+
+  @Test
+  public void testFailureIsCachedBriefly() {
+    S3RegionResolver resolver = new S3RegionResolver(1, TimeUnit.MINUTES);
+    MemoryS3 s3 = buckets();
+    Assert.assertNull(resolver.getRegion(s3, "missing-bucket"));
+    Assert.assertNull(resolver.getRegion(s3, "missing-bucket"));
+    Assert.assertEquals(2, s3.getBucketRequests());
+
+    // failures are looked up again once they expire
+    resolver = new S3RegionResolver(0, TimeUnit.MINUTES);
+    Assert.assertNull(resolver.getRegion(s3, "missing-bucket"));
+    Assert.assertNull(resolver.getRegion(s3, "missing-bucket"));
+    Assert.assertEquals(6, s3.getBucketRequests());
+  }
+
+  /**
+   * Creates a client that answers region lookups for a few buckets.
+   */
+  private static MemoryS3 buckets() {
+    MemoryS3 s3 = new MemoryS3();
+    s3.setRegion("eu-bucket", "eu-west-1");
+    s3.setRedirect("moved-bucket", "ap-south-1");
+    s3.setLocation("legacy-bucket", "US");
+    s3.setLocation("eu-legacy-bucket", "EU");
+    return s3;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.google.common.base.Ticker;
+import io.cdap.cdap.etl.api.connector.BrowseDetail;
+import io.cdap.plugin.aws.s3.common.S3ConnectorConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link BrowseCache}.
+ */
+public class BrowseCacheTest {
+  private static final S3ConnectorConfig CONFIG =
+    new S3ConnectorConfig("id", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1");
+
+  @Test
+  public void testCachedByConnectionPathAndLimit() throws Exception {
+    BrowseCache cache = new BrowseCache(1, TimeUnit.HOURS, 100);
+    AtomicInteger loads = new AtomicInteger();
+
+    BrowseDetail detail = cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    Assert.assertSame(detail, cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads)));
+    Assert.assertEquals(1, loads.get());
+
+    cache.get(CONFIG, "/bucket/dir", 20, () -> load(loads));
+    cache.get(new S3ConnectorConfig("other", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"),
+              "/bucket/dir", 10, () -> load(loads));
+    Assert.assertEquals(3, loads.get());
+    Assert.assertEquals(1, cache.getStats().hitCount());
+  }
+
+  @Test
+  public void testCachedByCredentials() throws Exception {
+    BrowseCache cache = new BrowseCache(1, TimeUnit.HOURS, 100);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    cache.get(new S3ConnectorConfig("id", "key", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"),
+              "/bucket/dir", 10, () -> load(loads));
+    Assert.assertEquals(1, loads.get());
+
+    cache.get(new S3ConnectorConfig("id", "other", null, S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"),
+              "/bucket/dir", 10, () -> load(loads));
+    cache.get(new S3ConnectorConfig("id", "key", "token", S3ConnectorConfig.ACCESS_CREDENTIALS, "us-east-1"),
+              "/bucket/dir", 10, () -> load(loads));
+    Assert.assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testExpiresAfterTimeToLive() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    BrowseCache cache = new BrowseCache(60, TimeUnit.SECONDS, 100, new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    });
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    Assert.assertEquals(1, loads.get());
+
+    // nothing but the time to live invalidates a result, like writes to the browsed path
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    Assert.assertEquals(2, loads.get());
+    Assert.assertEquals(1, cache.getStats().hitCount());
+    Assert.assertEquals(2, cache.getStats().missCount());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    BrowseCache cache = new BrowseCache(0, TimeUnit.SECONDS, 100);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    cache.get(CONFIG, "/bucket/dir", 10, () -> load(loads));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  private static BrowseDetail load(AtomicInteger loads) {
+    loads.incrementAndGet();
+    return BrowseDetail.builder().build();
+  }
+}
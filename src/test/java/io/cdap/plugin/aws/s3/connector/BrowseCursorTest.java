@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import io.cdap.plugin.aws.s3.common.S3ListingIterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BrowseCursor}.
+ */
+public class BrowseCursorTest {
+
+  @Test
+  public void testRoundTrip() {
+    String browsePath = new BrowseCursor("/bucket/dir", new S3ListingIterator.Position("token/+=", 42)).toBrowsePath();
+    Assert.assertTrue(browsePath.startsWith("/bucket/dir" + BrowseCursor.SEPARATOR));
+
+    BrowseCursor cursor = BrowseCursor.fromBrowsePath(browsePath);
+    Assert.assertNotNull(cursor);
+    Assert.assertEquals("/bucket/dir", cursor.getPath());
+    Assert.assertEquals("token/+=", cursor.getPosition().getToken());
+    Assert.assertEquals(42, cursor.getPosition().getOffset());
+  }
+
+  @Test
+  public void testKeysAreNotCursors() {
+    Assert.assertNull(BrowseCursor.fromBrowsePath("/bucket/dir/file"));
+    Assert.assertNull(BrowseCursor.fromBrowsePath("/bucket/dir/file" + BrowseCursor.SEPARATOR + "abc"));
+    // a valid cursor that belongs to a different path
+    String other = new BrowseCursor("/bucket/other", new S3ListingIterator.Position(null, 1)).toBrowsePath();
+    String encoded = other.substring(other.indexOf(BrowseCursor.SEPARATOR));
+    Assert.assertNull(BrowseCursor.fromBrowsePath("/bucket/dir" + encoded));
+  }
+}
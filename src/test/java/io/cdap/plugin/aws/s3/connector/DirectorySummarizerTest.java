@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Tests for {@link DirectorySummarizer}.
+ */
+public class DirectorySummarizerTest {
+
+  @Test
+  public void testSummarize() {
+    MemoryS3 s3 = new MemoryS3();
+    for (int i = 0; i < 3; i++) {
+      s3.put("small/" + i, new byte[10 + i], i * 1000L);
+    }
+    for (int i = 0; i < 5000; i++) {
+      s3.put(String.format("large/%04d", i), new byte[0], i * 1000L);
+    }
+    DirectorySummarizer summarizer = new DirectorySummarizer(s3, S3Metrics.getInstance(), 100, 10000);
+    Map<String, DirectorySummarizer.Summary> summaries =
+      summarizer.summarize("bucket", Arrays.asList("small/", "large/"));
+
+    DirectorySummarizer.Summary small = summaries.get("small/");
+    Assert.assertTrue(small.isComplete());
+    Assert.assertEquals(3, small.getObjectCount());
+    Assert.assertEquals(10 + 11 + 12, small.getSize());
+    Assert.assertEquals(2000L, small.getLastModified());
+
+    // the large prefix is capped at 100 objects
+    DirectorySummarizer.Summary large = summaries.get("large/");
+    Assert.assertFalse(large.isComplete());
+    Assert.assertEquals(100, large.getObjectCount());
+  }
+}
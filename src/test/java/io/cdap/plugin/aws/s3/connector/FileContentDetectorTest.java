@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link FileContentDetector}.
+ */
+public class FileContentDetectorTest {
+
+  @Before
+  public void setUp() {
+    FileContentDetector.clearCache();
+  }
+
+  @Test
+  public void testFromHeader() {
+    Assert.assertEquals(FileContentDetector.Format.PARQUET, fromHeader(new byte[] {'P', 'A', 'R', '1', 0x15, 0}));
+    Assert.assertEquals(FileContentDetector.Format.AVRO, fromHeader(new byte[] {'O', 'b', 'j', 1, 4, 0x14}));
+    Assert.assertEquals(FileContentDetector.Format.ORC, fromHeader(new byte[] {'O', 'R', 'C', 0x0a}));
+    Assert.assertEquals(FileContentDetector.Format.GZIP, fromHeader(new byte[] {0x1f, (byte) 0x8b, 8, 0}));
+    Assert.assertEquals(FileContentDetector.Format.JSON, fromHeader(" {\"a\": 1}\n".getBytes(StandardCharsets.UTF_8)));
+    Assert.assertEquals(FileContentDetector.Format.TEXT, fromHeader("a,b,c\r\n1,2,3".getBytes(StandardCharsets.UTF_8)));
+    Assert.assertEquals(FileContentDetector.Format.UNKNOWN, fromHeader(new byte[] {'P', 'A', 0, 1}));
+    Assert.assertEquals(FileContentDetector.Format.UNKNOWN, fromHeader(new byte[0]));
+    // text without a line break in its header, or with invalid UTF-8, may be the start of a binary object
+    Assert.assertEquals(FileContentDetector.Format.TEXT, fromHeader("hello".getBytes(StandardCharsets.UTF_8)));
+    Assert.assertEquals(FileContentDetector.Format.UNKNOWN,
+                        fromHeader("MAGIC-0000000001".getBytes(StandardCharsets.UTF_8), false));
+    Assert.assertEquals(FileContentDetector.Format.UNKNOWN, fromHeader(new byte[] {'a', (byte) 0xc3, '\n'}));
+    // a character cut by the end of the header is fine
+    Assert.assertEquals(FileContentDetector.Format.TEXT, fromHeader(new byte[] {'a', '\n', (byte) 0xc3}, false));
+  }
+
+  @Test
+  public void testDetectIsCachedByETag() {
+    MemoryS3 s3 = new MemoryS3();
+    s3.put("parquet", new byte[] {'P', 'A', 'R', '1', 0x15});
+    s3.put("text", "hello".getBytes(StandardCharsets.UTF_8));
+    FileContentDetector detector = new FileContentDetector(s3, S3Metrics.getInstance(), 10000);
+
+    List<S3ObjectSummary> objects = Arrays.asList(summary("parquet", "e1", 100), summary("text", "e2", 5),
+                                                  summary("empty", "e3", 0));
+    Map<String, FileContentDetector.Format> formats = detector.detect(objects);
+    Assert.assertEquals(2, formats.size());
+    Assert.assertEquals(FileContentDetector.Format.PARQUET, formats.get("parquet"));
+    Assert.assertEquals(FileContentDetector.Format.TEXT, formats.get("text"));
+    Assert.assertEquals(2, s3.getGets().size());
+
+    // same ETags are served from the cache, a new ETag means the content changed
+    s3.put("text", new byte[] {'O', 'b', 'j', 1});
+    formats = detector.detect(Arrays.asList(summary("parquet", "e1", 100), summary("text", "e4", 4)));
+    Assert.assertEquals(FileContentDetector.Format.PARQUET, formats.get("parquet"));
+    Assert.assertEquals(FileContentDetector.Format.AVRO, formats.get("text"));
+    Assert.assertEquals(3, s3.getGets().size());
+  }
+
+  @Test
+  public void testFailureIsIgnored() {
+    MemoryS3 s3 = new MemoryS3();
+    Map<String, FileContentDetector.Format> formats =
+      new FileContentDetector(s3, S3Metrics.getInstance(), 10000).detect(Arrays.asList(summary("missing", "e1", 10)));
+    Assert.assertTrue(formats.isEmpty());
+  }
+
+  private static FileContentDetector.Format fromHeader(byte[] header) {
+    return fromHeader(header, true);
+  }
+
+  private static FileContentDetector.Format fromHeader(byte[] header, boolean complete) {
+    return FileContentDetector.Format.fromHeader(Arrays.copyOf(header, FileContentDetector.HEADER_LENGTH),
+                                                 header.length, complete);
+  }
+
+  private static S3ObjectSummary summary(String key, String etag, long size) {
+    S3ObjectSummary summary = new S3ObjectSummary();
+    summary.setBucketName("bucket");
+    summary.setKey(key);
+    summary.setETag(etag);
+    summary.setSize(size);
+    return summary;
+  }
+}
@@ -151,9 +151,20 @@ public class S3ConnectorTest {
     BrowseDetail expected = BrowseDetail.builder().setTotalCount(10).setEntities(entities).build();
     Assert.assertEquals(expected, detail);
 
-    // browse limited
+    // browse limited, the last entity points to the next page
     detail = connector.browse(context, BrowseRequest.builder("/" + bucket).setLimit(5).build());
-    expected = BrowseDetail.builder().setTotalCount(5).setEntities(entities.subList(0, 5)).build();
+    // the next page is counted like the other entities
+    Assert.assertEquals(6, detail.getTotalCount());
+    Assert.assertEquals(entities.subList(0, 5), detail.getEntities().subList(0, 5));
+    BrowseEntity nextPage = detail.getEntities().get(5);
+    Assert.assertEquals(S3Connector.NEXT_PAGE_NAME, nextPage.getName());
+    Assert.assertEquals(S3Connector.DIRECTORY_TYPE, nextPage.getType());
+    Assert.assertFalse(nextPage.canSample());
+    Assert.assertTrue(nextPage.canBrowse());
+
+    // browse the next page
+    detail = connector.browse(context, BrowseRequest.builder(nextPage.getPath()).setLimit(5).build());
+    expected = BrowseDetail.builder().setTotalCount(5).setEntities(entities.subList(5, 10)).build();
     Assert.assertEquals(expected, detail);
 
     // browse one single file
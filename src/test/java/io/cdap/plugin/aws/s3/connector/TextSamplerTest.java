@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.connector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests for {@link TextSampler}.
+ */
+public class TextSamplerTest {
+
+  @Test
+  public void testParseWholeObject() {
+    byte[] content = "a,b\r\n1,2\n\n3,4\r5,6".getBytes(StandardCharsets.UTF_8);
+    List<StructuredRecord> records = TextSampler.parse(content, content.length, false, false, 100);
+    assertRecords(records, new long[] {0, 5, 9, 10, 14}, "a,b", "1,2", "", "3,4", "5,6");
+  }
+
+  @Test
+  public void testParseTruncatedObject() {
+    // the last line may continue after the buffer
+    byte[] content = "a,b\n1,2\n3,".getBytes(StandardCharsets.UTF_8);
+    List<StructuredRecord> records = TextSampler.parse(content, content.length, true, false, 100);
+    assertRecords(records, new long[] {0, 4}, "a,b", "1,2");
+  }
+
+  @Test
+  public void testParseSkipHeaderAndLimit() {
+    byte[] content = "header\nx\ny\nz\n".getBytes(StandardCharsets.UTF_8);
+    List<StructuredRecord> records = TextSampler.parse(content, content.length, false, true, 2);
+    assertRecords(records, new long[] {7, 9}, "x", "y");
+  }
+
+  private static void assertRecords(List<StructuredRecord> records, long[] offsets, String... bodies) {
+    Assert.assertEquals(bodies.length, records.size());
+    for (int i = 0; i < bodies.length; i++) {
+      Assert.assertEquals(offsets[i], (long) records.get(i).get("offset"));
+      Assert.assertEquals(bodies[i], records.get(i).get("body"));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link AdaptiveSplitSize}.
+ */
+public class AdaptiveSplitSizeTest {
+  private static final long MB = 1024 * 1024;
+
+  @Test
+  public void testSmallObjects() {
+    // 1000 MB for 16 slots, in 32 splits
+    long[] sizes = new long[100];
+    Arrays.fill(sizes, 10 * MB);
+    Assert.assertEquals(1000 * MB / 32, AdaptiveSplitSize.compute(sizes, 16, MB, 128 * MB));
+    // the same objects on a single slot are bounded by the maximum split size
+    Assert.assertEquals(128 * MB, AdaptiveSplitSize.compute(sizes, 1, MB, 128 * MB));
+    // and on many slots by the smallest split size
+    Assert.assertEquals(32 * MB, AdaptiveSplitSize.compute(sizes, 16, 32 * MB, 128 * MB));
+  }
+
+  @Test
+  public void testLargeObjects() {
+    // 3000 MB for 8 slots would be splits of 187.5 MB, which would cut each object in 5 full splits and a small one
+    long[] sizes = {1000 * MB, 1000 * MB, 1000 * MB, MB};
+    long size = AdaptiveSplitSize.compute(sizes, 8, MB, 1024 * MB);
+    Assert.assertEquals((1000 * MB + 5) / 6, size);
+    Assert.assertEquals(6, (1000 * MB + size - 1) / size);
+  }
+
+  @Test
+  public void testBounds() {
+    Assert.assertEquals(128 * MB, AdaptiveSplitSize.compute(new long[0], 16, MB, 128 * MB));
+    // the maximum split size wins over the smallest one
+    Assert.assertEquals(16 * MB, AdaptiveSplitSize.compute(new long[] {MB}, 16, 32 * MB, 16 * MB));
+  }
+
+  @Test
+  public void testSlots() {
+    Assert.assertEquals(8, AdaptiveSplitSize.getSlots(
+      ImmutableMap.of("system.spark.spark.executor.instances", "4", "system.spark.spark.executor.cores", "2"), 16));
+    Assert.assertEquals(10, AdaptiveSplitSize.getSlots(
+      ImmutableMap.of("system.spark.spark.dynamicAllocation.maxExecutors", "10"), 16));
+    Assert.assertEquals(16, AdaptiveSplitSize.getSlots(Collections.emptyMap(), 16));
+    Assert.assertEquals(16, AdaptiveSplitSize.getSlots(
+      ImmutableMap.of("system.spark.spark.executor.instances", "many"), 16));
+  }
+}
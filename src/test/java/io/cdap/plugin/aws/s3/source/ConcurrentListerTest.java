@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for {@link ConcurrentLister}.
+ */
+public class ConcurrentListerTest {
+
+  @Test
+  public void testList() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    NavigableSet<String> expected = new TreeSet<>();
+    for (int year = 2020; year < 2026; year++) {
+      for (int month = 1; month <= 12; month++) {
+        for (int file = 0; file < 30; file++) {
+          String key = String.format("logs/%d/%02d/part-%d.csv", year, month, file);
+          s3.put(key, "");
+          expected.add(key);
+        }
+        // directory markers are not files
+        s3.put(String.format("logs/%d/%02d/", year, month), "");
+      }
+    }
+    s3.put("logs/top.csv", "");
+    expected.add("logs/top.csv");
+    s3.put("other/x.csv", "");
+
+    List<String> keys = new ConcurrentLister(s3, S3Metrics.getInstance(), 4, null, null, null)
+      .list("bucket", "logs/", S3ObjectSummary::getKey);
+    Assert.assertEquals(new ArrayList<>(expected), keys);
+    // the prefix was split into sub prefixes that were listed separately
+    Assert.assertTrue(s3.getListed().size() > 1);
+    Assert.assertEquals(keys, new ConcurrentLister(s3, S3Metrics.getInstance(), 4, null, null, null)
+      .list("bucket", "logs/", S3ObjectSummary::getKey));
+
+    // the pattern is applied to the s3a:// paths while listing
+    List<String> filtered = new ConcurrentLister(s3, S3Metrics.getInstance(), 8,
+                                                 Pattern.compile("^s3a://bucket/logs/2021/0[1-3]/part-1\\."),
+                                                 null, null).list("bucket", "", S3ObjectSummary::getKey);
+    Assert.assertEquals(3, filtered.size());
+    Assert.assertEquals("logs/2021/01/part-1.csv", filtered.get(0));
+  }
+
+  @Test
+  public void testRegexPrefixes() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    for (int day = 1; day <= 31; day++) {
+      s3.put(String.format("logs/2026-10-%02d/events-0.json", day), "");
+      s3.put(String.format("logs/2026-10-%02d/metrics-0.json", day), "");
+    }
+    Pattern pattern = Pattern.compile("^s3a://bucket/logs/2026-10-1[0-9]/events-.*\\.json");
+    List<String> keys = new ConcurrentLister(s3, S3Metrics.getInstance(), 4, pattern, null, null)
+      .list("bucket", "logs/", S3ObjectSummary::getKey);
+    Assert.assertEquals(10, keys.size());
+    Assert.assertEquals("logs/2026-10-10/events-0.json", keys.get(0));
+    // only the prefixes derived from the regex were listed
+    Assert.assertEquals(10, new HashSet<>(s3.getListed()).size());
+    for (String prefix : s3.getListed()) {
+      Assert.assertTrue(prefix, prefix.matches("logs/2026-10-1[0-9]/events-"));
+    }
+  }
+
+  @Test
+  public void testGlob() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    for (String host : new String[] {"web-1", "web-2", "db-1"}) {
+      for (int day = 1; day <= 20; day++) {
+        s3.put(String.format("logs/%s/2026-10-%02d/part-0.csv", host, day), "");
+        s3.put(String.format("logs/%s/2026-10-%02d/_SUCCESS", host, day), "");
+      }
+      s3.put(String.format("logs/%s/2026-09-30/part-0.csv", host), "");
+    }
+    S3Glob glob = S3Glob.parse("logs/web-*/2026-10-1?/part-*");
+    List<String> keys = new ConcurrentLister(s3, S3Metrics.getInstance(), 4, null, null, null)
+      .glob("bucket", glob, S3ObjectSummary::getKey, prefix -> prefix);
+    Assert.assertEquals(20, keys.size());
+    Assert.assertEquals("logs/web-1/2026-10-10/part-0.csv", keys.get(0));
+    Assert.assertEquals("logs/web-2/2026-10-19/part-0.csv", keys.get(19));
+    // each level was listed with the literal prefix of its segment, and only under the matching directories
+    for (String prefix : s3.getListed()) {
+      Assert.assertTrue(prefix, prefix.equals("logs/web-") || prefix.matches("logs/web-[12]/2026-10-1")
+        || prefix.matches("logs/web-[12]/2026-10-1[0-9]/part-"));
+    }
+
+    Assert.assertEquals(Arrays.asList("logs/db-1/2026-10-01/", "logs/db-1/2026-10-02/"),
+                        new ConcurrentLister(s3, S3Metrics.getInstance(), 2, null, null, null)
+                          .glob("bucket", S3Glob.parse("logs/db-1/2026-10-0{1,2}"), S3ObjectSummary::getKey,
+                                prefix -> prefix));
+    Assert.assertTrue(new ConcurrentLister(s3, S3Metrics.getInstance(), 2, null, null, null)
+                        .glob("bucket", S3Glob.parse("none/*/x"), S3ObjectSummary::getKey, prefix -> prefix)
+                        .isEmpty());
+  }
+
+  @Test
+  public void testPartitionPruning() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    for (int day = 1; day <= 30; day++) {
+      for (String region : new String[] {"eu", "us", "ap"}) {
+        s3.put(String.format("table/dt=2026-09-%02d/region=%s/part-0.csv", day, region), "");
+        s3.put(String.format("table/dt=2026-10-%02d/region=%s/part-0.csv", day, region), "");
+      }
+    }
+    S3PartitionFilter filter = S3PartitionFilter.parse("dt >= '2026-10-29' AND region IN ('eu', 'us')");
+    List<String> keys = new ConcurrentLister(s3, S3Metrics.getInstance(), 4, null, filter, null)
+      .list("bucket", "table/", S3ObjectSummary::getKey);
+    Assert.assertEquals(Arrays.asList("table/dt=2026-10-29/region=eu/part-0.csv",
+                                      "table/dt=2026-10-29/region=us/part-0.csv",
+                                      "table/dt=2026-10-30/region=eu/part-0.csv",
+                                      "table/dt=2026-10-30/region=us/part-0.csv"), keys);
+    // the partitions that do not match were never listed
+    for (String prefix : s3.getListed()) {
+      Assert.assertTrue(prefix, filter.mightMatch(prefix));
+    }
+  }
+
+  @Test
+  public void testEmptyPrefix() throws IOException {
+    Assert.assertTrue(new ConcurrentLister(new MemoryS3(), S3Metrics.getInstance(), 2, null, null, null)
+                        .list("bucket", "none/", S3ObjectSummary::getKey).isEmpty());
+  }
+
+  @Test
+  public void testDirectoryFilter() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    for (int day = 1; day <= 20; day++) {
+      s3.put(String.format("logs/2026-10-%02d/part-0.csv", day), "");
+      s3.put(String.format("logs/2026-10-%02d/_temporary/0/part-0.csv", day), "");
+    }
+    s3.put("logs/_logs/history/job.jhist", "");
+    s3.put("_hidden/part-0.csv", "");
+    Set<String> tested = ConcurrentHashMap.newKeySet();
+    List<String> keys = new ConcurrentLister(s3, S3Metrics.getInstance(), 4, null, null, dir -> {
+      Assert.assertTrue(dir, tested.add(dir));
+      return !dir.substring(0, dir.length() - 1).replaceFirst(".*/", "").startsWith("_");
+    }).list("bucket", "logs/", S3ObjectSummary::getKey);
+    Assert.assertEquals(20, keys.size());
+    for (String key : keys) {
+      Assert.assertTrue(key, key.matches("logs/2026-10-[0-9]{2}/part-0.csv"));
+    }
+    // the listed prefix is not filtered, and the filtered directories were not listed
+    Assert.assertFalse(tested.contains("logs/"));
+    Assert.assertTrue(tested.contains("logs/_logs/"));
+    for (String prefix : s3.getListed()) {
+      Assert.assertFalse(prefix, prefix.contains("_logs"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testFailure() throws IOException {
+    MemoryS3 s3 = new MemoryS3() {
+      @Override
+      public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+        throw new AmazonS3Exception("Access Denied");
+      }
+    };
+    new ConcurrentLister(s3, S3Metrics.getInstance(), 2, null, null, null).list("bucket", "", S3ObjectSummary::getKey);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link DelegateCache}.
+ */
+public class DelegateCacheTest {
+  private static final URI BUCKET = URI.create("s3a://bucket");
+
+  @Before
+  public void setUp() {
+    CountingFileSystem.CLOSED.set(0);
+  }
+
+  @Test
+  public void testSharedByRun() throws IOException {
+    DelegateCache cache = new DelegateCache();
+    DelegateCache.Delegate first = cache.get("run", BUCKET, getConf("secret"));
+    Assert.assertSame(first, cache.get("run", BUCKET, getConf("secret")));
+    Assert.assertNotSame(first, cache.get("run", BUCKET, getConf("other")));
+    Assert.assertNotSame(first, cache.get("run", URI.create("s3a://other"), getConf("secret")));
+    Assert.assertNotSame(first, cache.get("other", BUCKET, getConf("secret")));
+    Assert.assertSame(first.getClients(), cache.get("run", BUCKET, getConf("secret")).getClients());
+    Assert.assertEquals(0, CountingFileSystem.CLOSED.get());
+
+    // releasing a run only closes its own delegates
+    cache.release("run");
+    Assert.assertEquals(3, CountingFileSystem.CLOSED.get());
+    cache.release("run");
+    Assert.assertEquals(3, CountingFileSystem.CLOSED.get());
+    Assert.assertNotSame(first, cache.get("run", BUCKET, getConf("secret")));
+    cache.release("other");
+    cache.release("run");
+    Assert.assertEquals(5, CountingFileSystem.CLOSED.get());
+  }
+
+  @Test
+  public void testOwnedOutsideOfRun() throws IOException {
+    Configuration conf = getConf("secret");
+    conf.set("fs.s3a.impl", S3PlanningFileSystem.class.getName());
+    conf.setBoolean("fs.s3a.impl.disable.cache", true);
+    FileSystem fs = FileSystem.get(BUCKET, conf);
+    FileSystem other = FileSystem.get(BUCKET, conf);
+    Assert.assertNotSame(fs, other);
+    Assert.assertEquals(0, CountingFileSystem.CLOSED.get());
+    fs.close();
+    Assert.assertEquals(1, CountingFileSystem.CLOSED.get());
+    other.close();
+    Assert.assertEquals(2, CountingFileSystem.CLOSED.get());
+  }
+
+  private static Configuration getConf(String secretKey) {
+    Configuration conf = new Configuration(false);
+    conf.set(S3Constants.PLANNING_DELEGATE_IMPL, CountingFileSystem.class.getName());
+    conf.set(S3Constants.S3A_ACCESS_KEY, "access");
+    conf.set(S3Constants.S3A_SECRET_KEY, secretKey);
+    return conf;
+  }
+
+  /**
+   * A file system that only counts the instances that are closed.
+   */
+  public static class CountingFileSystem extends FileSystem {
+    private static final AtomicInteger CLOSED = new AtomicInteger();
+    private URI uri;
+
+    @Override
+    public void initialize(URI name, Configuration conf) throws IOException {
+      super.initialize(name, conf);
+      uri = name;
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      CLOSED.incrementAndGet();
+    }
+
+    @Override
+    public URI getUri() {
+      return uri;
+    }
+
+    @Override
+    public FSDataInputStream open(Path f, int bufferSize) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                     short replication, long blockSize, Progressable progress) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FSDataOutputStream append(Path f, int bufferSize, Progressable progress) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean rename(Path src, Path dst) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean delete(Path f, boolean recursive) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileStatus[] listStatus(Path f) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setWorkingDirectory(Path dir) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Path getWorkingDirectory() {
+      return new Path("/");
+    }
+
+    @Override
+    public boolean mkdirs(Path f, FsPermission permission) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileStatus getFileStatus(Path f) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.cdap.plugin.aws.s3.source;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * A file system that keeps its objects in memory, shared by all its instances, with their paths as keys. Directories
+ * are the prefixes of the paths, like in S3, and globs only support '*' and '?'.
+ */
+public class MemoryFileSystem extends FileSystem {
+  static final NavigableMap<String, FileStatus> OBJECTS = new ConcurrentSkipListMap<>();
+  private URI uri;
+
+  /**
+   * Adds an object, or replaces the object with the same path.
+   */
+  static void put(String path, long length, long modificationTime) {
+    OBJECTS.put(path, new FileStatus(length, false, 1, 1024, modificationTime, new Path(path)));
+  }
+
+  @Override
+  public void initialize(URI name, Configuration conf) throws IOException {
+    super.initialize(name, conf);
+    uri = name;
+  }
+
+  @Override
+  public URI getUri() {
+    return uri;
+  }
+
+  @Override
+  public FileStatus getFileStatus(Path f) throws IOException {
+    FileStatus status = OBJECTS.get(f.toString());
+    if (status != null) {
+      return status;
+    }
+    String prefix = getPrefix(f);
+    String next = OBJECTS.ceilingKey(prefix);
+    if (next == null || !next.startsWith(prefix)) {
+      throw new FileNotFoundException(f.toString());
+    }
+    return new FileStatus(0, true, 1, 0, 0, f);
+  }
+
+  @Override
+  public FileStatus[] listStatus(Path f) throws IOException {
+    FileStatus status = getFileStatus(f);
+    if (!status.isDirectory()) {
+      return new FileStatus[] {status};
+    }
+    String prefix = getPrefix(f);
+    Map<String, FileStatus> children = new TreeMap<>();
+    for (Map.Entry<String, FileStatus> object : OBJECTS.tailMap(prefix).entrySet()) {
+      if (!object.getKey().startsWith(prefix)) {
+        break;
+      }
+      int end = object.getKey().indexOf('/', prefix.length());
+      String child = end < 0 ? object.getKey() : object.getKey().substring(0, end);
+      children.put(child, end < 0 ? object.getValue() : new FileStatus(0, true, 1, 0, 0, new Path(child)));
+    }
+    return children.values().toArray(new FileStatus[0]);
+  }
+
+  @Override
+  public RemoteIterator<LocatedFileStatus> listFiles(Path f, boolean recursive) throws IOException {
+    List<LocatedFileStatus> files = new ArrayList<>();
+    String prefix = getPrefix(f);
+    Iterable<FileStatus> statuses = recursive ? OBJECTS.tailMap(prefix).values() : Arrays.asList(listStatus(f));
+    for (FileStatus status : statuses) {
+      if (!status.getPath().toString().startsWith(prefix)) {
+        break;
+      }
+      if (!status.isDirectory()) {
+        files.add(new LocatedFileStatus(status, null));
+      }
+    }
+    Iterator<LocatedFileStatus> iterator = files.iterator();
+    return new RemoteIterator<LocatedFileStatus>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public LocatedFileStatus next() {
+        return iterator.next();
+      }
+    };
+  }
+
+  @Override
+  public FileStatus[] globStatus(Path pathPattern) throws IOException {
+    return globStatus(pathPattern, path -> true);
+  }
+
+  @Override
+  public FileStatus[] globStatus(Path pathPattern, PathFilter filter) throws IOException {
+    String glob = pathPattern.toString();
+    if (glob.indexOf('*') < 0 && glob.indexOf('?') < 0) {
+      try {
+        FileStatus status = getFileStatus(pathPattern);
+        return filter.accept(status.getPath()) ? new FileStatus[] {status} : new FileStatus[0];
+      } catch (FileNotFoundException e) {
+        return null;
+      }
+    }
+    Pattern pattern = Pattern.compile(Pattern.quote(glob).replace("*", "\\E[^/]*\\Q").replace("?", "\\E[^/]\\Q"));
+    int depth = pathPattern.depth();
+    Map<String, FileStatus> matches = new TreeMap<>();
+    for (String key : OBJECTS.keySet()) {
+      // the object, or its ancestor at the depth of the glob
+      Path path = new Path(key);
+      while (path.depth() > depth) {
+        path = path.getParent();
+      }
+      if (pattern.matcher(path.toString()).matches() && filter.accept(path)) {
+        matches.put(path.toString(), getFileStatus(path));
+      }
+    }
+    return matches.values().toArray(new FileStatus[0]);
+  }
+
+  private static String getPrefix(Path f) {
+    String path = f.toString();
+    return path.endsWith("/") ? path : path + "/";
+  }
+
+  @Override
+  public FSDataInputStream open(Path f, int bufferSize) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                   short replication, long blockSize, Progressable progress) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public FSDataOutputStream append(Path f, int bufferSize, Progressable progress) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean rename(Path src, Path dst) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean delete(Path f, boolean recursive) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setWorkingDirectory(Path dir) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Path getWorkingDirectory() {
+    return new Path("/");
+  }
+
+  @Override
+  public boolean mkdirs(Path f, FsPermission permission) {
+    throw new UnsupportedOperationException();
+  }
+}
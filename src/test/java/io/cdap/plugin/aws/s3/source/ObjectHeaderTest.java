@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link ObjectHeader} and {@link CachedRangeInputStream}.
+ */
+public class ObjectHeaderTest {
+  private static final byte[] CONTENT = "a,b,c\n1,2,3\n4,5,6\n".getBytes(StandardCharsets.UTF_8);
+
+  @Before
+  public void clearCache() {
+    ObjectHeader.clearCache();
+  }
+
+  @Test
+  public void testCachedHeader() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", CONTENT);
+    ByteBuffer header = ObjectHeader.get(reader(s3, s3.getETag("key")), CONTENT.length);
+    Assert.assertEquals("a,b,c\n", StandardCharsets.UTF_8.decode(header).toString());
+    // the header of the same version of the object is read once
+    Assert.assertEquals(6, ObjectHeader.get(reader(s3, s3.getETag("key")), CONTENT.length).remaining());
+    Assert.assertEquals(Collections.singletonList("0-17"), s3.getRanges("key"));
+  }
+
+  @Test
+  public void testHeaderOnlyRead() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", CONTENT);
+    ByteBuffer header = ObjectHeader.get(reader(s3, s3.getETag("key")), CONTENT.length);
+    try (FSDataInputStream stream = open(s3, header)) {
+      byte[] line = new byte[6];
+      stream.readFully(line);
+      Assert.assertArrayEquals(Arrays.copyOf(CONTENT, 6), line);
+    }
+    // the object is not opened to read the header
+    Assert.assertEquals(1, s3.getRanges("key").size());
+
+    try (FSDataInputStream stream = open(s3, ObjectHeader.get(reader(s3, s3.getETag("key")), CONTENT.length))) {
+      Assert.assertArrayEquals(CONTENT, ByteStreams.toByteArray(stream));
+      stream.seek(2);
+      Assert.assertEquals('b', stream.read());
+      stream.seek(12);
+      Assert.assertEquals('4', stream.read());
+    }
+  }
+
+  @Test
+  public void testChangedObject() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", CONTENT);
+    ObjectHeader.get(reader(s3, s3.getETag("key")), CONTENT.length);
+    try {
+      ObjectHeader.get(reader(s3, "other"), CONTENT.length);
+      Assert.fail("Expected the header of another version of the object to be read again");
+    } catch (IOException e) {
+      // the fake object only has one version
+    }
+  }
+
+  private static FSDataInputStream open(MemoryS3 s3, ByteBuffer header) {
+    return new FSDataInputStream(new CachedRangeInputStream(
+      () -> new FSDataInputStream(new PrefetchingInputStream(s3, "bucket", "key", s3.getETag("key"), CONTENT.length, 1,
+                                                             BufferPool.get(16, false), S3Metrics.getInstance())),
+      CONTENT.length, 0, header));
+  }
+
+  private static VectoredReader reader(MemoryS3 s3, String etag) {
+    return new VectoredReader(s3, "bucket", "key", etag, 4, 50, S3Metrics.getInstance());
+  }
+}
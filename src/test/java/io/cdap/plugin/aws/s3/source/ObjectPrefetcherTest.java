@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link ObjectPrefetcher}.
+ */
+public class ObjectPrefetcherTest {
+
+  @Test
+  public void testPrefetch() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    for (int i = 0; i < 10; i++) {
+      s3.put(String.format("logs/part-%d.csv", i), "line " + i);
+    }
+    s3.put("logs/big.csv", "a large object");
+    s3.put("logs/other.csv", "read by another split");
+    // the split is not in the order of the keys
+    String[] keys = {"logs/part-9.csv", "logs/big.csv", "logs/part-0.csv", "logs/part-1.csv", "logs/part-2.csv",
+      "logs/part-3.csv", "logs/part-4.csv", "logs/part-5.csv", "logs/part-6.csv", "logs/part-7.csv", "logs/part-8.csv"};
+    ObjectPrefetcher prefetcher = new ObjectPrefetcher(bucket -> s3, split(s3, keys), 2, 10,
+                                                       S3Metrics.getInstance());
+    ObjectPrefetcher.register("split", prefetcher);
+    Configuration conf = new Configuration();
+    conf.set(S3Constants.READ_SPLIT_ID, "split");
+    Assert.assertSame(prefetcher, ObjectPrefetcher.fromConf(conf));
+
+    for (String key : keys) {
+      FSDataInputStream stream = prefetcher.open(new Path("s3a://bucket/" + key));
+      if (key.equals("logs/big.csv")) {
+        // larger than the objects fetched ahead
+        Assert.assertNull(stream);
+        continue;
+      }
+      Assert.assertNotNull(key, stream);
+      Assert.assertArrayEquals(s3.getContent(key), ByteStreams.toByteArray(stream));
+    }
+    // each object of the split was fetched once, and nothing else
+    Assert.assertEquals(10, fetched(s3).size());
+    Assert.assertFalse(fetched(s3).contains("logs/big.csv"));
+    Assert.assertFalse(fetched(s3).contains("logs/other.csv"));
+    Assert.assertNull(prefetcher.open(new Path("s3a://bucket/logs/other.csv")));
+
+    prefetcher.close();
+    Assert.assertNull(ObjectPrefetcher.fromConf(conf));
+  }
+
+  @Test
+  public void testSkipped() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    String[] keys = new String[10];
+    for (int i = 0; i < 10; i++) {
+      keys[i] = String.format("data/%d.json", i);
+      s3.put(keys[i], "{}");
+    }
+    ObjectPrefetcher prefetcher = new ObjectPrefetcher(bucket -> s3, split(s3, keys), 2, 100,
+                                                       S3Metrics.getInstance());
+    ObjectPrefetcher.register("split", prefetcher);
+    Assert.assertNotNull(prefetcher.open(new Path("s3a://bucket/data/0.json")));
+    Assert.assertNotNull(prefetcher.open(new Path("s3a://bucket/data/1.json")));
+    // the objects skipped by the reader are not fetched anymore
+    Assert.assertNull(prefetcher.open(new Path("s3a://bucket/data/5.json")));
+    Assert.assertNotNull(prefetcher.open(new Path("s3a://bucket/data/6.json")));
+    // the objects before the last opened one are not read again from memory
+    Assert.assertNull(prefetcher.open(new Path("s3a://bucket/data/2.json")));
+    Assert.assertFalse(fetched(s3).contains("data/4.json"));
+    prefetcher.close();
+
+    // a bucket that is not fetched from
+    prefetcher = new ObjectPrefetcher(bucket -> null, split(s3, keys), 2, 100, S3Metrics.getInstance());
+    ObjectPrefetcher.register("split", prefetcher);
+    Assert.assertNull(prefetcher.open(new Path("s3a://bucket/data/0.json")));
+    prefetcher.close();
+  }
+
+  @Test
+  public void testSeek() throws IOException {
+    MemoryS3 s3 = new MemoryS3();
+    s3.put("b", "0123456789");
+    ObjectPrefetcher prefetcher = new ObjectPrefetcher(bucket -> s3, split(s3, "b"), 1, 100, S3Metrics.getInstance());
+    ObjectPrefetcher.register("split", prefetcher);
+    FSDataInputStream stream = prefetcher.open(new Path("s3a://bucket/b"));
+    stream.seek(4);
+    Assert.assertEquals('4', stream.read());
+    byte[] buffer = new byte[3];
+    stream.readFully(7, buffer);
+    Assert.assertEquals("789", new String(buffer, StandardCharsets.UTF_8));
+    Assert.assertEquals(5, stream.getPos());
+    Assert.assertEquals(5, stream.available());
+    prefetcher.close();
+  }
+
+  private static CombineFileSplit split(MemoryS3 s3, String... keys) {
+    Path[] paths = new Path[keys.length];
+    long[] starts = new long[keys.length];
+    long[] lengths = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      paths[i] = new Path("s3a://bucket/" + keys[i]);
+      lengths[i] = s3.getContent(keys[i]).length;
+    }
+    return new CombineFileSplit(paths, starts, lengths, new String[0]);
+  }
+
+  private static List<String> fetched(MemoryS3 s3) {
+    return s3.getGets().stream().map(GetObjectRequest::getKey).collect(Collectors.toList());
+  }
+}
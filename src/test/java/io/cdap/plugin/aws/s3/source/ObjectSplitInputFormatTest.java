@@ -0,0 +1,338 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.cdap.api.data.batch.Input;
+import io.cdap.cdap.api.data.batch.InputFormatProvider;
+import io.cdap.cdap.etl.api.batch.BatchSourceContext;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link ObjectSplitInputFormat}.
+ */
+public class ObjectSplitInputFormatTest {
+
+  @Test
+  public void testInputWrapped() {
+    List<Object> calls = new ArrayList<>();
+    BatchSourceContext context = (BatchSourceContext) Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class<?>[] {BatchSourceContext.class}, (proxy, method, args) -> {
+        calls.add(method.getName().equals("setInput") ? args[0] : method.getName());
+        return method.getName().equals("getMaxPreviewRecords") ? 10 : null;
+      });
+    BatchSourceContext wrapped = ObjectSplitInputFormat.wrap(context);
+
+    wrapped.setInput(Input.of("input", new InputFormatProvider() {
+      @Override
+      public String getInputFormatClassName() {
+        return SplitInputFormat.class.getName();
+      }
+
+      @Override
+      public Map<String, String> getInputFormatConfiguration() {
+        return Collections.singletonMap("key", "value");
+      }
+    }).alias("alias"));
+    // the input is read with the input format, which reads it with the input format of the format
+    Input input = (Input) calls.get(0);
+    Assert.assertEquals("input", input.getName());
+    Assert.assertEquals("alias", input.getAlias());
+    InputFormatProvider provider = ((Input.InputFormatProviderInput) input).getInputFormatProvider();
+    Assert.assertEquals(ObjectSplitInputFormat.class.getName(), provider.getInputFormatClassName());
+    Assert.assertEquals("value", provider.getInputFormatConfiguration().get("key"));
+    Assert.assertEquals(SplitInputFormat.class.getName(),
+                        provider.getInputFormatConfiguration().get(S3Constants.READ_INPUT_FORMAT));
+
+    // the other methods are called as they are
+    Assert.assertEquals(10, wrapped.getMaxPreviewRecords());
+    Assert.assertEquals("getMaxPreviewRecords", calls.get(1));
+  }
+
+  @Test
+  public void testPrefetcherReleased() throws Exception {
+    Configuration conf = new Configuration();
+    conf.set(S3Constants.READ_INPUT_FORMAT, SplitInputFormat.class.getName());
+    conf.setInt(S3Constants.READ_PREFETCH_OBJECTS, 2);
+    // the bucket is reached through an endpoint, the objects are not fetched ahead
+    conf.set(S3Constants.S3A_ENDPOINT, "http://localhost:9000");
+    TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+    CombineFileSplit combined = new CombineFileSplit(new Path[] {new Path("s3a://bucket/a"),
+                                                                 new Path("s3a://bucket/b")}, new long[] {1L, 1L});
+    ObjectSplit split = new ObjectSplit(combined, new SplitPlanning(false));
+    ObjectSplitInputFormat<Integer, String> format = new ObjectSplitInputFormat<>();
+
+    RecordReader<Integer, String> reader = format.createRecordReader(split, context);
+    // the reader of the split reads with a configuration that finds the split and its prefetcher
+    Configuration readConf = SplitInputFormat.readConf;
+    Assert.assertNotNull(ObjectPrefetcher.fromConf(readConf));
+    Assert.assertSame(split, ObjectSplit.fromConf(readConf));
+    Assert.assertNull(ObjectSplit.fromConf(conf));
+    reader.initialize(split, context);
+    Assert.assertSame(readConf, SplitInputFormat.initializeConf);
+    Assert.assertTrue(reader.nextKeyValue());
+    Assert.assertEquals("s3a://bucket/a", reader.getCurrentValue());
+    reader.close();
+    Assert.assertNull(ObjectPrefetcher.fromConf(readConf));
+    Assert.assertNull(ObjectSplit.fromConf(readConf));
+
+    // the split is still tracked without prefetching
+    conf.setInt(S3Constants.READ_PREFETCH_OBJECTS, 0);
+    reader = format.createRecordReader(split, context);
+    readConf = SplitInputFormat.readConf;
+    Assert.assertNull(ObjectPrefetcher.fromConf(readConf));
+    Assert.assertSame(split, ObjectSplit.fromConf(readConf));
+    reader.close();
+    Assert.assertNull(ObjectSplit.fromConf(readConf));
+
+    // splits that do not combine objects are read as they are
+    format.createRecordReader(combined, context).close();
+    Assert.assertNull(SplitInputFormat.readConf.get(S3Constants.READ_SPLIT_ID));
+  }
+
+  @Test
+  public void testVersionsCarried() throws Exception {
+    Configuration conf = new Configuration();
+    conf.set(S3Constants.READ_INPUT_FORMAT, SplitInputFormat.class.getName());
+    JobContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+    List<InputSplit> splits = new ObjectSplitInputFormat<Integer, String>().getSplits(context);
+    // the splits are planned with a copy of the configuration, and the planning is finished
+    Assert.assertNull(conf.get(S3Constants.PLANNING_SPLITS_ID));
+    Assert.assertNotNull(SplitInputFormat.planningConf.get(S3Constants.PLANNING_SPLITS_ID));
+    Assert.assertNull(SplitPlanning.fromConf(SplitInputFormat.planningConf));
+    Assert.assertEquals(1, splits.size());
+
+    // the versions survive the serialization of the split
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ((ObjectSplit) splits.get(0)).write(new DataOutputStream(bytes));
+    ObjectSplit split = new ObjectSplit();
+    split.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    Assert.assertEquals(3, split.getSplit().getNumPaths());
+    ObjectVersion version = split.getVersion(new Path("s3a://bucket/a"));
+    Assert.assertNotNull(version);
+    Assert.assertEquals(10L, version.getLength());
+    Assert.assertEquals(1L, version.getModificationTime());
+    Assert.assertEquals("etag", version.getETag());
+    // objects that were not listed from S3 have no version
+    Assert.assertNull(split.getVersion(new Path("s3a://bucket/b")));
+    Assert.assertNull(split.getVersion(new Path("s3a://bucket/c")));
+
+    // only the object read from its start by the split is read from its start
+    Assert.assertTrue(split.readsStart(new Path("s3a://bucket/a")));
+    Assert.assertFalse(split.readsStart(new Path("s3a://bucket/b")));
+  }
+
+  @Test
+  public void testWatermarkPlanned() throws Exception {
+    S3Watermark watermark = new S3Watermark();
+    watermark.advance(5L, "b");
+    Configuration conf = new Configuration();
+    conf.set(S3Constants.READ_INPUT_FORMAT, SplitInputFormat.class.getName());
+    conf.set(S3Constants.PLANNING_WATERMARK_RUN, "run");
+    // a concurrent run of the same stage
+    ListingFilter.startPlanning("other", watermark);
+    ListingFilter.startPlanning("run", watermark);
+    try {
+      new ObjectSplitInputFormat<Integer, String>().getSplits(new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+    } finally {
+      S3Watermark planned = ListingFilter.finishPlanning("run");
+      // moved past the objects of the splits, not past the ones that the input format left out
+      Assert.assertEquals(20L, planned.getLastModified());
+      Assert.assertFalse(planned.isNew(20L, "a"));
+      Assert.assertTrue(planned.isNew(30L, "c"));
+      Assert.assertEquals(watermark, ListingFilter.finishPlanning("other"));
+    }
+  }
+
+  @Test
+  public void testAdaptiveSplitSize() throws Exception {
+    MemoryFileSystem.OBJECTS.clear();
+    for (int i = 0; i < 4; i++) {
+      MemoryFileSystem.put("s3a://bucket/dir/" + i + ".csv", i == 1 ? 300 : 100, 1);
+    }
+    MemoryFileSystem.put("s3a://bucket/dir/_SUCCESS", 0, 1);
+    Configuration conf = new Configuration();
+    conf.set("fs.s3a.impl", MemoryFileSystem.class.getName());
+    conf.set(FileInputFormat.INPUT_DIR, "s3a://bucket/dir");
+    conf.set(S3Constants.READ_INPUT_FORMAT, SizedInputFormat.class.getName());
+    conf.setInt(S3Constants.PLANNING_SPLIT_SLOTS, 1);
+    conf.setLong(FileInputFormat.SPLIT_MAXSIZE, 1000L);
+    JobContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+
+    try {
+      List<InputSplit> splits = new ObjectSplitInputFormat<Integer, String>().getSplits(context);
+      // 600 bytes in two splits for the slot, sized from the splits planned first with the configured size
+      Assert.assertEquals(Arrays.asList(1000L, 300L), SizedInputFormat.maxSizes);
+      Assert.assertEquals(1000L, conf.getLong(FileInputFormat.SPLIT_MAXSIZE, 0L));
+      // the largest splits come first, the others in the order they were planned
+      List<Long> lengths = new ArrayList<>();
+      for (InputSplit split : splits) {
+        lengths.add(split.getLength());
+      }
+      Assert.assertEquals(Arrays.asList(300L, 200L, 100L), lengths);
+      Assert.assertEquals(new Path("s3a://bucket/dir/0.csv"), ((ObjectSplit) splits.get(2)).getSplit().getPath(0));
+
+      // the splits are planned once as they are when the split size is not adaptive
+      conf.unset(S3Constants.PLANNING_SPLIT_SLOTS);
+      SizedInputFormat.maxSizes.clear();
+      splits = new ObjectSplitInputFormat<Integer, String>().getSplits(context);
+      Assert.assertEquals(Collections.singletonList(1000L), SizedInputFormat.maxSizes);
+      Assert.assertEquals(1, splits.size());
+      Assert.assertEquals(600L, splits.get(0).getLength());
+    } finally {
+      MemoryFileSystem.OBJECTS.clear();
+      SizedInputFormat.maxSizes.clear();
+    }
+  }
+
+  /**
+   * Combines the objects it lists, in order, in splits of at most the maximum split size it is given, and records the
+   * sizes it is given.
+   */
+  public static class SizedInputFormat extends FileInputFormat<Integer, String> {
+    static final List<Long> maxSizes = new ArrayList<>();
+
+    @Override
+    public List<InputSplit> getSplits(JobContext context) throws IOException {
+      long maxSize = context.getConfiguration().getLong(FileInputFormat.SPLIT_MAXSIZE, 0L);
+      maxSizes.add(maxSize);
+      List<InputSplit> splits = new ArrayList<>();
+      List<Path> paths = new ArrayList<>();
+      List<Long> lengths = new ArrayList<>();
+      long length = 0;
+      for (FileStatus status : listStatus(context)) {
+        if (length + status.getLen() > maxSize && !paths.isEmpty()) {
+          splits.add(combine(paths, lengths));
+          length = 0;
+        }
+        paths.add(status.getPath());
+        lengths.add(status.getLen());
+        length += status.getLen();
+      }
+      if (!paths.isEmpty()) {
+        splits.add(combine(paths, lengths));
+      }
+      return splits;
+    }
+
+    private static CombineFileSplit combine(List<Path> paths, List<Long> lengths) {
+      long[] split = new long[lengths.size()];
+      for (int i = 0; i < split.length; i++) {
+        split[i] = lengths.get(i);
+      }
+      CombineFileSplit combined = new CombineFileSplit(paths.toArray(new Path[0]), split);
+      paths.clear();
+      lengths.clear();
+      return combined;
+    }
+
+    @Override
+    public RecordReader<Integer, String> createRecordReader(InputSplit split, TaskAttemptContext context) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Reads the paths of a combined split, and plans a single split, with the version of the first object, of objects
+   * listed past the watermark, and leaves out an object listed past it. Records the configurations it plans and reads
+   * with.
+   */
+  public static class SplitInputFormat extends InputFormat<Integer, String> {
+    static Configuration planningConf;
+    static Configuration readConf;
+    static Configuration initializeConf;
+
+    @Override
+    public List<InputSplit> getSplits(JobContext context) {
+      planningConf = context.getConfiguration();
+      SplitPlanning planning = SplitPlanning.fromConf(planningConf);
+      planning.addVersion(new Path("s3a://bucket/a"), new ObjectVersion(10L, 1L, "etag"));
+      planning.addNewObject(new Path("s3a://bucket/a"), 20L);
+      planning.addNewObject(new Path("s3a://bucket/c"), 30L);
+      return Collections.singletonList(new CombineFileSplit(
+        new Path[] {new Path("s3a://bucket/a"), new Path("s3a://bucket/b"), new Path("s3a://bucket/b")},
+        new long[] {0L, 100L, 200L}, new long[] {10L, 100L, 100L}, new String[0]));
+    }
+
+    @Override
+    public RecordReader<Integer, String> createRecordReader(InputSplit split, TaskAttemptContext context) {
+      readConf = context.getConfiguration();
+      return new RecordReader<Integer, String>() {
+        private CombineFileSplit combined;
+        private int index = -1;
+
+        @Override
+        public void initialize(InputSplit split, TaskAttemptContext context) {
+          initializeConf = context.getConfiguration();
+          combined = (CombineFileSplit) split;
+        }
+
+        @Override
+        public boolean nextKeyValue() {
+          return ++index < combined.getNumPaths();
+        }
+
+        @Override
+        public Integer getCurrentKey() {
+          return index;
+        }
+
+        @Override
+        public String getCurrentValue() {
+          return combined.getPath(index).toString();
+        }
+
+        @Override
+        public float getProgress() {
+          return (float) index / combined.getNumPaths();
+        }
+
+        @Override
+        public void close() throws IOException {
+          // nothing to release
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.io.api.Binary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+/**
+ * Tests for {@link ParquetFilter}.
+ */
+public class ParquetFilterTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("country", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("amount", Schema.nullableOf(Schema.of(Schema.Type.LONG))),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("active", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("dt", Schema.of(Schema.LogicalType.DATE)),
+    Schema.Field.of("ts", Schema.of(Schema.LogicalType.TIMESTAMP_MICROS)),
+    Schema.Field.of("tags", Schema.of(Schema.Type.ARRAY)));
+
+  @Test
+  public void testParse() {
+    Assert.assertEquals(
+      FilterApi.and(FilterApi.eq(FilterApi.binaryColumn("country"), Binary.fromString("FR")),
+                    FilterApi.gt(FilterApi.longColumn("amount"), 100L)),
+      ParquetFilter.parse("country = 'FR' AND amount > 100", SCHEMA));
+    Assert.assertEquals(
+      FilterApi.not(FilterApi.or(FilterApi.eq(FilterApi.doubleColumn("price"), 1.5),
+                                 FilterApi.eq(FilterApi.doubleColumn("price"), 2d))),
+      ParquetFilter.parse("price NOT IN (1.5, 2)", SCHEMA));
+    Assert.assertEquals(FilterApi.notEq(FilterApi.booleanColumn("active"), true),
+                        ParquetFilter.parse("active != 'true'", SCHEMA));
+  }
+
+  @Test
+  public void testDatesAndTimestamps() {
+    Assert.assertEquals(
+      FilterApi.gtEq(FilterApi.intColumn("dt"), (int) LocalDate.of(2026, 10, 17).toEpochDay()),
+      ParquetFilter.parse("dt >= '2026-10-17'", SCHEMA));
+    Assert.assertEquals(FilterApi.lt(FilterApi.longColumn("ts"), 1000001L),
+                        ParquetFilter.parse("ts < '1970-01-01T00:00:01.000001Z'", SCHEMA));
+  }
+
+  @Test
+  public void testInvalid() {
+    assertInvalid("missing = 1", "Field 'missing' is not in the schema");
+    assertInvalid("amount > 'many'", "Value 'many' of field 'amount' is not a valid long");
+    assertInvalid("dt = '17/10/2026'", "is not a valid date");
+    assertInvalid("active < 'true'", "Boolean field 'active' cannot be compared with '<'");
+    assertInvalid("tags = 'a'", "Cannot filter on field 'tags' of type array");
+    assertInvalid("country = 'FR' AND", "Expected a name at the end");
+  }
+
+  private static void assertInvalid(String expression, String message) {
+    try {
+      ParquetFilter.parse(expression, SCHEMA);
+      Assert.fail("Expected filter '" + expression + "' to be invalid");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid Parquet filter '" + expression + "'."));
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+  }
+}
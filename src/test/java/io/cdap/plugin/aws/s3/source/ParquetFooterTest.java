@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link ParquetFooter} and {@link CachedRangeInputStream}.
+ */
+public class ParquetFooterTest {
+  // the file metadata of a Parquet object without columns and rows, in the thrift compact protocol
+  private static final byte[] EMPTY_METADATA = {0x15, 0x02, 0x19, 0x0c, 0x16, 0x00, 0x19, 0x0c, 0x00};
+
+  @Before
+  public void clearCache() {
+    ParquetFooter.clearCache();
+  }
+
+  @Test
+  public void testCachedFooter() throws IOException {
+    byte[] content = parquetObject(100);
+    MemoryS3 s3 = MemoryS3.withObject("key", content);
+    ParquetFooter footer = ParquetFooter.get(reader(s3), content.length);
+    Assert.assertTrue(footer.isParquet());
+    Assert.assertTrue(footer.getRowGroups().isEmpty());
+    Assert.assertEquals(0, footer.getOffset());
+    // the footer of the same version of the object is read once
+    Assert.assertSame(footer, ParquetFooter.get(reader(s3), content.length));
+    Assert.assertEquals(Collections.singletonList("0-120"), s3.getRanges("key"));
+
+    // the tail is served from the footer, the rest from the stream of the object
+    try (FSDataInputStream stream = new FSDataInputStream(new CachedRangeInputStream(
+      () -> new FSDataInputStream(new PrefetchingInputStream(s3, "bucket", "key", s3.getETag("key"), content.length, 1,
+                                                             BufferPool.get(16, false), S3Metrics.getInstance())),
+      content.length, footer.getOffset(), footer.getTail()))) {
+      Assert.assertArrayEquals(content, ByteStreams.toByteArray(stream));
+      byte[] magic = new byte[4];
+      stream.readFully(content.length - 4, magic);
+      Assert.assertArrayEquals("PAR1".getBytes(StandardCharsets.US_ASCII), magic);
+    }
+  }
+
+  @Test
+  public void testOtherObjects() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", new byte[100]);
+    Assert.assertFalse(ParquetFooter.get(reader(s3), 100).isParquet());
+    Assert.assertFalse(ParquetFooter.get(reader(s3), 100).isParquet());
+    // only the footers of Parquet objects are cached
+    Assert.assertEquals(Arrays.asList("0-99", "0-99"), s3.getRanges("key"));
+  }
+
+  private static VectoredReader reader(MemoryS3 s3) {
+    return new VectoredReader(s3, "bucket", "key", s3.getETag("key"), 4, 50, S3Metrics.getInstance());
+  }
+
+  private static byte[] parquetObject(int dataLength) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    os.write("PAR1".getBytes(StandardCharsets.US_ASCII));
+    os.write(new byte[dataLength]);
+    os.write(EMPTY_METADATA);
+    os.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(EMPTY_METADATA.length).array());
+    os.write("PAR1".getBytes(StandardCharsets.US_ASCII));
+    return os.toByteArray();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Tests for {@link PrefetchingInputStream}.
+ */
+public class PrefetchingInputStreamTest {
+  private static final int BLOCK_SIZE = 16;
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    for (boolean direct : new boolean[] {false, true}) {
+      MemoryS3 s3 = MemoryS3.withObject("key", content(100));
+      try (PrefetchingInputStream stream = open(s3, 3, direct)) {
+        Assert.assertArrayEquals(s3.getContent("key"), ByteStreams.toByteArray(stream));
+        Assert.assertEquals(-1, stream.read());
+        Assert.assertEquals(100, stream.getPos());
+      }
+      // every block was fetched once, with a ranged GET
+      Assert.assertEquals(new HashSet<>(Arrays.asList("0-15", "16-31", "32-47", "48-63", "64-79", "80-95", "96-99")),
+                          new HashSet<>(s3.getRanges("key")));
+      Assert.assertEquals(7, s3.getRanges("key").size());
+    }
+  }
+
+  @Test
+  public void testSeek() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", content(100));
+    try (PrefetchingInputStream stream = open(s3, 2, false)) {
+      Assert.assertEquals(0, stream.read());
+      stream.seek(5);
+      Assert.assertEquals(5, stream.read());
+      // jumping past the fetched blocks fetches from the new position
+      stream.seek(70);
+      Assert.assertEquals(70, stream.read());
+      Assert.assertEquals(71, stream.getPos());
+      byte[] buffer = new byte[4];
+      stream.readFully(10, buffer);
+      Assert.assertArrayEquals(new byte[] {10, 11, 12, 13}, buffer);
+      Assert.assertEquals(71, stream.getPos());
+      Assert.assertEquals(29, stream.skip(1000));
+      Assert.assertEquals(-1, stream.read());
+    }
+    Assert.assertTrue(s3.getRanges("key").contains("64-79"));
+    Assert.assertFalse(s3.getRanges("key").contains("48-63"));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testSeekPastEnd() throws IOException {
+    try (PrefetchingInputStream stream = open(MemoryS3.withObject("key", content(10)), 2, false)) {
+      stream.seek(11);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testChangedObject() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", content(40));
+    try (PrefetchingInputStream stream = new PrefetchingInputStream(s3, "bucket", "key", "old", 40, 2,
+                                                                    BufferPool.get(BLOCK_SIZE, false),
+                                                                    S3Metrics.getInstance())) {
+      stream.read();
+    }
+  }
+
+  @Test
+  public void testBufferPool() {
+    BufferPool pool = BufferPool.get(BLOCK_SIZE, false);
+    Assert.assertSame(pool, BufferPool.get(BLOCK_SIZE, false));
+    Assert.assertNotSame(pool, BufferPool.get(BLOCK_SIZE, true));
+    ByteBuffer buffer = pool.acquire();
+    buffer.put((byte) 1);
+    pool.release(buffer);
+    ByteBuffer reused = pool.acquire();
+    Assert.assertEquals(0, reused.position());
+    Assert.assertEquals(BLOCK_SIZE, reused.remaining());
+    Assert.assertTrue(BufferPool.get(BLOCK_SIZE, true).acquire().isDirect());
+  }
+
+  private static PrefetchingInputStream open(MemoryS3 s3, int blocks, boolean direct) {
+    return new PrefetchingInputStream(s3, "bucket", "key", s3.getETag("key"), s3.getContent("key").length, blocks,
+                                      BufferPool.get(BLOCK_SIZE, direct), S3Metrics.getInstance());
+  }
+
+  private static byte[] content(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) i;
+    }
+    return content;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for {@link RegexPrefixes}.
+ */
+public class RegexPrefixesTest {
+
+  @Test
+  public void testExtract() {
+    Assert.assertEquals(Collections.singletonList("s3a://bucket/logs/2026-10-1"),
+                        extract("^s3a://bucket/logs/2026-10-1\\d*/.*"));
+    Assert.assertEquals(Arrays.asList("s3a://bucket/a/x-", "s3a://bucket/a/y-", "s3a://bucket/b/x-",
+                                      "s3a://bucket/b/y-"),
+                        extract("s3a://bucket/(a|b)/[xy]-[0-9]*\\.csv"));
+    Assert.assertEquals(Collections.singletonList("s3a://bucket/data"), extract("^s3a://bucket/data(/old)?/.*"));
+    Assert.assertEquals(Collections.singletonList("s3a://bucket/data."), extract("^s3a://bucket/data\\.\\w+"));
+    // not anchored at the start of the path
+    Assert.assertNull(extract(".*/2026-10-1[0-9]/events-.*\\.json"));
+    Assert.assertNull(extract("bucket/logs/"));
+    Assert.assertNull(extract("^s3a://bucket/a|^s3a://bucket/b"));
+    Assert.assertNull(RegexPrefixes.extract(Pattern.compile("^s3a://bucket/logs", Pattern.CASE_INSENSITIVE)));
+    // too many alternatives
+    Assert.assertEquals(Arrays.asList("s3a://bucket/0", "s3a://bucket/1"),
+                        extract("^s3a://bucket/[01][0-9a-z][0-9a-z]"));
+  }
+
+  @Test
+  public void testNarrow() {
+    Pattern pattern = Pattern.compile("^s3a://bucket/logs/(2025|2026)/");
+    Assert.assertEquals(Arrays.asList("logs/2025/", "logs/2026/"), RegexPrefixes.narrow(pattern, "bucket", ""));
+    Assert.assertEquals(Collections.singletonList("logs/2026/10/"),
+                        RegexPrefixes.narrow(pattern, "bucket", "logs/2026/10/"));
+    Assert.assertEquals(Collections.emptyList(), RegexPrefixes.narrow(pattern, "bucket", "other/"));
+    Assert.assertEquals(Collections.emptyList(), RegexPrefixes.narrow(pattern, "other", ""));
+    Assert.assertEquals(Collections.singletonList("logs/"),
+                        RegexPrefixes.narrow(Pattern.compile("^s3a://buck.*"), "bucket", "logs/"));
+    Assert.assertEquals(Collections.singletonList("logs/"), RegexPrefixes.narrow(null, "bucket", "logs/"));
+    // prefixes covered by a shorter one are listed once
+    Assert.assertEquals(Collections.singletonList("a"),
+                        RegexPrefixes.narrow(Pattern.compile("^s3a://bucket/(a|ab)"), "bucket", ""));
+  }
+
+  private static List<String> extract(String regex) {
+    return RegexPrefixes.extract(Pattern.compile(regex));
+  }
+}
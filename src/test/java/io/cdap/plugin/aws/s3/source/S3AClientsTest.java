@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link S3AClients}.
+ */
+public class S3AClientsTest {
+
+  @Test
+  public void testCanUse() {
+    Configuration conf = new Configuration();
+    conf.set(S3Constants.S3A_ACCESS_KEY, "key");
+    conf.set(S3Constants.S3A_SECRET_KEY, "secret");
+    conf.set(S3Constants.S3A_CREDENTIAL_PROVIDERS, S3Constants.S3A_SIMPLE_CREDENTIAL_PROVIDERS);
+    conf.set(S3Constants.S3A_ENCRYPTION, "AES256");
+    conf.set("fs.s3a.assumed.role.session.duration", "30m");
+    Assert.assertTrue(new S3AClients(conf).canUse("bucket"));
+    Assert.assertFalse(new S3AClients(conf).canUse(null));
+
+    assertNotUsable(conf, S3Constants.S3A_CREDENTIAL_PROVIDERS,
+                    "org.apache.hadoop.fs.s3a.auth.AssumedRoleCredentialProvider");
+    assertNotUsable(conf, "fs.s3a.assumed.role.arn", "arn:aws:iam::123456789012:role/reader");
+    assertNotUsable(conf, S3Constants.S3A_ENDPOINT, "http://localhost:9000");
+    assertNotUsable(conf, "fs.s3a.path.style.access", "true");
+    assertNotUsable(conf, "fs.s3a.connection.ssl.enabled", "false");
+    assertNotUsable(conf, "fs.s3a.proxy.host", "proxy");
+    assertNotUsable(conf, S3Constants.S3A_ENCRYPTION, "SSE-C");
+    assertNotUsable(conf, S3Constants.S3A_BUCKET_PREFIX + "bucket.access.key", "other");
+
+    // the settings of the other buckets do not apply
+    Configuration other = new Configuration(conf);
+    other.set(S3Constants.S3A_BUCKET_PREFIX + "other.access.key", "other");
+    Assert.assertTrue(new S3AClients(other).canUse("bucket"));
+  }
+
+  private static void assertNotUsable(Configuration conf, String name, String value) {
+    Configuration changed = new Configuration(conf);
+    changed.set(name, value);
+    Assert.assertFalse(name, new S3AClients(changed).canUse("bucket"));
+  }
+}
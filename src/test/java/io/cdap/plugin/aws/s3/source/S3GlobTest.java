@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests for {@link S3Glob}.
+ */
+public class S3GlobTest {
+
+  @Test
+  public void testParse() {
+    List<S3Glob.Segment> segments = S3Glob.parse("/logs/*/2026-10-*/part-[0-9][!a].{csv,json}").getSegments();
+    Assert.assertEquals(4, segments.size());
+    Assert.assertTrue(segments.get(0).isLiteral());
+    Assert.assertEquals("logs", segments.get(0).getPrefix());
+    Assert.assertEquals("", segments.get(1).getPrefix());
+    Assert.assertEquals("2026-10-", segments.get(2).getPrefix());
+    Assert.assertTrue(segments.get(2).matches("2026-10-17"));
+    Assert.assertFalse(segments.get(2).matches("2026-09-17"));
+
+    S3Glob.Segment last = segments.get(3);
+    Assert.assertEquals("part-", last.getPrefix());
+    Assert.assertTrue(last.matches("part-1b.csv"));
+    Assert.assertTrue(last.matches("part-1b.json"));
+    Assert.assertFalse(last.matches("part-1a.csv"));
+    Assert.assertFalse(last.matches("part-1b.avro"));
+    Assert.assertFalse(last.matches("part-1bxcsv"));
+  }
+
+  @Test
+  public void testEscape() {
+    S3Glob.Segment segment = S3Glob.parse("data/a\\*b*").getSegments().get(1);
+    Assert.assertEquals("a*b", segment.getPrefix());
+    Assert.assertTrue(segment.matches("a*bc"));
+    Assert.assertFalse(segment.matches("axbc"));
+  }
+
+  @Test
+  public void testWildcard() {
+    Assert.assertTrue(S3Glob.hasWildcard("logs/*/x"));
+    Assert.assertTrue(S3Glob.hasWildcard("logs/{a,b}"));
+    Assert.assertFalse(S3Glob.hasWildcard("logs/a\\*b"));
+    Assert.assertFalse(S3Glob.hasWildcard("logs/2026-10-17/"));
+  }
+
+  @Test
+  public void testUnsupported() {
+    Assert.assertNull(S3Glob.parse("logs/{a/b,c}/x"));
+    Assert.assertNull(S3Glob.parse("logs/[ab"));
+    Assert.assertNull(S3Glob.parse("logs/a}"));
+  }
+}
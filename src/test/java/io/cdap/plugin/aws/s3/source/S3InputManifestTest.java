@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link S3InputManifest}.
+ */
+public class S3InputManifestTest {
+
+  @Test
+  public void testText() throws IOException {
+    S3InputManifest manifest = parse("# written by the export job\n" +
+                                       "logs/2026/01/b.csv\t20\te2\n" +
+                                       "logs/2026/01/a.csv\t10\n" +
+                                       "\n" +
+                                       "s3a://bucket/logs/top.csv\n" +
+                                       "s3a://other/logs/x.csv\t5\n");
+
+    List<S3ObjectSummary> objects = manifest.list("bucket", "logs/", null);
+    Assert.assertEquals(Arrays.asList("logs/2026/01/a.csv", "logs/2026/01/b.csv", "logs/top.csv"), keys(objects));
+    Assert.assertEquals(10L, objects.get(0).getSize());
+    Assert.assertEquals("e2", objects.get(1).getETag());
+    Assert.assertEquals(-1L, objects.get(2).getSize());
+    Assert.assertEquals("bucket", objects.get(2).getBucketName());
+
+    Assert.assertEquals(Arrays.asList("logs/2026/01/a.csv"),
+                        keys(manifest.list("bucket", "", Pattern.compile("^s3a://bucket/logs/.*/a\\."))));
+    // relative keys are in the bucket being read
+    Assert.assertEquals(Arrays.asList("logs/2026/01/a.csv", "logs/2026/01/b.csv", "logs/x.csv"),
+                        keys(manifest.list("other", "", null)));
+    Assert.assertNull(manifest.get("other", "logs/top.csv"));
+    Assert.assertEquals(20L, manifest.get("bucket", "logs/2026/01/b.csv").getSize());
+    Assert.assertTrue(manifest.isDirectory("bucket", "logs/2026/"));
+    Assert.assertFalse(manifest.isDirectory("bucket", "logs/2025/"));
+    Assert.assertFalse(manifest.isDirectory("bucket", "logs/top.csv/"));
+  }
+
+  @Test
+  public void testJson() throws IOException {
+    S3InputManifest manifest = parse("  [{\"key\": \"data/a.json\", \"size\": 1024, \"etag\": \"e1\"}, " +
+                                       "\"/data/b.json\", {\"key\": \"s3n://bucket/data/c.json\", \"size\": null}]");
+    List<S3ObjectSummary> objects = manifest.list("bucket", "data/", null);
+    Assert.assertEquals(Arrays.asList("data/a.json", "data/b.json", "data/c.json"), keys(objects));
+    Assert.assertEquals(1024L, objects.get(0).getSize());
+    Assert.assertEquals("e1", objects.get(0).getETag());
+    Assert.assertEquals(-1L, objects.get(2).getSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() throws IOException {
+    parse("data/a.csv\tlarge\n");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDirectory() throws IOException {
+    parse("[\"data/\"]");
+  }
+
+  private static S3InputManifest parse(String content) throws IOException {
+    return S3InputManifest.parse("manifest", new StringReader(content));
+  }
+
+  private static List<String> keys(List<S3ObjectSummary> objects) {
+    return objects.stream().map(S3ObjectSummary::getKey).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link S3PartitionFilter}.
+ */
+public class S3PartitionFilterTest {
+
+  @Test
+  public void testGetPartitions() {
+    Assert.assertEquals(ImmutableMap.of("dt", "2026-10-17", "region", "eu"),
+                        S3PartitionFilter.getPartitions("s3a://bucket/table/dt=2026-10-17/region=eu/a=b.csv"));
+    Assert.assertEquals(ImmutableMap.of("ts", "2026-10-17 10:00"),
+                        S3PartitionFilter.getPartitions("table/ts=2026-10-17 10%3A00/"));
+    Assert.assertTrue(S3PartitionFilter.getPartitions("table/part-0.csv").isEmpty());
+    Assert.assertTrue(S3PartitionFilter.isPartition("table/dt=2026-10-17/"));
+    Assert.assertFalse(S3PartitionFilter.isPartition("dt=2026-10-17/table/"));
+  }
+
+  @Test
+  public void testAddPartitionFields() {
+    Schema inferred = Schema.recordOf("record", Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+                                      Schema.Field.of("path", Schema.of(Schema.Type.STRING)));
+    Schema schema = S3PartitionFilter.addPartitionFields(inferred, Arrays.asList("dt", "region"));
+    Assert.assertEquals("record", schema.getRecordName());
+    Assert.assertEquals(Arrays.asList("id", "path", "dt", "region"),
+                        schema.getFields().stream().map(Schema.Field::getName).collect(Collectors.toList()));
+    Assert.assertEquals(Schema.of(Schema.Type.LONG), schema.getField("id").getSchema());
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.Type.STRING)), schema.getField("dt").getSchema());
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.Type.STRING)), schema.getField("region").getSchema());
+  }
+
+  @Test
+  public void testFilter() {
+    S3PartitionFilter filter = S3PartitionFilter.parse("dt >= '2026-10-01' AND region IN ('eu','us')");
+    Assert.assertTrue(filter.mightMatch("table/"));
+    Assert.assertTrue(filter.mightMatch("table/dt=2026-10-17/"));
+    Assert.assertFalse(filter.mightMatch("table/dt=2026-09-30/"));
+    Assert.assertFalse(filter.mightMatch("table/dt=2026-10-17/region=ap/"));
+    Assert.assertTrue(filter.matches("table/dt=2026-10-17/region=us/part-0.csv"));
+    // objects without all the partitions do not match
+    Assert.assertFalse(filter.matches("table/dt=2026-10-17/part-0.csv"));
+
+    filter = S3PartitionFilter.parse("NOT (hour < 10 OR hour > 12) and region not in ('it''s')");
+    Assert.assertTrue(filter.matches("t/hour=10/region=eu/x"));
+    // numbers are compared as numbers
+    Assert.assertFalse(filter.matches("t/hour=9/region=eu/x"));
+    Assert.assertFalse(filter.matches("t/hour=11/region=it's/x"));
+    Assert.assertFalse(filter.mightMatch("t/hour=13/"));
+
+    filter = S3PartitionFilter.parse("region = 'eu' OR dt = '2026-10-17'");
+    Assert.assertTrue(filter.mightMatch("t/region=us/"));
+    Assert.assertFalse(filter.mightMatch("t/region=us/dt=2026-10-16/"));
+    Assert.assertTrue(filter.matches("t/region=eu/x"));
+  }
+
+  @Test
+  public void testInvalid() {
+    for (String expression : new String[] {"dt", "dt >= ", "dt ~ 'a'", "dt = 'a", "dt IN ('a'", "dt = a",
+      "(dt = 'a'", "dt = 'a' b"}) {
+      try {
+        S3PartitionFilter.parse(expression);
+        Assert.fail("Expected an invalid filter: " + expression);
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage().contains(expression));
+      }
+    }
+  }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Constants;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Tests for {@link S3PlanningFileSystem}, with S3A replaced by a {@link MemoryFileSystem} and the S3 client by a
+ * {@link MemoryS3}.
+ */
+public class S3PlanningFileSystemTest {
+  private static final byte[] DELEGATE_CONTENT = "delegate".getBytes(StandardCharsets.UTF_8);
+
+  private MemoryS3 s3;
+
+  @Before
+  public void setUp() {
+    MemoryFileSystem.OBJECTS.clear();
+    CountingFileSystem.LISTINGS.set(0);
+    CountingFileSystem.OPENS.set(0);
+    s3 = new MemoryS3();
+  }
+
+  @After
+  public void tearDown() {
+    MemoryFileSystem.OBJECTS.clear();
+  }
+
+  @Test
+  public void testOpen() throws IOException {
+    Path path = new Path("s3a://bucket/data/a.csv");
+    putObject("data/a.csv", "1,a\n2,b\n", 1000L);
+    Configuration conf = getConf();
+
+    // the objects are opened with S3A when no read feature is enabled
+    Assert.assertEquals("delegate", read(createFileSystem(conf, s3), path));
+    Assert.assertEquals(1, CountingFileSystem.OPENS.get());
+    Assert.assertEquals(0, s3.getHeads().size());
+
+    // read ahead from S3, with the version of the object from a HEAD request
+    conf.setInt(S3Constants.READ_PREFETCH_BLOCKS, 2);
+    conf.setInt(S3Constants.READ_PREFETCH_BLOCK_SIZE, 4);
+    Assert.assertEquals("1,a\n2,b\n", read(createFileSystem(conf, s3), path));
+    Assert.assertEquals(1, s3.getHeads().size());
+    Assert.assertEquals(1, CountingFileSystem.OPENS.get());
+
+    // the version listed by the planning comes with the split being read
+    SplitPlanning planning = new SplitPlanning(false);
+    planning.addVersion(path, new ObjectVersion(8L, 1000L, s3.getETag("data/a.csv")));
+    ObjectSplit split = new ObjectSplit(new CombineFileSplit(new Path[] {path}, new long[] {8L}), planning);
+    ObjectSplit.register("split", split);
+    try {
+      Configuration readConf = new Configuration(conf);
+      readConf.set(S3Constants.READ_SPLIT_ID, "split");
+      Assert.assertEquals("1,a\n2,b\n", read(createFileSystem(readConf, s3), path));
+    } finally {
+      ObjectSplit.release("split");
+    }
+    Assert.assertEquals(1, s3.getHeads().size());
+
+    // the buckets that the clients cannot reach are read with S3A
+    Assert.assertEquals("delegate", read(createFileSystem(conf, null), path));
+    Assert.assertEquals(2, CountingFileSystem.OPENS.get());
+  }
+
+  @Test
+  public void testSkippedBytesCounted() throws IOException {
+    Path path = new Path("s3a://bucket/data/a.parquet");
+    putObject("data/a.parquet", "PAR1", 1000L);
+    Configuration conf = getConf();
+    conf.setBoolean(S3Constants.READ_COUNT_SKIPPED_BYTES, true);
+
+    // the length of the object comes with the split being read
+    SplitPlanning planning = new SplitPlanning(false);
+    planning.addVersion(path, new ObjectVersion(4L, 1000L, s3.getETag("data/a.parquet")));
+    ObjectSplit.register("split", new ObjectSplit(new CombineFileSplit(new Path[] {path}, new long[] {4L}),
+                                                  planning));
+    try {
+      Configuration readConf = new Configuration(conf);
+      readConf.set(S3Constants.READ_SPLIT_ID, "split");
+      try (FSDataInputStream in = createFileSystem(readConf, s3).open(path, 4096)) {
+        Assert.assertTrue(in.getWrappedStream() instanceof SkippedBytesInputStream);
+      }
+      // the objects the split does not carry are not counted, even when the reader requested their status first
+      FileSystem fs = createFileSystem(conf, s3);
+      fs.getFileStatus(path);
+      try (FSDataInputStream in = fs.open(path, 4096)) {
+        Assert.assertFalse(in.getWrappedStream() instanceof SkippedBytesInputStream);
+      }
+      Assert.assertEquals(0, s3.getHeads().size());
+    } finally {
+      ObjectSplit.release("split");
+    }
+  }
+
+  @Test
+  public void testFilteredListing() throws IOException {
+    putObject("data/dt=2026-09-30/a.csv", "a", 3000L);
+    putObject("data/dt=2026-10-01/b.csv", "b", 1000L);
+    putObject("data/dt=2026-10-01/c.csv", "c", 2000L);
+    // modified after the start of the run, less the grace period
+    putObject("data/dt=2026-10-01/d.csv", "d", 9000L);
+    S3Watermark watermark = new S3Watermark();
+    watermark.advance(1000L, "data/dt=2026-10-01/b.csv");
+    Configuration conf = getConf();
+    conf.set(S3Constants.PLANNING_PARTITION_FILTER, "dt >= '2026-10-01'");
+    conf.set(S3Constants.PLANNING_WATERMARK, watermark.toJson());
+    conf.setLong(S3Constants.PLANNING_WATERMARK_BEFORE, 5000L);
+
+    SplitPlanning planning = SplitPlanning.start(conf, false);
+    try {
+      // listed from S3, recursively
+      conf.setBoolean(FileInputFormat.INPUT_DIR_RECURSIVE, true);
+      conf.setInt(S3Constants.PLANNING_LIST_THREADS, 2);
+      Assert.assertEquals(Collections.singletonList("s3a://bucket/data/dt=2026-10-01/c.csv"),
+                          list(createFileSystem(conf, s3).listLocatedStatus(new Path("s3a://bucket/data"))));
+      // and with S3A, a directory at a time
+      conf.setBoolean(FileInputFormat.INPUT_DIR_RECURSIVE, false);
+      FileSystem fs = createFileSystem(conf, null);
+      Assert.assertEquals(Collections.singletonList("s3a://bucket/data/dt=2026-10-01/c.csv"),
+                          list(fs.listLocatedStatus(new Path("s3a://bucket/data/dt=2026-10-01"))));
+      Assert.assertEquals(0, fs.listStatus(new Path("s3a://bucket/data/dt=2026-09-30")).length);
+      // directories are listed as they are
+      Assert.assertEquals(Arrays.asList("s3a://bucket/data/dt=2026-09-30", "s3a://bucket/data/dt=2026-10-01"),
+                          list(fs.listLocatedStatus(new Path("s3a://bucket/data"))));
+      // the objects past the watermark are recorded for the planning
+      Assert.assertEquals(Long.valueOf(2000L),
+                          planning.getNewObject(new Path("s3a://bucket/data/dt=2026-10-01/c.csv")));
+      Assert.assertNull(planning.getNewObject(new Path("s3a://bucket/data/dt=2026-10-01/b.csv")));
+      Assert.assertNull(planning.getNewObject(new Path("s3a://bucket/data/dt=2026-10-01/d.csv")));
+    } finally {
+      planning.finish();
+    }
+  }
+
+  @Test
+  public void testGlob() throws IOException {
+    putObject("data/2026-10-01/a.csv", "a", 1000L);
+    putObject("data/2026-10-02/b.csv", "bb", 1000L);
+    putObject("data/2026-11-01/c.csv", "c", 1000L);
+    Configuration conf = getConf();
+    conf.setInt(S3Constants.PLANNING_LIST_THREADS, 2);
+    Path glob = new Path("s3a://bucket/data/2026-10-*/*.csv");
+    PathFilter notB = path -> !path.getName().equals("b.csv");
+
+    // expanded with LIST calls, with the versions of the objects for the planning
+    SplitPlanning planning = SplitPlanning.start(conf, false);
+    FileStatus[] matches = createFileSystem(conf, s3).globStatus(glob, notB);
+    Assert.assertEquals(1, matches.length);
+    Assert.assertEquals(new Path("s3a://bucket/data/2026-10-01/a.csv"), matches[0].getPath());
+    Assert.assertEquals(1L, matches[0].getLen());
+    Assert.assertEquals(0, CountingFileSystem.LISTINGS.get());
+    Assert.assertEquals(s3.getETag("data/2026-10-02/b.csv"),
+                        planning.getVersion(new Path("s3a://bucket/data/2026-10-02/b.csv")).getETag());
+    Assert.assertEquals(2, createFileSystem(conf, s3).globStatus(new Path("s3a://bucket/data/2026-10-*")).length);
+    planning.finish();
+
+    // and by S3A for the buckets that the clients cannot reach
+    matches = createFileSystem(conf, null).globStatus(glob, notB);
+    Assert.assertEquals(1, matches.length);
+    Assert.assertEquals(new Path("s3a://bucket/data/2026-10-01/a.csv"), matches[0].getPath());
+    Assert.assertEquals(1, CountingFileSystem.LISTINGS.get());
+  }
+
+  @Test
+  public void testListingsKept() throws IOException {
+    MemoryFileSystem.put("s3a://bucket/dir/a.csv", 10, 1);
+    MemoryFileSystem.put("s3a://bucket/dir/b.csv", 20, 1);
+    MemoryFileSystem.put("s3a://bucket/dir/_SUCCESS", 0, 1);
+    Path glob = new Path("s3a://bucket/d*");
+    Path dir = new Path("s3a://bucket/dir");
+    PathFilter visible = path -> !path.getName().startsWith("_");
+    Configuration conf = getConf();
+
+    SplitPlanning planning = SplitPlanning.start(conf, true);
+    FileSystem first = createFileSystem(conf, null);
+    Assert.assertEquals(1, first.globStatus(glob, visible).length);
+    Assert.assertEquals(2, count(first.listLocatedStatus(dir), visible));
+    int listings = CountingFileSystem.LISTINGS.get();
+    Assert.assertTrue(listings > 0);
+
+    // the second listing, by another file system of the planning, is the first one
+    FileSystem second = createFileSystem(conf, null);
+    Assert.assertEquals(1, second.globStatus(glob, visible).length);
+    Assert.assertEquals(2, count(second.listLocatedStatus(dir), visible));
+    Assert.assertEquals(listings, CountingFileSystem.LISTINGS.get());
+    // and is only kept for it
+    Assert.assertEquals(3, count(second.listLocatedStatus(dir), path -> true));
+    Assert.assertTrue(CountingFileSystem.LISTINGS.get() > listings);
+    planning.finish();
+
+    // the listings are not kept when the input is only listed once
+    planning = SplitPlanning.start(conf, false);
+    listings = CountingFileSystem.LISTINGS.get();
+    createFileSystem(conf, null).listLocatedStatus(dir);
+    createFileSystem(conf, null).listLocatedStatus(dir);
+    Assert.assertEquals(listings + 2, CountingFileSystem.LISTINGS.get());
+    planning.finish();
+
+    // nor by the file systems of other configurations
+    planning = SplitPlanning.start(new Configuration(conf), true);
+    listings = CountingFileSystem.LISTINGS.get();
+    createFileSystem(conf, null).listLocatedStatus(dir);
+    createFileSystem(conf, null).listLocatedStatus(dir);
+    Assert.assertEquals(listings + 2, CountingFileSystem.LISTINGS.get());
+    planning.finish();
+  }
+
+  /**
+   * Adds an object to S3, and to S3A.
+   */
+  private void putObject(String key, String content, long modificationTime) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    s3.put(key, bytes, modificationTime);
+    MemoryFileSystem.put("s3a://bucket/" + key, bytes.length, modificationTime);
+  }
+
+  private static Configuration getConf() {
+    Configuration conf = new Configuration();
+    conf.set(S3Constants.PLANNING_DELEGATE_IMPL, CountingFileSystem.class.getName());
+    conf.set(FileInputFormat.INPUT_DIR, "s3a://bucket/data");
+    return conf;
+  }
+
+  /**
+   * @param s3 the client of the bucket, or null if the bucket is only reached through S3A
+   */
+  private static FileSystem createFileSystem(Configuration conf, @Nullable AmazonS3 s3) throws IOException {
+    FileSystem fs = new S3PlanningFileSystem(bucket -> s3);
+    fs.initialize(URI.create("s3a://bucket"), conf);
+    return fs;
+  }
+
+  private static String read(FileSystem fs, Path path) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (InputStream in = fs.open(path, 4096)) {
+      int b;
+      while ((b = in.read()) >= 0) {
+        bytes.write(b);
+      }
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static List<String> list(RemoteIterator<LocatedFileStatus> statuses) throws IOException {
+    List<String> paths = new ArrayList<>();
+    while (statuses.hasNext()) {
+      paths.add(statuses.next().getPath().toString());
+    }
+    return paths;
+  }
+
+  private static int count(RemoteIterator<LocatedFileStatus> statuses, PathFilter filter) throws IOException {
+    int count = 0;
+    while (statuses.hasNext()) {
+      if (filter.accept(statuses.next().getPath())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the listings, the glob expansions and the opened objects, which all have the same content.
+   */
+  public static class CountingFileSystem extends MemoryFileSystem {
+    static final AtomicInteger LISTINGS = new AtomicInteger();
+    static final AtomicInteger OPENS = new AtomicInteger();
+
+    @Override
+    public FileStatus[] listStatus(Path f) throws IOException {
+      LISTINGS.incrementAndGet();
+      return super.listStatus(f);
+    }
+
+    @Override
+    public FileStatus[] globStatus(Path pathPattern, PathFilter filter) throws IOException {
+      LISTINGS.incrementAndGet();
+      return super.globStatus(pathPattern, filter);
+    }
+
+    @Override
+    public FSDataInputStream open(Path f, int bufferSize) {
+      OPENS.incrementAndGet();
+      return new FSDataInputStream(new BytesInputStream(DELEGATE_CONTENT));
+    }
+  }
+
+  private static final class BytesInputStream extends FSInputStream {
+    private final byte[] content;
+    private int pos;
+
+    private BytesInputStream(byte[] content) {
+      this.content = content;
+    }
+
+    @Override
+    public void seek(long pos) {
+      this.pos = (int) pos;
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+      return false;
+    }
+
+    @Override
+    public int read() {
+      return pos < content.length ? content[pos++] & 0xff : -1;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.FileHeaderInfo;
+import com.amazonaws.services.s3.model.JSONType;
+import com.amazonaws.services.s3.model.SelectObjectContentRequest;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link S3SelectQuery}.
+ */
+public class S3SelectQueryTest {
+
+  @Test
+  public void testCsvWithHeader() {
+    S3SelectQuery query = S3SelectQuery.create("csv", Arrays.asList("id", "a,b", "say \"hi\""), true,
+                                               "s.\"id\" > '10'");
+    Assert.assertEquals("SELECT s.\"id\", s.\"a,b\", s.\"say \"\"hi\"\"\" FROM S3Object s WHERE s.\"id\" > '10'",
+                        query.getExpression());
+    Assert.assertEquals("id,\"a,b\",\"say \"\"hi\"\"\"\n", query.getHeader());
+
+    SelectObjectContentRequest request = query.toRequest("bucket", "data/a.csv");
+    Assert.assertEquals("bucket", request.getBucketName());
+    Assert.assertEquals("data/a.csv", request.getKey());
+    Assert.assertEquals(FileHeaderInfo.USE.toString(),
+                        request.getInputSerialization().getCsv().getFileHeaderInfo());
+    Assert.assertEquals(Character.valueOf('\n'), request.getOutputSerialization().getCsv().getRecordDelimiter());
+  }
+
+  @Test
+  public void testCsvWithoutHeader() {
+    S3SelectQuery query = S3SelectQuery.create("csv", Arrays.asList("id", "name"), false, null);
+    // the columns are read by position, so all of them are
+    Assert.assertEquals("SELECT * FROM S3Object s", query.getExpression());
+    Assert.assertNull(query.getHeader());
+    Assert.assertEquals(FileHeaderInfo.NONE.toString(),
+                        query.toRequest("bucket", "a.csv").getInputSerialization().getCsv().getFileHeaderInfo());
+    // the header of the results is not known without a schema
+    Assert.assertNull(S3SelectQuery.create("csv", Collections.emptyList(), true, null));
+  }
+
+  @Test
+  public void testJson() {
+    S3SelectQuery query = S3SelectQuery.create("json", Arrays.asList("id", "name"), false, "s.id > 10");
+    Assert.assertEquals("SELECT s.\"id\", s.\"name\" FROM S3Object s WHERE s.id > 10", query.getExpression());
+    Assert.assertNull(query.getHeader());
+    SelectObjectContentRequest request = query.toRequest("bucket", "a.json");
+    Assert.assertEquals(JSONType.LINES.toString(), request.getInputSerialization().getJson().getType());
+    Assert.assertNotNull(request.getOutputSerialization().getJson());
+
+    Assert.assertEquals("SELECT * FROM S3Object s",
+                        S3SelectQuery.create("json", Collections.emptyList(), false, null).getExpression());
+  }
+
+  @Test
+  public void testUnsupportedFormats() {
+    Assert.assertNull(S3SelectQuery.create("parquet", Arrays.asList("id"), false, null));
+    Assert.assertNull(S3SelectQuery.create("text", Arrays.asList("body"), false, null));
+    Assert.assertNull(S3SelectQuery.create("tsv", Arrays.asList("id"), true, null));
+  }
+
+  @Test
+  public void testConf() {
+    S3SelectQuery query = S3SelectQuery.create("csv", Arrays.asList("id"), true, "s.id = '1'");
+    Map<String, String> properties = new HashMap<>();
+    query.addTo(properties);
+    Configuration conf = new Configuration();
+    for (Map.Entry<String, String> property : properties.entrySet()) {
+      conf.set(property.getKey(), property.getValue());
+    }
+    S3SelectQuery read = S3SelectQuery.fromConf(conf);
+    Assert.assertEquals(query.getExpression(), read.getExpression());
+    Assert.assertEquals(query.getHeader(), read.getHeader());
+    Assert.assertNull(S3SelectQuery.fromConf(new Configuration()));
+  }
+}
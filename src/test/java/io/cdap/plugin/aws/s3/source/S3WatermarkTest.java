@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link S3Watermark}.
+ */
+public class S3WatermarkTest {
+
+  @Test
+  public void testAdvance() {
+    S3Watermark watermark = new S3Watermark();
+    Assert.assertTrue(watermark.isNew(0L, "a"));
+
+    watermark.advance(2000L, "b");
+    watermark.advance(1000L, "a");
+    watermark.advance(2000L, "c");
+    Assert.assertEquals(2000L, watermark.getLastModified());
+    Assert.assertFalse(watermark.isNew(1000L, "a"));
+    Assert.assertFalse(watermark.isNew(2000L, "b"));
+    // written after the run at the same second as the most recent object it read
+    Assert.assertTrue(watermark.isNew(2000L, "d"));
+    Assert.assertTrue(watermark.isNew(3000L, "b"));
+
+    watermark.advance(3000L, "e");
+    Assert.assertFalse(watermark.isNew(2000L, "d"));
+    Assert.assertFalse(watermark.isNew(3000L, "e"));
+  }
+
+  @Test
+  public void testJson() {
+    S3Watermark watermark = new S3Watermark();
+    watermark.advance(2000L, "b");
+    watermark.advance(2000L, "c");
+    S3Watermark copy = S3Watermark.fromJson(watermark.toJson());
+    Assert.assertEquals(watermark, copy);
+    Assert.assertFalse(copy.isNew(2000L, "c"));
+
+    copy.advance(2000L, "d");
+    Assert.assertNotEquals(watermark, copy);
+    Assert.assertEquals(new S3Watermark(), S3Watermark.fromJson(""));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for {@link SchemaCache}.
+ */
+public class SchemaCacheTest {
+  private static final Map<String, String> PROPERTIES = ImmutableMap.of("path", "s3a://bucket/dir",
+                                                                        "format", "csv", "skipHeader", "true");
+  private static final String PATH = "s3a://bucket/dir";
+
+  @Test
+  public void testKey() {
+    MemoryS3 s3 = new MemoryS3();
+    Assert.assertNull(SchemaCache.getKey(s3, PATH, false, null, PROPERTIES));
+    s3.put("dir/b.csv", "b");
+    int listed = s3.getListed().size();
+    String key = SchemaCache.getKey(s3, PATH, false, null, PROPERTIES);
+    Assert.assertNotNull(key);
+    Assert.assertEquals(key, SchemaCache.getKey(s3, PATH, false, null, PROPERTIES));
+    // looking the key up lists the first keys of the path, as an object and as a directory, and reads no object
+    Assert.assertEquals(listed + 4, s3.getListed().size());
+    Assert.assertTrue(s3.getGets().isEmpty());
+
+    // objects that are not sampled do not change the key: objects after the first one, other directories with the
+    // same prefix, hidden objects, and objects of subdirectories when the input is not read recursively
+    s3.put("dir/c.csv", "c");
+    s3.put("dir-2/a.csv", "a");
+    s3.put("dir/_SUCCESS", "");
+    s3.put("dir/.b.csv.crc", "");
+    s3.put("dir/a/d.csv", "d");
+    s3.put("dir/", "");
+    Assert.assertEquals(key, SchemaCache.getKey(s3, PATH, false, null, PROPERTIES));
+
+    // the key changes when the sampled object is overwritten, or another object comes before it
+    s3.put("dir/b.csv", "b2");
+    String overwritten = SchemaCache.getKey(s3, PATH, false, null, PROPERTIES);
+    Assert.assertNotEquals(key, overwritten);
+    s3.put("dir/a.csv", "a");
+    Assert.assertNotEquals(overwritten, SchemaCache.getKey(s3, PATH, false, null, PROPERTIES));
+
+    // the first object of the subdirectories when the input is read recursively, and the objects that match the
+    // pattern
+    Pattern csv = Pattern.compile("^s3a://bucket/dir/a/.*\\.csv$");
+    String recursiveKey = SchemaCache.getKey(s3, PATH, true, csv, PROPERTIES);
+    s3.put("dir/a/c.json", "c");
+    s3.put("dir/a/_temporary/0/a.csv", "a");
+    Assert.assertEquals(recursiveKey, SchemaCache.getKey(s3, PATH, true, csv, PROPERTIES));
+    s3.put("dir/a/d.csv", "d2");
+    Assert.assertNotEquals(recursiveKey, SchemaCache.getKey(s3, PATH, true, csv, PROPERTIES));
+    Assert.assertNull(SchemaCache.getKey(s3, PATH, false, csv, PROPERTIES));
+
+    // an object path samples the object
+    String objectKey = SchemaCache.getKey(s3, PATH + "/c.csv", false, null, PROPERTIES);
+    Assert.assertNotNull(objectKey);
+    s3.put("dir/a.csv", "a2");
+    Assert.assertEquals(objectKey, SchemaCache.getKey(s3, PATH + "/c.csv", false, null, PROPERTIES));
+
+    // globs are not cached
+    Assert.assertNull(SchemaCache.getKey(s3, PATH + "/*.csv", false, null, PROPERTIES));
+
+    // the key changes with the properties
+    key = SchemaCache.getKey(s3, PATH, false, null, PROPERTIES);
+    Assert.assertNotEquals(key, SchemaCache.getKey(s3, PATH, false, null, ImmutableMap.of("path", PATH,
+                                                                                          "format", "tsv")));
+  }
+
+  @Test
+  public void testCache() {
+    SchemaCache.clear();
+    Schema schema = Schema.recordOf("record", Schema.Field.of("a", Schema.of(Schema.Type.STRING)));
+    SchemaCache.put("key", schema);
+    Assert.assertSame(schema, SchemaCache.get("key"));
+    Assert.assertNull(SchemaCache.get("other"));
+  }
+}
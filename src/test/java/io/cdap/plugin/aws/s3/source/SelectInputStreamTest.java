@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.amazonaws.services.s3.model.SelectObjectContentRequest;
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Tests for {@link SelectInputStream}, against a stand-in of S3 Select that answers with messages of the event
+ * stream protocol.
+ */
+public class SelectInputStreamTest {
+  private static final SelectObjectContentRequest REQUEST =
+    S3SelectQuery.create("csv", Arrays.asList("id", "name"), true, null).toRequest("bucket", "data/a.csv");
+
+  @Test
+  public void testRead() throws IOException {
+    S3Metrics.getInstance().drain();
+    MemoryS3 s3 = select(records("1,a\n2,"), records("b\n"), stats(100, 8), end());
+    try (SelectInputStream stream = new SelectInputStream(s3, REQUEST, "id,name\n", 100, S3Metrics.getInstance())) {
+      // the reader seeks to the start of its split
+      stream.seek(0);
+      Assert.assertEquals("id,name\n1,a\n2,b\n", new String(ByteStreams.toByteArray(stream), StandardCharsets.UTF_8));
+      Assert.assertEquals(16, stream.getPos());
+    }
+    Assert.assertEquals("SELECT s.\"id\", s.\"name\" FROM S3Object s", s3.getSelects().get(0).getExpression());
+    Map<String, Long> counters = S3Metrics.getInstance().drain().getCounters();
+    Assert.assertEquals(Long.valueOf(100), counters.get("select.bytes.scanned"));
+    Assert.assertEquals(Long.valueOf(8), counters.get("select.bytes.returned"));
+  }
+
+  @Test
+  public void testNoQueryUntilRead() throws IOException {
+    MemoryS3 s3 = select(records("1,a\n"), end());
+    try (SelectInputStream stream = new SelectInputStream(s3, REQUEST, "id,name\n", 100, S3Metrics.getInstance())) {
+      Assert.assertEquals('i', stream.read());
+    }
+    Assert.assertTrue(s3.getSelects().isEmpty());
+  }
+
+  @Test(expected = IOException.class)
+  public void testIncomplete() throws IOException {
+    try (SelectInputStream stream = new SelectInputStream(select(records("1,a\n")), REQUEST, null, 100,
+                                                          S3Metrics.getInstance())) {
+      ByteStreams.toByteArray(stream);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testLongerThanObject() throws IOException {
+    try (SelectInputStream stream = new SelectInputStream(select(records("1,a\n2,b\n"), end()), REQUEST, null,
+                                                          6, S3Metrics.getInstance())) {
+      ByteStreams.toByteArray(stream);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testSeek() throws IOException {
+    try (SelectInputStream stream = new SelectInputStream(select(records("1,a\n"), end()), REQUEST, null, 100,
+                                                          S3Metrics.getInstance())) {
+      stream.seek(2);
+    }
+  }
+
+  private static byte[] records(String records) throws IOException {
+    return message("Records", records.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static byte[] stats(long scanned, long returned) throws IOException {
+    String stats = String.format("<Stats><BytesScanned>%d</BytesScanned><BytesProcessed>%d</BytesProcessed>" +
+                                   "<BytesReturned>%d</BytesReturned></Stats>", scanned, scanned, returned);
+    return message("Stats", stats.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static byte[] end() throws IOException {
+    return message("End", new byte[0]);
+  }
+
+  /**
+   * Encodes a message of the event stream protocol: the prelude with the lengths and its checksum, the headers, the
+   * payload and the checksum of the message.
+   */
+  private static byte[] message(String eventType, byte[] payload) throws IOException {
+    Map<String, String> headers = new LinkedHashMap<>();
+    headers.put(":message-type", "event");
+    headers.put(":event-type", eventType);
+    headers.put(":content-type", "application/octet-stream");
+    ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    DataOutputStream headerOut = new DataOutputStream(headerBytes);
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      byte[] name = header.getKey().getBytes(StandardCharsets.UTF_8);
+      byte[] value = header.getValue().getBytes(StandardCharsets.UTF_8);
+      headerOut.writeByte(name.length);
+      headerOut.write(name);
+      // string
+      headerOut.writeByte(7);
+      headerOut.writeShort(value.length);
+      headerOut.write(value);
+    }
+
+    ByteArrayOutputStream message = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(message);
+    out.writeInt(12 + headerBytes.size() + payload.length + 4);
+    out.writeInt(headerBytes.size());
+    out.writeInt((int) crc(message.toByteArray()));
+    out.write(headerBytes.toByteArray());
+    out.write(payload);
+    out.writeInt((int) crc(message.toByteArray()));
+    return message.toByteArray();
+  }
+
+  private static long crc(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return crc.getValue();
+  }
+
+  /**
+   * Creates a client that answers S3 Select queries with the given messages.
+   */
+  private static MemoryS3 select(byte[]... messages) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (byte[] message : messages) {
+      bytes.write(message, 0, message.length);
+    }
+    MemoryS3 s3 = new MemoryS3();
+    s3.put("data/a.csv", bytes.toByteArray());
+    return s3;
+  }
+}
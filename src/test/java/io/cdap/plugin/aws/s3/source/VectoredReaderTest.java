@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package io.cdap.plugin.aws.s3.source;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.aws.s3.common.MemoryS3;
+import io.cdap.plugin.aws.s3.common.S3Metrics;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tests for {@link VectoredReader} and {@link RowGroupInputStream}.
+ */
+public class VectoredReaderTest {
+
+  @Test
+  public void testMergedRanges() throws Exception {
+    MemoryS3 s3 = MemoryS3.withObject("key", content(200));
+    VectoredReader reader = new VectoredReader(s3, "bucket", "key", s3.getETag("key"), 4, 50, S3Metrics.getInstance());
+    List<CompletableFuture<ByteBuffer>> results = reader.read(Arrays.asList(
+      range(40, 10), range(0, 10), range(12, 8), range(100, 60), range(45, 10)));
+    assertRange(40, 10, results.get(0));
+    assertRange(0, 10, results.get(1));
+    assertRange(12, 8, results.get(2));
+    assertRange(100, 60, results.get(3));
+    assertRange(45, 10, results.get(4));
+    // ranges close to each other, or overlapping, are merged, and larger ranges are read alone
+    Assert.assertEquals(new HashSet<>(Arrays.asList("0-19", "40-54", "100-159")), new HashSet<>(s3.getRanges("key")));
+    Assert.assertEquals(3, s3.getRanges("key").size());
+  }
+
+  @Test
+  public void testMaxMergedSize() throws Exception {
+    MemoryS3 s3 = MemoryS3.withObject("key", content(100));
+    VectoredReader reader = new VectoredReader(s3, "bucket", "key", s3.getETag("key"), 10, 30, S3Metrics.getInstance());
+    List<CompletableFuture<ByteBuffer>> results = reader.read(Arrays.asList(range(0, 20), range(20, 20)));
+    assertRange(0, 20, results.get(0));
+    assertRange(20, 20, results.get(1));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("0-19", "20-39")), new HashSet<>(s3.getRanges("key")));
+  }
+
+  @Test
+  public void testChangedObject() throws InterruptedException {
+    VectoredReader reader = new VectoredReader(MemoryS3.withObject("key", content(100)), "bucket", "key", "old", 4, 50,
+                                               S3Metrics.getInstance());
+    try {
+      reader.read(Arrays.asList(range(0, 10))).get(0).get();
+      Assert.fail("Expected the read of a changed object to fail");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test
+  public void testRowGroupStreamOfOtherObjects() throws IOException {
+    MemoryS3 s3 = MemoryS3.withObject("key", content(100));
+    VectoredReader reader = new VectoredReader(s3, "bucket", "key", s3.getETag("key"), 4, 50, S3Metrics.getInstance());
+    try (FSDataInputStream stream = new FSDataInputStream(new RowGroupInputStream(reader, 100, null))) {
+      Assert.assertArrayEquals(s3.getContent("key"), ByteStreams.toByteArray(stream));
+      byte[] buffer = new byte[4];
+      stream.readFully(10, buffer);
+      Assert.assertArrayEquals(new byte[] {10, 11, 12, 13}, buffer);
+    }
+    // objects that are not Parquet objects are read from their tail, which is the whole of a small object
+    Assert.assertEquals(Arrays.asList("0-99"), s3.getRanges("key"));
+  }
+
+  private static VectoredReader.Range range(long offset, long length) {
+    return new VectoredReader.Range(offset, length);
+  }
+
+  private static void assertRange(int offset, int length, CompletableFuture<ByteBuffer> result) throws Exception {
+    ByteBuffer buffer = result.get();
+    Assert.assertEquals(0, buffer.position());
+    Assert.assertEquals(length, buffer.remaining());
+    for (int i = 0; i < length; i++) {
+      Assert.assertEquals((byte) (offset + i), buffer.get());
+    }
+  }
+
+  private static byte[] content(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) i;
+    }
+    return content;
+  }
+}